@@ -36,9 +36,16 @@ application {
     mainClass.set(
         providers.gradleProperty("mainClass").orElse("org.App")
     )
+    // SwissHashTable probes with the incubating Vector API
+    applicationDefaultJvmArgs = listOf("--add-modules=jdk.incubator.vector")
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.compilerArgs.add("--add-modules=jdk.incubator.vector")
 }
 
 tasks.named<Test>("test") {
     // Use JUnit Platform for unit tests.
     useJUnitPlatform()
+    jvmArgs("--add-modules=jdk.incubator.vector")
 }
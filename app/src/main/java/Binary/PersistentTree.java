@@ -0,0 +1,428 @@
+package Binary;
+
+import java.util.*;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * An immutable, balanced (AVL) binary search tree. {@link #add} and
+ * {@link #remove} copy only the nodes on the path to the change and return a
+ * new version; every other node is shared with the old version, which stays
+ * valid and unchanged. A reference to a tree is therefore a snapshot: readers
+ * can keep iterating an old version while a writer publishes new ones (for
+ * example through a {@code volatile} field), with no copying and no locks.
+ *
+ * <p>{@link #split}, {@link #join} and the set operations built on them
+ * ({@link #union}, {@link #intersection}, {@link #difference}) follow the
+ * join-based algorithms of Blelloch, Ferizovic and Sun: combining trees of
+ * sizes m &le; n costs O(m log(n/m + 1)) instead of m separate inserts, and
+ * the two halves of every split are combined independently, on the
+ * fork/join common pool once they are large enough.
+ *
+ * @param <AnyType> the type of elements in the tree, must be comparable
+ */
+public final class PersistentTree<AnyType extends Comparable<? super AnyType>> implements Iterable<AnyType> {
+    private static final class Node<AnyType> {
+        final AnyType data;
+        final Node<AnyType> left;
+        final Node<AnyType> right;
+        final int height;
+        final int size;
+
+        Node(AnyType d, Node<AnyType> l, Node<AnyType> r) {
+            data = d;
+            left = l;
+            right = r;
+            height = 1 + Math.max(height(l), height(r));
+            size = 1 + size(l) + size(r);
+        }
+    }
+
+    /**
+     * A set operation stays in the calling thread while the smaller input has
+     * fewer elements than this; the work is O(m log(n/m + 1)) in the smaller
+     * size m, so a small tree merged into a huge one is not worth forking.
+     */
+    static final int PARALLEL_THRESHOLD = 1 << 11;
+
+    private static final PersistentTree<?> EMPTY = new PersistentTree<>(null);
+
+    /** Result of {@link #split}: the elements below and above a key, and whether the key was present. */
+    public static final class Split<AnyType extends Comparable<? super AnyType>> {
+        private final PersistentTree<AnyType> less;
+        private final boolean found;
+        private final PersistentTree<AnyType> greater;
+
+        private Split(PersistentTree<AnyType> less, boolean found, PersistentTree<AnyType> greater) {
+            this.less = less;
+            this.found = found;
+            this.greater = greater;
+        }
+
+        public PersistentTree<AnyType> less() {
+            return less;
+        }
+
+        public boolean found() {
+            return found;
+        }
+
+        public PersistentTree<AnyType> greater() {
+            return greater;
+        }
+    }
+
+    private final Node<AnyType> root;
+
+    private PersistentTree(Node<AnyType> root) {
+        this.root = root;
+    }
+
+    /** The empty tree. */
+    @SuppressWarnings("unchecked")
+    public static <AnyType extends Comparable<? super AnyType>> PersistentTree<AnyType> empty() {
+        return (PersistentTree<AnyType>) EMPTY;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /** Height of the tree; -1 for an empty tree, 0 for a single node, as in {@link BinarySearchTree}. */
+    public int height() {
+        return height(root) - 1;
+    }
+
+    public boolean contains(AnyType x) {
+        if (x == null) throw new IllegalArgumentException("Null values not allowed");
+        Node<AnyType> node = root;
+        while (node != null) {
+            int cmp = x.compareTo(node.data);
+            if (cmp == 0) return true;
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /** Returns a version that also contains {@code x}, or this tree if it already does. */
+    public PersistentTree<AnyType> add(AnyType x) {
+        if (x == null) throw new IllegalArgumentException("Null values not allowed");
+        Node<AnyType> newRoot = addHelper(root, x);
+        return newRoot == root ? this : new PersistentTree<>(newRoot);
+    }
+
+    /** Returns a version without {@code x}, or this tree if it does not contain it. */
+    public PersistentTree<AnyType> remove(AnyType x) {
+        if (x == null) throw new IllegalArgumentException("Null values not allowed");
+        Node<AnyType> newRoot = removeHelper(root, x);
+        return newRoot == root ? this : new PersistentTree<>(newRoot);
+    }
+
+    public AnyType min() {
+        if (root == null) throw new NoSuchElementException("Tree is empty");
+        Node<AnyType> node = root;
+        while (node.left != null) node = node.left;
+        return node.data;
+    }
+
+    public AnyType max() {
+        if (root == null) throw new NoSuchElementException("Tree is empty");
+        Node<AnyType> node = root;
+        while (node.right != null) node = node.right;
+        return node.data;
+    }
+
+    /** Builds a balanced tree of the distinct elements of {@code elements} in O(n) when they are already sorted. */
+    public static <AnyType extends Comparable<? super AnyType>> PersistentTree<AnyType> copyOf(Iterable<AnyType> elements) {
+        List<AnyType> sorted = new ArrayList<>();
+        for (AnyType x : elements) {
+            if (x == null) throw new IllegalArgumentException("Null values not allowed");
+            sorted.add(x);
+        }
+        sorted.sort(null); // linear on sorted input such as BinarySearchTree.inOrder()
+        int distinct = 0;
+        for (AnyType x : sorted) {
+            if (distinct == 0 || x.compareTo(sorted.get(distinct - 1)) != 0) sorted.set(distinct++, x);
+        }
+        return tree(build(sorted, 0, distinct));
+    }
+
+    /** Splits this version around {@code key} in O(log n); both halves share nodes with it. */
+    public Split<AnyType> split(AnyType key) {
+        if (key == null) throw new IllegalArgumentException("Null values not allowed");
+        boolean[] found = new boolean[1];
+        @SuppressWarnings("unchecked")
+        Node<AnyType>[] greater = new Node[1];
+        Node<AnyType> less = split(root, key, found, greater);
+        return new Split<>(wrap(less), found[0], wrap(greater[0]));
+    }
+
+    /**
+     * Concatenates this tree with {@code greater}, every element of which must
+     * be larger than every element here. O(|height difference| + 1).
+     */
+    public PersistentTree<AnyType> join(PersistentTree<AnyType> greater) {
+        Objects.requireNonNull(greater, "greater");
+        if (root != null && greater.root != null && max().compareTo(greater.min()) >= 0) {
+            throw new IllegalArgumentException("Every element of the joined tree must be greater than " + max());
+        }
+        return wrap(join2(root, greater.root));
+    }
+
+    /** Elements in this tree or in {@code other}; equal elements are taken from {@code other}. */
+    public PersistentTree<AnyType> union(PersistentTree<AnyType> other) {
+        return setOperation(SetOp.UNION, other);
+    }
+
+    /** Elements in both trees, taken from {@code other}. */
+    public PersistentTree<AnyType> intersection(PersistentTree<AnyType> other) {
+        return setOperation(SetOp.INTERSECTION, other);
+    }
+
+    /** Elements of this tree that are not in {@code other}. */
+    public PersistentTree<AnyType> difference(PersistentTree<AnyType> other) {
+        return setOperation(SetOp.DIFFERENCE, other);
+    }
+
+    /** In-order iterator over this version; later versions do not affect it. */
+    @Override
+    public Iterator<AnyType> iterator() {
+        return new Iterator<AnyType>() {
+            // Left spine of the unvisited part; at most height() + 1 deep
+            private final Deque<Node<AnyType>> stack = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<AnyType> node) {
+                for (; node != null; node = node.left) stack.push(node);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+
+            @Override
+            public AnyType next() {
+                if (stack.isEmpty()) throw new NoSuchElementException();
+                Node<AnyType> node = stack.pop();
+                pushLeft(node.right);
+                return node.data;
+            }
+        };
+    }
+
+    public Iterable<AnyType> inOrder() {
+        List<AnyType> elements = new ArrayList<>(size());
+        for (AnyType x : this) elements.add(x);
+        return elements;
+    }
+
+    private Node<AnyType> addHelper(Node<AnyType> node, AnyType x) {
+        if (node == null) return new Node<>(x, null, null);
+        int cmp = x.compareTo(node.data);
+        if (cmp < 0) {
+            Node<AnyType> left = addHelper(node.left, x);
+            return left == node.left ? node : balance(node.data, left, node.right);
+        } else if (cmp > 0) {
+            Node<AnyType> right = addHelper(node.right, x);
+            return right == node.right ? node : balance(node.data, node.left, right);
+        }
+        return node;
+    }
+
+    private Node<AnyType> removeHelper(Node<AnyType> node, AnyType x) {
+        if (node == null) return null;
+        int cmp = x.compareTo(node.data);
+        if (cmp < 0) {
+            Node<AnyType> left = removeHelper(node.left, x);
+            return left == node.left ? node : balance(node.data, left, node.right);
+        } else if (cmp > 0) {
+            Node<AnyType> right = removeHelper(node.right, x);
+            return right == node.right ? node : balance(node.data, node.left, right);
+        }
+        // Found node to remove
+        if (node.left == null) return node.right;
+        if (node.right == null) return node.left;
+        // Two children: the inorder successor takes its place
+        Node<AnyType> min = node.right;
+        while (min.left != null) min = min.left;
+        return balance(min.data, node.left, removeMin(node.right));
+    }
+
+    private static <AnyType> Node<AnyType> removeMin(Node<AnyType> node) {
+        if (node.left == null) return node.right;
+        return balance(node.data, removeMin(node.left), node.right);
+    }
+
+    private enum SetOp {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
+    private PersistentTree<AnyType> setOperation(SetOp op, PersistentTree<AnyType> other) {
+        Objects.requireNonNull(other, "other");
+        Node<AnyType> result = Math.min(size(root), size(other.root)) < PARALLEL_THRESHOLD
+                ? setOp(op, root, other.root)
+                : new SetOpTask<>(op, root, other.root).invoke();
+        return result == root ? this : result == other.root ? other : wrap(result);
+    }
+
+    private PersistentTree<AnyType> wrap(Node<AnyType> node) {
+        return node == root ? this : tree(node);
+    }
+
+    private static <AnyType extends Comparable<? super AnyType>> PersistentTree<AnyType> tree(Node<AnyType> node) {
+        return node == null ? empty() : new PersistentTree<>(node);
+    }
+
+    /**
+     * Sequential set operation. Splits {@code a} by the root of {@code b} and
+     * combines the matching halves; sizes below the threshold never fork.
+     */
+    private static <AnyType extends Comparable<? super AnyType>> Node<AnyType> setOp(SetOp op, Node<AnyType> a,
+            Node<AnyType> b) {
+        if (a == null) return op == SetOp.UNION ? b : null;
+        if (b == null) return op == SetOp.INTERSECTION ? null : a;
+        boolean[] found = new boolean[1];
+        @SuppressWarnings("unchecked")
+        Node<AnyType>[] greater = new Node[1];
+        Node<AnyType> less = split(a, b.data, found, greater);
+        Node<AnyType> left = setOp(op, less, b.left);
+        Node<AnyType> right = setOp(op, greater[0], b.right);
+        return combine(op, left, b.data, found[0], right);
+    }
+
+    private static <AnyType extends Comparable<? super AnyType>> Node<AnyType> combine(SetOp op,
+            Node<AnyType> left, AnyType key, boolean found, Node<AnyType> right) {
+        boolean keep = op == SetOp.UNION || (op == SetOp.INTERSECTION && found);
+        return keep ? join(left, key, right) : join2(left, right);
+    }
+
+    /** Fork/join version of {@link #setOp}: the left halves run in a forked task. */
+    private static final class SetOpTask<AnyType extends Comparable<? super AnyType>> extends RecursiveTask<Node<AnyType>> {
+        private final SetOp op;
+        private final Node<AnyType> a;
+        private final Node<AnyType> b;
+
+        SetOpTask(SetOp op, Node<AnyType> a, Node<AnyType> b) {
+            this.op = op;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Node<AnyType> compute() {
+            if (Math.min(size(a), size(b)) < PARALLEL_THRESHOLD) {
+                return setOp(op, a, b);
+            }
+            boolean[] found = new boolean[1];
+            @SuppressWarnings("unchecked")
+            Node<AnyType>[] greater = new Node[1];
+            Node<AnyType> less = split(a, b.data, found, greater);
+            SetOpTask<AnyType> left = new SetOpTask<>(op, less, b.left);
+            left.fork();
+            Node<AnyType> right = new SetOpTask<>(op, greater[0], b.right).compute();
+            return combine(op, left.join(), b.data, found[0], right);
+        }
+    }
+
+    /** Returns the part of {@code node} below {@code key}; the part above goes to {@code greater[0]}. */
+    private static <AnyType extends Comparable<? super AnyType>> Node<AnyType> split(Node<AnyType> node, AnyType key,
+            boolean[] found, Node<AnyType>[] greater) {
+        if (node == null) {
+            greater[0] = null;
+            return null;
+        }
+        int cmp = key.compareTo(node.data);
+        if (cmp == 0) {
+            found[0] = true;
+            greater[0] = node.right;
+            return node.left;
+        }
+        if (cmp < 0) {
+            Node<AnyType> less = split(node.left, key, found, greater);
+            greater[0] = join(greater[0], node.data, node.right);
+            return less;
+        }
+        Node<AnyType> less = split(node.right, key, found, greater);
+        return join(node.left, node.data, less);
+    }
+
+    /** Joins two trees and a middle element, all in order, into one AVL tree. */
+    private static <AnyType> Node<AnyType> join(Node<AnyType> l, AnyType data, Node<AnyType> r) {
+        int hl = height(l);
+        int hr = height(r);
+        if (hl > hr + 1) return joinRight(l, data, r);
+        if (hr > hl + 1) return joinLeft(l, data, r);
+        return new Node<>(data, l, r);
+    }
+
+    /** {@code l} is taller: walk down its right spine to a subtree about as tall as {@code r}. */
+    private static <AnyType> Node<AnyType> joinRight(Node<AnyType> l, AnyType data, Node<AnyType> r) {
+        if (height(l.right) <= height(r) + 1) {
+            return balance(l.data, l.left, new Node<>(data, l.right, r));
+        }
+        return balance(l.data, l.left, joinRight(l.right, data, r));
+    }
+
+    private static <AnyType> Node<AnyType> joinLeft(Node<AnyType> l, AnyType data, Node<AnyType> r) {
+        if (height(r.left) <= height(l) + 1) {
+            return balance(r.data, new Node<>(data, l, r.left), r.right);
+        }
+        return balance(r.data, joinLeft(l, data, r.left), r.right);
+    }
+
+    /** Joins two trees without a middle element; the largest element of {@code l} becomes it. */
+    private static <AnyType> Node<AnyType> join2(Node<AnyType> l, Node<AnyType> r) {
+        if (l == null) return r;
+        if (r == null) return l;
+        Node<AnyType> max = l;
+        while (max.right != null) max = max.right;
+        return join(removeMax(l), max.data, r);
+    }
+
+    private static <AnyType> Node<AnyType> removeMax(Node<AnyType> node) {
+        if (node.right == null) return node.left;
+        return balance(node.data, node.left, removeMax(node.right));
+    }
+
+    private static <AnyType> Node<AnyType> build(List<AnyType> sorted, int lo, int hi) {
+        if (lo >= hi) return null;
+        int mid = (lo + hi) >>> 1;
+        return new Node<>(sorted.get(mid), build(sorted, lo, mid), build(sorted, mid + 1, hi));
+    }
+
+    /** Builds a node from subtrees whose heights differ by at most two, rotating it back into AVL shape. */
+    private static <AnyType> Node<AnyType> balance(AnyType data, Node<AnyType> l, Node<AnyType> r) {
+        int hl = height(l);
+        int hr = height(r);
+        if (hl > hr + 1) {
+            if (height(l.left) >= height(l.right)) {
+                return new Node<>(l.data, l.left, new Node<>(data, l.right, r));
+            }
+            return new Node<>(l.right.data, new Node<>(l.data, l.left, l.right.left),
+                    new Node<>(data, l.right.right, r));
+        }
+        if (hr > hl + 1) {
+            if (height(r.right) >= height(r.left)) {
+                return new Node<>(r.data, new Node<>(data, l, r.left), r.right);
+            }
+            return new Node<>(r.left.data, new Node<>(data, l, r.left.left),
+                    new Node<>(r.data, r.left.right, r.right));
+        }
+        return new Node<>(data, l, r);
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+}
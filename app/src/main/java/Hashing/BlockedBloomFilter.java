@@ -0,0 +1,120 @@
+package Hashing;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Bloom filter split into 512-bit blocks, one cache line each. A key's hash
+ * picks one block and sets (or tests) all of its k bits inside that block, so
+ * a query reads a single cache line instead of k scattered ones. The price is
+ * a slightly higher false-positive rate than a classic Bloom filter with the
+ * same number of bits, which the sizing makes up with about 10% more bits.
+ * (The JVM does not align arrays to cache lines, so a block may straddle two
+ * adjacent lines; it is still one contiguous 64-byte read.)
+ *
+ * <p>Keys cannot be removed; see {@link CuckooFilter} for that.
+ */
+public class BlockedBloomFilter<K> implements MembershipFilter<K> {
+  private static final int BLOCK_BITS = 512;
+  private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+  private static final int MAX_HASHES = 16;
+  // Blocking concentrates bits unevenly; this many more bits keeps the target rate
+  private static final double BLOCKING_OVERHEAD = 1.1;
+  private static final SecureRandom SEEDS = new SecureRandom();
+
+  private final long[] bits;
+  private final int blocks;
+  private final int hashes;
+  private final int capacity;
+  private final double falsePositiveRate;
+  private final long seed = SEEDS.nextLong();
+
+  /**
+   * @param expectedEntries   keys the filter should hold at {@code falsePositiveRate}
+   * @param falsePositiveRate target rate, in (0, 1)
+   */
+  public BlockedBloomFilter(int expectedEntries, double falsePositiveRate) {
+    if (expectedEntries < 1) {
+      throw new IllegalArgumentException("Expected entries must be at least 1");
+    }
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException("False-positive rate must be in (0, 1)");
+    }
+    double bitsPerKey = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+    this.hashes = (int) Math.max(1, Math.min(MAX_HASHES, Math.round(bitsPerKey * Math.log(2))));
+    long totalBits = (long) Math.ceil(expectedEntries * bitsPerKey * BLOCKING_OVERHEAD);
+    long blockCount = Math.max(1, (totalBits + BLOCK_BITS - 1) / BLOCK_BITS);
+    if (blockCount * BLOCK_LONGS > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Filter too large");
+    }
+    this.blocks = (int) blockCount;
+    this.bits = new long[blocks * BLOCK_LONGS];
+    this.capacity = expectedEntries;
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  /** For {@link FilteredHashTable}: makes filters for a given number of keys. */
+  public static <K> IntFunction<MembershipFilter<K>> factory(double falsePositiveRate) {
+    return expectedEntries -> new BlockedBloomFilter<>(expectedEntries, falsePositiveRate);
+  }
+
+  @Override
+  public boolean mightContain(K key) {
+    long h = KeyHash.hash(key, seed);
+    int base = block(h);
+    int a = (int) h & (BLOCK_BITS - 1);
+    int b = (int) (h >>> 9) & (BLOCK_BITS - 1) | 1;
+    for (int i = 0; i < hashes; i++) {
+      int bit = (a + i * b) & (BLOCK_BITS - 1);
+      if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public boolean add(K key) {
+    long h = KeyHash.hash(key, seed);
+    int base = block(h);
+    int a = (int) h & (BLOCK_BITS - 1);
+    // Odd step: the k positions are distinct
+    int b = (int) (h >>> 9) & (BLOCK_BITS - 1) | 1;
+    for (int i = 0; i < hashes; i++) {
+      int bit = (a + i * b) & (BLOCK_BITS - 1);
+      bits[base + (bit >>> 6)] |= 1L << bit;
+    }
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(bits, 0);
+  }
+
+  @Override
+  public int capacity() {
+    return capacity;
+  }
+
+  @Override
+  public double targetFalsePositiveRate() {
+    return falsePositiveRate;
+  }
+
+  @Override
+  public long sizeInBytes() {
+    return (long) bits.length * Long.BYTES;
+  }
+
+  /** Bits set per key. */
+  public int hashes() {
+    return hashes;
+  }
+
+  /** Index of the first long of the key's block, from the hash's upper 32 bits. */
+  private int block(long h) {
+    return (int) (((h >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+  }
+}
@@ -0,0 +1,251 @@
+package Hashing;
+
+import java.util.Objects;
+
+/**
+ * Size-bounded cache built from a {@link HashTable} index and intrusive doubly
+ * linked recency lists (the node layout of {@link Lists.LinkedDeque}, with the
+ * key added so an evicted node can be removed from the index).
+ *
+ * <p>{@link Admission#LRU} keeps one list and evicts its tail. With
+ * {@link Admission#TINY_LFU} new entries first go through a small LRU window
+ * (1% of the capacity); an entry leaving the window only enters the main
+ * space if the {@link FrequencySketch} has seen it more often than the main
+ * eviction victim (W-TinyLFU). The main space is a segmented LRU: admitted
+ * entries start in probation and move to the protected segment on their next
+ * hit. Both {@code get} and {@code put} are O(1).
+ */
+public class BoundedCache<K, V> {
+
+  public enum Admission {
+    LRU, TINY_LFU
+  }
+
+  private static final class Node<K, V> {
+    public final K key;
+    public V value;
+    public Node<K, V> next;
+    public Node<K, V> prev;
+    public RecencyList<K, V> owner;
+
+    public Node(K key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  /** Most recently used entry at the head, eviction candidate at the tail. */
+  private static final class RecencyList<K, V> {
+    private Node<K, V> head, tail;
+    private int size;
+
+    void addFirst(Node<K, V> node) {
+      node.owner = this;
+      node.prev = null;
+      node.next = head;
+      if (head == null) {
+        tail = node;
+      } else {
+        head.prev = node;
+      }
+      head = node;
+      size++;
+    }
+
+    void unlink(Node<K, V> node) {
+      if (node.prev == null) {
+        head = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        tail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = node.next = null;
+      node.owner = null;
+      size--;
+    }
+
+    void moveToFront(Node<K, V> node) {
+      if (head != node) {
+        unlink(node);
+        addFirst(node);
+      }
+    }
+
+    void clear() {
+      head = tail = null;
+      size = 0;
+    }
+
+    Node<K, V> removeLast() {
+      Node<K, V> last = tail;
+      if (last != null) {
+        unlink(last);
+      }
+      return last;
+    }
+  }
+
+  private final HashTable<K, Node<K, V>> table;
+  private final int maximumSize;
+  private final Admission admission;
+  private final FrequencySketch<K> sketch;
+  private final RecencyList<K, V> window = new RecencyList<>();
+  private final RecencyList<K, V> probation = new RecencyList<>();
+  private final RecencyList<K, V> protectedList = new RecencyList<>();
+  private final int windowMax;
+  private final int protectedMax;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  public BoundedCache(int maximumSize) {
+    this(maximumSize, Admission.LRU);
+  }
+
+  public BoundedCache(int maximumSize, Admission admission) {
+    if (maximumSize <= 0) {
+      throw new IllegalArgumentException("Maximum size must be greater than zero");
+    }
+    this.maximumSize = maximumSize;
+    this.admission = Objects.requireNonNull(admission, "admission");
+    this.table = new HashTable<>(16, 0.75);
+    this.table.ensureCapacity(maximumSize + 1);
+    this.sketch = admission == Admission.TINY_LFU ? new FrequencySketch<>(maximumSize) : null;
+    this.windowMax = admission == Admission.TINY_LFU ? Math.max(1, maximumSize / 100) : 0;
+    this.protectedMax = (maximumSize - windowMax) * 4 / 5;
+  }
+
+  public int size() {
+    return table.size();
+  }
+
+  public int maximumSize() {
+    return maximumSize;
+  }
+
+  public Admission admission() {
+    return admission;
+  }
+
+  public long hitCount() {
+    return hits;
+  }
+
+  public long missCount() {
+    return misses;
+  }
+
+  public long evictionCount() {
+    return evictions;
+  }
+
+  public double hitRate() {
+    long requests = hits + misses;
+    return requests == 0 ? 1.0 : (double) hits / requests;
+  }
+
+  /** Returns the cached value, or {@code null} on a miss. A hit marks the entry as most recently used. */
+  public V get(K key) {
+    Objects.requireNonNull(key, "key");
+    if (sketch != null) {
+      sketch.increment(key);
+    }
+    Node<K, V> node = table.get(key);
+    if (node == null) {
+      misses++;
+      return null;
+    }
+    hits++;
+    touch(node);
+    return node.value;
+  }
+
+  /** Inserts or replaces a value, evicting an entry if the cache is full. Returns the previous value. */
+  public V put(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(value, "value");
+    if (sketch != null) {
+      sketch.increment(key);
+    }
+    Node<K, V> node = table.get(key);
+    if (node != null) {
+      V old = node.value;
+      node.value = value;
+      touch(node);
+      return old;
+    }
+
+    node = new Node<>(key, value);
+    table.put(key, node);
+    if (admission == Admission.LRU) {
+      probation.addFirst(node);
+      if (probation.size > maximumSize) {
+        evict(probation.removeLast());
+      }
+    } else {
+      window.addFirst(node);
+      if (window.size > windowMax) {
+        admit(window.removeLast());
+      }
+    }
+    return null;
+  }
+
+  public V remove(K key) {
+    Objects.requireNonNull(key, "key");
+    Node<K, V> node = table.remove(key);
+    if (node == null) {
+      return null;
+    }
+    node.owner.unlink(node);
+    return node.value;
+  }
+
+  public void clear() {
+    table.clear();
+    window.clear();
+    probation.clear();
+    protectedList.clear();
+  }
+
+  /** Marks a node as most recently used; a probation hit under TinyLFU promotes it to protected. */
+  private void touch(Node<K, V> node) {
+    if (node.owner != probation || admission == Admission.LRU) {
+      node.owner.moveToFront(node);
+      return;
+    }
+    probation.unlink(node);
+    protectedList.addFirst(node);
+    if (protectedList.size > protectedMax) {
+      probation.addFirst(protectedList.removeLast());
+    }
+  }
+
+  /** Moves an entry leaving the window into probation, or evicts it if it loses to the probation victim. */
+  private void admit(Node<K, V> candidate) {
+    if (table.size() <= maximumSize) {
+      probation.addFirst(candidate);
+      return;
+    }
+    Node<K, V> victim = probation.tail;
+    if (victim == null) {
+      victim = protectedList.tail;
+    }
+    if (victim != null && sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+      victim.owner.unlink(victim);
+      evict(victim);
+      probation.addFirst(candidate);
+    } else {
+      evict(candidate);
+    }
+  }
+
+  private void evict(Node<K, V> node) {
+    table.remove(node.key);
+    evictions++;
+  }
+}
@@ -0,0 +1,58 @@
+package Hashing;
+
+import java.util.SplittableRandom;
+
+/**
+ * Hand-run benchmark of {@link BoundedCache} under Zipfian access. Each miss
+ * is followed by a put, as a read-through cache in front of a registry would.
+ * A cyclic scan is mixed in to show how TinyLFU admission resists pollution.
+ *
+ * CLI:
+ * args[0] = distinct keys (default 1000000)
+ * args[1] = operations per run (default 5000000)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.BoundedCacheBenchmark --args="1000000 5000000"
+ */
+public class BoundedCacheBenchmark {
+  public static void main(String[] args) {
+    int items = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int ops = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+
+    long[] trace = new long[ops];
+    ZipfianGenerator zipf = new ZipfianGenerator(items, 42);
+    SplittableRandom rng = new SplittableRandom(42);
+    long scan = 0;
+    for (int i = 0; i < ops; i++) {
+      // 20% of requests walk through the key space one after another
+      trace[i] = rng.nextInt(5) == 0 ? scan++ % items : scramble(zipf.next(), items);
+    }
+
+    System.out.println("items=" + items + " ops=" + ops);
+    for (int percent : new int[] { 1, 5, 10 }) {
+      int capacity = Math.max(1, items / 100 * percent);
+      for (BoundedCache.Admission admission : BoundedCache.Admission.values()) {
+        run(trace, capacity, admission);
+      }
+    }
+  }
+
+  private static void run(long[] trace, int capacity, BoundedCache.Admission admission) {
+    BoundedCache<Long, Long> cache = new BoundedCache<>(capacity, admission);
+    long t0 = System.nanoTime();
+    for (long key : trace) {
+      Long boxed = key;
+      if (cache.get(boxed) == null) {
+        cache.put(boxed, boxed);
+      }
+    }
+    long elapsed = System.nanoTime() - t0;
+    System.out.printf("capacity=%-8d %-8s hitRate=%.4f evictions=%-9d %.1f ns/op%n",
+        capacity, admission, cache.hitRate(), cache.evictionCount(), elapsed / (double) trace.length);
+  }
+
+  /** Spreads popular item numbers over the key space so they do not share buckets. */
+  private static long scramble(long item, int items) {
+    return (item * 0x9E3779B97F4A7C15L >>> 1) % items;
+  }
+}
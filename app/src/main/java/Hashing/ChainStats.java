@@ -0,0 +1,136 @@
+package Hashing;
+
+import java.util.Arrays;
+
+/**
+ * Chain-length statistics over a set of buckets. Everything is kept as exact
+ * integer sums (entries, sum of squared chain lengths, a histogram of chain
+ * lengths), so statistics built for separate tables or bucket ranges can be
+ * merged in any order and give the same result as one pass over all buckets.
+ * The same sums let {@link HashTable} keep its statistics up to date on every
+ * insert and removal; see {@link HashTable#stats()}.
+ */
+public final class ChainStats {
+  private long buckets;
+  private long entries;
+  private long sumSquares;
+  private long nonEmpty;
+  private int maxChain;
+  private long[] histogram = new long[8];
+
+  public ChainStats() {
+  }
+
+  /** Snapshot of totals kept incrementally by a table; {@code histogram[0]} counts empty buckets. */
+  ChainStats(long entries, long sumSquares, int maxChain, long[] histogram) {
+    this.histogram = histogram;
+    for (long count : histogram) {
+      this.buckets += count;
+    }
+    this.entries = entries;
+    this.sumSquares = sumSquares;
+    this.nonEmpty = buckets - histogram[0];
+    this.maxChain = maxChain;
+  }
+
+  public static ChainStats of(int[] bucketSizes) {
+    ChainStats stats = new ChainStats();
+    for (int size : bucketSizes) {
+      stats.add(size);
+    }
+    return stats;
+  }
+
+  /** Records one bucket holding {@code chainLength} entries. */
+  public void add(int chainLength) {
+    buckets++;
+    entries += chainLength;
+    sumSquares += (long) chainLength * chainLength;
+    if (chainLength > 0) {
+      nonEmpty++;
+    }
+    if (chainLength > maxChain) {
+      maxChain = chainLength;
+    }
+    if (chainLength >= histogram.length) {
+      histogram = Arrays.copyOf(histogram, Math.max(chainLength + 1, histogram.length * 2));
+    }
+    histogram[chainLength]++;
+  }
+
+  /** Adds the buckets of {@code other} to these statistics and returns {@code this}. */
+  public ChainStats merge(ChainStats other) {
+    buckets += other.buckets;
+    entries += other.entries;
+    sumSquares += other.sumSquares;
+    nonEmpty += other.nonEmpty;
+    maxChain = Math.max(maxChain, other.maxChain);
+    if (other.histogram.length > histogram.length) {
+      histogram = Arrays.copyOf(histogram, other.histogram.length);
+    }
+    for (int i = 0; i < other.histogram.length; i++) {
+      histogram[i] += other.histogram[i];
+    }
+    return this;
+  }
+
+  public long buckets() {
+    return buckets;
+  }
+
+  public long entries() {
+    return entries;
+  }
+
+  public long nonEmptyBuckets() {
+    return nonEmpty;
+  }
+
+  public int maxChain() {
+    return maxChain;
+  }
+
+  public double mean() {
+    return buckets == 0 ? 0.0 : entries / (double) buckets;
+  }
+
+  /** Population variance of the chain lengths. */
+  public double variance() {
+    if (buckets == 0) {
+      return 0.0;
+    }
+    double mean = mean();
+    return Math.max(0.0, sumSquares / (double) buckets - mean * mean);
+  }
+
+  public double stdDev() {
+    return Math.sqrt(variance());
+  }
+
+  /** Number of buckets holding exactly {@code chainLength} entries. */
+  public long bucketsWithChainLength(int chainLength) {
+    return chainLength < histogram.length ? histogram[chainLength] : 0;
+  }
+
+  /** Histogram of chain lengths, index {@code i} counting the buckets of length {@code i}. */
+  public long[] histogram() {
+    return Arrays.copyOf(histogram, maxChain + 1);
+  }
+
+  /**
+   * Pearson's chi-squared statistic of the chain lengths against a uniform
+   * spread of the entries over all buckets.
+   */
+  public double chiSquared() {
+    double mean = mean();
+    return mean == 0.0 ? 0.0 : sumSquares / mean - entries;
+  }
+
+  /**
+   * Chi-squared divided by its degrees of freedom. A random hash function
+   * gives about 1.0; clearly larger values mean keys are clustering.
+   */
+  public double uniformity() {
+    return buckets <= 1 ? 1.0 : chiSquared() / (buckets - 1);
+  }
+}
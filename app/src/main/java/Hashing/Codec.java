@@ -0,0 +1,52 @@
+package Hashing;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts keys or values to bytes and back, for tables that keep a copy of
+ * their contents on disk ({@link DurableHashTable}). {@code decode(encode(x))}
+ * must equal {@code x}; {@code null} is handled by the caller and never
+ * passed in.
+ */
+public interface Codec<T> {
+  byte[] encode(T value);
+
+  T decode(byte[] bytes);
+
+  Codec<String> STRING = new Codec<>() {
+    @Override
+    public byte[] encode(String value) {
+      return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String decode(byte[] bytes) {
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+  };
+
+  Codec<Integer> INTEGER = new Codec<>() {
+    @Override
+    public byte[] encode(Integer value) {
+      return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+    }
+
+    @Override
+    public Integer decode(byte[] bytes) {
+      return ByteBuffer.wrap(bytes).getInt();
+    }
+  };
+
+  Codec<Long> LONG = new Codec<>() {
+    @Override
+    public byte[] encode(Long value) {
+      return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+    }
+
+    @Override
+    public Long decode(byte[] bytes) {
+      return ByteBuffer.wrap(bytes).getLong();
+    }
+  };
+}
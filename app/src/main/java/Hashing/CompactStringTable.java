@@ -0,0 +1,216 @@
+package Hashing;
+
+import Vehicles.Vehicle;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Hash table from string keys to values that keeps no key objects. A key's
+ * characters are copied once into a {@link KeyArena} as Latin-1 bytes; the
+ * table stores the key's {@code long} handle and its hash in parallel arrays
+ * next to the values, and probes them linearly. A lookup compares the stored
+ * hash first and the arena bytes only when it matches, so a hit reads one
+ * run of key bytes and a miss usually none.
+ *
+ * <p>Per entry that is a {@code long}, an {@code int} and a value reference
+ * in the arrays plus the key's bytes, against an {@code Entry}, a chain node,
+ * a key object and its {@code String} in {@link HashTable}. Keys are stored
+ * as given ({@link #put(Vehicle, Object)} stores the canonical plate) and
+ * must be {@link KeyArena#isStorable Latin-1}. Removing a key frees its slot
+ * but not its arena bytes. Not thread-safe.
+ */
+public class CompactStringTable<V> {
+  public static final int DEFAULT_CAPACITY = 16;
+  private static final double LOAD_FACTOR = 0.75;
+  private static final long EMPTY = -1;
+  private static final SecureRandom SEEDS = new SecureRandom();
+
+  private final KeyArena arena;
+  private final int seed = SEEDS.nextInt();
+  private long[] handles;
+  private int[] hashes;
+  private V[] values;
+  private int mask;
+  private int threshold;
+  private int size;
+
+  public CompactStringTable() {
+    this(new KeyArena(), DEFAULT_CAPACITY);
+  }
+
+  /** @param expectedEntries keys the table should take without resizing */
+  public CompactStringTable(int expectedEntries) {
+    this(new KeyArena(), expectedEntries);
+  }
+
+  /** @param arena where new keys are copied; may be shared with other tables */
+  public CompactStringTable(KeyArena arena, int expectedEntries) {
+    if (expectedEntries < 0) {
+      throw new IllegalArgumentException("Expected entries must be non-negative");
+    }
+    this.arena = Objects.requireNonNull(arena, "arena");
+    long slots = Math.max(DEFAULT_CAPACITY, (long) Math.ceil(expectedEntries / LOAD_FACTOR));
+    if (slots > 1 << 30) {
+      throw new IllegalArgumentException("Too many entries: " + expectedEntries);
+    }
+    allocate(Integer.highestOneBit((int) slots - 1) << 1);
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Number of slots. */
+  public int capacity() {
+    return handles.length;
+  }
+
+  public KeyArena arena() {
+    return arena;
+  }
+
+  public V get(CharSequence key) {
+    int slot = find(key);
+    return slot < 0 ? null : values[slot];
+  }
+
+  public V get(Vehicle vehicle) {
+    return get(vehicle.regNumber());
+  }
+
+  public boolean containsKey(CharSequence key) {
+    return find(key) >= 0;
+  }
+
+  public boolean containsKey(Vehicle vehicle) {
+    return containsKey(vehicle.regNumber());
+  }
+
+  /**
+   * Maps {@code key} to {@code value}; a new key is copied into the arena.
+   *
+   * @throws IllegalArgumentException if {@code key} is not Latin-1
+   */
+  public V put(CharSequence key, V value) {
+    Objects.requireNonNull(key, "key");
+    int h = KeyArena.hash(key, seed);
+    int i = h & mask;
+    while (handles[i] != EMPTY) {
+      if (hashes[i] == h && arena.matches(handles[i], key)) {
+        V previous = values[i];
+        values[i] = value;
+        return previous;
+      }
+      i = (i + 1) & mask;
+    }
+    handles[i] = arena.add(key);
+    hashes[i] = h;
+    values[i] = value;
+    if (++size > threshold) {
+      resize(handles.length * 2);
+    }
+    return null;
+  }
+
+  public V put(Vehicle vehicle, V value) {
+    return put(vehicle.regNumber(), value);
+  }
+
+  public V remove(CharSequence key) {
+    int slot = find(key);
+    if (slot < 0) {
+      return null;
+    }
+    V previous = values[slot];
+    deleteSlot(slot);
+    size--;
+    return previous;
+  }
+
+  public V remove(Vehicle vehicle) {
+    return remove(vehicle.regNumber());
+  }
+
+  /** Calls {@code action} for every entry, with each key copied out as a {@code String}. */
+  public void forEach(BiConsumer<? super String, ? super V> action) {
+    for (int i = 0; i < handles.length; i++) {
+      if (handles[i] != EMPTY) {
+        action.accept(arena.toString(handles[i]), values[i]);
+      }
+    }
+  }
+
+  private int find(CharSequence key) {
+    Objects.requireNonNull(key, "key");
+    int h = KeyArena.hash(key, seed);
+    int i = h & mask;
+    while (handles[i] != EMPTY) {
+      if (hashes[i] == h && arena.matches(handles[i], key)) {
+        return i;
+      }
+      i = (i + 1) & mask;
+    }
+    return -1;
+  }
+
+  /** Empties a slot and moves later entries of the probe run back so that none is cut off from its home slot. */
+  private void deleteSlot(int hole) {
+    int j = hole;
+    while (true) {
+      j = (j + 1) & mask;
+      if (handles[j] == EMPTY) {
+        break;
+      }
+      int home = hashes[j] & mask;
+      // The entry at j may fill the hole unless its home lies cyclically in (hole, j]
+      boolean homeBetween = hole <= j ? (home > hole && home <= j) : (home > hole || home <= j);
+      if (!homeBetween) {
+        handles[hole] = handles[j];
+        hashes[hole] = hashes[j];
+        values[hole] = values[j];
+        hole = j;
+      }
+    }
+    handles[hole] = EMPTY;
+    values[hole] = null;
+  }
+
+  private void resize(int newCapacity) {
+    if (newCapacity <= 0 || newCapacity > 1 << 30) {
+      throw new IllegalStateException("Table is full");
+    }
+    long[] oldHandles = handles;
+    int[] oldHashes = hashes;
+    V[] oldValues = values;
+    allocate(newCapacity);
+    // The stored hashes place every key without reading the arena
+    for (int i = 0; i < oldHandles.length; i++) {
+      if (oldHandles[i] != EMPTY) {
+        int j = oldHashes[i] & mask;
+        while (handles[j] != EMPTY) {
+          j = (j + 1) & mask;
+        }
+        handles[j] = oldHandles[i];
+        hashes[j] = oldHashes[i];
+        values[j] = oldValues[i];
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private void allocate(int capacity) {
+    handles = new long[capacity];
+    Arrays.fill(handles, EMPTY);
+    hashes = new int[capacity];
+    values = (V[]) new Object[capacity];
+    mask = capacity - 1;
+    threshold = (int) (capacity * LOAD_FACTOR);
+  }
+}
@@ -0,0 +1,102 @@
+package Hashing;
+
+import Memory.Footprint;
+import Memory.ObjectLayout;
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+
+import java.util.SplittableRandom;
+
+/**
+ * Hand-run comparison of {@link CompactStringTable} with {@link HashTable}
+ * keyed by {@link Vehicle} (as in {@link Vehicles.ExperimentVehicles}) and by
+ * plate {@code String}, on the same plates. Memory is the tables' own
+ * objects measured with {@link Footprint} plus, for {@link HashTable}, the key
+ * objects ({@code Vehicle}, {@code String} and its byte array) sized with
+ * {@link ObjectLayout}; the values are shared and not counted. Lookups are
+ * random hits by plate text.
+ *
+ * CLI:
+ * args[0] = entries (default 1000000)
+ * args[1] = lookups (default 10000000)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.CompactStringTableBenchmark --args="1000000 10000000"
+ */
+public class CompactStringTableBenchmark {
+  private static final long SEED = 42;
+  private static final long STRIDE = 1_000_003;
+
+  private interface Lookup {
+    Object get(int i);
+  }
+
+  public static void main(String[] args) {
+    int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+    if (entries < 1 || entries > PlateCodec.PLATE_COUNT) {
+      throw new IllegalArgumentException("Entries must be in [1, " + PlateCodec.PLATE_COUNT + "]");
+    }
+
+    // Distinct scattered plates, see SwissHashTableBenchmark
+    SplittableRandom rng = new SplittableRandom(SEED);
+    long offset = rng.nextInt(PlateCodec.PLATE_COUNT);
+    Vehicle[] vehicles = new Vehicle[entries];
+    String[] plates = new String[entries];
+    for (int i = 0; i < entries; i++) {
+      vehicles[i] = Vehicle.ofPlateCode((int) ((offset + i * STRIDE) % PlateCodec.PLATE_COUNT));
+      plates[i] = vehicles[i].regNumber();
+    }
+    Integer value = 1;
+
+    HashTable<Vehicle, Integer> byVehicle = new HashTable<>();
+    HashTable<String, Integer> byString = new HashTable<>();
+    CompactStringTable<Integer> compact = new CompactStringTable<>();
+    for (int i = 0; i < entries; i++) {
+      byVehicle.put(vehicles[i], value);
+      // A copy, so the String table owns its keys like the compact table does
+      byString.put(new String(plates[i]), value);
+      compact.put(plates[i], value);
+    }
+
+    ObjectLayout layout = ObjectLayout.current();
+    long stringBytes = layout.shallowSize(String.class) + layout.arraySize(byte[].class, PlateCodec.PLATE_LENGTH);
+    long vehicleBytes = layout.shallowSize(Vehicle.class) + stringBytes;
+    double vehicleTable = Footprint.of(byVehicle).bytesPerEntry(entries) + vehicleBytes;
+    double stringTable = Footprint.of(byString).bytesPerEntry(entries) + stringBytes;
+    double compactTable = Footprint.of(compact).bytesPerEntry(entries);
+
+    int[] order = new int[lookups];
+    for (int i = 0; i < lookups; i++) {
+      order[i] = rng.nextInt(entries);
+    }
+    System.out.println("entries=" + entries + " lookups=" + lookups + " seed=" + SEED);
+    System.out.println("Layout: " + layout);
+    System.out.printf("%-28s %12s %16s %10s%n", "table", "bytes/entry", "GiB per 100M", "ns/get");
+    report("HashTable<Vehicle, V>", vehicleTable, i -> byVehicle.get(vehicles[i]), order);
+    report("HashTable<String, V>", stringTable, i -> byString.get(plates[i]), order);
+    report("CompactStringTable<V>", compactTable, i -> compact.get(plates[i]), order);
+  }
+
+  private static void report(String name, double bytesPerEntry, Lookup table, int[] order) {
+    run(table, order); // warm-up
+    long t0 = System.nanoTime();
+    long found = run(table, order);
+    long t1 = System.nanoTime();
+    if (found != order.length) {
+      throw new IllegalStateException(name + " returned wrong results");
+    }
+    System.out.printf("%-28s %12.1f %16.1f %10.1f%n", name, bytesPerEntry, bytesPerEntry * 1e8 / (1L << 30),
+        (double) (t1 - t0) / order.length);
+  }
+
+  private static long run(Lookup table, int[] order) {
+    long found = 0;
+    for (int i : order) {
+      if (table.get(i) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,222 @@
+package Hashing;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Cuckoo filter: each key is stored as a short fingerprint in one of two
+ * buckets of four slots. The second bucket is the first one XOR a hash of the
+ * fingerprint, so a fingerprint can be moved between its two buckets without
+ * knowing the key; an insert into two full buckets evicts a fingerprint to
+ * its other bucket, and so on, for at most {@value #MAX_KICKS} moves.
+ *
+ * <p>Unlike a Bloom filter it supports {@link #remove}. A query reads at most
+ * two buckets of 8 bytes each. The false-positive rate is about
+ * {@code 8 / 2^f} for f-bit fingerprints, so f is chosen from the target rate
+ * (4 to 16 bits; rates below {@code 8 / 2^16} cannot be met).
+ */
+public class CuckooFilter<K> implements MembershipFilter<K> {
+  private static final int SLOTS = 4;
+  /** Share of slots that can be filled before inserts start failing. */
+  private static final double MAX_LOAD = 0.95;
+  private static final int MAX_KICKS = 500;
+  private static final int MIN_FINGERPRINT_BITS = 4;
+  private static final int MAX_FINGERPRINT_BITS = 16;
+  private static final SecureRandom SEEDS = new SecureRandom();
+
+  // SLOTS fingerprints per bucket; 0 marks an empty slot
+  private final short[] slots;
+  private final int bucketMask;
+  private final int fingerprintBits;
+  private final int capacity;
+  private final double falsePositiveRate;
+  private final long seed = SEEDS.nextLong();
+  private int count;
+  // A fingerprint left over by an insert that ran out of kicks; while set the filter is full
+  private boolean hasVictim;
+  private short victim;
+  private int victimBucket;
+  private long kickState = seed | 1;
+
+  /**
+   * @param expectedEntries   keys the filter must hold
+   * @param falsePositiveRate target rate, in [8 / 2^16, 1)
+   */
+  public CuckooFilter(int expectedEntries, double falsePositiveRate) {
+    if (expectedEntries < 1) {
+      throw new IllegalArgumentException("Expected entries must be at least 1");
+    }
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException("False-positive rate must be in (0, 1)");
+    }
+    int bits = (int) Math.ceil(Math.log(2.0 * SLOTS / falsePositiveRate) / Math.log(2));
+    if (bits > MAX_FINGERPRINT_BITS) {
+      throw new IllegalArgumentException("False-positive rate below " + 2.0 * SLOTS / (1 << MAX_FINGERPRINT_BITS)
+          + " needs fingerprints over " + MAX_FINGERPRINT_BITS + " bits");
+    }
+    this.fingerprintBits = Math.max(MIN_FINGERPRINT_BITS, bits);
+    long minBuckets = (long) Math.ceil(expectedEntries / (SLOTS * MAX_LOAD));
+    long buckets = Long.highestOneBit(Math.max(1, minBuckets - 1)) << 1;
+    if (buckets * SLOTS > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Filter too large");
+    }
+    this.slots = new short[(int) buckets * SLOTS];
+    this.bucketMask = (int) buckets - 1;
+    this.capacity = expectedEntries;
+    this.falsePositiveRate = falsePositiveRate;
+  }
+
+  /** For {@link FilteredHashTable}: makes filters for a given number of keys. */
+  public static <K> IntFunction<MembershipFilter<K>> factory(double falsePositiveRate) {
+    return expectedEntries -> new CuckooFilter<>(expectedEntries, falsePositiveRate);
+  }
+
+  @Override
+  public boolean mightContain(K key) {
+    long h = KeyHash.hash(key, seed);
+    short fp = fingerprint(h);
+    int i1 = (int) h & bucketMask;
+    int i2 = alternate(i1, fp);
+    return bucketContains(i1, fp) || bucketContains(i2, fp)
+        || (hasVictim && victim == fp && (victimBucket == i1 || victimBucket == i2));
+  }
+
+  /** Adds one copy of the key's fingerprint; adding a key twice stores it twice. */
+  @Override
+  public boolean add(K key) {
+    if (hasVictim) {
+      return false;
+    }
+    long h = KeyHash.hash(key, seed);
+    short fp = fingerprint(h);
+    int i1 = (int) h & bucketMask;
+    int i2 = alternate(i1, fp);
+    if (insert(i1, fp) || insert(i2, fp)) {
+      count++;
+      return true;
+    }
+    int bucket = nextKick() % 2 == 0 ? i1 : i2;
+    for (int kick = 0; kick < MAX_KICKS; kick++) {
+      int slot = bucket * SLOTS + nextKick() % SLOTS;
+      short evicted = slots[slot];
+      slots[slot] = fp;
+      fp = evicted;
+      bucket = alternate(bucket, fp);
+      if (insert(bucket, fp)) {
+        count++;
+        return true;
+      }
+    }
+    // The key is in; the fingerprint it finally displaced waits here until a removal frees a slot
+    hasVictim = true;
+    victim = fp;
+    victimBucket = bucket;
+    count++;
+    return true;
+  }
+
+  @Override
+  public boolean supportsRemove() {
+    return true;
+  }
+
+  @Override
+  public boolean remove(K key) {
+    long h = KeyHash.hash(key, seed);
+    short fp = fingerprint(h);
+    int i1 = (int) h & bucketMask;
+    int i2 = alternate(i1, fp);
+    if (hasVictim && victim == fp && (victimBucket == i1 || victimBucket == i2)) {
+      hasVictim = false;
+      count--;
+      return true;
+    }
+    if (!delete(i1, fp) && !delete(i2, fp)) {
+      return false;
+    }
+    count--;
+    if (hasVictim && (insert(victimBucket, victim) || insert(alternate(victimBucket, victim), victim))) {
+      hasVictim = false;
+    }
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    Arrays.fill(slots, (short) 0);
+    hasVictim = false;
+    count = 0;
+  }
+
+  /** Fingerprints stored, including duplicates. */
+  public int count() {
+    return count;
+  }
+
+  public int fingerprintBits() {
+    return fingerprintBits;
+  }
+
+  @Override
+  public int capacity() {
+    return capacity;
+  }
+
+  @Override
+  public double targetFalsePositiveRate() {
+    return falsePositiveRate;
+  }
+
+  @Override
+  public long sizeInBytes() {
+    return (long) slots.length * Short.BYTES;
+  }
+
+  /** Non-zero fingerprint from the hash's upper half; the bucket comes from the lower half. */
+  private short fingerprint(long h) {
+    int fp = (int) (h >>> 32) & ((1 << fingerprintBits) - 1);
+    return (short) (fp == 0 ? 1 : fp);
+  }
+
+  private int alternate(int bucket, short fp) {
+    return (bucket ^ (fp & 0xffff) * 0x5bd1e995) & bucketMask;
+  }
+
+  private boolean bucketContains(int bucket, short fp) {
+    int base = bucket * SLOTS;
+    return slots[base] == fp || slots[base + 1] == fp || slots[base + 2] == fp || slots[base + 3] == fp;
+  }
+
+  private boolean insert(int bucket, short fp) {
+    int base = bucket * SLOTS;
+    for (int i = base; i < base + SLOTS; i++) {
+      if (slots[i] == 0) {
+        slots[i] = fp;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean delete(int bucket, short fp) {
+    int base = bucket * SLOTS;
+    for (int i = base; i < base + SLOTS; i++) {
+      if (slots[i] == fp) {
+        slots[i] = 0;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /** xorshift; only needs to vary which slot is evicted. */
+  private int nextKick() {
+    long x = kickState;
+    x ^= x << 13;
+    x ^= x >>> 7;
+    x ^= x << 17;
+    kickState = x;
+    return (int) (x >>> 33);
+  }
+}
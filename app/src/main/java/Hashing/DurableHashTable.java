@@ -0,0 +1,559 @@
+package Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * {@link HashTable} whose contents survive a crash. Every {@code put} and
+ * {@code remove} is appended to a write-ahead log in a directory, and the
+ * call returns only once its record is on disk. On {@link #open} the table is
+ * rebuilt from the latest snapshot plus the log records written after it.
+ *
+ * <p>Appends go to an in-memory buffer; the first waiting caller becomes the
+ * group leader and writes everything buffered so far (its own record and any
+ * other caller's) with one {@link FileChannel#write} and one
+ * {@link FileChannel#force}. Callers whose records were in that group return
+ * without touching the file, so concurrent writers share fsyncs. Once the log
+ * reaches {@code checkpointBytes}, the leader writes a snapshot of the table
+ * and starts an empty log. Writes wait while the table is serialized into the
+ * snapshot; reads do not, and neither waits for the snapshot's fsync.
+ *
+ * <p>Files (big endian):
+ * <ul>
+ *   <li>{@code table.wal}: records {@code int length, int crc32c, payload}
+ *   with payload {@code byte op, long lsn, int keyLength, key, int valueLength,
+ *   value}; the value length is -1 for removes and null values. Replay stops
+ *   at the first torn or corrupt record and cuts the log there.</li>
+ *   <li>{@code table.snapshot}: {@code int magic "HTSN", byte version, 3 reserved,
+ *   long lsn, long count}, then {@code count} entries
+ *   {@code int keyLength, key, int valueLength, value}, then the crc32c of
+ *   everything before it. Written to a temporary file and renamed over the
+ *   old one, so a crash leaves either the old or the new snapshot.</li>
+ * </ul>
+ *
+ * <p>A {@code get} may see a value whose {@code put} has not returned yet
+ * (and would be lost in a crash at that moment).
+ */
+public class DurableHashTable<K, V> implements AutoCloseable {
+
+  public enum Sync {
+    /** Wait for {@link FileChannel#force}: survives power loss. */
+    FSYNC,
+    /** Wait until the record is handed to the operating system: survives a process crash. */
+    WRITE
+  }
+
+  public static final long DEFAULT_CHECKPOINT_BYTES = 64L << 20;
+  static final String WAL_FILE = "table.wal";
+  static final String SNAPSHOT_FILE = "table.snapshot";
+  private static final String SNAPSHOT_TEMP_FILE = "table.snapshot.tmp";
+  private static final int SNAPSHOT_MAGIC = 0x4854_534e; // "HTSN"
+  private static final byte VERSION = 1;
+  private static final byte PUT = 1;
+  private static final byte REMOVE = 2;
+  private static final int RECORD_HEADER_BYTES = 8;
+  // op, lsn, keyLength, valueLength (-1 for removes)
+  private static final int PAYLOAD_FIXED_BYTES = 1 + 8 + 4 + 4;
+  private static final int INITIAL_BUFFER_BYTES = 1 << 16;
+
+  private final Path directory;
+  private final Codec<K> keyCodec;
+  private final Codec<V> valueCodec;
+  private final Sync sync;
+  private final long checkpointBytes;
+  private final HashTable<K, V> table = new HashTable<>();
+  private final FileChannel wal;
+  private final long replayedRecords;
+
+  // Guards the table, pending and lastLsn
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  // Held by the group leader; guards spare, walBytes and the log file. Taken before lock.
+  private final ReentrantLock flushLock = new ReentrantLock();
+  private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+  private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_BYTES);
+  private long lastLsn;
+  private volatile long durableLsn;
+  private long walBytes;
+  private long flushes;
+  private long checkpoints;
+  // Set when the log could not be written; the table refuses writes after that
+  private volatile IOException failure;
+  private volatile boolean closed;
+
+  private DurableHashTable(Path directory, Codec<K> keyCodec, Codec<V> valueCodec, Sync sync,
+      long checkpointBytes) throws IOException {
+    this.directory = directory;
+    this.keyCodec = keyCodec;
+    this.valueCodec = valueCodec;
+    this.sync = sync;
+    this.checkpointBytes = checkpointBytes;
+    Files.createDirectories(directory);
+    Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMP_FILE));
+    lastLsn = readSnapshot();
+    wal = FileChannel.open(directory.resolve(WAL_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    long snapshotLsn = lastLsn;
+    walBytes = replayLog();
+    replayedRecords = lastLsn - snapshotLsn;
+    durableLsn = lastLsn;
+  }
+
+  /** Opens (or creates) the table in {@code directory}, syncing with {@link Sync#FSYNC}. */
+  public static <K, V> DurableHashTable<K, V> open(Path directory, Codec<K> keyCodec, Codec<V> valueCodec)
+      throws IOException {
+    return open(directory, keyCodec, valueCodec, Sync.FSYNC, DEFAULT_CHECKPOINT_BYTES);
+  }
+
+  /**
+   * @param checkpointBytes log size at which a snapshot is written and the log restarted
+   */
+  public static <K, V> DurableHashTable<K, V> open(Path directory, Codec<K> keyCodec, Codec<V> valueCodec,
+      Sync sync, long checkpointBytes) throws IOException {
+    Objects.requireNonNull(directory, "directory");
+    Objects.requireNonNull(keyCodec, "keyCodec");
+    Objects.requireNonNull(valueCodec, "valueCodec");
+    Objects.requireNonNull(sync, "sync");
+    if (checkpointBytes < 1) {
+      throw new IllegalArgumentException("Checkpoint size must be positive");
+    }
+    return new DurableHashTable<>(directory, keyCodec, valueCodec, sync, checkpointBytes);
+  }
+
+  public V get(K key) {
+    lock.readLock().lock();
+    try {
+      return table.get(key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public boolean containsKey(K key) {
+    lock.readLock().lock();
+    try {
+      return table.containsKey(key);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return table.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Stores the mapping and returns once it is durable; returns the previous value. */
+  public V put(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    byte[] k = keyCodec.encode(key);
+    byte[] v = value == null ? null : valueCodec.encode(value);
+    V previous;
+    long lsn;
+    lock.writeLock().lock();
+    try {
+      ensureWritable();
+      previous = table.put(key, value);
+      lsn = ++lastLsn;
+      append(PUT, lsn, k, v);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    commit(lsn);
+    return previous;
+  }
+
+  /** Removes the mapping and returns once the removal is durable. */
+  public V remove(K key) {
+    Objects.requireNonNull(key, "key");
+    byte[] k = keyCodec.encode(key);
+    V previous;
+    long lsn;
+    lock.writeLock().lock();
+    try {
+      ensureWritable();
+      if (!table.containsKey(key)) {
+        return null; // nothing to log
+      }
+      previous = table.remove(key);
+      lsn = ++lastLsn;
+      append(REMOVE, lsn, k, null);
+    } finally {
+      lock.writeLock().unlock();
+    }
+    commit(lsn);
+    return previous;
+  }
+
+  /** Writes a snapshot of the table now and starts an empty log. */
+  public void checkpoint() throws IOException {
+    flushLock.lock();
+    try {
+      ensureWritable();
+      checkpointLocked();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /** Sequence number of the last write; it counts on across restarts. */
+  public long lastLsn() {
+    lock.readLock().lock();
+    try {
+      return lastLsn;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Log records applied on top of the snapshot when the table was opened. */
+  public long replayedRecords() {
+    return replayedRecords;
+  }
+
+  /** Group commits so far; {@code lastLsn() / flushes()} approximates records per fsync. */
+  public long flushes() {
+    flushLock.lock();
+    try {
+      return flushes;
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  public long checkpoints() {
+    flushLock.lock();
+    try {
+      return checkpoints;
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /** Bytes in the current log. */
+  public long walBytes() {
+    flushLock.lock();
+    try {
+      return walBytes;
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /** Flushes buffered records and closes the log; the table is not checkpointed. */
+  @Override
+  public void close() throws IOException {
+    flushLock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      if (failure == null) {
+        flushLocked();
+      }
+      closed = true;
+      wal.close();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  private void ensureWritable() {
+    if (closed) {
+      throw new IllegalStateException("Table is closed");
+    }
+    if (failure != null) {
+      throw new UncheckedIOException("Write-ahead log failed earlier", failure);
+    }
+  }
+
+  /** Appends a record to {@code pending}; caller holds the write lock. */
+  private void append(byte op, long lsn, byte[] key, byte[] value) {
+    int payload = PAYLOAD_FIXED_BYTES + key.length + (value == null ? 0 : value.length);
+    int length = RECORD_HEADER_BYTES + payload;
+    if (pending.remaining() < length) {
+      ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + length));
+      pending.flip();
+      pending = grown.put(pending);
+    }
+    int start = pending.position();
+    pending.putInt(payload).putInt(0);
+    pending.put(op).putLong(lsn).putInt(key.length).put(key);
+    if (op == PUT) {
+      pending.putInt(value == null ? -1 : value.length);
+      if (value != null) {
+        pending.put(value);
+      }
+    } else {
+      pending.putInt(-1);
+    }
+    CRC32C crc = new CRC32C();
+    crc.update(pending.array(), start + RECORD_HEADER_BYTES, payload);
+    pending.putInt(start + 4, (int) crc.getValue());
+  }
+
+  /** Returns once the record {@code lsn} is durable, leading a group commit if nobody else has. */
+  private void commit(long lsn) {
+    if (durableLsn >= lsn) {
+      return;
+    }
+    flushLock.lock();
+    try {
+      if (durableLsn >= lsn) {
+        return; // another leader's group included this record
+      }
+      ensureWritable();
+      try {
+        flushLocked();
+        if (walBytes >= checkpointBytes) {
+          checkpointLocked();
+        }
+      } catch (IOException e) {
+        failure = e;
+        throw new UncheckedIOException("Could not write the write-ahead log", e);
+      }
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /** Writes and syncs every buffered record; caller holds {@code flushLock}. */
+  private void flushLocked() throws IOException {
+    long upTo;
+    lock.writeLock().lock();
+    try {
+      ByteBuffer full = pending;
+      pending = spare;
+      spare = full;
+      upTo = lastLsn;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    if (upTo == durableLsn) {
+      spare.clear();
+      return;
+    }
+    spare.flip();
+    while (spare.hasRemaining()) {
+      walBytes += wal.write(spare);
+    }
+    spare.clear();
+    if (sync == Sync.FSYNC) {
+      wal.force(false);
+    }
+    flushes++;
+    durableLsn = upTo;
+  }
+
+  /**
+   * Snapshots the table and empties the log; caller holds {@code flushLock}.
+   * The table is serialized under the read lock, so reads go on and writes
+   * wait for that step only; the write lock is held just long enough to drop
+   * the buffered records the snapshot covers.
+   */
+  private void checkpointLocked() throws IOException {
+    Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+    long upTo;
+    try (FileChannel channel = FileChannel.open(temp,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      lock.readLock().lock();
+      try {
+        upTo = lastLsn;
+        writeSnapshot(channel, upTo);
+      } finally {
+        lock.readLock().unlock();
+      }
+      channel.force(true);
+    }
+    Files.move(temp, directory.resolve(SNAPSHOT_FILE),
+        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    syncDirectory();
+    lock.writeLock().lock();
+    try {
+      // If writes came in since the snapshot, the buffer keeps the records it
+      // already covers too; they land at the start of the new log, where
+      // replay skips them.
+      if (lastLsn == upTo) {
+        pending.clear();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+    wal.truncate(0);
+    wal.position(0);
+    wal.force(true);
+    walBytes = 0;
+    checkpoints++;
+    if (durableLsn < upTo) {
+      durableLsn = upTo;
+    }
+  }
+
+  private void writeSnapshot(FileChannel channel, long lsn) throws IOException {
+    CheckedOutputStream checked = new CheckedOutputStream(Channels.newOutputStream(channel), new CRC32C());
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, INITIAL_BUFFER_BYTES));
+    out.writeInt(SNAPSHOT_MAGIC);
+    out.writeByte(VERSION);
+    out.write(new byte[3]);
+    out.writeLong(lsn);
+    out.writeLong(table.size());
+    for (HashTable.Entry<K, V> e : table) {
+      writeBytes(out, keyCodec.encode(e.key));
+      writeBytes(out, e.value == null ? null : valueCodec.encode(e.value));
+    }
+    out.flush();
+    out.writeInt((int) checked.getChecksum().getValue());
+    out.flush();
+  }
+
+  /** Loads the snapshot, if any, into the table and returns its LSN. */
+  private long readSnapshot() throws IOException {
+    Path file = directory.resolve(SNAPSHOT_FILE);
+    if (!Files.exists(file)) {
+      return 0;
+    }
+    try (InputStream raw = Files.newInputStream(file)) {
+      CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(raw, INITIAL_BUFFER_BYTES),
+          new CRC32C());
+      DataInputStream in = new DataInputStream(checked);
+      if (in.readInt() != SNAPSHOT_MAGIC) {
+        throw new IOException("Not a table snapshot: " + file);
+      }
+      byte version = in.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported snapshot version " + version + ": " + file);
+      }
+      in.skipNBytes(3);
+      long lsn = in.readLong();
+      long count = in.readLong();
+      for (long i = 0; i < count; i++) {
+        K key = keyCodec.decode(readBytes(in));
+        byte[] value = readBytes(in);
+        table.put(key, value == null ? null : valueCodec.decode(value));
+      }
+      int expected = (int) checked.getChecksum().getValue();
+      if (in.readInt() != expected) {
+        throw new IOException("Snapshot checksum mismatch: " + file);
+      }
+      return lsn;
+    } catch (EOFException e) {
+      throw new IOException("Truncated snapshot: " + file, e);
+    }
+  }
+
+  /**
+   * Applies the log records following the snapshot and cuts the log after the
+   * last intact one. Returns the length of the intact prefix.
+   */
+  private long replayLog() throws IOException {
+    long snapshotLsn = lastLsn;
+    long valid = 0;
+    DataInputStream in = new DataInputStream(new BufferedInputStream(
+        Channels.newInputStream(wal.position(0)), INITIAL_BUFFER_BYTES));
+    CRC32C crc = new CRC32C();
+    while (true) {
+      byte[] payload;
+      try {
+        int length = in.readInt();
+        int checksum = in.readInt();
+        if (length < PAYLOAD_FIXED_BYTES || length > wal.size() - valid - RECORD_HEADER_BYTES) {
+          break; // garbage length: torn header
+        }
+        payload = in.readNBytes(length);
+        if (payload.length < length) {
+          break; // torn record
+        }
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+      } catch (EOFException e) {
+        break;
+      }
+      ByteBuffer record = ByteBuffer.wrap(payload);
+      byte op = record.get();
+      long lsn = record.getLong();
+      if (lsn <= snapshotLsn && lastLsn == snapshotLsn) {
+        // Written before the last checkpoint, which crashed before emptying the log
+        valid += RECORD_HEADER_BYTES + payload.length;
+        continue;
+      }
+      if (lsn != lastLsn + 1 || (op != PUT && op != REMOVE)) {
+        break; // stale bytes from before a checkpoint
+      }
+      byte[] key = new byte[record.getInt()];
+      record.get(key);
+      if (op == PUT) {
+        int valueLength = record.getInt();
+        V value = null;
+        if (valueLength >= 0) {
+          byte[] bytes = new byte[valueLength];
+          record.get(bytes);
+          value = valueCodec.decode(bytes);
+        }
+        table.put(keyCodec.decode(key), value);
+      } else {
+        table.remove(keyCodec.decode(key));
+      }
+      lastLsn = lsn;
+      valid += RECORD_HEADER_BYTES + payload.length;
+    }
+    if (wal.size() > valid) {
+      wal.truncate(valid);
+      wal.force(true);
+    }
+    wal.position(valid);
+    return valid;
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    if (bytes == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  /** Makes the snapshot rename durable; not every platform can open a directory for this. */
+  private void syncDirectory() {
+    try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+      dir.force(true);
+    } catch (IOException e) {
+      // Best effort
+    }
+  }
+}
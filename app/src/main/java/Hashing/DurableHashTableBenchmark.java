@@ -0,0 +1,109 @@
+package Hashing;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hand-run benchmark of {@link DurableHashTable} write throughput. T threads
+ * each put distinct Integer keys; the same load runs against a plain
+ * {@link HashTable} behind one lock and against durable tables in
+ * {@link DurableHashTable.Sync#WRITE} and {@link DurableHashTable.Sync#FSYNC}
+ * mode. With more threads, more records share each group commit, which the
+ * "records/flush" column shows.
+ *
+ * CLI:
+ * args[0] = thread counts, comma separated (default 1,4,16,64)
+ * args[1] = puts per thread (default 20000)
+ * args[2] = directory for the table files (default a new temporary directory)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.DurableHashTableBenchmark --args="1,4,16,64 20000 /tmp/table"
+ */
+public class DurableHashTableBenchmark {
+  private interface Table {
+    void put(Integer key, Integer value);
+  }
+
+  public static void main(String[] args) throws Exception {
+    String[] threadCounts = (args.length > 0 ? args[0] : "1,4,16,64").split(",");
+    int puts = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+    Path directory = args.length > 2 ? Path.of(args[2]) : Files.createTempDirectory("durable-table");
+
+    System.out.println("puts/thread=" + puts + " dir=" + directory);
+    // Warm-up, so the first row is not measured on interpreted code
+    deleteTable(directory);
+    try (DurableHashTable<Integer, Integer> table = DurableHashTable.open(directory, Codec.INTEGER,
+        Codec.INTEGER, DurableHashTable.Sync.WRITE, DurableHashTable.DEFAULT_CHECKPOINT_BYTES)) {
+      HashTable<Integer, Integer> memory = new HashTable<>();
+      run(2, puts, (k, v) -> {
+        synchronized (memory) {
+          memory.put(k, v);
+        }
+        table.put(k, v);
+      });
+    }
+
+    System.out.printf("%-8s %-10s %12s %14s%n", "threads", "mode", "Kputs/s", "records/flush");
+    for (String t : threadCounts) {
+      int threads = Integer.parseInt(t.trim());
+
+      HashTable<Integer, Integer> memory = new HashTable<>();
+      ReentrantLock lock = new ReentrantLock();
+      double rate = run(threads, puts, (k, v) -> {
+        lock.lock();
+        try {
+          memory.put(k, v);
+        } finally {
+          lock.unlock();
+        }
+      });
+      System.out.printf("%-8d %-10s %12.1f %14s%n", threads, "memory", rate, "-");
+
+      for (DurableHashTable.Sync sync : DurableHashTable.Sync.values()) {
+        deleteTable(directory);
+        try (DurableHashTable<Integer, Integer> table = DurableHashTable.open(directory, Codec.INTEGER,
+            Codec.INTEGER, sync, DurableHashTable.DEFAULT_CHECKPOINT_BYTES)) {
+          rate = run(threads, puts, table::put);
+          System.out.printf("%-8d %-10s %12.1f %14.1f%n",
+              threads, sync, rate, (double) table.lastLsn() / Math.max(1, table.flushes()));
+        }
+      }
+    }
+    deleteTable(directory);
+  }
+
+  /** Returns thousands of puts per second. */
+  private static double run(int threads, int puts, Table table) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int base = t * puts;
+      workers[t] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = base; i < base + puts; i++) {
+          table.put(i, i);
+        }
+      });
+      workers[t].start();
+    }
+    long t0 = System.nanoTime();
+    start.countDown();
+    for (Thread w : workers) {
+      w.join();
+    }
+    return (double) threads * puts * 1e6 / (System.nanoTime() - t0);
+  }
+
+  /** Removes the table's files from the previous run, leaving anything else in the directory alone. */
+  private static void deleteTable(Path directory) throws IOException {
+    Files.deleteIfExists(directory.resolve(DurableHashTable.WAL_FILE));
+    Files.deleteIfExists(directory.resolve(DurableHashTable.SNAPSHOT_FILE));
+  }
+}
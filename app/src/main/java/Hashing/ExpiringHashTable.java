@@ -0,0 +1,175 @@
+package Hashing;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * {@link HashTable} whose entries expire a fixed time after they were written,
+ * or optionally after they were last read. Deadlines are kept in a
+ * {@link TimerWheel}, so expired entries are reclaimed by the wheel as the
+ * clock moves forward instead of by scanning the buckets. Each operation only
+ * advances the wheel over the slots that elapsed since the previous one, and an
+ * entry is charged once when it expires. A lookup that finds an entry whose
+ * deadline has passed treats it as absent even before the wheel gets to it.
+ *
+ * <p>{@code get}, {@code containsKey}, {@code put} and {@code remove} handle
+ * at most {@value #EXPIRE_BATCH} due timers each, so after a clock jump (or
+ * a long idle period) a mass expiry is spread over the following calls
+ * instead of stalling one of them. {@link #size()} and {@link #cleanUp()}
+ * reclaim everything that is due. For the same reason the bucket array does
+ * not shrink as entries expire; it stays at the size of the largest
+ * population.
+ *
+ * <p>Time comes from an injectable nanosecond clock ({@link System#nanoTime}
+ * by default), so tests can drive expiry deterministically.
+ */
+public class ExpiringHashTable<K, V> {
+  /** Most wheel timers a {@code get}, {@code containsKey}, {@code put} or {@code remove} handles. */
+  static final int EXPIRE_BATCH = 64;
+
+  private static final class Node<K, V> extends TimerWheel.Timer {
+    public final K key;
+    public V value;
+    public long ttlNanos;
+
+    public Node(K key, V value, long ttlNanos) {
+      this.key = key;
+      this.value = value;
+      this.ttlNanos = ttlNanos;
+    }
+  }
+
+  // No automatic shrinking: a mass expiry would otherwise rehash the whole table inside one call
+  private final HashTable<K, Node<K, V>> table = new HashTable<>(16, 0.75, 0.0);
+  private final TimerWheel<Node<K, V>> wheel;
+  private final long defaultTtlNanos;
+  private final boolean expireAfterAccess;
+  private final LongSupplier clock;
+  private long expirations;
+
+  public ExpiringHashTable(long ttl, TimeUnit unit) {
+    this(ttl, unit, false, System::nanoTime);
+  }
+
+  /**
+   * @param expireAfterAccess if {@code true} a successful {@code get} restarts
+   *                          the entry's time to live
+   * @param clock             source of the current time in nanoseconds
+   */
+  public ExpiringHashTable(long ttl, TimeUnit unit, boolean expireAfterAccess, LongSupplier clock) {
+    this.defaultTtlNanos = toNanos(ttl, unit);
+    this.expireAfterAccess = expireAfterAccess;
+    this.clock = Objects.requireNonNull(clock, "clock");
+    this.wheel = new TimerWheel<>(clock.getAsLong());
+  }
+
+  /** Number of live entries; entries that are due are reclaimed first. */
+  public int size() {
+    cleanUp();
+    return table.size();
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /** Total number of entries removed because their time to live ran out. */
+  public long expirations() {
+    return expirations;
+  }
+
+  public V get(K key) {
+    Objects.requireNonNull(key, "key");
+    long now = clock.getAsLong();
+    wheel.advance(now, EXPIRE_BATCH, this::expire);
+    Node<K, V> node = table.get(key);
+    if (node == null) {
+      return null;
+    }
+    if (node.deadline - now <= 0) {
+      wheel.cancel(node);
+      expire(node);
+      return null;
+    }
+    if (expireAfterAccess) {
+      node.deadline = now + node.ttlNanos;
+      wheel.schedule(node);
+    }
+    return node.value;
+  }
+
+  public boolean containsKey(K key) {
+    Objects.requireNonNull(key, "key");
+    long now = clock.getAsLong();
+    wheel.advance(now, EXPIRE_BATCH, this::expire);
+    Node<K, V> node = table.get(key);
+    return node != null && node.deadline - now > 0;
+  }
+
+  /** Stores {@code value} with the table's default time to live. */
+  public V put(K key, V value) {
+    return putNanos(key, value, defaultTtlNanos);
+  }
+
+  /** Stores {@code value} with its own time to live. */
+  public V put(K key, V value, long ttl, TimeUnit unit) {
+    return putNanos(key, value, toNanos(ttl, unit));
+  }
+
+  public V remove(K key) {
+    Objects.requireNonNull(key, "key");
+    long now = clock.getAsLong();
+    wheel.advance(now, EXPIRE_BATCH, this::expire);
+    Node<K, V> node = table.remove(key);
+    if (node == null) {
+      return null;
+    }
+    wheel.cancel(node);
+    return node.deadline - now > 0 ? node.value : null;
+  }
+
+  /** Reclaims every entry whose deadline has passed, however many there are. */
+  public void cleanUp() {
+    wheel.advance(clock.getAsLong(), Integer.MAX_VALUE, this::expire);
+  }
+
+  public void clear() {
+    for (HashTable.Entry<K, Node<K, V>> entry : table) {
+      wheel.cancel(entry.value);
+    }
+    table.clear();
+  }
+
+  private V putNanos(K key, V value, long ttlNanos) {
+    Objects.requireNonNull(key, "key");
+    long now = clock.getAsLong();
+    wheel.advance(now, EXPIRE_BATCH, this::expire);
+    Node<K, V> node = table.get(key);
+    V old = null;
+    if (node == null) {
+      node = new Node<>(key, value, ttlNanos);
+      table.put(key, node);
+    } else {
+      old = node.deadline - now > 0 ? node.value : null;
+      node.value = value;
+      node.ttlNanos = ttlNanos;
+    }
+    node.deadline = now + ttlNanos;
+    wheel.schedule(node);
+    return old;
+  }
+
+  private void expire(Node<K, V> node) {
+    table.remove(node.key);
+    expirations++;
+  }
+
+  private static long toNanos(long ttl, TimeUnit unit) {
+    Objects.requireNonNull(unit, "unit");
+    if (ttl <= 0) {
+      throw new IllegalArgumentException("Time to live must be greater than zero");
+    }
+    return unit.toNanos(ttl);
+  }
+}
@@ -0,0 +1,228 @@
+package Hashing;
+
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * {@link HashTable} with a {@link MembershipFilter} in front of it. A
+ * {@code get} or {@code containsKey} of a key the filter has never seen is
+ * answered from the filter alone, without hashing into the table or walking
+ * a chain; only "maybe present" answers go on to the table.
+ *
+ * <p>The filter is rebuilt from the table's keys, at twice the table's size,
+ * when the table outgrows it or when it rejects a key. A rejected key gets
+ * up to {@value #REBUILD_ATTEMPTS} tries with ever larger filters; a cuckoo
+ * filter can still refuse every one when many keys share a fingerprint
+ * (keys other than {@code String} or {@link SeededHashable} with equal hash
+ * codes), and the table then falls back to a {@link BlockedBloomFilter} with
+ * the same target rate, which takes any key.
+ *
+ * <p>A filter without removal ({@link BlockedBloomFilter}) keeps answering
+ * "maybe" for removed keys until it is rebuilt, which happens once the
+ * removals since the last rebuild exceed a share of the table's size
+ * (by default {@value #DEFAULT_STALE_SHARE}, and never fewer than
+ * {@value #MIN_STALE_REMOVALS} removals). A rebuild adds every key again,
+ * so a share {@code s} costs about {@code 1 / s} filter inserts per removal;
+ * a share near the target rate keeps lookups of removed keys near that rate
+ * too, but at about {@code 1 / rate} inserts per removal. Tables with many
+ * removals should use a {@link CuckooFilter}, which forgets keys as they
+ * are removed.
+ *
+ * <p>{@link #negativeRate()} and {@link #falsePositiveRate()} report how well
+ * the filter is doing on the lookups seen since the last {@link #resetStats()}.
+ */
+public class FilteredHashTable<K, V> {
+  /** Filters tried per rebuild before falling back to a Bloom filter. */
+  private static final int REBUILD_ATTEMPTS = 3;
+  /** Default share of the table's size that may be removed before a Bloom filter is rebuilt. */
+  public static final double DEFAULT_STALE_SHARE = 0.5;
+  /** Removals a Bloom filter always absorbs before a rebuild, however small the table. */
+  public static final int MIN_STALE_REMOVALS = 64;
+
+  private final HashTable<K, V> table;
+  private final IntFunction<MembershipFilter<K>> filterFactory;
+  private final double staleShare;
+  private MembershipFilter<K> filter;
+  private int staleRemovals;
+  private int rebuilds;
+  private int fallbacks;
+
+  private long lookups;
+  private long filtered;
+  private long falsePositives;
+
+  /**
+   * @param table         table to front; its current keys are added to the filter
+   * @param filterFactory makes a filter for a given number of keys, e.g.
+   *                      {@link CuckooFilter#factory(double)}
+   */
+  public FilteredHashTable(HashTable<K, V> table, IntFunction<MembershipFilter<K>> filterFactory) {
+    this(table, filterFactory, DEFAULT_STALE_SHARE);
+  }
+
+  /**
+   * @param staleShare a filter without removal is rebuilt once the removals
+   *                   since the last rebuild exceed this share of the table's
+   *                   size (and {@value #MIN_STALE_REMOVALS})
+   */
+  public FilteredHashTable(HashTable<K, V> table, IntFunction<MembershipFilter<K>> filterFactory,
+      double staleShare) {
+    if (!(staleShare > 0)) {
+      throw new IllegalArgumentException("Stale share must be greater than zero");
+    }
+    this.table = Objects.requireNonNull(table, "table");
+    this.filterFactory = Objects.requireNonNull(filterFactory, "filterFactory");
+    this.staleShare = staleShare;
+    replaceFilter();
+  }
+
+  public V get(K key) {
+    lookups++;
+    if (!filter.mightContain(key)) {
+      filtered++;
+      return null;
+    }
+    V value = table.get(key);
+    // A null value may be stored; only then is a second lookup needed to tell
+    if (value == null && !table.containsKey(key)) {
+      falsePositives++;
+    }
+    return value;
+  }
+
+  public boolean containsKey(K key) {
+    lookups++;
+    if (!filter.mightContain(key)) {
+      filtered++;
+      return false;
+    }
+    if (!table.containsKey(key)) {
+      falsePositives++;
+      return false;
+    }
+    return true;
+  }
+
+  public V put(K key, V value) {
+    int before = table.size();
+    V previous = table.put(key, value);
+    if (table.size() > before) {
+      if (table.size() > filter.capacity() || !filter.add(key)) {
+        rebuildFilter();
+      }
+    }
+    return previous;
+  }
+
+  public V remove(K key) {
+    int before = table.size();
+    V previous = table.remove(key);
+    if (table.size() < before) {
+      if (filter.supportsRemove()) {
+        filter.remove(key);
+      } else if (++staleRemovals > staleLimit()) {
+        rebuildFilter();
+      }
+    }
+    return previous;
+  }
+
+  public int size() {
+    return table.size();
+  }
+
+  /** Removed keys a filter without removal may still answer "maybe" for before it is rebuilt. */
+  private int staleLimit() {
+    return (int) Math.max(MIN_STALE_REMOVALS, staleShare * table.size());
+  }
+
+  /**
+   * Replaces the filter with a new one sized for twice the table and holding
+   * its keys, or with a {@link BlockedBloomFilter} if the factory's filters
+   * keep refusing keys.
+   */
+  public void rebuildFilter() {
+    replaceFilter();
+    rebuilds++;
+  }
+
+  private void replaceFilter() {
+    int expected = Math.max(16, table.size() * 2);
+    MembershipFilter<K> fresh = filterFactory.apply(expected);
+    // A refusal is an unlucky cuckoo filter; a larger one has more room to move keys
+    for (int attempt = 1; !addAll(fresh); attempt++) {
+      if (attempt == REBUILD_ATTEMPTS) {
+        fresh = new BlockedBloomFilter<>(expected, fresh.targetFalsePositiveRate());
+        addAll(fresh);
+        fallbacks++;
+        break;
+      }
+      expected = (int) Math.min(Integer.MAX_VALUE / 2, 2L * expected);
+      fresh = filterFactory.apply(expected);
+    }
+    filter = fresh;
+    staleRemovals = 0;
+  }
+
+  public MembershipFilter<K> filter() {
+    return filter;
+  }
+
+  /** Times the filter was replaced, not counting the first one. */
+  public int rebuilds() {
+    return rebuilds;
+  }
+
+  /** Rebuilds that gave up on the factory's filter and used a {@link BlockedBloomFilter}. */
+  public int fallbacks() {
+    return fallbacks;
+  }
+
+  /** Lookups ({@code get} and {@code containsKey}) since the last reset. */
+  public long lookups() {
+    return lookups;
+  }
+
+  /** Lookups answered by the filter alone. */
+  public long filteredLookups() {
+    return filtered;
+  }
+
+  /** Lookups the filter let through for a key the table did not have. */
+  public long falsePositives() {
+    return falsePositives;
+  }
+
+  /** Share of lookups answered by the filter alone. */
+  public double negativeRate() {
+    return lookups == 0 ? 0 : (double) filtered / lookups;
+  }
+
+  /** Share of lookups for absent keys that the filter did not catch. */
+  public double falsePositiveRate() {
+    long misses = filtered + falsePositives;
+    return misses == 0 ? 0 : (double) falsePositives / misses;
+  }
+
+  public void resetStats() {
+    lookups = 0;
+    filtered = 0;
+    falsePositives = 0;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("FilteredHashTable{size=%d, filter=%s %d bytes, lookups=%d, negative=%.1f%%,"
+            + " falsePositive=%.3f%%}", table.size(), filter.getClass().getSimpleName(), filter.sizeInBytes(),
+        lookups, 100 * negativeRate(), 100 * falsePositiveRate());
+  }
+
+  private boolean addAll(MembershipFilter<K> fresh) {
+    for (HashTable.Entry<K, V> e : table) {
+      if (!fresh.add(e.key)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,123 @@
+package Hashing;
+
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+
+/**
+ * Hand-run benchmark of {@link FilteredHashTable#get} with a
+ * {@link BlockedBloomFilter} and a {@link CuckooFilter} against a plain
+ * {@link HashTable#get} on {@link Vehicle} keys. The same table contents are
+ * looked up with a growing share of absent plates; the filtered rows also
+ * show the share of lookups the filter answered alone and its measured
+ * false-positive rate.
+ *
+ * CLI:
+ * args[0] = entries per table (default 1000000)
+ * args[1] = shares of absent lookups, comma separated (default 0,0.5,0.9,0.99)
+ * args[2] = target false-positive rate (default 0.01)
+ * args[3] = lookups per measurement (default 10000000)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.FilteredHashTableBenchmark --args="1000000 0,0.5,0.9,0.99 0.01 10000000"
+ */
+public class FilteredHashTableBenchmark {
+  private static final long SEED = 42;
+  private static final long STRIDE = 1_000_003;
+
+  private interface Lookup {
+    Object get(Vehicle key);
+  }
+
+  public static void main(String[] args) {
+    int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    String[] missShares = (args.length > 1 ? args[1] : "0,0.5,0.9,0.99").split(",");
+    double fpp = args.length > 2 ? Double.parseDouble(args[2]) : 0.01;
+    int lookups = args.length > 3 ? Integer.parseInt(args[3]) : 10_000_000;
+    if (entries < 1 || entries > PlateCodec.PLATE_COUNT / 2) {
+      throw new IllegalArgumentException("Entries must be in [1, " + PlateCodec.PLATE_COUNT / 2 + "]");
+    }
+
+    // i -> (offset + i * STRIDE) mod PLATE_COUNT is a permutation (see SwissHashTableBenchmark):
+    // i < entries are inserted, entries <= i < 2 * entries miss
+    SplittableRandom rng = new SplittableRandom(SEED);
+    long offset = rng.nextInt(PlateCodec.PLATE_COUNT);
+    Vehicle[] present = new Vehicle[entries];
+    Vehicle[] absent = new Vehicle[entries];
+    for (int i = 0; i < entries; i++) {
+      present[i] = Vehicle.ofPlateCode(plate(offset, i));
+      absent[i] = Vehicle.ofPlateCode(plate(offset, entries + i));
+    }
+
+    HashTable<Vehicle, Vehicle> plain = filled(present);
+    FilteredHashTable<Vehicle, Vehicle> bloom =
+        new FilteredHashTable<>(filled(present), BlockedBloomFilter.factory(fpp));
+    FilteredHashTable<Vehicle, Vehicle> cuckoo =
+        new FilteredHashTable<>(filled(present), CuckooFilter.factory(fpp));
+
+    System.out.println("entries=" + entries + " fpp=" + fpp + " lookups=" + lookups + " seed=" + SEED);
+    System.out.printf("bloom %d bytes (%d hashes), cuckoo %d bytes (%d-bit fingerprints)%n",
+        bloom.filter().sizeInBytes(), ((BlockedBloomFilter<Vehicle>) bloom.filter()).hashes(),
+        cuckoo.filter().sizeInBytes(), ((CuckooFilter<Vehicle>) cuckoo.filter()).fingerprintBits());
+    System.out.printf("%-6s %-20s %10s %10s %10s%n", "miss", "table", "ns/get", "filtered", "fp rate");
+    for (String share : missShares) {
+      double missShare = Double.parseDouble(share.trim());
+      Vehicle[] keys = new Vehicle[lookups];
+      long expectedFound = 0;
+      for (int i = 0; i < lookups; i++) {
+        if (rng.nextDouble() < missShare) {
+          keys[i] = absent[rng.nextInt(entries)];
+        } else {
+          keys[i] = present[rng.nextInt(entries)];
+          expectedFound++;
+        }
+      }
+
+      measure(missShare, "HashTable", plain::get, keys, expectedFound, null);
+      measure(missShare, "Filtered/Bloom", bloom::get, keys, expectedFound, bloom);
+      measure(missShare, "Filtered/Cuckoo", cuckoo::get, keys, expectedFound, cuckoo);
+    }
+  }
+
+  private static HashTable<Vehicle, Vehicle> filled(Vehicle[] keys) {
+    HashTable<Vehicle, Vehicle> table = new HashTable<>();
+    table.ensureCapacity(keys.length);
+    for (Vehicle v : keys) {
+      table.put(v, v);
+    }
+    return table;
+  }
+
+  private static void measure(double missShare, String name, Lookup table, Vehicle[] keys, long expectedFound,
+      FilteredHashTable<?, ?> stats) {
+    run(table, keys); // warm-up
+    if (stats != null) {
+      stats.resetStats();
+    }
+    long t0 = System.nanoTime();
+    long found = run(table, keys);
+    long t1 = System.nanoTime();
+    if (found != expectedFound) {
+      throw new IllegalStateException(name + " returned wrong results");
+    }
+    System.out.printf("%-6.2f %-20s %10.1f %10s %10s%n", missShare, name, (double) (t1 - t0) / keys.length,
+        stats == null ? "-" : String.format("%.1f%%", 100 * stats.negativeRate()),
+        stats == null ? "-" : String.format("%.3f%%", 100 * stats.falsePositiveRate()));
+  }
+
+  private static int plate(long offset, long i) {
+    return (int) ((offset + i * STRIDE) % PlateCodec.PLATE_COUNT);
+  }
+
+  private static long run(Lookup table, Vehicle[] keys) {
+    long found = 0;
+    for (Vehicle key : keys) {
+      if (table.get(key) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,74 @@
+package Hashing;
+
+/**
+ * Count-min sketch of 4-bit counters used as the TinyLFU frequency estimate
+ * in {@link BoundedCache}. Sixteen counters are packed into each {@code long};
+ * every key maps to four of them and its estimate is the smallest. Once the
+ * number of increments reaches the sample size all counters are halved, so
+ * old popularity fades out.
+ */
+final class FrequencySketch<E> {
+  private static final long[] SEEDS = {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final int MAX_COUNT = 15;
+
+  private final long[] table;
+  private final int counterMask;
+  private final int sampleSize;
+  private int additions;
+
+  FrequencySketch(int maximumSize) {
+    int rows = Integer.highestOneBit(Math.max(maximumSize, 8) - 1) << 1;
+    this.table = new long[rows];
+    this.counterMask = rows * 16 - 1;
+    this.sampleSize = 10 * Math.max(maximumSize, 1);
+  }
+
+  int frequency(E e) {
+    int hash = spread(e.hashCode());
+    int min = MAX_COUNT;
+    for (int i = 0; i < SEEDS.length; i++) {
+      int counter = counterIndex(hash, i);
+      int count = (int) ((table[counter >>> 4] >>> ((counter & 15) << 2)) & 0xfL);
+      min = Math.min(min, count);
+    }
+    return min;
+  }
+
+  void increment(E e) {
+    int hash = spread(e.hashCode());
+    boolean added = false;
+    for (int i = 0; i < SEEDS.length; i++) {
+      int counter = counterIndex(hash, i);
+      int slot = counter >>> 4;
+      int shift = (counter & 15) << 2;
+      if (((table[slot] >>> shift) & 0xfL) < MAX_COUNT) {
+        table[slot] += 1L << shift;
+        added = true;
+      }
+    }
+    if (added && ++additions == sampleSize) {
+      reset();
+    }
+  }
+
+  private void reset() {
+    for (int i = 0; i < table.length; i++) {
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    additions >>>= 1;
+  }
+
+  private int counterIndex(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h & counterMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+}
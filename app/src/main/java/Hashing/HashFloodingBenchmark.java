@@ -0,0 +1,145 @@
+package Hashing;
+
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Hand-run benchmark of {@link HashTable} under adversarial keys, with
+ * {@linkplain HashTable.KeyHashing#SEEDED seeded} and
+ * {@linkplain HashTable.KeyHashing#HASH_CODE hashCode} bucket indices. Each
+ * adversarial key set is paired with a control set of the same size and key
+ * type whose hash codes do not collide, so the table shows both what seeding
+ * saves under a flood and what its hashing costs on ordinary keys.
+ *
+ * <p>Key sets: plates whose {@code Vehicle.hashCode} all map to bucket 0
+ * under {@code HASH_CODE} (see {@link #collidingPlates(int)}), and strings
+ * built from "Aa" and "BB", which all share one {@code String.hashCode}.
+ * Each row reports the time per {@code put} to build the table from empty,
+ * the time per {@code get} over the keys in random order, and the longest
+ * chain.
+ *
+ * CLI:
+ * args[0] = keys per set (default 1000; at most about 1070 colliding plates exist)
+ * args[1] = lookups per measurement (default 2000000)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.HashFloodingBenchmark --args="1000 2000000"
+ */
+public class HashFloodingBenchmark {
+  private static final long SEED = 42;
+
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+    List<Vehicle> floodPlates = collidingPlates(n);
+    if (floodPlates.size() < n) {
+      throw new IllegalArgumentException("Only " + floodPlates.size() + " colliding plates exist");
+    }
+    SplittableRandom rng = new SplittableRandom(SEED);
+    List<Vehicle> plainPlates = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      plainPlates.add(Vehicle.ofPlateCode(rng.nextInt(PlateCodec.PLATE_COUNT)));
+    }
+    int bits = 32 - Integer.numberOfLeadingZeros(n - 1);
+    List<String> floodStrings = collidingStrings(bits).subList(0, n);
+    List<String> plainStrings = new ArrayList<>();
+    for (String s : floodStrings) {
+      // Same length and alphabet; "Ab" breaks the shared hash code
+      plainStrings.add(s.replace("BB", "Ab"));
+    }
+
+    int[] order = new int[lookups];
+    for (int i = 0; i < lookups; i++) {
+      order[i] = rng.nextInt(n);
+    }
+    System.out.println("keys=" + n + " lookups=" + lookups + " seed=" + SEED);
+    System.out.printf("%-16s %-10s %10s %10s %10s%n", "keys", "hashing", "ns/put", "ns/get", "max chain");
+    for (int round = 0; round < 2; round++) { // the first round is warm-up
+      boolean print = round == 1;
+      run(print, "plates/flood", floodPlates, order);
+      run(print, "plates/random", plainPlates, order);
+      run(print, "strings/flood", floodStrings, order);
+      run(print, "strings/random", plainStrings, order);
+    }
+  }
+
+  private static <K> void run(boolean print, String name, List<K> keys, int[] order) {
+    for (HashTable.KeyHashing hashing : HashTable.KeyHashing.values()) {
+      // Building is repeated so that it runs about a tenth as many operations as the lookups
+      int builds = Math.max(1, order.length / (10 * keys.size()));
+      HashTable<K, Integer> table = null;
+      long t0 = System.nanoTime();
+      for (int b = 0; b < builds; b++) {
+        table = new HashTable<>(16, 0.75, hashing);
+        for (K key : keys) {
+          table.put(key, 1);
+        }
+      }
+      long t1 = System.nanoTime();
+      long found = 0;
+      for (int i : order) {
+        if (table.get(keys.get(i)) != null) {
+          found++;
+        }
+      }
+      long t2 = System.nanoTime();
+      if (found != order.length) {
+        throw new IllegalStateException(name + " lost keys");
+      }
+      if (print) {
+        System.out.printf("%-16s %-10s %10.1f %10.1f %10d%n", name, hashing,
+            (double) (t1 - t0) / builds / keys.size(), (double) (t2 - t1) / order.length, table.stats().maxChain());
+      }
+    }
+  }
+
+  /**
+   * Plates ABC000..ZZZ999 whose Vehicle.hashCode, after the HASH_CODE bit
+   * spreading, has its low 14 bits clear. With power-of-two capacities up to
+   * 16384 they all map to bucket 0, whatever the table grows to. About 1070
+   * plates qualify.
+   */
+  static List<Vehicle> collidingPlates(int limit) {
+    List<Vehicle> plates = new ArrayList<>();
+    char[] c = new char[6];
+    for (char a = 'A'; a <= 'Z'; a++) {
+      for (char b = 'A'; b <= 'Z'; b++) {
+        for (char d = 'A'; d <= 'Z'; d++) {
+          int prefix = ((17 * 31 + a) * 31 + b) * 31 + d;
+          for (int num = 0; num < 1000 && plates.size() < limit; num++) {
+            c[0] = a;
+            c[1] = b;
+            c[2] = d;
+            c[3] = (char) ('0' + num / 100);
+            c[4] = (char) ('0' + num / 10 % 10);
+            c[5] = (char) ('0' + num % 10);
+            int h = ((prefix * 31 + c[3]) * 31 + c[4]) * 31 + c[5];
+            h ^= h >>> 16;
+            if ((h & 0x3fff) == 0) {
+              plates.add(new Vehicle(new String(c)));
+            }
+          }
+        }
+      }
+    }
+    return plates;
+  }
+
+  /** All 2^bits concatenations of {@code bits} pieces "Aa" or "BB"; they share one String.hashCode. */
+  static List<String> collidingStrings(int bits) {
+    List<String> keys = new ArrayList<>();
+    for (int mask = 0; mask < 1 << bits; mask++) {
+      StringBuilder sb = new StringBuilder();
+      for (int bit = 0; bit < bits; bit++) {
+        sb.append((mask >> bit & 1) == 0 ? "Aa" : "BB");
+      }
+      keys.add(sb.toString());
+    }
+    return keys;
+  }
+}
@@ -0,0 +1,69 @@
+package Hashing;
+
+import java.util.Random;
+
+/**
+ * Hand-run benchmark comparing the batch operations with a per-call loop.
+ * Lookups go through the keys in a shuffled order, so consecutive lookups
+ * hit unrelated buckets and entries as in a real batch of requests.
+ *
+ * CLI:
+ * args[0] = number of keys (default 1000000)
+ * args[1] = rounds (default 5, the first one is warm-up)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.HashTableBatchBenchmark --args="1000000 5"
+ */
+public class HashTableBatchBenchmark {
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+    String[] keys = new String[n];
+    Integer[] values = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = "key-" + i;
+      values[i] = i;
+    }
+    // Entries are allocated in insertion order; looking them up in that order would hide the cache misses
+    String[] probes = keys.clone();
+    Random rnd = new Random(42);
+    for (int i = n - 1; i > 0; i--) {
+      int j = rnd.nextInt(i + 1);
+      String t = probes[i];
+      probes[i] = probes[j];
+      probes[j] = t;
+    }
+    Integer[] out = new Integer[n];
+    long sink = 0;
+
+    for (int r = 0; r < rounds; r++) {
+      HashTable<String, Integer> loop = new HashTable<>();
+      long t0 = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+        loop.put(keys[i], values[i]);
+      }
+      long t1 = System.nanoTime();
+      for (int i = 0; i < n; i++) {
+        sink += loop.get(probes[i]);
+      }
+      long t2 = System.nanoTime();
+
+      HashTable<String, Integer> batch = new HashTable<>();
+      long t3 = System.nanoTime();
+      batch.putAll(keys, values);
+      long t4 = System.nanoTime();
+      sink += batch.getAll(probes, out);
+      long t5 = System.nanoTime();
+
+      System.out.println((r == 0 ? "warm-up " : "round " + r + " ")
+          + "put loop=" + nsPerOp(t1 - t0, n) + " putAll=" + nsPerOp(t4 - t3, n)
+          + " | get loop=" + nsPerOp(t2 - t1, n) + " getAll=" + nsPerOp(t5 - t4, n) + " (ns/op)");
+    }
+    System.out.println("sink=" + sink);
+  }
+
+  private static String nsPerOp(long nanos, int ops) {
+    return String.format("%.1f", nanos / (double) ops);
+  }
+}
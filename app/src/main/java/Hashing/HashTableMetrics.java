@@ -0,0 +1,81 @@
+package Hashing;
+
+/**
+ * Operation counters for one {@link HashTable}. The table is single-threaded,
+ * so the counters are plain fields written by the owning thread; a JMX client
+ * reading them from another thread may see slightly stale values.
+ */
+public class HashTableMetrics implements HashTableMetricsMBean {
+  private final HashTable<?, ?> table;
+  long gets;
+  long hits;
+  long puts;
+  long removes;
+  long collisions;
+  long rehashes;
+
+  HashTableMetrics(HashTable<?, ?> table) {
+    this.table = table;
+  }
+
+  @Override
+  public long getGets() {
+    return gets;
+  }
+
+  @Override
+  public long getHits() {
+    return hits;
+  }
+
+  @Override
+  public long getMisses() {
+    return gets - hits;
+  }
+
+  @Override
+  public long getPuts() {
+    return puts;
+  }
+
+  @Override
+  public long getRemoves() {
+    return removes;
+  }
+
+  /** Puts of a new key into a bucket that already held an entry. */
+  @Override
+  public long getCollisions() {
+    return collisions;
+  }
+
+  @Override
+  public long getRehashes() {
+    return rehashes;
+  }
+
+  @Override
+  public int getSize() {
+    return table.size();
+  }
+
+  @Override
+  public int getCapacity() {
+    return table.capacity();
+  }
+
+  @Override
+  public double getLoadFactor() {
+    return table.currentLoadFactor();
+  }
+
+  @Override
+  public int getMaxChainLength() {
+    return table.stats().maxChain();
+  }
+
+  @Override
+  public void reset() {
+    gets = hits = puts = removes = collisions = rehashes = 0;
+  }
+}
@@ -0,0 +1,31 @@
+package Hashing;
+
+/**
+ * JMX view of the counters of one {@link HashTable}, see
+ * {@link HashTable#enableMetrics(String)}.
+ */
+public interface HashTableMetricsMBean {
+  long getGets();
+
+  long getHits();
+
+  long getMisses();
+
+  long getPuts();
+
+  long getRemoves();
+
+  long getCollisions();
+
+  long getRehashes();
+
+  int getSize();
+
+  int getCapacity();
+
+  double getLoadFactor();
+
+  int getMaxChainLength();
+
+  void reset();
+}
@@ -0,0 +1,249 @@
+package Hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process lookup service that lets many threads share one {@link HashTable}.
+ * It is meant to be called from virtual threads: the blocking methods park the
+ * caller instead of tying up a platform thread, so tens of thousands of
+ * concurrent callers are cheap.
+ *
+ * <ul>
+ *   <li>Concurrent {@code get}s of the same key are coalesced: the first caller
+ *   does the lookup and the others wait for its result instead of queueing
+ *   for the lock themselves.</li>
+ *   <li>Writes ({@code put}, {@code remove}) are queued and applied in batches
+ *   by one writer virtual thread, one write-lock acquisition per batch. A
+ *   write's future completes once the write is visible to every later
+ *   {@code get}.</li>
+ * </ul>
+ *
+ * <p>Lookups take the read lock, so they run in parallel with each other. The
+ * table's optional {@linkplain HashTable#enableMetrics metrics} are plain
+ * counters and may undercount reads under this concurrency.
+ */
+public class HashTableService<K, V> implements AutoCloseable {
+  public static final int DEFAULT_MAX_BATCH = 256;
+
+  private static final class Write<K, V> {
+    final K key;
+    final V value;
+    final boolean remove;
+    final CompletableFuture<V> result = new CompletableFuture<>();
+    // Outcome, held back until the batch is visible to readers
+    V previous;
+    RuntimeException failure;
+
+    Write(K key, V value, boolean remove) {
+      this.key = key;
+      this.value = value;
+      this.remove = remove;
+    }
+  }
+
+  private static final Write<?, ?> SHUTDOWN = new Write<>(null, null, false);
+
+  private final HashTable<K, V> table;
+  private final int maxBatch;
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+  private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+  private final BlockingQueue<Write<K, V>> writes = new LinkedBlockingQueue<>();
+  private final Thread writer;
+  private volatile boolean closed;
+
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder coalescedGets = new LongAdder();
+  private final LongAdder appliedWrites = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+
+  public HashTableService() {
+    this(new HashTable<>(), DEFAULT_MAX_BATCH);
+  }
+
+  /**
+   * @param table    table to serve; it must not be used directly while the service runs
+   * @param maxBatch largest number of writes applied under one lock acquisition
+   */
+  public HashTableService(HashTable<K, V> table, int maxBatch) {
+    if (maxBatch < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1");
+    }
+    this.table = Objects.requireNonNull(table, "table");
+    this.maxBatch = maxBatch;
+    this.writer = Thread.ofVirtual().name("hashtable-service-writer").start(this::writeLoop);
+  }
+
+  /** Blocks until the value for {@code key} (or {@code null}) is available. */
+  public V get(K key) {
+    return await(getAsync(key));
+  }
+
+  /**
+   * Looks up {@code key}, or joins a lookup of the same key that is already
+   * running. The returned future is usually already complete.
+   */
+  public CompletableFuture<V> getAsync(K key) {
+    Objects.requireNonNull(key, "key");
+    CompletableFuture<V> running = inFlight.get(key);
+    if (running != null) {
+      coalescedGets.increment();
+      return running;
+    }
+    CompletableFuture<V> mine = new CompletableFuture<>();
+    running = inFlight.putIfAbsent(key, mine);
+    if (running != null) {
+      coalescedGets.increment();
+      return running;
+    }
+    lookups.increment();
+    lock.readLock().lock();
+    try {
+      mine.complete(table.get(key));
+    } catch (RuntimeException e) {
+      mine.completeExceptionally(e);
+    } finally {
+      lock.readLock().unlock();
+      inFlight.remove(key, mine);
+    }
+    return mine;
+  }
+
+  /** Blocks until the write is applied; returns the previous value. */
+  public V put(K key, V value) {
+    return await(putAsync(key, value));
+  }
+
+  public CompletableFuture<V> putAsync(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    return submit(new Write<>(key, value, false));
+  }
+
+  public V remove(K key) {
+    return await(removeAsync(key));
+  }
+
+  public CompletableFuture<V> removeAsync(K key) {
+    Objects.requireNonNull(key, "key");
+    return submit(new Write<>(key, null, true));
+  }
+
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return table.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Lookups that actually read the table. */
+  public long lookups() {
+    return lookups.sum();
+  }
+
+  /** Gets answered by joining another caller's lookup. */
+  public long coalescedGets() {
+    return coalescedGets.sum();
+  }
+
+  public long appliedWrites() {
+    return appliedWrites.sum();
+  }
+
+  /** Write batches applied; {@code appliedWrites() / batches()} is the mean batch size. */
+  public long batches() {
+    return batches.sum();
+  }
+
+  /** Applies the writes already queued, then stops the writer. Later writes are rejected. */
+  @Override
+  public void close() throws InterruptedException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    @SuppressWarnings("unchecked")
+    Write<K, V> shutdown = (Write<K, V>) SHUTDOWN;
+    writes.add(shutdown);
+    writer.join();
+  }
+
+  private CompletableFuture<V> submit(Write<K, V> write) {
+    writes.add(write);
+    // Enqueue first, then check: if the writer has already stopped, nobody will take it
+    if (closed && writes.remove(write)) {
+      throw new IllegalStateException("Service is closed");
+    }
+    return write.result;
+  }
+
+  private void writeLoop() {
+    List<Write<K, V>> batch = new ArrayList<>(maxBatch);
+    boolean running = true;
+    while (running) {
+      try {
+        batch.add(writes.take());
+      } catch (InterruptedException e) {
+        continue; // only close() stops the writer, so queued writes are never lost
+      }
+      writes.drainTo(batch, maxBatch - 1);
+      List<Write<K, V>> applied = new ArrayList<>(batch.size());
+      lock.writeLock().lock();
+      try {
+        for (Write<K, V> w : batch) {
+          if (w == SHUTDOWN) {
+            running = false;
+            continue;
+          }
+          try {
+            w.previous = w.remove ? table.remove(w.key) : table.put(w.key, w.value);
+          } catch (RuntimeException e) {
+            w.failure = e;
+          }
+          applied.add(w);
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+      // Lookups that started before the batch must not answer callers that arrive after it
+      for (Write<K, V> w : applied) {
+        inFlight.remove(w.key);
+      }
+      appliedWrites.add(applied.size());
+      batches.increment();
+      batch.clear();
+      // Complete outside the lock so dependent actions do not run while holding it
+      for (Write<K, V> w : applied) {
+        if (w.failure != null) {
+          w.result.completeExceptionally(w.failure);
+        } else {
+          w.result.complete(w.previous);
+        }
+      }
+    }
+    // Writes that raced with close() and landed behind the shutdown marker
+    for (Write<K, V> w; (w = writes.poll()) != null; ) {
+      w.result.completeExceptionally(new IllegalStateException("Service is closed"));
+    }
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
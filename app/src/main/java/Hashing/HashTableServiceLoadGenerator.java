@@ -0,0 +1,184 @@
+package Hashing;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hand-run load generator for {@link HashTableService}. Starts one virtual
+ * thread per caller; every caller loops get/put requests against a shared
+ * key trace until the time is up. The same load is then run against a plain
+ * {@link HashTable} behind one {@link ReentrantLock}, which is what callers
+ * would do without the service.
+ *
+ * <p>Each row reports completed requests per second and latency percentiles
+ * per request, including the time a caller is parked waiting for the lock,
+ * another caller's lookup, or its write batch.
+ *
+ * CLI:
+ * args[0] = concurrent callers, comma separated (default 1000,10000,50000)
+ * args[1] = seconds per run (default 5)
+ * args[2] = distinct keys (default 100000)
+ * args[3] = write percentage (default 5)
+ * args[4] = key distribution, uniform or zipf (default zipf)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.HashTableServiceLoadGenerator --args="10000,100000 5 100000 5 zipf"
+ */
+public class HashTableServiceLoadGenerator {
+  private static final long SEED = 42;
+  private static final int TRACE_LENGTH = 1 << 20;
+  // Callers share a few histograms instead of each keeping a 30 KB one
+  private static final int HISTOGRAM_STRIPES = 64;
+
+  private interface Target {
+    Integer get(Integer key);
+
+    void put(Integer key, Integer value);
+  }
+
+  public static void main(String[] args) throws Exception {
+    String[] callerCounts = (args.length > 0 ? args[0] : "1000,10000,50000").split(",");
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+    int keys = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+    int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+    String distribution = args.length > 4 ? args[4] : "zipf";
+    if (writePercent < 0 || writePercent > 100) {
+      throw new IllegalArgumentException("Write percentage must be in [0, 100]");
+    }
+
+    Integer[] keyObjects = new Integer[keys];
+    for (int i = 0; i < keys; i++) {
+      keyObjects[i] = i;
+    }
+    int[] trace = trace(distribution, keys);
+
+    System.out.println("keys=" + keys + " writes=" + writePercent + "% dist=" + distribution
+        + " seconds=" + seconds + " seed=" + SEED);
+    System.out.printf("%-8s %-18s %10s %10s %9s  %s%n",
+        "callers", "target", "Mreq/s", "coalesced", "batch", "latency (ns)");
+    for (String c : callerCounts) {
+      int callers = Integer.parseInt(c.trim());
+
+      HashTableService<Integer, Integer> service =
+          new HashTableService<>(filledTable(keyObjects), HashTableService.DEFAULT_MAX_BATCH);
+      Target serviceTarget = new Target() {
+        public Integer get(Integer key) {
+          return service.get(key);
+        }
+
+        public void put(Integer key, Integer value) {
+          service.put(key, value);
+        }
+      };
+      LatencyHistogram latency = new LatencyHistogram();
+      double throughput = run(serviceTarget, callers, seconds, keyObjects, trace, writePercent, latency);
+      long gets = service.lookups() + service.coalescedGets();
+      double coalesced = gets == 0 ? 0 : 100.0 * service.coalescedGets() / gets;
+      double batch = service.batches() == 0 ? 0 : (double) service.appliedWrites() / service.batches();
+      service.close();
+      System.out.printf("%-8d %-18s %10.2f %9.1f%% %9.1f  %s%n",
+          callers, "HashTableService", throughput, coalesced, batch, latency.summary());
+
+      HashTable<Integer, Integer> table = filledTable(keyObjects);
+      ReentrantLock lock = new ReentrantLock();
+      Target lockedTarget = new Target() {
+        public Integer get(Integer key) {
+          lock.lock();
+          try {
+            return table.get(key);
+          } finally {
+            lock.unlock();
+          }
+        }
+
+        public void put(Integer key, Integer value) {
+          lock.lock();
+          try {
+            table.put(key, value);
+          } finally {
+            lock.unlock();
+          }
+        }
+      };
+      latency.reset();
+      throughput = run(lockedTarget, callers, seconds, keyObjects, trace, writePercent, latency);
+      System.out.printf("%-8d %-18s %10.2f %10s %9s  %s%n",
+          callers, "locked HashTable", throughput, "-", "-", latency.summary());
+    }
+  }
+
+  /** Returns millions of completed requests per second; request latencies go into {@code latency}. */
+  private static double run(Target target, int callers, int seconds, Integer[] keys, int[] trace,
+      int writePercent, LatencyHistogram latency) throws InterruptedException {
+    LatencyHistogram[] histograms = new LatencyHistogram[HISTOGRAM_STRIPES];
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new LatencyHistogram();
+    }
+    LongAdder requests = new LongAdder();
+    long start = System.nanoTime();
+    long deadline = start + seconds * 1_000_000_000L;
+    try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int caller = 0; caller < callers; caller++) {
+        LatencyHistogram histogram = histograms[caller % HISTOGRAM_STRIPES];
+        // Spread callers over the trace so they do not request keys in lockstep
+        int offset = (int) ((caller * 0x9E3779B97F4A7C15L) >>> 44);
+        SplittableRandom rng = new SplittableRandom(SEED + caller);
+        executor.submit(() -> {
+          int i = offset;
+          long done = 0;
+          long now = System.nanoTime();
+          while (now < deadline) {
+            Integer key = keys[trace[i++ & (TRACE_LENGTH - 1)]];
+            if (rng.nextInt(100) < writePercent) {
+              target.put(key, key);
+            } else {
+              target.get(key);
+            }
+            long end = System.nanoTime();
+            synchronized (histogram) {
+              histogram.record(end - now);
+            }
+            now = end;
+            done++;
+          }
+          requests.add(done);
+        });
+      }
+    } // close() waits for every caller
+    long elapsed = System.nanoTime() - start;
+
+    for (LatencyHistogram h : histograms) {
+      latency.add(h);
+    }
+    return requests.sum() * 1e3 / elapsed;
+  }
+
+  private static HashTable<Integer, Integer> filledTable(Integer[] keys) {
+    HashTable<Integer, Integer> table = new HashTable<>();
+    for (Integer key : keys) {
+      table.put(key, key);
+    }
+    return table;
+  }
+
+  private static int[] trace(String distribution, int keys) {
+    int[] trace = new int[TRACE_LENGTH];
+    if (distribution.equals("zipf")) {
+      ZipfianGenerator zipf = new ZipfianGenerator(keys, SEED);
+      for (int i = 0; i < trace.length; i++) {
+        trace[i] = (int) zipf.next();
+      }
+    } else if (distribution.equals("uniform")) {
+      SplittableRandom rng = new SplittableRandom(SEED);
+      for (int i = 0; i < trace.length; i++) {
+        trace[i] = rng.nextInt(keys);
+      }
+    } else {
+      throw new IllegalArgumentException("Unknown distribution: " + distribution);
+    }
+    return trace;
+  }
+}
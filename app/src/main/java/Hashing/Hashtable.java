@@ -1,15 +1,59 @@
 package Hashing;
 
 import Lists.MyLinkedList;
+import java.lang.management.ManagementFactory;
+import java.security.SecureRandom;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * Generic hash table backed by separate chaining using {@link MyLinkedList}.
+ *
+ * <p>The bulk operations ({@link #parallelForEach}, {@link #reduce},
+ * {@link #search}) split the bucket array into ranges and run them on the
+ * common {@link java.util.concurrent.ForkJoinPool}. They only read the table,
+ * so the caller must not mutate it while a bulk operation is running.
+ *
+ * <p>Instrumentation: every rehash emits a {@link RehashEvent} and every lookup
+ * comparing at least {@link #LONG_PROBE_THRESHOLD} keys emits a
+ * {@link LongProbeEvent} to JDK Flight Recorder. Both are created only on those
+ * rare paths and cost nothing unless a recording enables them. Operation
+ * counters are off until {@link #enableMetrics(String)} registers a
+ * {@link HashTableMetrics} MBean; while off, each operation pays one null check.
+ *
+ * <p>By default bucket indices are {@linkplain KeyHashing#SEEDED seeded}: each
+ * table draws a random 128-bit key and hashes keys with {@link SipHash}, so an
+ * attacker cannot pick keys that all land in one chain.
  */
 public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
 
+  /** How bucket indices are computed from keys. */
+  public enum KeyHashing {
+    /**
+     * SipHash under a per-table random key: of {@link SeededHashable#identityBits()},
+     * of the characters of a {@code String}, or otherwise of {@code hashCode()}
+     * (which only helps if distinct keys have distinct hash codes).
+     */
+    SEEDED,
+    /** The key's own {@code hashCode()} with the high bits folded in; deterministic. */
+    HASH_CODE
+  }
+
   public static final class Entry<K, V> {
     public final K key;
     public V value;
@@ -25,28 +69,76 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     }
   }
 
+  /** Largest bucket array the table will allocate. */
+  private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+  /** Number of keys whose buckets are loaded together in the batch operations. */
+  private static final int BATCH_GROUP = 8;
+  /** Lookups comparing at least this many keys are reported as {@link LongProbeEvent}s. */
+  public static final int LONG_PROBE_THRESHOLD = Integer.getInteger("hashing.longProbeThreshold", 8);
+
   private MyLinkedList<Entry<K, V>>[] buckets;
   private int capacity;
   private int size;
+  private final int minCapacity;
   private final double loadFactor;
+  private final double shrinkFactor;
   private long collisions;
+  // Chain-length statistics, updated on every insert and removal
+  private long sumSquares;
+  private int maxChain;
+  private long[] chainHistogram;
+  private HashTableMetrics metrics;
+  private ObjectName metricsName;
+  private final KeyHashing keyHashing;
+  private final long seed0;
+  private final long seed1;
+
+  private static final SplittableRandom SEEDS = new SplittableRandom(new SecureRandom().nextLong());
 
   public HashTable() {
     this(16, 0.75);
   }
 
   public HashTable(int initialCapacity, double loadFactor) {
+    this(initialCapacity, loadFactor, loadFactor / 4);
+  }
+
+  /**
+   * @param shrinkFactor the table halves its capacity (never below
+   *                     {@code initialCapacity}) when a removal leaves the load
+   *                     under this value; {@code 0} disables shrinking
+   */
+  public HashTable(int initialCapacity, double loadFactor, double shrinkFactor) {
+    this(initialCapacity, loadFactor, shrinkFactor, KeyHashing.SEEDED);
+  }
+
+  public HashTable(int initialCapacity, double loadFactor, KeyHashing keyHashing) {
+    this(initialCapacity, loadFactor, loadFactor / 4, keyHashing);
+  }
+
+  public HashTable(int initialCapacity, double loadFactor, double shrinkFactor, KeyHashing keyHashing) {
     if (initialCapacity <= 0) {
       throw new IllegalArgumentException("Initial capacity must be greater than zero");
     }
     if (loadFactor <= 0.0 || loadFactor >= 1.0) {
       throw new IllegalArgumentException("Load factor must be between 0 and 1");
     }
+    if (shrinkFactor < 0.0 || shrinkFactor >= loadFactor / 2) {
+      throw new IllegalArgumentException("Shrink factor must be between 0 and half the load factor");
+    }
     this.capacity = initialCapacity;
+    this.minCapacity = initialCapacity;
     this.loadFactor = loadFactor;
+    this.shrinkFactor = shrinkFactor;
+    this.keyHashing = Objects.requireNonNull(keyHashing, "keyHashing");
+    synchronized (SEEDS) {
+      this.seed0 = SEEDS.nextLong();
+      this.seed1 = SEEDS.nextLong();
+    }
     this.buckets = newBucketArray(capacity);
     this.size = 0;
     this.collisions = 0;
+    resetChainStats();
   }
 
   public int size() {
@@ -65,10 +157,19 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     return capacity == 0 ? 0.0 : (double) size / capacity;
   }
 
+  /** Removes all entries and drops a bucket array that has grown past the initial capacity. */
   public void clear() {
     if (buckets == null) {
       return;
     }
+    if (capacity > minCapacity) {
+      capacity = minCapacity;
+      buckets = newBucketArray(capacity);
+      size = 0;
+      collisions = 0;
+      resetChainStats();
+      return;
+    }
     for (int i = 0; i < buckets.length; i++) {
       if (buckets[i] != null) {
         buckets[i].clear();
@@ -77,10 +178,33 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     }
     size = 0;
     collisions = 0;
+    resetChainStats();
+  }
+
+  /**
+   * Chain-length statistics of the current table. They are maintained on every
+   * insert, removal and rehash, so this costs O(longest chain) and does not
+   * scan the buckets.
+   */
+  public ChainStats stats() {
+    return new ChainStats(size, sumSquares, maxChain, Arrays.copyOf(chainHistogram, maxChain + 1));
   }
 
   public V get(K key) {
+    Entry<K, V> entry = findEntry(key, "get");
+    return entry == null ? null : entry.value;
+  }
+
+  public boolean containsKey(K key) {
+    return findEntry(key, "containsKey") != null;
+  }
+
+  private Entry<K, V> findEntry(K key, String operation) {
     Objects.requireNonNull(key, "key");
+    HashTableMetrics m = metrics;
+    if (m != null) {
+      m.gets++;
+    }
     if (capacity == 0) {
       return null;
     }
@@ -89,30 +213,64 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     if (chain == null || chain.isEmpty()) {
       return null;
     }
+    int probes = 0;
     for (Entry<K, V> entry : chain) {
+      probes++;
       if (key.equals(entry.key)) {
-        return entry.value;
+        if (m != null) {
+          m.hits++;
+        }
+        if (probes >= LONG_PROBE_THRESHOLD) {
+          reportLongProbe(operation, probes, chain.size(), true);
+        }
+        return entry;
       }
     }
+    if (probes >= LONG_PROBE_THRESHOLD) {
+      reportLongProbe(operation, probes, chain.size(), false);
+    }
     return null;
   }
 
-  public boolean containsKey(K key) {
-    Objects.requireNonNull(key, "key");
-    if (capacity == 0) {
-      return false;
+  /**
+   * Starts counting operations and registers the counters as the MBean
+   * {@code Hashing:type=HashTable,name="<name>"} on the platform MBean server.
+   */
+  public HashTableMetrics enableMetrics(String name) {
+    Objects.requireNonNull(name, "name");
+    if (metrics != null) {
+      throw new IllegalStateException("Metrics are already enabled as " + metricsName);
     }
-    int idx = index(key);
-    MyLinkedList<Entry<K, V>> chain = buckets[idx];
-    if (chain == null || chain.isEmpty()) {
-      return false;
+    HashTableMetrics m = new HashTableMetrics(this);
+    try {
+      ObjectName objectName = new ObjectName("Hashing:type=HashTable,name=" + ObjectName.quote(name));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(m, objectName);
+      metricsName = objectName;
+    } catch (JMException e) {
+      throw new IllegalStateException("Could not register metrics MBean for " + name, e);
     }
-    for (Entry<K, V> entry : chain) {
-      if (key.equals(entry.key)) {
-        return true;
-      }
+    metrics = m;
+    return m;
+  }
+
+  /** Stops counting and unregisters the MBean. Does nothing if metrics are off. */
+  public void disableMetrics() {
+    if (metrics == null) {
+      return;
     }
-    return false;
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+    } catch (JMException e) {
+      throw new IllegalStateException("Could not unregister " + metricsName, e);
+    } finally {
+      metrics = null;
+      metricsName = null;
+    }
+  }
+
+  /** The live counters, or {@code null} while metrics are off. */
+  public HashTableMetrics metrics() {
+    return metrics;
   }
 
   public V put(K key, V value) {
@@ -120,7 +278,14 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     ensureCapacityForInsert();
 
     int idx = index(key);
-    MyLinkedList<Entry<K, V>> chain = ensureChain(idx);
+    return putInChain(ensureChain(idx), key, value);
+  }
+
+  private V putInChain(MyLinkedList<Entry<K, V>> chain, K key, V value) {
+    HashTableMetrics m = metrics;
+    if (m != null) {
+      m.puts++;
+    }
     for (Entry<K, V> entry : chain) {
       if (key.equals(entry.key)) {
         V oldValue = entry.value;
@@ -129,12 +294,143 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
       }
     }
 
+    if (m != null && !chain.isEmpty()) {
+      m.collisions++;
+    }
     addEntryToChain(chain, new Entry<>(key, value));
     return null;
   }
 
+  /**
+   * Returns the value for {@code key}, computing and inserting it with
+   * {@code mappingFunction} if absent. A {@code null} result is not stored.
+   */
+  public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+    Objects.requireNonNull(key, "key");
+    Objects.requireNonNull(mappingFunction, "mappingFunction");
+    if (capacity > 0) {
+      MyLinkedList<Entry<K, V>> chain = buckets[index(key)];
+      if (chain != null) {
+        for (Entry<K, V> entry : chain) {
+          if (key.equals(entry.key) && entry.value != null) {
+            return entry.value;
+          }
+        }
+      }
+    }
+    V value = mappingFunction.apply(key);
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Inserts {@code keys[i] -> values[i]} for every {@code i}. The table is
+   * sized once for the whole batch and bucket indices are computed up front;
+   * keys are then handled a group at a time, with a first pass that loads
+   * every chain of the group and its first entry so that those cache misses
+   * overlap instead of being paid one call at a time.
+   */
+  public void putAll(K[] keys, V[] values) {
+    Objects.requireNonNull(keys, "keys");
+    Objects.requireNonNull(values, "values");
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("keys and values must have the same length");
+    }
+    for (K key : keys) {
+      Objects.requireNonNull(key, "key");
+    }
+    if (keys.length == 0) {
+      return;
+    }
+    ensureCapacityFor((long) size + keys.length);
+
+    int[] idx = indices(keys);
+    MyLinkedList<Entry<K, V>>[] group = newBucketArray(BATCH_GROUP);
+    Object[] firstKeys = new Object[BATCH_GROUP];
+    for (int start = 0; start < keys.length; start += BATCH_GROUP) {
+      int end = Math.min(start + BATCH_GROUP, keys.length);
+      loadGroup(idx, start, end, group, firstKeys);
+      for (int i = start; i < end; i++) {
+        MyLinkedList<Entry<K, V>> chain = group[i - start];
+        if (chain == null) {
+          // An earlier key in the same group may have created the chain.
+          chain = ensureChain(idx[i]);
+        }
+        Object first = firstKeys[i - start];
+        if (first != null && keys[i].equals(first)) {
+          if (metrics != null) {
+            metrics.puts++;
+          }
+          chain.peekFirst().value = values[i];
+        } else {
+          putInChain(chain, keys[i], values[i]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Looks up every key in {@code keys} and stores the value (or {@code null})
+   * in the same position of {@code out}. Returns the number of keys found.
+   * Chains are loaded a group at a time, as in {@link #putAll}.
+   */
+  public int getAll(K[] keys, V[] out) {
+    Objects.requireNonNull(keys, "keys");
+    Objects.requireNonNull(out, "out");
+    if (out.length < keys.length) {
+      throw new IllegalArgumentException("out must be at least as long as keys");
+    }
+    for (K key : keys) {
+      Objects.requireNonNull(key, "key");
+    }
+    if (capacity == 0) {
+      Arrays.fill(out, 0, keys.length, null);
+      return 0;
+    }
+
+    int found = 0;
+    int[] idx = indices(keys);
+    MyLinkedList<Entry<K, V>>[] group = newBucketArray(BATCH_GROUP);
+    Object[] firstKeys = new Object[BATCH_GROUP];
+    for (int start = 0; start < keys.length; start += BATCH_GROUP) {
+      int end = Math.min(start + BATCH_GROUP, keys.length);
+      loadGroup(idx, start, end, group, firstKeys);
+      for (int i = start; i < end; i++) {
+        out[i] = null;
+        MyLinkedList<Entry<K, V>> chain = group[i - start];
+        if (chain == null) {
+          continue;
+        }
+        // Most chains hold one entry, and its key is already loaded
+        Object first = firstKeys[i - start];
+        if (first != null && keys[i].equals(first)) {
+          out[i] = chain.peekFirst().value;
+          found++;
+          continue;
+        }
+        for (Entry<K, V> entry : chain) {
+          if (keys[i].equals(entry.key)) {
+            out[i] = entry.value;
+            found++;
+            break;
+          }
+        }
+      }
+    }
+    if (metrics != null) {
+      metrics.gets += keys.length;
+      metrics.hits += found;
+    }
+    return found;
+  }
+
   public V remove(K key) {
     Objects.requireNonNull(key, "key");
+    if (metrics != null) {
+      metrics.removes++;
+    }
     if (capacity == 0) {
       return null;
     }
@@ -155,17 +451,47 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
       return null;
     }
 
+    int chainLength = chain.size();
     boolean removed = chain.removeFirstMatch(entry -> key.equals(entry.key));
     if (removed) {
       size--;
+      recordChainShrink(chainLength);
       if (chain.isEmpty()) {
         buckets[idx] = null;
       }
+      shrinkIfSparse();
       return removedValue;
     }
     return null;
   }
 
+  /**
+   * Grows the table once so that {@code expectedEntries} entries fit without
+   * further rehashing.
+   */
+  public void ensureCapacity(int expectedEntries) {
+    if (expectedEntries < 0) {
+      throw new IllegalArgumentException("Expected entries must not be negative");
+    }
+    ensureCapacityFor(expectedEntries);
+  }
+
+  /** Shrinks the bucket array to the smallest capacity that holds the current entries. */
+  public void trimToSize() {
+    int target = (int) Math.max(1, Math.ceil(size / loadFactor));
+    if (target < capacity) {
+      rehash(target);
+    }
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+
+  public KeyHashing keyHashing() {
+    return keyHashing;
+  }
+
   public int[] bucketSizes() {
     if (buckets == null) {
       return new int[0];
@@ -215,19 +541,318 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     };
   }
 
+  @Override
+  public Spliterator<Entry<K, V>> spliterator() {
+    return new BucketSpliterator(0, capacity);
+  }
+
+  /**
+   * Applies {@code action} to every entry, in parallel once the table holds at
+   * least {@code parallelismThreshold} entries.
+   */
+  public void parallelForEach(long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+    Objects.requireNonNull(action, "action");
+    new ForEachTask(0, capacity, parallelismThreshold, action).invoke();
+  }
+
+  /**
+   * Transforms every entry and combines the non-null results with
+   * {@code reducer}. Returns {@code null} if there are no results.
+   */
+  public <U> U reduce(long parallelismThreshold,
+      BiFunction<? super K, ? super V, ? extends U> transformer,
+      BiFunction<? super U, ? super U, ? extends U> reducer) {
+    Objects.requireNonNull(transformer, "transformer");
+    Objects.requireNonNull(reducer, "reducer");
+    return new ReduceTask<U>(0, capacity, parallelismThreshold, transformer, reducer).invoke();
+  }
+
+  /**
+   * Returns a non-null result of {@code searchFunction} for some entry, or
+   * {@code null} if there is none. Remaining tasks stop once a result is found.
+   */
+  public <U> U search(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> searchFunction) {
+    Objects.requireNonNull(searchFunction, "searchFunction");
+    AtomicReference<U> result = new AtomicReference<>();
+    new SearchTask<U>(0, capacity, parallelismThreshold, searchFunction, result).invoke();
+    return result.get();
+  }
+
+  /** Estimated number of entries in buckets {@code [lo, hi)}. */
+  private long estimateEntries(int lo, int hi) {
+    return capacity == 0 ? 0 : (long) size * (hi - lo) / capacity;
+  }
+
+  /**
+   * A bucket range is processed in the current thread once the table is below
+   * the threshold, the range holds fewer entries than the threshold, or the
+   * range is already small enough to give each pool worker a few tasks.
+   */
+  private boolean runSequentially(int lo, int hi, long parallelismThreshold) {
+    if (size < parallelismThreshold) {
+      return true;
+    }
+    int minBuckets = Math.max(1, capacity / (ForkJoinPool.getCommonPoolParallelism() << 3));
+    return hi - lo <= minBuckets || estimateEntries(lo, hi) < Math.max(parallelismThreshold, 1);
+  }
+
+  private final class ForEachTask extends RecursiveAction {
+    private final int lo;
+    private final int hi;
+    private final long threshold;
+    private final BiConsumer<? super K, ? super V> action;
+
+    ForEachTask(int lo, int hi, long threshold, BiConsumer<? super K, ? super V> action) {
+      this.lo = lo;
+      this.hi = hi;
+      this.threshold = threshold;
+      this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+      if (runSequentially(lo, hi, threshold)) {
+        for (int i = lo; i < hi; i++) {
+          MyLinkedList<Entry<K, V>> chain = buckets[i];
+          if (chain != null) {
+            for (Entry<K, V> entry : chain) {
+              action.accept(entry.key, entry.value);
+            }
+          }
+        }
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      ForkJoinTask.invokeAll(new ForEachTask(lo, mid, threshold, action),
+          new ForEachTask(mid, hi, threshold, action));
+    }
+  }
+
+  private final class ReduceTask<U> extends RecursiveTask<U> {
+    private final int lo;
+    private final int hi;
+    private final long threshold;
+    private final BiFunction<? super K, ? super V, ? extends U> transformer;
+    private final BiFunction<? super U, ? super U, ? extends U> reducer;
+
+    ReduceTask(int lo, int hi, long threshold,
+        BiFunction<? super K, ? super V, ? extends U> transformer,
+        BiFunction<? super U, ? super U, ? extends U> reducer) {
+      this.lo = lo;
+      this.hi = hi;
+      this.threshold = threshold;
+      this.transformer = transformer;
+      this.reducer = reducer;
+    }
+
+    @Override
+    protected U compute() {
+      if (runSequentially(lo, hi, threshold)) {
+        U acc = null;
+        for (int i = lo; i < hi; i++) {
+          MyLinkedList<Entry<K, V>> chain = buckets[i];
+          if (chain != null) {
+            for (Entry<K, V> entry : chain) {
+              acc = combine(acc, transformer.apply(entry.key, entry.value));
+            }
+          }
+        }
+        return acc;
+      }
+      int mid = (lo + hi) >>> 1;
+      ReduceTask<U> right = new ReduceTask<>(mid, hi, threshold, transformer, reducer);
+      right.fork();
+      U left = new ReduceTask<U>(lo, mid, threshold, transformer, reducer).compute();
+      return combine(left, right.join());
+    }
+
+    private U combine(U a, U b) {
+      if (a == null) {
+        return b;
+      }
+      return b == null ? a : reducer.apply(a, b);
+    }
+  }
+
+  private final class SearchTask<U> extends RecursiveAction {
+    private final int lo;
+    private final int hi;
+    private final long threshold;
+    private final BiFunction<? super K, ? super V, ? extends U> searchFunction;
+    private final AtomicReference<U> result;
+
+    SearchTask(int lo, int hi, long threshold,
+        BiFunction<? super K, ? super V, ? extends U> searchFunction, AtomicReference<U> result) {
+      this.lo = lo;
+      this.hi = hi;
+      this.threshold = threshold;
+      this.searchFunction = searchFunction;
+      this.result = result;
+    }
+
+    @Override
+    protected void compute() {
+      if (result.get() != null) {
+        return;
+      }
+      if (runSequentially(lo, hi, threshold)) {
+        for (int i = lo; i < hi && result.get() == null; i++) {
+          MyLinkedList<Entry<K, V>> chain = buckets[i];
+          if (chain == null) {
+            continue;
+          }
+          for (Entry<K, V> entry : chain) {
+            U found = searchFunction.apply(entry.key, entry.value);
+            if (found != null) {
+              result.compareAndSet(null, found);
+              return;
+            }
+          }
+        }
+        return;
+      }
+      int mid = (lo + hi) >>> 1;
+      ForkJoinTask.invokeAll(new SearchTask<>(lo, mid, threshold, searchFunction, result),
+          new SearchTask<>(mid, hi, threshold, searchFunction, result));
+    }
+  }
+
+  /** Spliterator over the bucket range {@code [lo, hi)}; splits in half by buckets. */
+  private final class BucketSpliterator implements Spliterator<Entry<K, V>> {
+    private int lo;
+    private final int hi;
+    private Iterator<Entry<K, V>> chainIt;
+
+    BucketSpliterator(int lo, int hi) {
+      this.lo = lo;
+      this.hi = hi;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+      Objects.requireNonNull(action, "action");
+      while (chainIt == null || !chainIt.hasNext()) {
+        if (lo >= hi) {
+          chainIt = null;
+          return false;
+        }
+        MyLinkedList<Entry<K, V>> chain = buckets[lo++];
+        chainIt = chain == null ? null : chain.iterator();
+      }
+      action.accept(chainIt.next());
+      return true;
+    }
+
+    @Override
+    public Spliterator<Entry<K, V>> trySplit() {
+      int mid = (lo + hi) >>> 1;
+      if (mid <= lo) {
+        return null;
+      }
+      BucketSpliterator prefix = new BucketSpliterator(lo, mid);
+      prefix.chainIt = chainIt;
+      chainIt = null;
+      lo = mid;
+      return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+      return estimateEntries(lo, hi);
+    }
+
+    @Override
+    public int characteristics() {
+      return Spliterator.DISTINCT | Spliterator.NONNULL;
+    }
+  }
+
   private void ensureCapacityForInsert() {
     if (capacity == 0) {
       rehash(1);
     } else if ((double) (size + 1) / capacity > loadFactor) {
-      rehash(capacity * 2);
+      rehash((int) Math.min(2L * capacity, MAX_CAPACITY));
+    }
+  }
+
+  private void shrinkIfSparse() {
+    if (capacity > minCapacity && size < shrinkFactor * capacity) {
+      rehash(Math.max(minCapacity, capacity / 2));
+    }
+  }
+
+  /** Grows the table once so that {@code expectedSize} entries fit under the load factor. */
+  private void ensureCapacityFor(long expectedSize) {
+    long needed = (long) Math.ceil(expectedSize / loadFactor);
+    if (needed > capacity) {
+      rehash((int) Math.min(needed, MAX_CAPACITY));
+    }
+  }
+
+  /**
+   * First pass of a batch group: loads the chain of every key in
+   * {@code [start, end)}, then each chain's first entry, then that entry's
+   * key. The loads of one level do not depend on each other, so their cache
+   * misses (bucket slot, list and head node, entry) overlap instead of being
+   * paid one key at a time in the second pass.
+   */
+  private void loadGroup(int[] idx, int start, int end, MyLinkedList<Entry<K, V>>[] group, Object[] firstKeys) {
+    int n = end - start;
+    for (int j = 0; j < n; j++) {
+      group[j] = buckets[idx[start + j]];
+    }
+    for (int j = 0; j < n; j++) {
+      firstKeys[j] = group[j] == null ? null : group[j].peekFirst();
     }
+    for (int j = 0; j < n; j++) {
+      // Entry<?, ?> from the loop above, replaced by its key
+      firstKeys[j] = firstKeys[j] == null ? null : ((Entry<?, ?>) firstKeys[j]).key;
+    }
+  }
+
+  /**
+   * Bucket indices of a batch. Hashing a key reads its contents, and the
+   * hash computation is long enough that the processor does not reach the
+   * next key's loads while one is missing, so each group's keys are first
+   * read in a cheap pass (a {@code String}'s length, a
+   * {@link SeededHashable}'s identity bits) whose misses overlap; the
+   * stores into {@code idx} keep those reads from being optimized away.
+   */
+  private int[] indices(K[] keys) {
+    int[] idx = new int[keys.length];
+    for (int start = 0; start < keys.length; start += BATCH_GROUP) {
+      int end = Math.min(start + BATCH_GROUP, keys.length);
+      for (int i = start; i < end; i++) {
+        if (keys[i] instanceof String) {
+          idx[i] = ((String) keys[i]).length();
+        } else if (keys[i] instanceof SeededHashable) {
+          idx[i] = (int) ((SeededHashable) keys[i]).identityBits();
+        }
+      }
+      for (int i = start; i < end; i++) {
+        idx[i] = index(keys[i]);
+      }
+    }
+    return idx;
   }
 
   private int index(Object key) {
-    int hash = key.hashCode();
-    hash ^= (hash >>> 16);
-    hash &= 0x7fffffff;
-    return hash % capacity;
+    if (keyHashing == KeyHashing.HASH_CODE) {
+      int hash = key.hashCode();
+      hash ^= (hash >>> 16);
+      hash &= 0x7fffffff;
+      return hash % capacity;
+    }
+    long hash;
+    if (key instanceof SeededHashable) {
+      hash = SipHash.hash(seed0, seed1, ((SeededHashable) key).identityBits());
+    } else if (key instanceof String) {
+      hash = SipHash.hash(seed0, seed1, (String) key);
+    } else {
+      hash = SipHash.hash(seed0, seed1, key.hashCode());
+    }
+    // Multiply-shift maps the top 32 bits onto [0, capacity)
+    return (int) (((hash >>> 32) * capacity) >>> 32);
   }
 
   private MyLinkedList<Entry<K, V>> ensureChain(int idx) {
@@ -243,18 +868,53 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     if (!chain.isEmpty()) {
       collisions++;
     }
+    recordChainGrowth(chain.size());
     chain.addLast(entry);
     size++;
   }
 
+  private void resetChainStats() {
+    sumSquares = 0;
+    maxChain = 0;
+    chainHistogram = new long[8];
+    chainHistogram[0] = capacity;
+  }
+
+  /** A chain of {@code length} entries gets one more. */
+  private void recordChainGrowth(int length) {
+    if (length + 1 >= chainHistogram.length) {
+      chainHistogram = Arrays.copyOf(chainHistogram, chainHistogram.length * 2);
+    }
+    chainHistogram[length]--;
+    chainHistogram[length + 1]++;
+    sumSquares += 2L * length + 1;
+    if (length + 1 > maxChain) {
+      maxChain = length + 1;
+    }
+  }
+
+  /** A chain of {@code length} entries loses one. */
+  private void recordChainShrink(int length) {
+    chainHistogram[length]--;
+    chainHistogram[length - 1]++;
+    sumSquares -= 2L * length - 1;
+    if (length == maxChain && chainHistogram[length] == 0) {
+      maxChain--;
+    }
+  }
+
   private void rehash(int newCapacity) {
+    RehashEvent event = new RehashEvent();
+    event.begin();
     MyLinkedList<Entry<K, V>>[] oldBuckets = buckets;
     int oldSize = size;
+    int oldCapacity = capacity;
 
     capacity = Math.max(newCapacity, 1);
     buckets = newBucketArray(capacity);
     size = 0;
     collisions = 0;
+    resetChainStats();
 
     if (oldBuckets == null) {
       return;
@@ -272,6 +932,28 @@ public class HashTable<K, V> implements Iterable<HashTable.Entry<K, V>> {
     }
 
     assert size == oldSize;
+    if (metrics != null) {
+      metrics.rehashes++;
+    }
+    event.end();
+    if (event.shouldCommit()) {
+      event.oldCapacity = oldCapacity;
+      event.newCapacity = capacity;
+      event.entriesMoved = size;
+      event.commit();
+    }
+  }
+
+  private void reportLongProbe(String operation, int probes, int chainLength, boolean found) {
+    LongProbeEvent event = new LongProbeEvent();
+    if (event.shouldCommit()) {
+      event.operation = operation;
+      event.probes = probes;
+      event.chainLength = chainLength;
+      event.capacity = capacity;
+      event.found = found;
+      event.commit();
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -0,0 +1,165 @@
+package Hashing;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Append-only store of Latin-1 string keys packed back to back in large
+ * {@code byte[]} chunks. A key is addressed by a {@code long} handle holding
+ * its position and length, so a table can keep keys as primitives instead of
+ * {@code String} objects: six plate characters cost six bytes here against
+ * about 48 for a {@code String} and its array.
+ *
+ * <p>Keys are never moved or freed; a key removed from a table keeps its
+ * bytes until the arena is dropped. An arena can be shared by several
+ * tables. Not thread-safe.
+ */
+public final class KeyArena {
+  /** Longest key that can be stored. */
+  public static final int MAX_KEY_LENGTH = 0xFFFF;
+  public static final int DEFAULT_CHUNK_BYTES = 1 << 24;
+  private static final int LENGTH_BITS = 16;
+
+  private final int chunkBits;
+  private byte[][] chunks = new byte[4][];
+  private int chunkCount;
+  // Write position in the last chunk
+  private int offset;
+  private long keys;
+  private long bytes;
+
+  public KeyArena() {
+    this(DEFAULT_CHUNK_BYTES);
+  }
+
+  /** @param chunkBytes size of each {@code byte[]}; a power of two of at least 2^16 */
+  public KeyArena(int chunkBytes) {
+    if (Integer.bitCount(chunkBytes) != 1 || chunkBytes <= MAX_KEY_LENGTH) {
+      throw new IllegalArgumentException("Chunk size must be a power of two above " + MAX_KEY_LENGTH);
+    }
+    this.chunkBits = Integer.numberOfTrailingZeros(chunkBytes);
+  }
+
+  /** True if every character of {@code key} fits in one Latin-1 byte and it is not too long. */
+  public static boolean isStorable(CharSequence key) {
+    if (key.length() > MAX_KEY_LENGTH) {
+      return false;
+    }
+    for (int i = 0; i < key.length(); i++) {
+      if (key.charAt(i) > 0xFF) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Copies {@code key} into the arena and returns its handle.
+   *
+   * @throws IllegalArgumentException if {@code key} is not {@link #isStorable storable}
+   */
+  public long add(CharSequence key) {
+    Objects.requireNonNull(key, "key");
+    int length = key.length();
+    if (!isStorable(key)) {
+      throw new IllegalArgumentException("Key is not Latin-1 or longer than " + MAX_KEY_LENGTH + " characters");
+    }
+    if (chunkCount == 0 || offset + length > (1 << chunkBits)) {
+      // Keys never straddle chunks; the tail of the old chunk stays unused
+      if (chunkCount == chunks.length) {
+        chunks = Arrays.copyOf(chunks, chunkCount * 2);
+      }
+      chunks[chunkCount++] = new byte[1 << chunkBits];
+      offset = 0;
+    }
+    byte[] chunk = chunks[chunkCount - 1];
+    for (int i = 0; i < length; i++) {
+      chunk[offset + i] = (byte) key.charAt(i);
+    }
+    long position = ((long) (chunkCount - 1) << chunkBits) | offset;
+    offset += length;
+    keys++;
+    bytes += length;
+    return position << LENGTH_BITS | length;
+  }
+
+  public static int length(long handle) {
+    return (int) handle & MAX_KEY_LENGTH;
+  }
+
+  /** Whether the key at {@code handle} has the same characters as {@code key}. */
+  public boolean matches(long handle, CharSequence key) {
+    int length = length(handle);
+    if (key.length() != length) {
+      return false;
+    }
+    long position = handle >>> LENGTH_BITS;
+    byte[] chunk = chunks[(int) (position >>> chunkBits)];
+    int start = (int) position & ((1 << chunkBits) - 1);
+    for (int i = 0; i < length; i++) {
+      if ((chunk[start + i] & 0xFF) != key.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Hash of the key at {@code handle}; equal to {@link #hash(CharSequence, int)} of the same characters. */
+  public int hash(long handle, int seed) {
+    long position = handle >>> LENGTH_BITS;
+    byte[] chunk = chunks[(int) (position >>> chunkBits)];
+    int start = (int) position & ((1 << chunkBits) - 1);
+    int length = length(handle);
+    int h = seed ^ length;
+    for (int i = 0; i < length; i++) {
+      h = (h ^ (chunk[start + i] & 0xFF)) * 0x9E3779B1;
+    }
+    return finish(h);
+  }
+
+  /** Hash of a key's characters, for looking it up without storing it. */
+  public static int hash(CharSequence key, int seed) {
+    int length = key.length();
+    int h = seed ^ length;
+    for (int i = 0; i < length; i++) {
+      h = (h ^ key.charAt(i)) * 0x9E3779B1;
+    }
+    return finish(h);
+  }
+
+  /** Copies the key at {@code handle} out as a {@code String}. */
+  public String toString(long handle) {
+    long position = handle >>> LENGTH_BITS;
+    byte[] chunk = chunks[(int) (position >>> chunkBits)];
+    int start = (int) position & ((1 << chunkBits) - 1);
+    char[] chars = new char[length(handle)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = (char) (chunk[start + i] & 0xFF);
+    }
+    return new String(chars);
+  }
+
+  /** Keys added so far, including ones no table uses any more. */
+  public long keys() {
+    return keys;
+  }
+
+  /** Bytes of key data added so far. */
+  public long bytesUsed() {
+    return bytes;
+  }
+
+  /** Bytes held in chunks, used or not. */
+  public long bytesAllocated() {
+    return (long) chunkCount << chunkBits;
+  }
+
+  /** murmur3 fmix32: spreads the last characters' bits over the whole hash. */
+  private static int finish(int h) {
+    h ^= h >>> 16;
+    h *= 0x85EB_CA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2_AE35;
+    return h ^ (h >>> 16);
+  }
+}
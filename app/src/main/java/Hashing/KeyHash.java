@@ -0,0 +1,29 @@
+package Hashing;
+
+/**
+ * 64-bit key hash for the membership filters, which take several independent
+ * bit ranges from one hash and so need all 64 bits well mixed.
+ */
+final class KeyHash {
+  private KeyHash() {
+  }
+
+  /**
+   * Hashes a key the way {@link HashTable} picks buckets, keyed with
+   * {@code seed}: {@link SeededHashable#identityBits()} through the SplitMix64
+   * finalizer, the characters of a {@code String} with {@link SipHash}, and
+   * otherwise {@code hashCode()} through the finalizer. Strings with equal
+   * hash codes (such as concatenations of "Aa" and "BB") therefore still get
+   * independent fingerprints; other keys with equal hash codes do not.
+   */
+  static long hash(Object key, long seed) {
+    if (key instanceof String) {
+      return SipHash.hash(seed, ~seed, (String) key);
+    }
+    long h = key instanceof SeededHashable ? ((SeededHashable) key).identityBits() : key.hashCode();
+    h += seed;
+    h = (h ^ (h >>> 30)) * 0xBF58_476D_1CE4_E5B9L;
+    h = (h ^ (h >>> 27)) * 0x94D0_49BB_1331_11EBL;
+    return h ^ (h >>> 31);
+  }
+}
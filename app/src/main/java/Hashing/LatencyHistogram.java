@@ -0,0 +1,115 @@
+package Hashing;
+
+import java.util.Arrays;
+
+/**
+ * Log-linear histogram of non-negative values such as latencies in
+ * nanoseconds, laid out like HdrHistogram with two significant digits: values
+ * below 128 get their own counter, larger ones share a counter with the
+ * values that agree in their top 7 bits, so every recorded value is kept
+ * within 1/64 of its true size. Recording is a shift and an array increment
+ * with no allocation, which keeps the measuring loop cheap.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 6;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  // Highest shift is for bit 62, the top bit of a non-negative long
+  private static final int COUNTERS = (62 - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final long[] counts = new long[COUNTERS];
+  private long total;
+  private long min = Long.MAX_VALUE;
+  private long max;
+  private double sum;
+
+  public void record(long value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("Value cannot be negative: " + value);
+    }
+    counts[indexOf(value)]++;
+    total++;
+    sum += value;
+    if (value < min) {
+      min = value;
+    }
+    if (value > max) {
+      max = value;
+    }
+  }
+
+  /** Adds every value recorded in {@code other}. */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < COUNTERS; i++) {
+      counts[i] += other.counts[i];
+    }
+    total += other.total;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+  }
+
+  public void reset() {
+    Arrays.fill(counts, 0);
+    total = 0;
+    sum = 0;
+    min = Long.MAX_VALUE;
+    max = 0;
+  }
+
+  public long count() {
+    return total;
+  }
+
+  public long min() {
+    return total == 0 ? 0 : min;
+  }
+
+  public long max() {
+    return max;
+  }
+
+  public double mean() {
+    return total == 0 ? 0 : sum / total;
+  }
+
+  /**
+   * Smallest value such that {@code percentile} percent of the recordings are
+   * at or below it, rounded up to the end of its counter's range (never above
+   * {@link #max()}).
+   */
+  public long valueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be in [0, 100]: " + percentile);
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < COUNTERS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(highestEquivalent(i), max);
+      }
+    }
+    return max;
+  }
+
+  /** One line with the usual summary percentiles, values in the recorded unit. */
+  public String summary() {
+    return String.format("n=%d mean=%.1f p50=%d p90=%d p99=%d p99.9=%d max=%d",
+        total, mean(), valueAtPercentile(50), valueAtPercentile(90), valueAtPercentile(99),
+        valueAtPercentile(99.9), max);
+  }
+
+  static int indexOf(long value) {
+    int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+    return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+  }
+
+  static long highestEquivalent(int index) {
+    int shift = Math.max(0, (index >> SUB_BUCKET_BITS) - 1);
+    long top = index - ((long) shift << SUB_BUCKET_BITS);
+    return ((top + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,31 @@
+package Hashing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for a {@link HashTable} lookup that compared more keys
+ * than {@link HashTable#LONG_PROBE_THRESHOLD}.
+ */
+@Name("Hashing.LongProbe")
+@Label("HashTable Long Probe")
+@Category("Hashing")
+@Description("A HashTable lookup walked a long chain")
+class LongProbeEvent extends jdk.jfr.Event {
+  @Label("Operation")
+  String operation;
+
+  @Label("Keys Compared")
+  int probes;
+
+  @Label("Chain Length")
+  int chainLength;
+
+  @Label("Capacity")
+  int capacity;
+
+  @Label("Found")
+  boolean found;
+}
@@ -0,0 +1,42 @@
+package Hashing;
+
+/**
+ * Approximate set of keys that answers "definitely absent" or "maybe
+ * present". {@link #mightContain} never returns {@code false} for a key that
+ * was added (and not removed); it returns {@code true} for a key that was
+ * not added with roughly the filter's false-positive rate, as long as no
+ * more than {@link #capacity()} keys are in it.
+ *
+ * <p>Used by {@link FilteredHashTable} to answer most misses without touching
+ * the table.
+ */
+public interface MembershipFilter<K> {
+  boolean mightContain(K key);
+
+  /** Returns {@code false} if the filter is too full to take the key; it is then unchanged. */
+  boolean add(K key);
+
+  /** Whether {@link #remove} is supported. */
+  default boolean supportsRemove() {
+    return false;
+  }
+
+  /**
+   * Removes one earlier {@link #add} of {@code key}. Removing a key that was
+   * never added may remove another key and cause false negatives.
+   */
+  default boolean remove(K key) {
+    throw new UnsupportedOperationException(getClass().getSimpleName() + " does not support removal");
+  }
+
+  void clear();
+
+  /** Number of keys the filter was sized for. */
+  int capacity();
+
+  /** False-positive rate the filter was sized for, at {@link #capacity()} keys. */
+  double targetFalsePositiveRate();
+
+  /** Bytes used by the filter's table. */
+  long sizeInBytes();
+}
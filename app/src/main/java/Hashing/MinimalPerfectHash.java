@@ -0,0 +1,171 @@
+package Hashing;
+
+/**
+ * Minimal perfect hash function over a fixed set of distinct {@code long}
+ * keys, built with the BBHash scheme (Limasset et al.). Each level is a bit
+ * array of about {@code gamma} bits per remaining key; a key that lands on a
+ * bit no other key hits claims it, the rest move on to the next level. The
+ * slot of a key is the rank of its bit over all levels, so the n keys map
+ * one-to-one onto {@code [0, n)}. With the default gamma of 2 about 60% of the
+ * keys resolve on the first level, and the whole function takes roughly 3.5
+ * bits per key.
+ *
+ * <p>Keys outside the build set map to an arbitrary slot or to -1, so callers
+ * must verify the key stored at the slot.
+ */
+public final class MinimalPerfectHash {
+  public static final double DEFAULT_GAMMA = 2.0;
+  private static final int MAX_LEVELS = 32;
+  private static final int WORDS_PER_RANK = 8;
+
+  private final long[] bits;
+  private final int[] ranks;
+  private final long[] levelOffsets;
+  private final long[] levelSizes;
+  private final HashTable<Long, Integer> fallback;
+  private final int size;
+
+  private MinimalPerfectHash(long[] bits, long[] levelOffsets, long[] levelSizes,
+      HashTable<Long, Integer> fallback, int size) {
+    this.bits = bits;
+    this.levelOffsets = levelOffsets;
+    this.levelSizes = levelSizes;
+    this.fallback = fallback;
+    this.size = size;
+    this.ranks = new int[(bits.length + WORDS_PER_RANK - 1) / WORDS_PER_RANK];
+    int rank = 0;
+    for (int i = 0; i < bits.length; i++) {
+      if (i % WORDS_PER_RANK == 0) {
+        ranks[i / WORDS_PER_RANK] = rank;
+      }
+      rank += Long.bitCount(bits[i]);
+    }
+  }
+
+  public static MinimalPerfectHash build(long[] keys) {
+    return build(keys, DEFAULT_GAMMA);
+  }
+
+  /**
+   * Builds the function for {@code keys}, which must be distinct.
+   *
+   * @throws IllegalArgumentException if {@code keys} contains duplicates
+   */
+  public static MinimalPerfectHash build(long[] keys, double gamma) {
+    if (gamma < 1.0) {
+      throw new IllegalArgumentException("Gamma must be at least 1");
+    }
+    long[][] levelBits = new long[MAX_LEVELS][];
+    long[] sizes = new long[MAX_LEVELS];
+    long[] remaining = keys.clone();
+    int remainingCount = remaining.length;
+    int levels = 0;
+
+    while (remainingCount > 0 && levels < MAX_LEVELS) {
+      long m = Math.max(64, ((long) Math.ceil(gamma * remainingCount) + 63) & ~63L);
+      long[] claimed = new long[(int) (m >>> 6)];
+      long[] collided = new long[claimed.length];
+      for (int i = 0; i < remainingCount; i++) {
+        long pos = position(remaining[i], levels, m);
+        if (isSet(collided, pos)) {
+          continue;
+        }
+        if (isSet(claimed, pos)) {
+          collided[(int) (pos >>> 6)] |= 1L << pos;
+        } else {
+          claimed[(int) (pos >>> 6)] |= 1L << pos;
+        }
+      }
+      int next = 0;
+      for (int i = 0; i < remainingCount; i++) {
+        long pos = position(remaining[i], levels, m);
+        if (isSet(collided, pos)) {
+          remaining[next++] = remaining[i];
+        }
+      }
+      for (int w = 0; w < claimed.length; w++) {
+        claimed[w] &= ~collided[w];
+      }
+      levelBits[levels] = claimed;
+      sizes[levels] = m;
+      levels++;
+      remainingCount = next;
+    }
+
+    long total = 0;
+    long[] offsets = new long[levels];
+    for (int l = 0; l < levels; l++) {
+      offsets[l] = total;
+      total += sizes[l];
+    }
+    long[] bits = new long[(int) (total >>> 6)];
+    for (int l = 0; l < levels; l++) {
+      System.arraycopy(levelBits[l], 0, bits, (int) (offsets[l] >>> 6), levelBits[l].length);
+    }
+
+    // Keys still colliding after the last level (practically never) get slots after the ranked ones.
+    HashTable<Long, Integer> fallback = null;
+    if (remainingCount > 0) {
+      fallback = new HashTable<>();
+      int slot = keys.length - remainingCount;
+      for (int i = 0; i < remainingCount; i++) {
+        if (fallback.put(remaining[i], slot++) != null) {
+          throw new IllegalArgumentException("Duplicate key: " + remaining[i]);
+        }
+      }
+    }
+    long[] levelSizes = new long[levels];
+    System.arraycopy(sizes, 0, levelSizes, 0, levels);
+    return new MinimalPerfectHash(bits, offsets, levelSizes, fallback, keys.length);
+  }
+
+  /** Returns the slot in {@code [0, size())} of a key from the build set. */
+  public int slot(long key) {
+    for (int l = 0; l < levelSizes.length; l++) {
+      long pos = levelOffsets[l] + position(key, l, levelSizes[l]);
+      if (isSet(bits, pos)) {
+        return rank(pos);
+      }
+    }
+    if (fallback != null) {
+      Integer slot = fallback.get(key);
+      return slot == null ? -1 : slot;
+    }
+    return -1;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int levels() {
+    return levelSizes.length;
+  }
+
+  /** Memory taken by the bit arrays and rank samples, in bits per key. */
+  public double bitsPerKey() {
+    return size == 0 ? 0.0 : (bits.length * 64.0 + ranks.length * 32.0) / size;
+  }
+
+  private int rank(long pos) {
+    int word = (int) (pos >>> 6);
+    int rank = ranks[word / WORDS_PER_RANK];
+    for (int w = word - word % WORDS_PER_RANK; w < word; w++) {
+      rank += Long.bitCount(bits[w]);
+    }
+    return rank + Long.bitCount(bits[word] & ((1L << pos) - 1));
+  }
+
+  private static boolean isSet(long[] words, long pos) {
+    return (words[(int) (pos >>> 6)] & (1L << pos)) != 0;
+  }
+
+  /** Maps a key to {@code [0, m)} with a per-level seed (splitmix64 finaliser, then multiply-shift range). */
+  private static long position(long key, int level, long m) {
+    long h = key + (level + 1) * 0x9E3779B97F4A7C15L;
+    h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+    h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+    h ^= h >>> 31;
+    return ((h >>> 32) * m) >>> 32;
+  }
+}
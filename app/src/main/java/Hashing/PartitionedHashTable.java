@@ -0,0 +1,358 @@
+package Hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Shared-nothing hash table: the key space is split into shards by hash, and
+ * each shard is a plain {@link HashTable} owned by one worker thread. No other
+ * thread ever touches a shard's table, so there are no locks and no table
+ * cache lines bouncing between cores; threads only exchange queue slots.
+ *
+ * <p>Callers talk to the table through a {@link Session}, which must be used
+ * by one thread only. A session owns one {@link SpscQueue} per shard, so
+ * every queue has a single producer (the session's thread) and a single
+ * consumer (the shard's worker). Operations go to the queue of the shard
+ * owning the key; the worker drains its queues in batches of up to
+ * {@link #MAX_BATCH} operations, runs them, and then completes their futures.
+ * Operations of one session on one key are applied in the order they were
+ * issued.
+ *
+ * <p>Scans ({@link Session#scan}, {@link Session#reduce}) run on every shard
+ * and the per-shard results are merged by the caller.
+ *
+ * <p>Shards are picked from the key's {@code hashCode}, mixed so that keys
+ * differing only in high bits still spread. Unlike the tables' own seeded
+ * bucket indices this is not flooding resistant: crafted keys can all land
+ * in one shard (they are still spread over that shard's buckets).
+ */
+public class PartitionedHashTable<K, V> implements AutoCloseable {
+  public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+  public static final int MAX_BATCH = 256;
+  /** Empty passes over its queues a worker makes before it parks. */
+  private static final int SPINS_BEFORE_PARK = 1 << 10;
+
+  /** An operation and its result; run by the owning shard's worker. */
+  private static final class Op<K, V, R> extends CompletableFuture<R> {
+    final Function<HashTable<K, V>, R> action;
+    R value;
+    RuntimeException failure;
+
+    Op(Function<HashTable<K, V>, R> action) {
+      this.action = action;
+    }
+  }
+
+  private final class Shard implements Runnable {
+    final HashTable<K, V> table = new HashTable<>();
+    final List<SpscQueue<Op<K, V, ?>>> queues = new CopyOnWriteArrayList<>();
+    final Thread worker;
+    volatile boolean sleeping;
+    // Written by the worker after each batch so size() does not need a round trip
+    volatile int size;
+
+    Shard(int index) {
+      worker = new Thread(this, "hashtable-shard-" + index);
+      worker.setDaemon(true);
+    }
+
+    void wake() {
+      if (sleeping) {
+        LockSupport.unpark(worker);
+      }
+    }
+
+    @Override
+    public void run() {
+      List<Op<K, V, ?>> batch = new ArrayList<>(MAX_BATCH);
+      int idle = 0;
+      while (!closed) {
+        for (SpscQueue<Op<K, V, ?>> queue : queues) {
+          for (Op<K, V, ?> op; batch.size() < MAX_BATCH && (op = queue.poll()) != null; ) {
+            batch.add(op);
+          }
+          if (batch.size() == MAX_BATCH) {
+            runBatch(batch);
+          }
+        }
+        if (!batch.isEmpty()) {
+          runBatch(batch);
+          idle = 0;
+        } else if (++idle < SPINS_BEFORE_PARK) {
+          Thread.onSpinWait();
+        } else {
+          // Producers check the flag after publishing, so either they see it or we see their op
+          sleeping = true;
+          if (!hasWork() && !closed) {
+            LockSupport.park(this);
+          }
+          sleeping = false;
+          idle = 0;
+        }
+      }
+      for (SpscQueue<Op<K, V, ?>> queue : queues) {
+        for (Op<K, V, ?> op; (op = queue.poll()) != null; ) {
+          op.completeExceptionally(new IllegalStateException("Table is closed"));
+        }
+      }
+    }
+
+    private boolean hasWork() {
+      for (SpscQueue<Op<K, V, ?>> queue : queues) {
+        if (!queue.isEmpty()) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private void runBatch(List<Op<K, V, ?>> batch) {
+      for (Op<K, V, ?> op : batch) {
+        run(op);
+      }
+      size = table.size();
+      // Waking callers is the slow part; do it after the table work so the batch stays in cache
+      for (Op<K, V, ?> op : batch) {
+        finish(op);
+      }
+      batch.clear();
+    }
+
+    private <R> void run(Op<K, V, R> op) {
+      try {
+        op.value = op.action.apply(table);
+      } catch (RuntimeException e) {
+        op.failure = e;
+      }
+    }
+
+    private <R> void finish(Op<K, V, R> op) {
+      if (op.failure != null) {
+        op.completeExceptionally(op.failure);
+      } else {
+        op.complete(op.value);
+      }
+    }
+  }
+
+  private final List<Shard> shards;
+  private final int queueCapacity;
+  private volatile boolean closed;
+
+  public PartitionedHashTable() {
+    this(Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+  }
+
+  /**
+   * @param shardCount    number of shards, and of worker threads
+   * @param queueCapacity operations a session can have queued per shard before it waits
+   */
+  public PartitionedHashTable(int shardCount, int queueCapacity) {
+    if (shardCount < 1) {
+      throw new IllegalArgumentException("Shard count must be at least 1");
+    }
+    this.queueCapacity = queueCapacity;
+    shards = new ArrayList<>(shardCount);
+    for (int i = 0; i < shardCount; i++) {
+      shards.add(new Shard(i));
+    }
+    for (Shard shard : shards) {
+      shard.worker.start();
+    }
+  }
+
+  public int shardCount() {
+    return shards.size();
+  }
+
+  /** Index of the shard owning {@code key}. */
+  public int shardOf(Object key) {
+    int h = key.hashCode();
+    // murmur3 finalizer, then map the mixed hash onto [0, shards) without a division
+    h ^= h >>> 16;
+    h *= 0x85ebca6b;
+    h ^= h >>> 13;
+    h *= 0xc2b2ae35;
+    h ^= h >>> 16;
+    return (int) (((h & 0xffffffffL) * shards.size()) >>> 32);
+  }
+
+  /** Entries over all shards, as of each shard's last completed batch. */
+  public int size() {
+    int size = 0;
+    for (Shard shard : shards) {
+      size += shard.size;
+    }
+    return size;
+  }
+
+  /** Opens a session for the calling thread. */
+  public Session openSession() {
+    if (closed) {
+      throw new IllegalStateException("Table is closed");
+    }
+    return new Session();
+  }
+
+  /** Stops the workers. Operations still queued fail with {@link IllegalStateException}. */
+  @Override
+  public void close() throws InterruptedException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    for (Shard shard : shards) {
+      LockSupport.unpark(shard.worker);
+    }
+    for (Shard shard : shards) {
+      shard.worker.join();
+    }
+  }
+
+  /**
+   * One thread's handle on the table. Not thread-safe: each producer thread
+   * opens its own. Close it once its operations have completed.
+   */
+  public final class Session implements AutoCloseable {
+    private final SpscQueue<Op<K, V, ?>>[] queues;
+    private boolean open = true;
+
+    @SuppressWarnings("unchecked")
+    private Session() {
+      queues = new SpscQueue[shards.size()];
+      for (int i = 0; i < shards.size(); i++) {
+        queues[i] = new SpscQueue<>(queueCapacity);
+        shards.get(i).queues.add(queues[i]);
+      }
+    }
+
+    public V get(K key) {
+      return await(getAsync(key));
+    }
+
+    public CompletableFuture<V> getAsync(K key) {
+      Objects.requireNonNull(key, "key");
+      return submit(shardOf(key), new Op<>(table -> table.get(key)));
+    }
+
+    /** Returns the previous value. */
+    public V put(K key, V value) {
+      return await(putAsync(key, value));
+    }
+
+    public CompletableFuture<V> putAsync(K key, V value) {
+      Objects.requireNonNull(key, "key");
+      return submit(shardOf(key), new Op<>(table -> table.put(key, value)));
+    }
+
+    public V remove(K key) {
+      return await(removeAsync(key));
+    }
+
+    public CompletableFuture<V> removeAsync(K key) {
+      Objects.requireNonNull(key, "key");
+      return submit(shardOf(key), new Op<>(table -> table.remove(key)));
+    }
+
+    /** Copies of the entries matching {@code filter}, shard by shard. */
+    public List<HashTable.Entry<K, V>> scan(BiPredicate<? super K, ? super V> filter) {
+      Objects.requireNonNull(filter, "filter");
+      List<CompletableFuture<List<HashTable.Entry<K, V>>>> parts = new ArrayList<>(shards.size());
+      for (int i = 0; i < shards.size(); i++) {
+        parts.add(submit(i, new Op<>(table -> {
+          List<HashTable.Entry<K, V>> matches = new ArrayList<>();
+          for (HashTable.Entry<K, V> e : table) {
+            if (filter.test(e.key, e.value)) {
+              matches.add(new HashTable.Entry<>(e.key, e.value));
+            }
+          }
+          return matches;
+        })));
+      }
+      List<HashTable.Entry<K, V>> merged = new ArrayList<>();
+      for (CompletableFuture<List<HashTable.Entry<K, V>>> part : parts) {
+        merged.addAll(await(part));
+      }
+      return merged;
+    }
+
+    /**
+     * Like {@link HashTable#reduce}: each shard reduces its own entries, then
+     * the shard results are combined with {@code reducer}. Returns
+     * {@code null} if there are no results.
+     */
+    public <U> U reduce(BiFunction<? super K, ? super V, ? extends U> transformer,
+        BiFunction<? super U, ? super U, ? extends U> reducer) {
+      Objects.requireNonNull(transformer, "transformer");
+      Objects.requireNonNull(reducer, "reducer");
+      List<CompletableFuture<U>> parts = new ArrayList<>(shards.size());
+      for (int i = 0; i < shards.size(); i++) {
+        // An unreachable threshold keeps the shard's reduction on its own worker
+        parts.add(submit(i, new Op<>(table -> table.reduce(Long.MAX_VALUE, transformer, reducer))));
+      }
+      U result = null;
+      for (CompletableFuture<U> part : parts) {
+        U u = await(part);
+        if (u != null) {
+          result = result == null ? u : reducer.apply(result, u);
+        }
+      }
+      return result;
+    }
+
+    /** Waits for this session's queued operations to be taken, then detaches from the shards. */
+    @Override
+    public void close() {
+      if (!open) {
+        return;
+      }
+      open = false;
+      for (int i = 0; i < shards.size(); i++) {
+        while (!closed && !queues[i].isEmpty()) {
+          shards.get(i).wake();
+          Thread.onSpinWait();
+        }
+        shards.get(i).queues.remove(queues[i]);
+      }
+    }
+
+    private <R> CompletableFuture<R> submit(int shardIndex, Op<K, V, R> op) {
+      if (!open) {
+        throw new IllegalStateException("Session is closed");
+      }
+      Shard shard = shards.get(shardIndex);
+      while (!queues[shardIndex].offer(op)) {
+        if (closed) {
+          throw new IllegalStateException("Table is closed");
+        }
+        shard.wake();
+        Thread.onSpinWait();
+      }
+      if (closed) {
+        // The worker may already have made its final pass; nobody would complete the op
+        op.completeExceptionally(new IllegalStateException("Table is closed"));
+      }
+      shard.wake();
+      return op;
+    }
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package Hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hand-run scaling benchmark for {@link PartitionedHashTable} against one
+ * {@link HashTable} behind a global {@link ReentrantLock}. For each thread
+ * count T, T producer threads replay get/put operations over a shared key set:
+ * against the partitioned table through their own sessions (with T shards and
+ * so T more worker threads, each producer keeping a window of operations in
+ * flight), and against the locked table directly.
+ *
+ * <p>The partitioned table runs 2T busy threads, so once T passes half the
+ * cores producers and workers compete for them; the interesting part of the
+ * curve is how each table behaves as writers are added.
+ *
+ * CLI:
+ * args[0] = thread counts, comma separated (default 1,2,4,... up to all cores)
+ * args[1] = operations per thread (default 2000000)
+ * args[2] = distinct keys (default 1000000)
+ * args[3] = write percentage (default 50)
+ * args[4] = operations in flight per producer on the partitioned table (default 64)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.PartitionedHashTableBenchmark --args="1,2,4,8 2000000 1000000 50 64"
+ */
+public class PartitionedHashTableBenchmark {
+  private static final long SEED = 42;
+
+  public static void main(String[] args) throws Exception {
+    int cores = Runtime.getRuntime().availableProcessors();
+    int ops = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+    int keys = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+    int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+    int window = args.length > 4 ? Integer.parseInt(args[4]) : 64;
+    List<Integer> threadCounts = new ArrayList<>();
+    if (args.length > 0) {
+      for (String t : args[0].split(",")) {
+        threadCounts.add(Integer.parseInt(t.trim()));
+      }
+    } else {
+      for (int t = 1; t < cores; t <<= 1) {
+        threadCounts.add(t);
+      }
+      threadCounts.add(cores);
+    }
+
+    Integer[] keyObjects = new Integer[keys];
+    for (int i = 0; i < keys; i++) {
+      keyObjects[i] = i;
+    }
+
+    System.out.println("cores=" + cores + " ops/thread=" + ops + " keys=" + keys
+        + " writes=" + writePercent + "% window=" + window + " seed=" + SEED);
+    System.out.printf("%-8s %14s %14s %8s%n", "threads", "global lock", "partitioned", "ratio");
+    for (int threads : threadCounts) {
+      int[][] traces = new int[threads][];
+      for (int t = 0; t < threads; t++) {
+        traces[t] = trace(SEED + t, ops, keys, writePercent);
+      }
+      double locked = runLocked(threads, keyObjects, traces);
+      double partitioned = runPartitioned(threads, keyObjects, traces, window);
+      System.out.printf("%-8d %9.2f Mop/s %9.2f Mop/s %7.2fx%n", threads, locked, partitioned, partitioned / locked);
+    }
+  }
+
+  /**
+   * Key indices, with the write bit in the sign: a negative entry {@code ~k}
+   * is a put of key {@code k}.
+   */
+  private static int[] trace(long seed, int ops, int keys, int writePercent) {
+    SplittableRandom rng = new SplittableRandom(seed);
+    int[] trace = new int[ops];
+    for (int i = 0; i < ops; i++) {
+      int key = rng.nextInt(keys);
+      trace[i] = rng.nextInt(100) < writePercent ? ~key : key;
+    }
+    return trace;
+  }
+
+  private static double runLocked(int threads, Integer[] keys, int[][] traces) throws InterruptedException {
+    HashTable<Integer, Integer> table = new HashTable<>();
+    for (Integer key : keys) {
+      table.put(key, key);
+    }
+    ReentrantLock lock = new ReentrantLock();
+    return timed(threads, traces, t -> {
+      long sink = 0;
+      for (int op : traces[t]) {
+        lock.lock();
+        try {
+          if (op < 0) {
+            table.put(keys[~op], op);
+          } else {
+            Integer v = table.get(keys[op]);
+            sink += v == null ? 0 : v;
+          }
+        } finally {
+          lock.unlock();
+        }
+      }
+      return sink;
+    });
+  }
+
+  private static double runPartitioned(int threads, Integer[] keys, int[][] traces, int window)
+      throws InterruptedException {
+    try (PartitionedHashTable<Integer, Integer> table =
+        new PartitionedHashTable<>(threads, PartitionedHashTable.DEFAULT_QUEUE_CAPACITY)) {
+      try (PartitionedHashTable<Integer, Integer>.Session session = table.openSession()) {
+        List<CompletableFuture<Integer>> pending = new ArrayList<>(window);
+        for (Integer key : keys) {
+          pending.add(session.putAsync(key, key));
+          if (pending.size() == window) {
+            drain(pending);
+          }
+        }
+        drain(pending);
+      }
+      return timed(threads, traces, t -> {
+        long sink = 0;
+        try (PartitionedHashTable<Integer, Integer>.Session session = table.openSession()) {
+          List<CompletableFuture<Integer>> pending = new ArrayList<>(window);
+          for (int op : traces[t]) {
+            pending.add(op < 0 ? session.putAsync(keys[~op], op) : session.getAsync(keys[op]));
+            if (pending.size() == window) {
+              sink += drain(pending);
+            }
+          }
+          sink += drain(pending);
+        }
+        return sink;
+      });
+    }
+  }
+
+  private static long drain(List<CompletableFuture<Integer>> pending) {
+    long sink = 0;
+    for (CompletableFuture<Integer> f : pending) {
+      Integer v = f.join();
+      sink += v == null ? 0 : v;
+    }
+    pending.clear();
+    return sink;
+  }
+
+  private interface Worker {
+    long run(int thread);
+  }
+
+  /** Runs {@code worker} on {@code threads} threads started together; returns million operations per second. */
+  private static double timed(int threads, int[][] traces, Worker worker) throws InterruptedException {
+    CountDownLatch start = new CountDownLatch(1);
+    long[] sinks = new long[threads];
+    Thread[] workers = new Thread[threads];
+    for (int t = 0; t < threads; t++) {
+      int id = t;
+      workers[t] = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        sinks[id] = worker.run(id);
+      });
+      workers[t].start();
+    }
+    long t0 = System.nanoTime();
+    start.countDown();
+    for (Thread w : workers) {
+      w.join();
+    }
+    long elapsed = System.nanoTime() - t0;
+    long totalOps = 0;
+    long sink = 0;
+    for (int t = 0; t < threads; t++) {
+      totalOps += traces[t].length;
+      sink += sinks[t];
+    }
+    if (sink == 42) {
+      System.out.print(""); // keeps the results live
+    }
+    return totalOps * 1e3 / elapsed;
+  }
+}
@@ -0,0 +1,88 @@
+package Hashing;
+
+import java.util.Objects;
+import java.util.function.ToLongFunction;
+
+/**
+ * Build-once, read-many index over a fixed key set. Keys are turned into
+ * distinct {@code long} codes (for plates {@code Vehicle::plateCode}), a
+ * {@link MinimalPerfectHash} maps the codes onto {@code [0, n)}, and the codes
+ * and values are stored in flat arrays at those slots. A lookup never walks a
+ * chain: it hashes once, reads the code at the slot to reject keys outside the
+ * set, and returns the value next to it.
+ */
+public final class PerfectHashIndex<K, V> {
+  private final ToLongFunction<? super K> encoder;
+  private final MinimalPerfectHash mphf;
+  private final long[] codes;
+  private final Object[] values;
+
+  private PerfectHashIndex(ToLongFunction<? super K> encoder, MinimalPerfectHash mphf,
+      long[] codes, Object[] values) {
+    this.encoder = encoder;
+    this.mphf = mphf;
+    this.codes = codes;
+    this.values = values;
+  }
+
+  /**
+   * Builds the index for {@code keys[i] -> values[i]}.
+   *
+   * @param encoder must give every distinct key a distinct code
+   * @throws IllegalArgumentException if two keys have the same code
+   */
+  public static <K, V> PerfectHashIndex<K, V> build(K[] keys, V[] values, ToLongFunction<? super K> encoder) {
+    Objects.requireNonNull(keys, "keys");
+    Objects.requireNonNull(values, "values");
+    Objects.requireNonNull(encoder, "encoder");
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("keys and values must have the same length");
+    }
+    long[] keyCodes = new long[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      keyCodes[i] = encoder.applyAsLong(Objects.requireNonNull(keys[i], "key"));
+    }
+    MinimalPerfectHash mphf = MinimalPerfectHash.build(keyCodes);
+
+    long[] codes = new long[keys.length];
+    Object[] slotValues = new Object[keys.length];
+    boolean[] used = new boolean[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      int slot = mphf.slot(keyCodes[i]);
+      if (used[slot]) {
+        throw new IllegalArgumentException("Duplicate key: " + keys[i]);
+      }
+      used[slot] = true;
+      codes[slot] = keyCodes[i];
+      slotValues[slot] = values[i];
+    }
+    return new PerfectHashIndex<>(encoder, mphf, codes, slotValues);
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(K key) {
+    Objects.requireNonNull(key, "key");
+    long code = encoder.applyAsLong(key);
+    int slot = mphf.slot(code);
+    if (slot < 0 || codes[slot] != code) {
+      return null;
+    }
+    return (V) values[slot];
+  }
+
+  public boolean containsKey(K key) {
+    Objects.requireNonNull(key, "key");
+    long code = encoder.applyAsLong(key);
+    int slot = mphf.slot(code);
+    return slot >= 0 && codes[slot] == code;
+  }
+
+  public int size() {
+    return codes.length;
+  }
+
+  /** Bits per key of the hash function alone, without the code and value arrays. */
+  public double hashBitsPerKey() {
+    return mphf.bitsPerKey();
+  }
+}
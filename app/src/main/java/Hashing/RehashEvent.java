@@ -0,0 +1,25 @@
+package Hashing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one {@link HashTable} rehash. The event duration is
+ * the time spent moving the entries into the new bucket array.
+ */
+@Name("Hashing.Rehash")
+@Label("HashTable Rehash")
+@Category("Hashing")
+@Description("A HashTable moved its entries into a bucket array of a new capacity")
+class RehashEvent extends jdk.jfr.Event {
+  @Label("Old Capacity")
+  int oldCapacity;
+
+  @Label("New Capacity")
+  int newCapacity;
+
+  @Label("Entries Moved")
+  int entriesMoved;
+}
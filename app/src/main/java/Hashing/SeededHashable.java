@@ -0,0 +1,11 @@
+package Hashing;
+
+/**
+ * Key whose whole identity fits in 64 bits. A seeded {@link HashTable} hashes
+ * these bits with its secret key instead of using {@code hashCode()}, so keys
+ * chosen to collide under {@code hashCode()} still spread over the buckets.
+ */
+public interface SeededHashable {
+  /** Distinct keys (by {@code equals}) must return distinct values. */
+  long identityBits();
+}
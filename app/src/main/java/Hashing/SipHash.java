@@ -0,0 +1,83 @@
+package Hashing;
+
+/**
+ * SipHash-1-3 (one compression round, three finalization rounds) keyed with
+ * two 64-bit words. Without the key an attacker cannot predict which inputs
+ * collide, which is what {@link HashTable} relies on for hash-flooding
+ * resistance.
+ */
+public final class SipHash {
+  private SipHash() {
+  }
+
+  /** Hashes a single 64-bit word. */
+  public static long hash(long k0, long k1, long word) {
+    long v0 = k0 ^ 0x736f6d6570736575L;
+    long v1 = k1 ^ 0x646f72616e646f6dL;
+    long v2 = k0 ^ 0x6c7967656e657261L;
+    long v3 = k1 ^ 0x7465646279746573L;
+
+    v3 ^= word;
+    // one compression round
+    v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+    v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+    v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+    v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+    v0 ^= word;
+
+    long last = 8L << 56;
+    v3 ^= last;
+    v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+    v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+    v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+    v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+    v0 ^= last;
+
+    return finish(v0, v1, v2, v3);
+  }
+
+  /** Hashes the UTF-16 code units of {@code s}, four per 64-bit word. */
+  public static long hash(long k0, long k1, CharSequence s) {
+    long v0 = k0 ^ 0x736f6d6570736575L;
+    long v1 = k1 ^ 0x646f72616e646f6dL;
+    long v2 = k0 ^ 0x6c7967656e657261L;
+    long v3 = k1 ^ 0x7465646279746573L;
+
+    int length = s.length();
+    int i = 0;
+    for (; i + 4 <= length; i += 4) {
+      long m = s.charAt(i) | (long) s.charAt(i + 1) << 16 | (long) s.charAt(i + 2) << 32
+          | (long) s.charAt(i + 3) << 48;
+      v3 ^= m;
+      v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+      v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+      v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+      v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+      v0 ^= m;
+    }
+    // Remaining 0-3 chars, plus the byte length in the top byte as SipHash does
+    long m = (long) (length * 2) << 56;
+    for (int shift = 0; i < length; i++, shift += 16) {
+      m |= (long) s.charAt(i) << shift;
+    }
+    v3 ^= m;
+    v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+    v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+    v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+    v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+    v0 ^= m;
+
+    return finish(v0, v1, v2, v3);
+  }
+
+  private static long finish(long v0, long v1, long v2, long v3) {
+    v2 ^= 0xff;
+    for (int r = 0; r < 3; r++) {
+      v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0; v0 = Long.rotateLeft(v0, 32);
+      v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+      v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+      v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2; v2 = Long.rotateLeft(v2, 32);
+    }
+    return v0 ^ v1 ^ v2 ^ v3;
+  }
+}
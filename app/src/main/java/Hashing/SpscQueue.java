@@ -0,0 +1,82 @@
+package Hashing;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded single-producer, single-consumer ring buffer. Exactly one thread may
+ * call {@link #offer} and exactly one (other) thread {@link #poll}; neither
+ * takes a lock or a CAS.
+ *
+ * <p>The producer's and the consumer's counters sit on separate cache lines,
+ * each next to that side's cached copy of the other counter, so the two
+ * threads only exchange a line when one of them actually sees the other's
+ * progress (a full or an empty queue).
+ */
+final class SpscQueue<T> {
+  // Slots of the counters array; 8 longs apart so each pair has its own cache line
+  private static final int HEAD = 8;         // next slot to poll, written by the consumer
+  private static final int CACHED_TAIL = 9;  // consumer's last read of TAIL
+  private static final int TAIL = 24;        // next slot to fill, written by the producer
+  private static final int CACHED_HEAD = 25; // producer's last read of HEAD
+  private static final int COUNTERS = 40;
+
+  private final Object[] buffer;
+  private final int mask;
+  private final AtomicLongArray counters = new AtomicLongArray(COUNTERS);
+
+  /** @param capacity rounded up to a power of two */
+  SpscQueue(int capacity) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be in [1, 2^30]");
+    }
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    buffer = new Object[size];
+    mask = size - 1;
+  }
+
+  int capacity() {
+    return buffer.length;
+  }
+
+  /** Producer side. Returns {@code false} if the queue is full. */
+  boolean offer(T element) {
+    long tail = counters.getPlain(TAIL);
+    if (tail - counters.getPlain(CACHED_HEAD) == buffer.length) {
+      long head = counters.get(HEAD);
+      counters.setPlain(CACHED_HEAD, head);
+      if (tail - head == buffer.length) {
+        return false;
+      }
+    }
+    buffer[(int) tail & mask] = element;
+    // Volatile store: publishes the slot, and orders it before any later volatile read
+    counters.set(TAIL, tail + 1);
+    return true;
+  }
+
+  /** Consumer side. Returns {@code null} if the queue is empty. */
+  @SuppressWarnings("unchecked")
+  T poll() {
+    long head = counters.getPlain(HEAD);
+    if (head == counters.getPlain(CACHED_TAIL)) {
+      long tail = counters.get(TAIL);
+      counters.setPlain(CACHED_TAIL, tail);
+      if (head == tail) {
+        return null;
+      }
+    }
+    int slot = (int) head & mask;
+    T element = (T) buffer[slot];
+    buffer[slot] = null;
+    counters.setRelease(HEAD, head + 1);
+    return element;
+  }
+
+  /** Safe from either side; the answer may be stale by the time it is used. */
+  boolean isEmpty() {
+    return counters.get(HEAD) == counters.get(TAIL);
+  }
+}
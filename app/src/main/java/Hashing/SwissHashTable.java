@@ -0,0 +1,260 @@
+package Hashing;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Objects;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Open-addressed hash table in the style of Abseil's Swiss tables. Every slot
+ * has a control byte: {@link #EMPTY}, {@link #DELETED}, or for a full slot
+ * the low 7 bits of the key's hash. Slots are probed a group (16 or 32
+ * slots) at a time: one vector compare of the group's control bytes against
+ * the 7-bit tag gives a bit mask of candidate slots, and only those keys are
+ * compared with {@code equals}. About one in 128 non-matching keys survives
+ * the tag filter, so a lookup usually touches exactly one key even when the
+ * table is 7/8 full.
+ *
+ * <p>Groups are probed in triangular order ({@code g, g+1, g+3, g+6, ...}),
+ * which visits every group once since the group count is a power of two. A
+ * lookup stops at the first group that has an empty slot. Removing a key
+ * marks its slot {@link #DELETED} unless its group already has an empty slot
+ * (no probe sequence can then run through the group). Deleted slots are
+ * reused by inserts and dropped on the next rehash.
+ *
+ * <p>The group width is the widest of 16 and 32 bytes the CPU supports, or
+ * the value of the {@code hashing.swissGroupBytes} system property. Needs
+ * {@code --add-modules jdk.incubator.vector} at compile and run time.
+ *
+ * <p>Hashes come from {@link SeededHashable#identityBits()} or
+ * {@code hashCode()}, mixed with a random per-table seed. That spreads poor
+ * hash codes and varies the layout between tables, but unlike
+ * {@link HashTable}'s SipHash it does not stop deliberate collisions.
+ */
+public class SwissHashTable<K, V> {
+  static final byte EMPTY = (byte) 0x80;
+  static final byte DELETED = (byte) 0xFE;
+  private static final VectorSpecies<Byte> SPECIES = species();
+  /** Slots per group. */
+  public static final int GROUP = SPECIES.length();
+  private static final int MIN_CAPACITY = 32;
+  private static final SecureRandom SEEDS = new SecureRandom();
+
+  private byte[] ctrl;
+  private Object[] keys;
+  private Object[] values;
+  private int groupMask;
+  private int size;
+  // Empty slots that may still be filled before the table exceeds 7/8 full
+  private int growthLeft;
+  private final long seed = SEEDS.nextLong() | 1;
+
+  public SwissHashTable() {
+    this(MIN_CAPACITY);
+  }
+
+  /** @param capacity slots to start with, rounded up to a power of two of at least 32 */
+  public SwissHashTable(int capacity) {
+    if (capacity <= 0 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("Capacity must be in [1, 2^30]");
+    }
+    allocate(Math.max(MIN_CAPACITY, Integer.highestOneBit(capacity - 1) << 1));
+  }
+
+  private static VectorSpecies<Byte> species() {
+    int bytes = Integer.getInteger("hashing.swissGroupBytes",
+        ByteVector.SPECIES_PREFERRED.vectorByteSize() >= 32 ? 32 : 16);
+    if (bytes == 16) {
+      return ByteVector.SPECIES_128;
+    }
+    if (bytes == 32) {
+      return ByteVector.SPECIES_256;
+    }
+    throw new IllegalArgumentException("hashing.swissGroupBytes must be 16 or 32");
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Number of slots. */
+  public int capacity() {
+    return ctrl.length;
+  }
+
+  public double loadFactor() {
+    return (double) size / ctrl.length;
+  }
+
+  /** Largest number of entries that fit in {@code capacity} slots without a resize. */
+  public static int maxEntries(int capacity) {
+    return capacity - capacity / 8;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V get(K key) {
+    int slot = find(key);
+    return slot < 0 ? null : (V) values[slot];
+  }
+
+  public boolean containsKey(K key) {
+    return find(key) >= 0;
+  }
+
+  /** Stores the mapping and returns the previous value, or {@code null}. */
+  @SuppressWarnings("unchecked")
+  public V put(K key, V value) {
+    Objects.requireNonNull(key, "key");
+    long hash = hash(key);
+    int slot = find(key, hash);
+    if (slot >= 0) {
+      V previous = (V) values[slot];
+      values[slot] = value;
+      return previous;
+    }
+    slot = insertSlot(hash);
+    if (ctrl[slot] == EMPTY && growthLeft == 0) {
+      rehash();
+      slot = insertSlot(hash);
+    }
+    if (ctrl[slot] == EMPTY) {
+      growthLeft--;
+    }
+    ctrl[slot] = tag(hash);
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  public V remove(K key) {
+    int slot = find(key);
+    if (slot < 0) {
+      return null;
+    }
+    V previous = (V) values[slot];
+    keys[slot] = null;
+    values[slot] = null;
+    int base = slot & -GROUP;
+    if (ByteVector.fromArray(SPECIES, ctrl, base).eq(EMPTY).anyTrue()) {
+      ctrl[slot] = EMPTY;
+      growthLeft++;
+    } else {
+      ctrl[slot] = DELETED;
+    }
+    size--;
+    return previous;
+  }
+
+  public void clear() {
+    Arrays.fill(ctrl, EMPTY);
+    Arrays.fill(keys, null);
+    Arrays.fill(values, null);
+    size = 0;
+    growthLeft = maxEntries(ctrl.length);
+  }
+
+  private int find(Object key) {
+    return find(key, hash(key));
+  }
+
+  /** Slot holding {@code key}, or -1. */
+  private int find(Object key, long hash) {
+    byte tag = tag(hash);
+    int group = (int) (hash >>> 7) & groupMask;
+    for (int step = 1; ; step++) {
+      int base = group * GROUP;
+      ByteVector control = ByteVector.fromArray(SPECIES, ctrl, base);
+      long candidates = control.eq(tag).toLong();
+      while (candidates != 0) {
+        int slot = base + Long.numberOfTrailingZeros(candidates);
+        if (key.equals(keys[slot])) {
+          return slot;
+        }
+        candidates &= candidates - 1;
+      }
+      if (control.eq(EMPTY).anyTrue()) {
+        return -1;
+      }
+      if (step > groupMask) {
+        return -1; // every group visited; only possible when no slot is empty
+      }
+      group = (group + step) & groupMask;
+    }
+  }
+
+  /** First empty or deleted slot on {@code hash}'s probe sequence. */
+  private int insertSlot(long hash) {
+    int group = (int) (hash >>> 7) & groupMask;
+    for (int step = 1; ; step++) {
+      int base = group * GROUP;
+      // EMPTY and DELETED are the only negative control bytes
+      long free = ByteVector.fromArray(SPECIES, ctrl, base).lt((byte) 0).toLong();
+      if (free != 0) {
+        return base + Long.numberOfTrailingZeros(free);
+      }
+      group = (group + step) & groupMask;
+    }
+  }
+
+  /**
+   * Rebuilds the table: twice as large if it is more than 7/16 full,
+   * otherwise at the same size, which only clears the deleted slots.
+   */
+  private void rehash() {
+    byte[] oldCtrl = ctrl;
+    Object[] oldKeys = keys;
+    Object[] oldValues = values;
+    int capacity = size > maxEntries(oldCtrl.length) / 2 ? oldCtrl.length << 1 : oldCtrl.length;
+    if (capacity < 0) {
+      throw new IllegalStateException("Table is full");
+    }
+    allocate(capacity);
+    // Every key goes into an empty slot, so growthLeft ends at maxEntries - size
+    for (int i = 0; i < oldCtrl.length; i++) {
+      if (oldCtrl[i] >= 0) {
+        long hash = hash(oldKeys[i]);
+        int slot = insertSlot(hash);
+        ctrl[slot] = tag(hash);
+        keys[slot] = oldKeys[i];
+        values[slot] = oldValues[i];
+        growthLeft--;
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    ctrl = new byte[capacity];
+    Arrays.fill(ctrl, EMPTY);
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    groupMask = capacity / GROUP - 1;
+    growthLeft = maxEntries(capacity);
+  }
+
+  private long hash(Object key) {
+    long h = key instanceof SeededHashable ? ((SeededHashable) key).identityBits() : key.hashCode();
+    h = (h ^ seed) * 0x9E37_79B9_7F4A_7C15L;
+    return h ^ (h >>> 29);
+  }
+
+  private static byte tag(long hash) {
+    return (byte) (hash & 0x7F);
+  }
+
+  /** Number of slots of each kind, for tests: {@code {full, deleted, empty}}. */
+  int[] slotCounts() {
+    int[] counts = new int[3];
+    for (byte c : ctrl) {
+      counts[c >= 0 ? 0 : c == DELETED ? 1 : 2]++;
+    }
+    return counts;
+  }
+}
@@ -0,0 +1,117 @@
+package Hashing;
+
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+
+import java.util.SplittableRandom;
+
+/**
+ * Hand-run benchmark of {@link SwissHashTable#get} against {@link HashTable#get}
+ * (seeded and {@code hashCode} bucket indices) on {@link Vehicle} keys. Every
+ * table gets the same number of slots (buckets for {@link HashTable}) and is
+ * filled to each load factor without resizing; then the same shuffled keys
+ * are looked up, once all present and once all absent.
+ *
+ * <p>Run with {@code --add-modules jdk.incubator.vector} (the Gradle build
+ * adds it); {@code -Dhashing.swissGroupBytes=16} forces 16-byte groups.
+ *
+ * CLI:
+ * args[0] = slots per table (default 1048576)
+ * args[1] = load factors, comma separated, at most 0.875 (default 0.5,0.75,0.875)
+ * args[2] = lookups per measurement (default 10000000)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.SwissHashTableBenchmark --args="1048576 0.5,0.75,0.875 10000000"
+ */
+public class SwissHashTableBenchmark {
+  private static final long SEED = 42;
+  private static final long STRIDE = 1_000_003;
+
+  private interface Lookup {
+    Object get(Vehicle key);
+  }
+
+  public static void main(String[] args) {
+    int slots = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+    String[] loadFactors = (args.length > 1 ? args[1] : "0.5,0.75,0.875").split(",");
+    int lookups = args.length > 2 ? Integer.parseInt(args[2]) : 10_000_000;
+    if (Integer.bitCount(slots) != 1 || slots < 32) {
+      throw new IllegalArgumentException("Slots must be a power of two of at least 32");
+    }
+    if (slots > PlateCodec.PLATE_COUNT / 2) {
+      throw new IllegalArgumentException("At most " + PlateCodec.PLATE_COUNT / 2 + " slots");
+    }
+
+    // i -> (offset + i * STRIDE) mod PLATE_COUNT is a permutation since STRIDE is a prime not dividing
+    // PLATE_COUNT, so i < 2 * slots gives distinct scattered plates: the lower half is inserted, the rest miss
+    SplittableRandom rng = new SplittableRandom(SEED);
+    long offset = rng.nextInt(PlateCodec.PLATE_COUNT);
+
+    System.out.println("slots=" + slots + " group=" + SwissHashTable.GROUP + " bytes lookups=" + lookups
+        + " seed=" + SEED);
+    System.out.printf("%-6s %-22s %10s %10s%n", "load", "table", "hit ns", "miss ns");
+    for (String lf : loadFactors) {
+      double loadFactor = Double.parseDouble(lf.trim());
+      int entries = (int) (slots * loadFactor);
+      if (entries > SwissHashTable.maxEntries(slots)) {
+        throw new IllegalArgumentException("Load factor above 7/8: " + lf);
+      }
+      Vehicle[] present = new Vehicle[entries];
+      Vehicle[] absent = new Vehicle[entries];
+      for (int i = 0; i < entries; i++) {
+        present[i] = Vehicle.ofPlateCode(plate(offset, i));
+        absent[i] = Vehicle.ofPlateCode(plate(offset, slots + i));
+      }
+      int[] order = new int[lookups];
+      for (int i = 0; i < lookups; i++) {
+        order[i] = rng.nextInt(entries);
+      }
+
+      SwissHashTable<Vehicle, Vehicle> swiss = new SwissHashTable<>(slots);
+      HashTable<Vehicle, Vehicle> seeded = new HashTable<>(slots, 0.99, 0, HashTable.KeyHashing.SEEDED);
+      HashTable<Vehicle, Vehicle> hashCode = new HashTable<>(slots, 0.99, 0, HashTable.KeyHashing.HASH_CODE);
+      for (Vehicle v : present) {
+        swiss.put(v, v);
+        seeded.put(v, v);
+        hashCode.put(v, v);
+      }
+      if (swiss.capacity() != slots || seeded.capacity() != slots || hashCode.capacity() != slots) {
+        throw new IllegalStateException("A table resized during the fill");
+      }
+
+      measure(loadFactor, "SwissHashTable", swiss::get, present, absent, order);
+      measure(loadFactor, "HashTable", seeded::get, present, absent, order);
+      measure(loadFactor, "HashTable/hashCode", hashCode::get, present, absent, order);
+    }
+  }
+
+  private static void measure(double loadFactor, String name, Lookup table, Vehicle[] present, Vehicle[] absent,
+      int[] order) {
+    run(table, present, order); // warm-up
+    run(table, absent, order);
+    long t0 = System.nanoTime();
+    long found = run(table, present, order);
+    long t1 = System.nanoTime();
+    long falsePositives = run(table, absent, order);
+    long t2 = System.nanoTime();
+    if (found != order.length || falsePositives != 0) {
+      throw new IllegalStateException(name + " returned wrong results");
+    }
+    System.out.printf("%-6.3f %-22s %10.1f %10.1f%n",
+        loadFactor, name, (double) (t1 - t0) / order.length, (double) (t2 - t1) / order.length);
+  }
+
+  private static int plate(long offset, long i) {
+    return (int) ((offset + i * STRIDE) % PlateCodec.PLATE_COUNT);
+  }
+
+  private static long run(Lookup table, Vehicle[] keys, int[] order) {
+    long found = 0;
+    for (int i : order) {
+      if (table.get(keys[i]) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,151 @@
+package Hashing;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for {@link ExpiringHashTable}. Level 0 has 64
+ * slots of about 1 ms; every higher level has 64 slots each as wide as a
+ * whole lower level, so five levels reach roughly 13 days. Timers are intrusive
+ * doubly linked nodes, so scheduling and cancelling are O(1). Advancing the
+ * clock only visits the slots the time has moved over; timers found there that
+ * are not due yet cascade down to a finer level. That work is done at most a
+ * given number of timers per call (see {@link #advance}). Slots are picked from the
+ * time since the wheel was created rather than from raw clock readings, which
+ * may be negative ({@link System#nanoTime} only promises differences).
+ */
+final class TimerWheel<T extends TimerWheel.Timer> {
+
+  /** Intrusive wheel node. Subclasses carry the payload. */
+  static class Timer {
+    long deadline;
+    Timer prev;
+    Timer next;
+
+    boolean isScheduled() {
+      return next != null;
+    }
+  }
+
+  private static final int SLOT_BITS = 6;
+  private static final int SLOTS = 1 << SLOT_BITS;
+  private static final int LEVELS = 5;
+  private static final int TICK_SHIFT = 20; // 2^20 ns ~ 1 ms
+
+  private final Timer[][] wheel = new Timer[LEVELS][SLOTS];
+  // Timers from passed slots that advance has not looked at yet
+  private final Timer pending = new Timer();
+  // Ticks count from here, so they stay non-negative even when the clock reads negative
+  private final long origin;
+  private long nanos;
+
+  TimerWheel(long startNanos) {
+    this.origin = startNanos;
+    this.nanos = startNanos;
+    pending.prev = pending.next = pending;
+    for (Timer[] level : wheel) {
+      for (int i = 0; i < SLOTS; i++) {
+        Timer sentinel = new Timer();
+        sentinel.prev = sentinel.next = sentinel;
+        level[i] = sentinel;
+      }
+    }
+  }
+
+  void schedule(T timer) {
+    if (timer.isScheduled()) {
+      cancel(timer);
+    }
+    // Overdue timers go to the current level-0 slot, which the next advance visits first.
+    long time = timer.deadline - nanos <= 0 ? nanos : timer.deadline;
+    int level = levelFor(time - nanos);
+    Timer sentinel = wheel[level][(int) ((time - origin) >>> shift(level)) & (SLOTS - 1)];
+    timer.prev = sentinel.prev;
+    timer.next = sentinel;
+    sentinel.prev.next = timer;
+    sentinel.prev = timer;
+  }
+
+  void cancel(T timer) {
+    if (!timer.isScheduled()) {
+      return;
+    }
+    timer.prev.next = timer.next;
+    timer.next.prev = timer.prev;
+    timer.prev = timer.next = null;
+  }
+
+  /**
+   * Moves the wheel to {@code now}, then handles up to {@code limit} timers
+   * from the slots it passed: due ones go to {@code onExpire}, the rest are
+   * rescheduled. Passed slots are moved to a pending list in O(1) each, so
+   * however far the clock jumped, one call does at most {@code limit} timers
+   * of work; the remainder waits for the next call. Returns whether timers
+   * are still pending.
+   */
+  boolean advance(long now, int limit, Consumer<? super T> onExpire) {
+    long previous = nanos;
+    if (now - previous > 0) {
+      nanos = now;
+      for (int level = 0; level < LEVELS; level++) {
+        long previousTicks = (previous - origin) >>> shift(level);
+        long currentTicks = (now - origin) >>> shift(level);
+        if (currentTicks == previousTicks) {
+          if (level == 0) {
+            // Still inside the same tick: timers due earlier in it must go now, not when the tick ends
+            movePending(wheel[0][(int) currentTicks & (SLOTS - 1)]);
+          }
+          break;
+        }
+        long delta = Math.min(currentTicks - previousTicks, SLOTS - 1);
+        int start = (int) previousTicks & (SLOTS - 1);
+        for (int i = 0; i <= delta; i++) {
+          movePending(wheel[level][(start + i) & (SLOTS - 1)]);
+        }
+      }
+    }
+    return drainPending(limit, onExpire);
+  }
+
+  /** Appends a slot's timers to the pending list. They stay scheduled, so {@link #cancel} still works. */
+  private void movePending(Timer sentinel) {
+    if (sentinel.next == sentinel) {
+      return;
+    }
+    Timer first = sentinel.next;
+    Timer last = sentinel.prev;
+    first.prev = pending.prev;
+    pending.prev.next = first;
+    last.next = pending;
+    pending.prev = last;
+    sentinel.prev = sentinel.next = sentinel;
+  }
+
+  @SuppressWarnings("unchecked")
+  private boolean drainPending(int limit, Consumer<? super T> onExpire) {
+    for (int n = 0; n < limit && pending.next != pending; n++) {
+      Timer timer = pending.next;
+      pending.next = timer.next;
+      timer.next.prev = pending;
+      timer.prev = timer.next = null;
+      if (timer.deadline - nanos <= 0) {
+        onExpire.accept((T) timer);
+      } else {
+        schedule((T) timer);
+      }
+    }
+    return pending.next != pending;
+  }
+
+  private static int levelFor(long delay) {
+    for (int level = 0; level < LEVELS - 1; level++) {
+      if (delay < 1L << shift(level + 1)) {
+        return level;
+      }
+    }
+    return LEVELS - 1;
+  }
+
+  private static int shift(int level) {
+    return TICK_SHIFT + level * SLOT_BITS;
+  }
+}
@@ -0,0 +1,267 @@
+package Hashing;
+
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+
+import java.util.HashMap;
+import java.util.SplittableRandom;
+
+/**
+ * Hand-run benchmark replaying mixes of get, put and remove against
+ * {@link HashTable} (seeded and {@code hashCode} bucket indices) and
+ * {@link HashMap}. For each key type, key distribution and operation mix a
+ * fixed trace is generated from seed 42, so every implementation and every run
+ * sees the same operations.
+ *
+ * <p>Each row reports throughput from an untimed-per-operation replay, latency
+ * percentiles from a second replay that times every operation into a
+ * {@link LatencyHistogram} (so they include roughly one {@code nanoTime} call
+ * of overhead), and the heap growth per entry of a table holding every key.
+ *
+ * CLI:
+ * args[0] = distinct keys (default 1000000), all inserted before the replay
+ * args[1] = operations per replay (default 5000000)
+ * args[2] = get:put:remove percentages, comma separated (default 95:4:1,50:45:5)
+ * args[3] = distributions (default uniform,zipf,sequential)
+ * args[4] = key types (default Vehicle,String,Integer)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Hashing.WorkloadBenchmark --args="1000000 5000000 90:9:1 zipf String"
+ */
+public class WorkloadBenchmark {
+  private static final byte GET = 0, PUT = 1, REMOVE = 2;
+  private static final long SEED = 42;
+  private static final Integer VALUE = 1;
+
+  public static void main(String[] args) {
+    int keys = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int ops = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+    String[] mixes = (args.length > 2 ? args[2] : "95:4:1,50:45:5").split(",");
+    String[] distributions = (args.length > 3 ? args[3] : "uniform,zipf,sequential").split(",");
+    String[] keyTypes = (args.length > 4 ? args[4] : "Vehicle,String,Integer").split(",");
+    if (keys <= 0 || keys > PlateCodec.PLATE_COUNT) {
+      throw new IllegalArgumentException("Keys must be in [1, " + PlateCodec.PLATE_COUNT + "]");
+    }
+
+    System.out.println("keys=" + keys + " ops=" + ops + " seed=" + SEED);
+    System.out.printf("%-8s %-10s %-8s %-18s %10s %8s %7s  %s%n",
+        "key", "dist", "mix", "table", "Mops/s", "B/entry", "found", "latency (ns)");
+    for (String keyType : keyTypes) {
+      Object[] keyObjects = keys(keyType.trim(), keys);
+      for (String distribution : distributions) {
+        for (String mix : mixes) {
+          byte[] opTrace = new byte[ops];
+          int[] keyTrace = new int[ops];
+          trace(distribution.trim(), mix.trim(), keys, opTrace, keyTrace);
+          for (Target<Object> target : targets()) {
+            run(target, keyObjects, opTrace, keyTrace, keyType.trim(), distribution.trim(), mix.trim());
+          }
+        }
+      }
+    }
+  }
+
+  private static void run(Target<Object> target, Object[] keys, byte[] ops, int[] keyTrace,
+      String keyType, String distribution, String mix) {
+    long bytesPerEntry = bytesPerEntry(target, keys);
+
+    target.clear();
+    for (Object key : keys) {
+      target.put(key, VALUE);
+    }
+    target.replay(ops, keys, keyTrace); // warm-up
+    long t0 = System.nanoTime();
+    long sink = target.replay(ops, keys, keyTrace);
+    long elapsed = System.nanoTime() - t0;
+    LatencyHistogram latency = new LatencyHistogram();
+    sink += target.replayTimed(ops, keys, keyTrace, latency);
+
+    target.clear();
+
+    // Share of operations that found the key; the same for every table, so it doubles as a checksum
+    System.out.printf("%-8s %-10s %-8s %-18s %10.2f %8d %6.1f%%  %s%n",
+        keyType, distribution, mix, target.name(), ops.length * 1e3 / elapsed, bytesPerEntry,
+        sink * 50.0 / ops.length, latency.summary());
+  }
+
+  private static Object[] keys(String type, int n) {
+    Object[] keys = new Object[n];
+    for (int i = 0; i < n; i++) {
+      keys[i] = switch (type) {
+        case "Vehicle" -> Vehicle.ofPlateCode(i);
+        case "String" -> "key-" + i;
+        case "Integer" -> Integer.valueOf(i);
+        default -> throw new IllegalArgumentException("Unknown key type: " + type);
+      };
+    }
+    return keys;
+  }
+
+  /** Fills the operation and key-index traces for one distribution and mix. */
+  private static void trace(String distribution, String mix, int keys, byte[] ops, int[] keyTrace) {
+    String[] parts = mix.split(":");
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("Mix must be get:put:remove, was " + mix);
+    }
+    int getPercent = Integer.parseInt(parts[0]);
+    int putPercent = Integer.parseInt(parts[1]);
+    if (getPercent + putPercent + Integer.parseInt(parts[2]) != 100) {
+      throw new IllegalArgumentException("Mix must add up to 100: " + mix);
+    }
+
+    SplittableRandom rng = new SplittableRandom(SEED);
+    ZipfianGenerator zipf = distribution.equals("zipf") ? new ZipfianGenerator(keys, SEED) : null;
+    long next = 0;
+    for (int i = 0; i < ops.length; i++) {
+      int roll = rng.nextInt(100);
+      ops[i] = roll < getPercent ? GET : roll < getPercent + putPercent ? PUT : REMOVE;
+      keyTrace[i] = switch (distribution) {
+        case "uniform" -> rng.nextInt(keys);
+        // Popular ranks are spread over the key space so they are not neighbours
+        case "zipf" -> (int) ((zipf.next() * 0x9E3779B97F4A7C15L >>> 1) % keys);
+        case "sequential" -> (int) (next++ % keys);
+        default -> throw new IllegalArgumentException("Unknown distribution: " + distribution);
+      };
+    }
+  }
+
+  /** Heap growth of a table holding every key once; keys and the value are shared, so this is the table itself. */
+  private static long bytesPerEntry(Target<Object> target, Object[] keys) {
+    target.clear();
+    long before = usedHeap();
+    for (Object key : keys) {
+      target.put(key, VALUE);
+    }
+    long after = usedHeap();
+    return (after - before) / keys.length;
+  }
+
+  private static long usedHeap() {
+    Runtime rt = Runtime.getRuntime();
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+      used = Math.min(used, rt.totalMemory() - rt.freeMemory());
+    }
+    return used;
+  }
+
+  private static Target<Object>[] targets() {
+    @SuppressWarnings("unchecked")
+    Target<Object>[] targets = new Target[] {
+        new HashTableTarget<>(HashTable.KeyHashing.SEEDED),
+        new HashTableTarget<>(HashTable.KeyHashing.HASH_CODE),
+        new HashMapTarget<>(),
+    };
+    return targets;
+  }
+
+  /**
+   * One implementation under test. The replay loops are written out in each
+   * subclass so the calls inside them stay monomorphic.
+   */
+  private abstract static class Target<K> {
+    abstract String name();
+
+    abstract void clear();
+
+    abstract void put(K key, Integer value);
+
+    abstract long replay(byte[] ops, K[] keys, int[] keyTrace);
+
+    abstract long replayTimed(byte[] ops, K[] keys, int[] keyTrace, LatencyHistogram latency);
+  }
+
+  private static final class HashTableTarget<K> extends Target<K> {
+    private final HashTable.KeyHashing hashing;
+    private HashTable<K, Integer> table;
+
+    HashTableTarget(HashTable.KeyHashing hashing) {
+      this.hashing = hashing;
+    }
+
+    @Override
+    String name() {
+      return hashing == HashTable.KeyHashing.SEEDED ? "HashTable" : "HashTable/hashCode";
+    }
+
+    @Override
+    void clear() {
+      table = null; // drop the old table before measuring the new one
+      table = new HashTable<>(16, 0.75, hashing);
+    }
+
+    @Override
+    void put(K key, Integer value) {
+      table.put(key, value);
+    }
+
+    @Override
+    long replay(byte[] ops, K[] keys, int[] keyTrace) {
+      long sink = 0;
+      for (int i = 0; i < ops.length; i++) {
+        K key = keys[keyTrace[i]];
+        Integer v = ops[i] == GET ? table.get(key) : ops[i] == PUT ? table.put(key, VALUE) : table.remove(key);
+        sink += v == null ? 0 : 1;
+      }
+      return sink;
+    }
+
+    @Override
+    long replayTimed(byte[] ops, K[] keys, int[] keyTrace, LatencyHistogram latency) {
+      long sink = 0;
+      for (int i = 0; i < ops.length; i++) {
+        K key = keys[keyTrace[i]];
+        long t0 = System.nanoTime();
+        Integer v = ops[i] == GET ? table.get(key) : ops[i] == PUT ? table.put(key, VALUE) : table.remove(key);
+        latency.record(System.nanoTime() - t0);
+        sink += v == null ? 0 : 1;
+      }
+      return sink;
+    }
+  }
+
+  private static final class HashMapTarget<K> extends Target<K> {
+    private HashMap<K, Integer> map;
+
+    @Override
+    String name() {
+      return "java.util.HashMap";
+    }
+
+    @Override
+    void clear() {
+      map = null;
+      map = new HashMap<>();
+    }
+
+    @Override
+    void put(K key, Integer value) {
+      map.put(key, value);
+    }
+
+    @Override
+    long replay(byte[] ops, K[] keys, int[] keyTrace) {
+      long sink = 0;
+      for (int i = 0; i < ops.length; i++) {
+        K key = keys[keyTrace[i]];
+        Integer v = ops[i] == GET ? map.get(key) : ops[i] == PUT ? map.put(key, VALUE) : map.remove(key);
+        sink += v == null ? 0 : 1;
+      }
+      return sink;
+    }
+
+    @Override
+    long replayTimed(byte[] ops, K[] keys, int[] keyTrace, LatencyHistogram latency) {
+      long sink = 0;
+      for (int i = 0; i < ops.length; i++) {
+        K key = keys[keyTrace[i]];
+        long t0 = System.nanoTime();
+        Integer v = ops[i] == GET ? map.get(key) : ops[i] == PUT ? map.put(key, VALUE) : map.remove(key);
+        latency.record(System.nanoTime() - t0);
+        sink += v == null ? 0 : 1;
+      }
+      return sink;
+    }
+  }
+}
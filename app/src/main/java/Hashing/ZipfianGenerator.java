@@ -0,0 +1,61 @@
+package Hashing;
+
+import java.util.SplittableRandom;
+
+/**
+ * Generates item numbers in {@code [0, items)} following a Zipfian
+ * distribution, so that item 0 is the most popular. Uses the rejection-free
+ * method of Gray et al. ("Quickly Generating Billion-Record Synthetic
+ * Databases"), the same one YCSB uses.
+ */
+public class ZipfianGenerator {
+  public static final double DEFAULT_THETA = 0.99;
+
+  private final long items;
+  private final double theta;
+  private final double alpha;
+  private final double zetan;
+  private final double eta;
+  private final SplittableRandom random;
+
+  public ZipfianGenerator(long items, long seed) {
+    this(items, DEFAULT_THETA, seed);
+  }
+
+  public ZipfianGenerator(long items, double theta, long seed) {
+    if (items <= 0) {
+      throw new IllegalArgumentException("Items must be greater than zero");
+    }
+    if (theta <= 0.0 || theta >= 1.0) {
+      throw new IllegalArgumentException("Theta must be between 0 and 1");
+    }
+    this.items = items;
+    this.theta = theta;
+    this.random = new SplittableRandom(seed);
+    this.zetan = zeta(items, theta);
+    double zeta2 = zeta(2, theta);
+    this.alpha = 1.0 / (1.0 - theta);
+    this.eta = (1 - Math.pow(2.0 / items, 1 - theta)) / (1 - zeta2 / zetan);
+  }
+
+  public long next() {
+    double u = random.nextDouble();
+    double uz = u * zetan;
+    if (uz < 1.0) {
+      return 0;
+    }
+    if (uz < 1.0 + Math.pow(0.5, theta)) {
+      return Math.min(1, items - 1);
+    }
+    long item = (long) (items * Math.pow(eta * u - eta + 1, alpha));
+    return Math.min(item, items - 1);
+  }
+
+  private static double zeta(long n, double theta) {
+    double sum = 0;
+    for (long i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, theta);
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,144 @@
+package Lists;
+
+import Memory.EpochReclaimer;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Unbounded FIFO queue for many producers and consumers (Michael and Scott's
+ * lock-free queue). The list always starts with a dummy node; {@link #poll}
+ * moves the head to the first real node, which becomes the new dummy.
+ *
+ * <p>With recycling on (the default), the dummy a poll unlinks is handed to
+ * an {@link EpochReclaimer} and reused by a later {@link #offer} once no
+ * thread can still be reading it, so a queue under steady churn allocates
+ * almost no nodes. The reclaimer also makes compare-and-set on reused nodes
+ * safe from ABA. Threads that use the queue should be long-lived workers; see
+ * {@link EpochReclaimer}.
+ *
+ * @param <AnyType> the type of elements in the queue
+ */
+public class LockFreeQueue<AnyType> {
+    private static final class Node<AnyType> {
+        volatile AnyType data;
+        volatile Node<AnyType> next;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<Node, Node> NEXT =
+        AtomicReferenceFieldUpdater.newUpdater(Node.class, Node.class, "next");
+
+    private final AtomicReference<Node<AnyType>> head;
+    private final AtomicReference<Node<AnyType>> tail;
+    // null when nodes are left to the garbage collector
+    private final EpochReclaimer<Node<AnyType>> reclaimer;
+
+    public LockFreeQueue() {
+        this(true);
+    }
+
+    /** @param recycleNodes whether unlinked nodes are reused; {@code false} leaves them to the collector */
+    public LockFreeQueue(boolean recycleNodes) {
+        Node<AnyType> dummy = new Node<>();
+        head = new AtomicReference<>(dummy);
+        tail = new AtomicReference<>(dummy);
+        reclaimer = recycleNodes ? new EpochReclaimer<>() : null;
+    }
+
+    public void offer(AnyType x) {
+        if (x == null) throw new IllegalArgumentException("Null values not allowed");
+        if (reclaimer == null) {
+            append(newNode(null, x));
+            return;
+        }
+        try (EpochReclaimer.Guard<Node<AnyType>> guard = reclaimer.enter()) {
+            append(newNode(guard, x));
+        }
+    }
+
+    /** Removes and returns the oldest element, or {@code null} if the queue is empty. */
+    public AnyType poll() {
+        if (reclaimer == null) {
+            return unlinkFirst(null);
+        }
+        try (EpochReclaimer.Guard<Node<AnyType>> guard = reclaimer.enter()) {
+            return unlinkFirst(guard);
+        }
+    }
+
+    public boolean isEmpty() {
+        if (reclaimer == null) {
+            return head.get().next == null;
+        }
+        EpochReclaimer.Guard<Node<AnyType>> guard = reclaimer.enter();
+        try {
+            return head.get().next == null;
+        } finally {
+            guard.close();
+        }
+    }
+
+    /** Nodes taken from the reclaimer instead of allocated, or 0 without recycling. */
+    public long recycledNodes() {
+        return reclaimer == null ? 0 : reclaimer.reused();
+    }
+
+    /** A recycled node from {@code guard} if there is one; {@code guard} is null without recycling. */
+    private Node<AnyType> newNode(EpochReclaimer.Guard<Node<AnyType>> guard, AnyType x) {
+        Node<AnyType> node = guard == null ? null : guard.reuse();
+        if (node == null) {
+            node = new Node<>();
+        } else {
+            node.next = null;
+        }
+        node.data = x;
+        return node;
+    }
+
+    private void append(Node<AnyType> node) {
+        while (true) {
+            Node<AnyType> last = tail.get();
+            Node<AnyType> next = last.next;
+            if (last != tail.get()) {
+                continue;
+            }
+            if (next == null) {
+                if (NEXT.compareAndSet(last, null, node)) {
+                    tail.compareAndSet(last, node);
+                    return;
+                }
+            } else {
+                // Another offer linked its node but has not moved the tail yet
+                tail.compareAndSet(last, next);
+            }
+        }
+    }
+
+    private AnyType unlinkFirst(EpochReclaimer.Guard<Node<AnyType>> guard) {
+        while (true) {
+            Node<AnyType> first = head.get();
+            Node<AnyType> last = tail.get();
+            Node<AnyType> next = first.next;
+            if (first != head.get()) {
+                continue;
+            }
+            if (next == null) {
+                return null;
+            }
+            if (first == last) {
+                tail.compareAndSet(last, next);
+                continue;
+            }
+            AnyType data = next.data;
+            if (head.compareAndSet(first, next)) {
+                // next is the new dummy; drop its element so it can be collected
+                next.data = null;
+                if (guard != null) {
+                    guard.retire(first);
+                }
+                return data;
+            }
+        }
+    }
+}
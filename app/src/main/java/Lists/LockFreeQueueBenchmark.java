@@ -0,0 +1,151 @@
+package Lists;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hand-run benchmark of allocation under sustained churn: every thread
+ * offers an element and then polls one, through {@link LockFreeQueue} with
+ * node recycling, the same queue without it, and
+ * {@link ConcurrentLinkedQueue}. The queue stays at its starting depth, and a
+ * node a thread unlinks was usually offered by another thread. Elements are
+ * pre-boxed, so what the threads allocate is queue nodes plus the queues' own
+ * bookkeeping. Each worker reads its own allocation counter
+ * ({@code com.sun.management.ThreadMXBean}); the table shows bytes allocated
+ * per offer/poll pair and collector runs during the measurement.
+ *
+ * CLI:
+ * args[0] = thread counts, comma separated (default 1,2,4)
+ * args[1] = offer/poll pairs per thread (default 2000000)
+ * args[2] = elements queued before the start (default 1000)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Lists.LockFreeQueueBenchmark --args="1,2,4 2000000 1000"
+ */
+public class LockFreeQueueBenchmark {
+  private static final Integer[] ELEMENTS = new Integer[1024];
+
+  static {
+    for (int i = 0; i < ELEMENTS.length; i++) {
+      ELEMENTS[i] = i;
+    }
+  }
+
+  /** Common face of the three queues. */
+  private interface Queue {
+    void offer(Integer x);
+
+    Integer poll();
+  }
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  public static void main(String[] args) throws InterruptedException {
+    String[] threadCounts = (args.length > 0 ? args[0] : "1,2,4").split(",");
+    int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+    int backlog = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+    System.out.println("pairs/thread=" + perThread + " backlog=" + backlog
+        + " cpus=" + Runtime.getRuntime().availableProcessors());
+    System.out.printf("%-8s %-22s %12s %10s %8s%n", "threads", "queue", "bytes/pair", "ns/pair", "GCs");
+    for (String t : threadCounts) {
+      int threads = Integer.parseInt(t.trim());
+      for (int round = 0; round < 2; round++) { // the first round is warm-up
+        boolean print = round == 1;
+        LockFreeQueue<Integer> recycling = new LockFreeQueue<>(true);
+        run(print, threads, perThread, backlog, "LockFreeQueue", new Queue() {
+          public void offer(Integer x) {
+            recycling.offer(x);
+          }
+
+          public Integer poll() {
+            return recycling.poll();
+          }
+        });
+        LockFreeQueue<Integer> plain = new LockFreeQueue<>(false);
+        run(print, threads, perThread, backlog, "LockFreeQueue/no reuse", new Queue() {
+          public void offer(Integer x) {
+            plain.offer(x);
+          }
+
+          public Integer poll() {
+            return plain.poll();
+          }
+        });
+        ConcurrentLinkedQueue<Integer> jdk = new ConcurrentLinkedQueue<>();
+        run(print, threads, perThread, backlog, "ConcurrentLinkedQueue", new Queue() {
+          public void offer(Integer x) {
+            jdk.offer(x);
+          }
+
+          public Integer poll() {
+            return jdk.poll();
+          }
+        });
+      }
+    }
+  }
+
+  private static void run(boolean print, int threadCount, int perThread, int backlog, String name, Queue queue)
+      throws InterruptedException {
+    for (int i = 0; i < backlog; i++) {
+      queue.offer(ELEMENTS[i & (ELEMENTS.length - 1)]);
+    }
+    AtomicLong allocated = new AtomicLong();
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < threadCount; t++) {
+      threads.add(worker(start, allocated, () -> {
+        for (int i = 0; i < perThread; i++) {
+          queue.offer(ELEMENTS[i & (ELEMENTS.length - 1)]);
+          while (queue.poll() == null) {
+            Thread.yield();
+          }
+        }
+      }));
+    }
+    long gcs = gcCount();
+    long t0 = System.nanoTime();
+    start.countDown();
+    for (Thread t : threads) {
+      t.join();
+    }
+    long t1 = System.nanoTime();
+    gcs = gcCount() - gcs;
+    long pairs = (long) threadCount * perThread;
+    if (print) {
+      System.out.printf("%-8d %-22s %12.2f %10.1f %8d%n", threadCount, name, (double) allocated.get() / pairs,
+          (double) (t1 - t0) / pairs, gcs);
+    }
+  }
+
+  private static Thread worker(CountDownLatch start, AtomicLong allocated, Runnable body) {
+    Thread thread = new Thread(() -> {
+      try {
+        start.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      long before = THREADS.getCurrentThreadAllocatedBytes();
+      body.run();
+      allocated.addAndGet(THREADS.getCurrentThreadAllocatedBytes() - before);
+    });
+    thread.start();
+    return thread;
+  }
+
+  private static long gcCount() {
+    long n = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      n += Math.max(0, gc.getCollectionCount());
+    }
+    return n;
+  }
+}
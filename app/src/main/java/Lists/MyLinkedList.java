@@ -54,6 +54,11 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType> {
     size++;
   }
 
+  /** Returns the first element, or {@code null} if the list is empty. */
+  public AnyType peekFirst() {
+    return head == null ? null : head.data;
+  }
+
   public AnyType removeFirst() {
     if (isEmpty()) {
       throw new IllegalStateException("List is empty");
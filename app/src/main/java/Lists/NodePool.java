@@ -0,0 +1,108 @@
+package Lists;
+
+import java.util.Arrays;
+
+/**
+ * Doubly linked nodes stored as indices into parallel arrays: {@code data[i]},
+ * {@code next[i]} and {@code prev[i]} describe node {@code i}, and {@link #NIL}
+ * plays the role of {@code null}. Released nodes go on a free list threaded
+ * through {@code next}, so a steady stream of adds and removes reuses the same
+ * slots and allocates nothing once the arrays are large enough. The arrays
+ * only grow (by doubling) until {@link #compact} is called.
+ *
+ * @param <AnyType> the type of elements in the nodes
+ */
+final class NodePool<AnyType> {
+  static final int NIL = -1;
+  static final int DEFAULT_CAPACITY = 16;
+
+  AnyType[] data;
+  int[] next;
+  int[] prev;
+  private int freeHead = NIL;
+  // Slots [used, capacity) have never been handed out
+  private int used;
+
+  NodePool(int initialCapacity) {
+    if (initialCapacity < 1) {
+      throw new IllegalArgumentException("Initial capacity must be at least 1");
+    }
+    allocateArrays(initialCapacity);
+  }
+
+  int capacity() {
+    return next.length;
+  }
+
+  /** Returns a node holding {@code x} with the given links. */
+  int allocate(AnyType x, int prevNode, int nextNode) {
+    int node;
+    if (freeHead != NIL) {
+      node = freeHead;
+      freeHead = next[node];
+    } else {
+      if (used == next.length) {
+        grow();
+      }
+      node = used++;
+    }
+    data[node] = x;
+    prev[node] = prevNode;
+    next[node] = nextNode;
+    return node;
+  }
+
+  /** Returns {@code node} to the free list; its element is dropped so it can be collected. */
+  void release(int node) {
+    data[node] = null;
+    prev[node] = NIL;
+    next[node] = freeHead;
+    freeHead = node;
+  }
+
+  /** Forgets every node, keeping the arrays. */
+  void clear() {
+    Arrays.fill(data, 0, used, null);
+    freeHead = NIL;
+    used = 0;
+  }
+
+  /**
+   * Rewrites the list starting at {@code head} ({@code size} nodes) into slots
+   * {@code 0..size-1} in list order, so traversal reads the arrays
+   * sequentially, and shrinks the arrays to {@code max(size, minCapacity)}.
+   * The new head is slot 0 and the new tail slot {@code size - 1}.
+   */
+  void compact(int head, int size, int minCapacity) {
+    AnyType[] oldData = data;
+    int[] oldNext = next;
+    allocateArrays(Math.max(size, Math.max(1, minCapacity)));
+    int node = head;
+    for (int i = 0; i < size; i++) {
+      data[i] = oldData[node];
+      prev[i] = i - 1;
+      next[i] = i + 1 < size ? i + 1 : NIL;
+      node = oldNext[node];
+    }
+    freeHead = NIL;
+    used = size;
+  }
+
+  private void grow() {
+    int capacity = next.length;
+    if (capacity == Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("Node pool is full");
+    }
+    int newCapacity = (int) Math.min((long) capacity << 1, Integer.MAX_VALUE - 8);
+    data = Arrays.copyOf(data, newCapacity);
+    next = Arrays.copyOf(next, newCapacity);
+    prev = Arrays.copyOf(prev, newCapacity);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void allocateArrays(int capacity) {
+    data = (AnyType[]) new Object[capacity];
+    next = new int[capacity];
+    prev = new int[capacity];
+  }
+}
@@ -0,0 +1,144 @@
+package Lists;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+
+import static Lists.NodePool.NIL;
+
+/**
+ * A {@link Deque} with the behaviour of {@link LinkedDeque} whose nodes live in
+ * a {@link NodePool} instead of separate objects. Removed nodes are recycled,
+ * so a deque in steady state (as many adds as removes) allocates nothing, and
+ * nodes sit next to each other in three arrays instead of being scattered
+ * over the heap. {@link #compact()} puts them back in list order after heavy
+ * churn.
+ *
+ * @param <AnyType> the type of elements in the deque
+ */
+public class PooledLinkedDeque<AnyType> implements Deque<AnyType> {
+    private final NodePool<AnyType> pool;
+    private final int initialCapacity;
+    private int head = NIL, tail = NIL;
+    private int size;
+    private int modCount;
+
+    public PooledLinkedDeque() {
+        this(NodePool.DEFAULT_CAPACITY);
+    }
+
+    /** @param initialCapacity nodes to reserve up front, so the first adds do not grow the pool */
+    public PooledLinkedDeque(int initialCapacity) {
+        this.pool = new NodePool<>(initialCapacity);
+        this.initialCapacity = initialCapacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Number of nodes the pool can hold before it has to grow. */
+    public int capacity() {
+        return pool.capacity();
+    }
+
+    public void addFirst(AnyType x) {
+        if (x == null) throw new IllegalArgumentException("Null values not allowed");
+        int node = pool.allocate(x, NIL, head);
+        if (tail == NIL) {
+            tail = node;
+        } else {
+            pool.prev[head] = node;
+        }
+        head = node;
+        size++;
+        modCount++;
+    }
+
+    public void addLast(AnyType x) {
+        if (x == null) throw new IllegalArgumentException("Null values not allowed");
+        int node = pool.allocate(x, tail, NIL);
+        if (head == NIL) {
+            head = node;
+        } else {
+            pool.next[tail] = node;
+        }
+        tail = node;
+        size++;
+        modCount++;
+    }
+
+    public AnyType removeFirst() {
+        if (isEmpty()) throw new IllegalStateException("Deque is empty");
+        int node = head;
+        AnyType data = pool.data[node];
+        head = pool.next[node];
+        if (head == NIL) {
+            tail = NIL;
+        } else {
+            pool.prev[head] = NIL;
+        }
+        pool.release(node);
+        size--;
+        modCount++;
+        return data;
+    }
+
+    public AnyType removeLast() {
+        if (isEmpty()) throw new IllegalStateException("Deque is empty");
+        int node = tail;
+        AnyType data = pool.data[node];
+        tail = pool.prev[node];
+        if (tail == NIL) {
+            head = NIL;
+        } else {
+            pool.next[tail] = NIL;
+        }
+        pool.release(node);
+        size--;
+        modCount++;
+        return data;
+    }
+
+    public void clear() {
+        pool.clear();
+        head = tail = NIL;
+        size = 0;
+        modCount++;
+    }
+
+    /** Moves the nodes into list order and releases pool capacity beyond the initial one. */
+    public void compact() {
+        pool.compact(head, size, initialCapacity);
+        head = size == 0 ? NIL : 0;
+        tail = size - 1;
+        modCount++;
+    }
+
+    /**
+     * Iterates from first to last. Since node slots are reused, modifying the
+     * deque during iteration makes the iterator fail with a
+     * {@link ConcurrentModificationException}.
+     */
+    public Iterator<AnyType> iterator() {
+        return new Iterator<AnyType>() {
+            private int current = head;
+            private final int expectedModCount = modCount;
+
+            public boolean hasNext() {
+                return current != NIL;
+            }
+
+            public AnyType next() {
+                if (!hasNext()) throw new IllegalStateException("No more elements");
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                AnyType data = pool.data[current];
+                current = pool.next[current];
+                return data;
+            }
+        };
+    }
+}
@@ -0,0 +1,186 @@
+package Lists;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import static Lists.NodePool.NIL;
+
+/**
+ * {@link MyLinkedList} with its nodes kept in a {@link NodePool}: the same
+ * operations, but removed nodes are recycled instead of left to the garbage
+ * collector, and nodes are packed into arrays instead of separate objects.
+ *
+ * @param <AnyType> the type of elements in the list
+ */
+public class PooledLinkedList<AnyType> implements Iterable<AnyType> {
+  private final NodePool<AnyType> pool;
+  private final int initialCapacity;
+  private int head = NIL;
+  private int tail = NIL;
+  private int size;
+  private int modCount;
+
+  public PooledLinkedList() {
+    this(NodePool.DEFAULT_CAPACITY);
+  }
+
+  /** @param initialCapacity nodes to reserve up front */
+  public PooledLinkedList(int initialCapacity) {
+    this.pool = new NodePool<>(initialCapacity);
+    this.initialCapacity = initialCapacity;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** Number of nodes the pool can hold before it has to grow. */
+  public int capacity() {
+    return pool.capacity();
+  }
+
+  public void addFirst(AnyType x) {
+    int node = pool.allocate(x, NIL, head);
+    if (tail == NIL) {
+      tail = node;
+    } else {
+      pool.prev[head] = node;
+    }
+    head = node;
+    size++;
+    modCount++;
+  }
+
+  public void addLast(AnyType x) {
+    int node = pool.allocate(x, tail, NIL);
+    if (head == NIL) {
+      head = node;
+    } else {
+      pool.next[tail] = node;
+    }
+    tail = node;
+    size++;
+    modCount++;
+  }
+
+  public AnyType removeFirst() {
+    if (isEmpty()) {
+      throw new IllegalStateException("List is empty");
+    }
+    int node = head;
+    AnyType data = pool.data[node];
+    head = pool.next[node];
+    if (head == NIL) {
+      tail = NIL;
+    } else {
+      pool.prev[head] = NIL;
+    }
+    pool.release(node);
+    size--;
+    modCount++;
+    return data;
+  }
+
+  public AnyType removeLast() {
+    if (isEmpty()) {
+      throw new IllegalStateException("List is empty");
+    }
+    int node = tail;
+    AnyType data = pool.data[node];
+    tail = pool.prev[node];
+    if (tail == NIL) {
+      head = NIL;
+    } else {
+      pool.next[tail] = NIL;
+    }
+    pool.release(node);
+    size--;
+    modCount++;
+    return data;
+  }
+
+  public AnyType get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+    int current = head;
+    for (int i = 0; i < index; i++) {
+      current = pool.next[current];
+    }
+    return pool.data[current];
+  }
+
+  public boolean removeFirstMatch(Predicate<AnyType> predicate) {
+    if (predicate == null)
+      throw new NullPointerException("Predicate is null");
+    int curr = head;
+    while (curr != NIL) {
+      if (predicate.test(pool.data[curr])) {
+        int p = pool.prev[curr];
+        int n = pool.next[curr];
+        if (p == NIL) {
+          head = n;
+        } else {
+          pool.next[p] = n;
+        }
+        if (n == NIL) {
+          tail = p;
+        } else {
+          pool.prev[n] = p;
+        }
+        pool.release(curr);
+        size--;
+        modCount++;
+        return true;
+      }
+      curr = pool.next[curr];
+    }
+    return false;
+  }
+
+  public void clear() {
+    pool.clear();
+    head = tail = NIL;
+    size = 0;
+    modCount++;
+  }
+
+  /** Moves the nodes into list order and releases pool capacity beyond the initial one. */
+  public void compact() {
+    pool.compact(head, size, initialCapacity);
+    head = size == 0 ? NIL : 0;
+    tail = size - 1;
+    modCount++;
+  }
+
+  @Override
+  public Iterator<AnyType> iterator() {
+    return new Iterator<AnyType>() {
+      private int current = head;
+      private final int expectedModCount = modCount;
+
+      @Override
+      public boolean hasNext() {
+        return current != NIL;
+      }
+
+      @Override
+      public AnyType next() {
+        if (current == NIL)
+          throw new NoSuchElementException("No more elements");
+        // Slots are reused, so a stale iterator could otherwise return another list's element
+        if (modCount != expectedModCount)
+          throw new ConcurrentModificationException();
+        AnyType data = pool.data[current];
+        current = pool.next[current];
+        return data;
+      }
+    };
+  }
+}
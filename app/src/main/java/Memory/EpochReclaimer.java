@@ -0,0 +1,263 @@
+package Memory;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Epoch-based reclamation: decides when a node unlinked from a lock-free
+ * structure can no longer be seen by any thread, so it can be reused instead
+ * of left to the garbage collector.
+ *
+ * <p>Every access to the structure happens between {@link #enter()} and
+ * {@link Guard#close()}. A thread that unlinks a node hands it to
+ * {@link Guard#retire}; the node is tagged with the global epoch at that
+ * moment. The epoch only advances once every thread inside a critical section
+ * has seen the current one, so after two advances no thread can still hold a
+ * reference picked up before the node was unlinked. From then on
+ * {@link Guard#reuse()} may hand it out again. This also rules out ABA on
+ * compare-and-set of recycled nodes.
+ *
+ * <p>Retired nodes wait in per-thread lists, and reusable nodes are kept per
+ * thread too. A thread with more than 128 spare nodes passes 64 of them to a
+ * shared pool, and a thread that runs out takes a batch from there, so a
+ * consumer that only retires feeds a producer that only allocates. Past
+ * {@code maxPooled} nodes in the shared pool, extra nodes are dropped for
+ * the collector.
+ *
+ * <p>Each thread that uses the reclaimer keeps a small record for as long as
+ * the reclaimer lives. This suits a fixed set of worker threads, not a new
+ * virtual thread per operation. A thread that stops while outside a critical
+ * section does not hold back the epoch, but the nodes it retired last are
+ * never reused.
+ *
+ * @param <T> the node type
+ */
+public final class EpochReclaimer<T> {
+  public static final int DEFAULT_MAX_POOLED = 1 << 16;
+  static final int BATCH = 64;
+  // Retires by one thread between attempts to advance the epoch
+  private static final int ADVANCE_INTERVAL = 64;
+
+  /**
+   * The calling thread's critical section. {@link #enter()} returns the same
+   * instance to a thread every time, and retiring or reusing through it skips
+   * the thread-local lookup.
+   */
+  public static final class Guard<T> implements AutoCloseable {
+    private final EpochReclaimer<T> reclaimer;
+    // epoch << 1, plus 1 while inside a critical section; written by the owner only
+    private final AtomicLong state = new AtomicLong();
+    private int depth;
+    private long seenEpoch;
+    private int sinceAdvance;
+    // Retired nodes by epoch % 3, and the epoch each list holds
+    private final Object[][] limbo = {new Object[BATCH], new Object[BATCH], new Object[BATCH]};
+    private final int[] limboCount = new int[3];
+    private final long[] limboEpoch = new long[3];
+    private final Object[] free = new Object[2 * BATCH];
+    private int freeCount;
+    // Owner-written; sums over all threads are exact once they are quiet
+    private long retired;
+    private long reused;
+
+    private Guard(EpochReclaimer<T> reclaimer, long epoch) {
+      this.reclaimer = reclaimer;
+      this.seenEpoch = epoch;
+      Arrays.fill(limboEpoch, epoch);
+    }
+
+    /**
+     * Hands over a node that is no longer reachable from the structure. Other
+     * threads may still be reading it; it becomes reusable once they are all
+     * done. The caller must not touch it afterwards.
+     */
+    public void retire(T node) {
+      Objects.requireNonNull(node, "node");
+      long e = reclaimer.epoch.get();
+      int b = (int) (e % 3);
+      if (limboEpoch[b] != e) {
+        // Whatever is left in this list is from epoch e - 3 or older
+        release(b);
+        limboEpoch[b] = e;
+      }
+      if (limboCount[b] == limbo[b].length) {
+        limbo[b] = Arrays.copyOf(limbo[b], limbo[b].length * 2);
+      }
+      limbo[b][limboCount[b]++] = node;
+      retired++;
+      if (++sinceAdvance >= ADVANCE_INTERVAL) {
+        sinceAdvance = 0;
+        if (reclaimer.tryAdvance()) {
+          reclaim(reclaimer.epoch.get());
+        }
+      }
+    }
+
+    /** Returns a node no thread can still see, or {@code null} if there is none; the caller resets its fields. */
+    @SuppressWarnings("unchecked")
+    public T reuse() {
+      if (freeCount == 0) {
+        Object[] batch = reclaimer.shared.poll();
+        if (batch == null) {
+          return null;
+        }
+        reclaimer.sharedBatches.decrementAndGet();
+        System.arraycopy(batch, 0, free, 0, BATCH);
+        freeCount = BATCH;
+      }
+      T node = (T) free[--freeCount];
+      free[freeCount] = null;
+      reused++;
+      return node;
+    }
+
+    @Override
+    public void close() {
+      if (depth == 0) {
+        throw new IllegalStateException("Guard closed more often than entered");
+      }
+      if (--depth == 0) {
+        // Leaving needs no fence: seeing it late only delays an advance
+        state.lazySet(state.get() & ~1L);
+      }
+    }
+
+    private void open() {
+      if (depth++ > 0) {
+        return;
+      }
+      long e;
+      do {
+        e = reclaimer.epoch.get();
+        state.set(e << 1 | 1);
+        // Re-check: an advance between the read and the announcement did not see this thread
+      } while (reclaimer.epoch.get() != e);
+      if (e != seenEpoch) {
+        seenEpoch = e;
+        reclaim(e);
+      }
+    }
+
+    /** Frees the lists whose nodes were retired two or more epochs before {@code e}. */
+    private void reclaim(long e) {
+      for (int b = 0; b < 3; b++) {
+        if (limboCount[b] > 0 && limboEpoch[b] <= e - 2) {
+          release(b);
+        }
+      }
+    }
+
+    private void release(int b) {
+      Object[] nodes = limbo[b];
+      for (int i = 0; i < limboCount[b]; i++) {
+        if (freeCount == free.length) {
+          reclaimer.spill(free);
+          freeCount = BATCH;
+        }
+        free[freeCount++] = nodes[i];
+        nodes[i] = null;
+      }
+      limboCount[b] = 0;
+    }
+  }
+
+  private final AtomicLong epoch = new AtomicLong();
+  private final ThreadLocal<Guard<T>> local = ThreadLocal.withInitial(this::register);
+  private volatile Guard<?>[] participants = new Guard<?>[0];
+  private final ConcurrentLinkedQueue<Object[]> shared = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger sharedBatches = new AtomicInteger();
+  private final int maxSharedBatches;
+
+  public EpochReclaimer() {
+    this(DEFAULT_MAX_POOLED);
+  }
+
+  /** @param maxPooled spare nodes the shared pool keeps; more are dropped for the collector */
+  public EpochReclaimer(int maxPooled) {
+    if (maxPooled < 0) {
+      throw new IllegalArgumentException("Max pooled must be non-negative");
+    }
+    this.maxSharedBatches = maxPooled / BATCH;
+  }
+
+  /**
+   * Starts a critical section on the calling thread; use with
+   * try-with-resources. Sections nest. Nodes read inside the section stay
+   * valid until it closes.
+   */
+  public Guard<T> enter() {
+    Guard<T> guard = local.get();
+    guard.open();
+    return guard;
+  }
+
+  /** {@link Guard#retire} on the calling thread's guard. */
+  public void retire(T node) {
+    local.get().retire(node);
+  }
+
+  /** {@link Guard#reuse} on the calling thread's guard. */
+  public T reuse() {
+    return local.get().reuse();
+  }
+
+  /**
+   * Advances the global epoch if every thread inside a critical section has
+   * seen the current one. Retiring calls this every 64 nodes.
+   */
+  public boolean tryAdvance() {
+    long e = epoch.get();
+    for (Guard<?> g : participants) {
+      long s = g.state.get();
+      if ((s & 1) != 0 && (s >>> 1) != e) {
+        return false;
+      }
+    }
+    return epoch.compareAndSet(e, e + 1);
+  }
+
+  public long epoch() {
+    return epoch.get();
+  }
+
+  /** Nodes retired so far; exact once the threads using the reclaimer are quiet. */
+  public long retired() {
+    long n = 0;
+    for (Guard<?> g : participants) {
+      n += g.retired;
+    }
+    return n;
+  }
+
+  /** Nodes handed out again so far; exact once the threads using the reclaimer are quiet. */
+  public long reused() {
+    long n = 0;
+    for (Guard<?> g : participants) {
+      n += g.reused;
+    }
+    return n;
+  }
+
+  private Guard<T> register() {
+    Guard<T> guard = new Guard<>(this, epoch.get());
+    synchronized (this) {
+      Guard<?>[] grown = Arrays.copyOf(participants, participants.length + 1);
+      grown[grown.length - 1] = guard;
+      participants = grown;
+    }
+    return guard;
+  }
+
+  /** Moves the upper half of a full spare list to the shared pool, or drops it if the pool is full. */
+  private void spill(Object[] free) {
+    if (sharedBatches.incrementAndGet() <= maxSharedBatches) {
+      shared.offer(Arrays.copyOfRange(free, BATCH, 2 * BATCH));
+    } else {
+      sharedBatches.decrementAndGet();
+    }
+    Arrays.fill(free, BATCH, 2 * BATCH, null);
+  }
+}
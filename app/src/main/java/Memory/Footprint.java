@@ -0,0 +1,282 @@
+package Memory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bytes retained by a collection's own objects, broken down by class.
+ *
+ * <p>The walk starts at the collection and follows every reference field and
+ * array slot, sizing each object once with {@link ObjectLayout}. It stops at
+ * the stored elements: generic type arguments are tracked along the way, and
+ * a field whose type resolves to one of the root's own type variables (the
+ * {@code K key} and {@code V value} of a {@code HashTable.Entry}, the
+ * {@code AnyType data} of a deque node) holds an element, which is counted
+ * but not sized. A {@code MyLinkedList<Entry<K, V>>} node inside a hash table
+ * therefore counts its {@code Entry} as structure. Objects of JDK classes are
+ * sized but not entered, since their modules do not open their fields to
+ * reflection.
+ */
+public final class Footprint {
+
+  private static final class ClassUsage {
+    long count;
+    long bytes;
+  }
+
+  private final ObjectLayout layout;
+  private final Map<Class<?>, ClassUsage> usage;
+  private final long totalBytes;
+  private final long objectCount;
+  private final long elementCount;
+
+  private Footprint(ObjectLayout layout, Map<Class<?>, ClassUsage> usage, long elementCount) {
+    this.layout = layout;
+    this.usage = usage;
+    long bytes = 0;
+    long objects = 0;
+    for (ClassUsage u : usage.values()) {
+      bytes += u.bytes;
+      objects += u.count;
+    }
+    this.totalBytes = bytes;
+    this.objectCount = objects;
+    this.elementCount = elementCount;
+  }
+
+  /** Measures {@code root} with the layout of the running JVM. */
+  public static Footprint of(Object root) {
+    return of(root, ObjectLayout.current());
+  }
+
+  public static Footprint of(Object root, ObjectLayout layout) {
+    Walker walker = new Walker(layout);
+    walker.walk(root);
+    return new Footprint(layout, walker.usage, walker.elements.size());
+  }
+
+  public ObjectLayout layout() {
+    return layout;
+  }
+
+  /** Bytes of every object reached, elements excluded. */
+  public long totalBytes() {
+    return totalBytes;
+  }
+
+  public long objectCount() {
+    return objectCount;
+  }
+
+  /** Distinct stored elements reached (keys and values count separately). */
+  public long elementCount() {
+    return elementCount;
+  }
+
+  public long countOf(Class<?> type) {
+    ClassUsage u = usage.get(type);
+    return u == null ? 0 : u.count;
+  }
+
+  public long bytesOf(Class<?> type) {
+    ClassUsage u = usage.get(type);
+    return u == null ? 0 : u.bytes;
+  }
+
+  /** Classes that were reached, largest share first. */
+  public List<Class<?>> classes() {
+    List<Class<?>> classes = new ArrayList<>(usage.keySet());
+    classes.sort((a, b) -> Long.compare(usage.get(b).bytes, usage.get(a).bytes));
+    return Collections.unmodifiableList(classes);
+  }
+
+  /** Structure bytes divided by {@code entries}, e.g. the collection's size. */
+  public double bytesPerEntry(long entries) {
+    return entries == 0 ? totalBytes : (double) totalBytes / entries;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("%,d bytes in %,d objects, %,d elements%n", totalBytes, objectCount, elementCount));
+    for (Class<?> type : classes()) {
+      ClassUsage u = usage.get(type);
+      sb.append(String.format("  %-45s %,12d x %,14d bytes%n", type.getTypeName(), u.count, u.bytes));
+    }
+    return sb.toString();
+  }
+
+  /** A type as declared, together with the bindings of the variables it mentions. */
+  private static final class Binding {
+    final Type type;
+    final Map<TypeVariable<?>, Binding> env;
+
+    Binding(Type type, Map<TypeVariable<?>, Binding> env) {
+      this.type = type;
+      this.env = env;
+    }
+  }
+
+  private static final Map<TypeVariable<?>, Binding> UNBOUND = Map.of();
+  private static final Binding RAW = new Binding(Object.class, UNBOUND);
+
+  /** Object to visit, with the bindings of its class's type variables (or, for arrays, its component). */
+  private static final class Pending {
+    final Object object;
+    final Map<TypeVariable<?>, Binding> env;
+    final Binding component;
+
+    Pending(Object object, Map<TypeVariable<?>, Binding> env, Binding component) {
+      this.object = object;
+      this.env = env;
+      this.component = component;
+    }
+  }
+
+  /** Iterative graph walk, so long chains and degenerate trees do not overflow the stack. */
+  private static final class Walker {
+    private final ObjectLayout layout;
+    private final Map<Class<?>, ClassUsage> usage = new HashMap<>();
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> elements = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+
+    Walker(ObjectLayout layout) {
+      this.layout = layout;
+    }
+
+    void walk(Object root) {
+      // The root's own type variables stay unbound: whatever they resolve to is an element
+      follow(root, RAW);
+      while (!pending.isEmpty()) {
+        Pending next = pending.pop();
+        Object object = next.object;
+        if (object.getClass().isArray()) {
+          for (Object slot : (Object[]) object) {
+            follow(slot, next.component);
+          }
+          continue;
+        }
+        Map<TypeVariable<?>, Binding> env = next.env;
+        for (Class<?> c = object.getClass(); c != null; env = bind(c.getGenericSuperclass(), env), c = c.getSuperclass()) {
+          for (Field field : REFERENCE_FIELDS.get(c)) {
+            try {
+              follow(field.get(object), new Binding(field.getGenericType(), env));
+            } catch (IllegalAccessException e) {
+              // not readable; its size is still counted in the holder
+            }
+          }
+        }
+      }
+    }
+
+    /** Counts {@code target} as an element or sizes it and queues it, depending on its declared type. */
+    private void follow(Object target, Binding declared) {
+      if (target == null) {
+        return;
+      }
+      Binding resolved = resolve(declared);
+      if (resolved == null) {
+        elements.add(target);
+        return;
+      }
+      if (target instanceof Enum) {
+        return; // constants are shared, not retained by the structure
+      }
+      if (!count(target)) {
+        return;
+      }
+      Class<?> type = target.getClass();
+      if (type.isArray()) {
+        if (!type.getComponentType().isPrimitive()) {
+          pending.push(new Pending(target, UNBOUND, componentOf(resolved)));
+        }
+      } else if (!type.getModule().isNamed()) {
+        pending.push(new Pending(target, bind(resolved.type, resolved.env), null));
+      }
+    }
+
+    /** Adds {@code object}'s size the first time it is seen; returns whether it was new. */
+    private boolean count(Object object) {
+      if (!visited.add(object)) {
+        return false;
+      }
+      ClassUsage u = usage.computeIfAbsent(object.getClass(), c -> new ClassUsage());
+      u.count++;
+      u.bytes += layout.sizeOf(object);
+      return true;
+    }
+  }
+
+  /** Follows type variables to what they are bound to; {@code null} means an element of the root. */
+  private static Binding resolve(Binding b) {
+    while (true) {
+      if (b.type instanceof TypeVariable) {
+        b = b.env.get(b.type);
+        if (b == null) {
+          return null;
+        }
+      } else if (b.type instanceof WildcardType) {
+        b = new Binding(((WildcardType) b.type).getUpperBounds()[0], b.env);
+      } else {
+        return b;
+      }
+    }
+  }
+
+  private static Binding componentOf(Binding array) {
+    if (array.type instanceof GenericArrayType) {
+      return new Binding(((GenericArrayType) array.type).getGenericComponentType(), array.env);
+    }
+    if (array.type instanceof Class && ((Class<?>) array.type).isArray()) {
+      return new Binding(((Class<?>) array.type).getComponentType(), UNBOUND);
+    }
+    return RAW;
+  }
+
+  /** Bindings for the type variables of a parameterized type's class, e.g. {@code AnyType -> Entry<K, V>}. */
+  private static Map<TypeVariable<?>, Binding> bind(Type type, Map<TypeVariable<?>, Binding> env) {
+    if (!(type instanceof ParameterizedType)) {
+      return UNBOUND;
+    }
+    ParameterizedType p = (ParameterizedType) type;
+    TypeVariable<?>[] vars = ((Class<?>) p.getRawType()).getTypeParameters();
+    Type[] args = p.getActualTypeArguments();
+    Map<TypeVariable<?>, Binding> bound = new HashMap<>();
+    for (int i = 0; i < vars.length; i++) {
+      // Resolved now, so a node's next pointer does not add a link per node to the chain
+      Binding arg = resolve(new Binding(args[i], env));
+      if (arg != null) {
+        bound.put(vars[i], arg);
+      }
+    }
+    return bound;
+  }
+
+  /** Instance reference fields declared by one class, made accessible. */
+  private static final ClassValue<List<Field>> REFERENCE_FIELDS = new ClassValue<>() {
+    @Override
+    protected List<Field> computeValue(Class<?> type) {
+      List<Field> fields = new ArrayList<>();
+      for (Field f : type.getDeclaredFields()) {
+        if (!Modifier.isStatic(f.getModifiers()) && !f.getType().isPrimitive() && f.trySetAccessible()) {
+          fields.add(f);
+        }
+      }
+      return fields;
+    }
+  };
+}
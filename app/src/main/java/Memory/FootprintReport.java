@@ -0,0 +1,67 @@
+package Memory;
+
+import Binary.BinarySearchTree;
+import Hashing.HashTable;
+import Lists.LinkedDeque;
+import Lists.MyLinkedList;
+import Lists.PooledLinkedDeque;
+
+import java.util.Random;
+
+/**
+ * Prints the retained size of each custom collection holding N Integer
+ * elements, with a per-class breakdown, so heap needs can be read off per
+ * entry. Only the structure is counted; the Integer elements are not.
+ *
+ * CLI:
+ * args[0] = entries (default 1000000)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Memory.FootprintReport --args="1000000"
+ */
+public class FootprintReport {
+  public static void main(String[] args) {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    Integer[] elements = new Integer[n];
+    for (int i = 0; i < n; i++) {
+      elements[i] = i;
+    }
+    // Random insertion order keeps the unbalanced tree at logarithmic depth
+    Random rng = new Random(42);
+    for (int i = n - 1; i > 0; i--) {
+      int j = rng.nextInt(i + 1);
+      Integer t = elements[i];
+      elements[i] = elements[j];
+      elements[j] = t;
+    }
+
+    System.out.println("Layout: " + ObjectLayout.current());
+    System.out.println("Entries: " + n);
+
+    HashTable<Integer, Integer> table = new HashTable<>();
+    LinkedDeque<Integer> deque = new LinkedDeque<>();
+    MyLinkedList<Integer> list = new MyLinkedList<>();
+    PooledLinkedDeque<Integer> pooled = new PooledLinkedDeque<>();
+    BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+    for (Integer e : elements) {
+      table.put(e, e);
+      deque.addLast(e);
+      pooled.addLast(e);
+      list.addLast(e);
+      tree.add(e);
+    }
+
+    report("HashTable", table, table.size());
+    report("LinkedDeque", deque, deque.size());
+    report("PooledLinkedDeque", pooled, pooled.size());
+    report("MyLinkedList", list, list.size());
+    report("BinarySearchTree", tree, tree.size());
+  }
+
+  private static void report(String name, Object structure, int entries) {
+    Footprint footprint = Footprint.of(structure);
+    System.out.println();
+    System.out.printf("%s: %.1f bytes per entry%n", name, footprint.bytesPerEntry(entries));
+    System.out.print(footprint);
+  }
+}
@@ -0,0 +1,209 @@
+package Memory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Object sizes as laid out by the running JVM. Header size, reference size
+ * and alignment come from the HotSpot flags ({@code UseCompressedOops},
+ * {@code UseCompressedClassPointers}, {@code ObjectAlignmentInBytes}); when
+ * {@code sun.misc.Unsafe} is available the actual field offsets and array
+ * base offsets are used, so field packing and padding match the VM exactly.
+ * Without it the size is the header plus the sum of the field sizes, rounded
+ * up to the alignment.
+ */
+public final class ObjectLayout {
+  private static final ObjectLayout CURRENT = detect();
+
+  private final boolean compressedOops;
+  private final boolean compressedClassPointers;
+  private final int referenceSize;
+  private final int objectHeaderSize;
+  private final int arrayHeaderSize;
+  private final int alignment;
+  private final Object unsafe;
+  private final Method objectFieldOffset;
+  private final Method arrayBaseOffset;
+
+  private final ClassValue<Long> shallowSizes = new ClassValue<>() {
+    @Override
+    protected Long computeValue(Class<?> type) {
+      return computeShallowSize(type);
+    }
+  };
+
+  private ObjectLayout(boolean compressedOops, boolean compressedClassPointers, int alignment,
+      Object unsafe, Method objectFieldOffset, Method arrayBaseOffset) {
+    this.compressedOops = compressedOops;
+    this.compressedClassPointers = compressedClassPointers;
+    this.referenceSize = compressedOops ? 4 : 8;
+    this.objectHeaderSize = compressedClassPointers ? 12 : 16;
+    this.arrayHeaderSize = compressedClassPointers ? 16 : 20;
+    this.alignment = alignment;
+    this.unsafe = unsafe;
+    this.objectFieldOffset = objectFieldOffset;
+    this.arrayBaseOffset = arrayBaseOffset;
+  }
+
+  /** Layout of the JVM this code is running on. */
+  public static ObjectLayout current() {
+    return CURRENT;
+  }
+
+  public boolean compressedOops() {
+    return compressedOops;
+  }
+
+  public boolean compressedClassPointers() {
+    return compressedClassPointers;
+  }
+
+  public int referenceSize() {
+    return referenceSize;
+  }
+
+  public int objectHeaderSize() {
+    return objectHeaderSize;
+  }
+
+  public int alignment() {
+    return alignment;
+  }
+
+  /** {@code true} if sizes come from real field offsets rather than estimates. */
+  public boolean exact() {
+    return unsafe != null;
+  }
+
+  /** Bytes taken by one instance of {@code type}, not counting anything it references. */
+  public long shallowSize(Class<?> type) {
+    if (type.isArray()) {
+      throw new IllegalArgumentException("Arrays need a length: " + type.getName());
+    }
+    return shallowSizes.get(type);
+  }
+
+  /** Bytes taken by an array of {@code arrayType} with {@code length} elements. */
+  public long arraySize(Class<?> arrayType, int length) {
+    Class<?> component = arrayType.getComponentType();
+    if (component == null) {
+      throw new IllegalArgumentException("Not an array type: " + arrayType.getName());
+    }
+    long base = arrayHeaderSize;
+    if (arrayBaseOffset != null) {
+      try {
+        base = ((Number) arrayBaseOffset.invoke(unsafe, arrayType)).longValue();
+      } catch (ReflectiveOperationException e) {
+        // keep the estimate
+      }
+    } else if (component == long.class || component == double.class || !compressedOops && !component.isPrimitive()) {
+      base = align(base, 8);
+    }
+    return align(base + (long) length * slotSize(component), alignment);
+  }
+
+  /** Size of {@code object} itself; arrays include their elements' slots. */
+  public long sizeOf(Object object) {
+    Class<?> type = object.getClass();
+    return type.isArray() ? arraySize(type, Array.getLength(object)) : shallowSize(type);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("compressedOops=%s compressedClassPointers=%s reference=%dB header=%dB alignment=%dB%s",
+        compressedOops, compressedClassPointers, referenceSize, objectHeaderSize, alignment,
+        exact() ? "" : " (estimated field layout)");
+  }
+
+  private long computeShallowSize(Class<?> type) {
+    long end = objectHeaderSize;
+    long sum = objectHeaderSize;
+    boolean offsetsKnown = objectFieldOffset != null;
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      for (Field f : c.getDeclaredFields()) {
+        if (Modifier.isStatic(f.getModifiers())) {
+          continue;
+        }
+        int size = slotSize(f.getType());
+        sum += size;
+        if (offsetsKnown) {
+          try {
+            long offset = ((Number) objectFieldOffset.invoke(unsafe, f)).longValue();
+            end = Math.max(end, offset + size);
+          } catch (ReflectiveOperationException e) {
+            // records and hidden classes do not expose offsets
+            offsetsKnown = false;
+          }
+        }
+      }
+    }
+    return align(offsetsKnown ? end : sum, alignment);
+  }
+
+  private int slotSize(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return referenceSize;
+    }
+    if (type == long.class || type == double.class) {
+      return 8;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private static long align(long size, int alignment) {
+    return (size + alignment - 1) / alignment * alignment;
+  }
+
+  private static ObjectLayout detect() {
+    // Assumes a 64-bit VM, the only kind the Java 21 toolchain ships for
+    boolean compressedOops = booleanOption("UseCompressedOops", true);
+    boolean compressedClassPointers = booleanOption("UseCompressedClassPointers", true);
+    int alignment = intOption("ObjectAlignmentInBytes", 8);
+
+    Object unsafe = null;
+    Method objectFieldOffset = null;
+    Method arrayBaseOffset = null;
+    try {
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      unsafe = theUnsafe.get(null);
+      objectFieldOffset = unsafeClass.getMethod("objectFieldOffset", Field.class);
+      arrayBaseOffset = unsafeClass.getMethod("arrayBaseOffset", Class.class);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      unsafe = null;
+      objectFieldOffset = null;
+      arrayBaseOffset = null;
+    }
+    return new ObjectLayout(compressedOops, compressedClassPointers, alignment, unsafe, objectFieldOffset,
+        arrayBaseOffset);
+  }
+
+  private static String vmOption(String name) {
+    try {
+      return ManagementFactory.getPlatformMXBean(com.sun.management.HotSpotDiagnosticMXBean.class)
+          .getVMOption(name).getValue();
+    } catch (RuntimeException | LinkageError e) {
+      return null; // not HotSpot, or jdk.management is missing
+    }
+  }
+
+  private static boolean booleanOption(String name, boolean fallback) {
+    String value = vmOption(name);
+    return value == null ? fallback : Boolean.parseBoolean(value);
+  }
+
+  private static int intOption(String name, int fallback) {
+    String value = vmOption(name);
+    return value == null ? fallback : Integer.parseInt(value);
+  }
+}
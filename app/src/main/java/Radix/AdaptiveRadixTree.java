@@ -0,0 +1,643 @@
+package Radix;
+
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Adaptive radix tree (ART) from registration numbers to values.
+ *
+ * <p>A plate is read as six symbols from a 39-letter alphabet: the digits,
+ * A-Z, then Ä, Å, Ö, which is the order {@link String#compareTo} puts plates
+ * in. Inner nodes branch on one symbol and come in three sizes, so a node
+ * only pays for the fan-out it has:
+ * <ul>
+ *   <li>{@code Node4} and {@code Node16}: sorted symbol bytes next to a
+ *   child array, searched linearly;</li>
+ *   <li>{@code Node39}: a child array indexed by symbol. With only 39
+ *   symbols this takes the place of both ART's Node48 and Node256.</li>
+ * </ul>
+ * A node grows to the next size when it is full and shrinks when it is
+ * under a quarter full. Paths are compressed: an inner node sits only where
+ * keys branch, and a key with no sibling below some symbol is a leaf hung
+ * directly from there. Each inner node keeps the symbols above its branch
+ * position, so a prefix is checked with one mask-and-compare.
+ *
+ * <p>{@link #withPrefix} visits the plates starting with a prefix in sorted
+ * order, touching only the subtree under the prefix.
+ */
+public class AdaptiveRadixTree<V> implements Iterable<AdaptiveRadixTree.Entry<V>> {
+  /** Symbols a plate character can map to. */
+  public static final int ALPHABET = 39;
+  private static final int DEPTH = PlateCodec.PLATE_LENGTH;
+  private static final long KEY_MASK = (1L << (8 * DEPTH)) - 1;
+  // Å, Ä, Ö in PlateCodec's letter order, as symbols in String order
+  private static final int[] EXTRA_LETTER_SYMBOLS = {37, 36, 38};
+
+  public static final class Entry<V> {
+    public final String plate;
+    public final V value;
+
+    Entry(String plate, V value) {
+      this.plate = plate;
+      this.value = value;
+    }
+
+    @Override
+    public String toString() {
+      return plate + "=" + value;
+    }
+  }
+
+  private abstract static class Node {
+  }
+
+  private static final class Leaf extends Node {
+    final int code;
+    Object value;
+
+    Leaf(int code, Object value) {
+      this.code = code;
+      this.value = value;
+    }
+  }
+
+  private abstract static class Inner extends Node {
+    // Symbols above depth, packed like a key; the ones from depth on are zero
+    final long prefix;
+    // Position of the symbol this node branches on
+    final int depth;
+    int count;
+
+    Inner(long prefix, int depth) {
+      this.prefix = prefix;
+      this.depth = depth;
+    }
+
+    abstract Node child(int symbol);
+
+    /** Replaces the child for a symbol that is present. */
+    abstract void set(int symbol, Node child);
+
+    /** Adds a child for a symbol that is absent; the node must not be full. */
+    abstract void add(int symbol, Node child);
+
+    abstract void remove(int symbol);
+
+    abstract boolean isFull();
+
+    /** Same children in the next larger node. */
+    abstract Inner grow();
+
+    /** Same children in the next smaller node, or this node if it is small enough. */
+    abstract Inner shrink();
+
+    /** Smallest symbol at or after {@code from} with a child, or -1. */
+    abstract int next(int from);
+  }
+
+  /** Children in sorted symbol order; Node4 and Node16. */
+  private abstract static class Sorted extends Inner {
+    final byte[] symbols;
+    final Node[] children;
+
+    Sorted(long prefix, int depth, int capacity) {
+      super(prefix, depth);
+      symbols = new byte[capacity];
+      children = new Node[capacity];
+    }
+
+    private int indexOf(int symbol) {
+      for (int i = 0; i < count; i++) {
+        if (symbols[i] == symbol) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    Node child(int symbol) {
+      int i = indexOf(symbol);
+      return i < 0 ? null : children[i];
+    }
+
+    @Override
+    void set(int symbol, Node child) {
+      children[indexOf(symbol)] = child;
+    }
+
+    @Override
+    void add(int symbol, Node child) {
+      int i = count;
+      while (i > 0 && symbols[i - 1] > symbol) {
+        symbols[i] = symbols[i - 1];
+        children[i] = children[i - 1];
+        i--;
+      }
+      symbols[i] = (byte) symbol;
+      children[i] = child;
+      count++;
+    }
+
+    @Override
+    void remove(int symbol) {
+      int i = indexOf(symbol);
+      count--;
+      System.arraycopy(symbols, i + 1, symbols, i, count - i);
+      System.arraycopy(children, i + 1, children, i, count - i);
+      children[count] = null;
+    }
+
+    @Override
+    boolean isFull() {
+      return count == symbols.length;
+    }
+
+    @Override
+    int next(int from) {
+      for (int i = 0; i < count; i++) {
+        if (symbols[i] >= from) {
+          return symbols[i];
+        }
+      }
+      return -1;
+    }
+
+    void copyTo(Inner target) {
+      for (int i = 0; i < count; i++) {
+        target.add(symbols[i], children[i]);
+      }
+    }
+  }
+
+  private static final class Node4 extends Sorted {
+    Node4(long prefix, int depth) {
+      super(prefix, depth, 4);
+    }
+
+    @Override
+    Inner grow() {
+      Node16 bigger = new Node16(prefix, depth);
+      copyTo(bigger);
+      return bigger;
+    }
+
+    @Override
+    Inner shrink() {
+      return this;
+    }
+  }
+
+  private static final class Node16 extends Sorted {
+    Node16(long prefix, int depth) {
+      super(prefix, depth, 16);
+    }
+
+    @Override
+    Inner grow() {
+      Node39 bigger = new Node39(prefix, depth);
+      copyTo(bigger);
+      return bigger;
+    }
+
+    @Override
+    Inner shrink() {
+      if (count > 3) {
+        return this;
+      }
+      Node4 smaller = new Node4(prefix, depth);
+      copyTo(smaller);
+      return smaller;
+    }
+  }
+
+  private static final class Node39 extends Inner {
+    final Node[] children = new Node[ALPHABET];
+
+    Node39(long prefix, int depth) {
+      super(prefix, depth);
+    }
+
+    @Override
+    Node child(int symbol) {
+      return children[symbol];
+    }
+
+    @Override
+    void set(int symbol, Node child) {
+      children[symbol] = child;
+    }
+
+    @Override
+    void add(int symbol, Node child) {
+      children[symbol] = child;
+      count++;
+    }
+
+    @Override
+    void remove(int symbol) {
+      children[symbol] = null;
+      count--;
+    }
+
+    @Override
+    boolean isFull() {
+      return false;
+    }
+
+    @Override
+    Inner grow() {
+      throw new IllegalStateException("Node39 holds every symbol");
+    }
+
+    @Override
+    Inner shrink() {
+      if (count > 9) {
+        return this;
+      }
+      Node16 smaller = new Node16(prefix, depth);
+      for (int s = 0; s < ALPHABET; s++) {
+        if (children[s] != null) {
+          smaller.add(s, children[s]);
+        }
+      }
+      return smaller;
+    }
+
+    @Override
+    int next(int from) {
+      for (int s = from; s < ALPHABET; s++) {
+        if (children[s] != null) {
+          return s;
+        }
+      }
+      return -1;
+    }
+  }
+
+  private Node root;
+  private int size;
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    root = null;
+    size = 0;
+  }
+
+  public V get(Vehicle vehicle) {
+    return get(vehicle.plateCode());
+  }
+
+  /** Returns the value for a plate in any form {@link Vehicle} accepts, or null if it is invalid or absent. */
+  public V get(String plate) {
+    int code = PlateCodec.encode(plate);
+    return code == PlateCodec.INVALID ? null : get(code);
+  }
+
+  public boolean containsKey(Vehicle vehicle) {
+    return findLeaf(vehicle.plateCode()) != null;
+  }
+
+  public boolean containsKey(String plate) {
+    int code = PlateCodec.encode(plate);
+    return code != PlateCodec.INVALID && findLeaf(code) != null;
+  }
+
+  public V put(Vehicle vehicle, V value) {
+    return put(vehicle.plateCode(), value);
+  }
+
+  /** @throws IllegalArgumentException if {@code plate} is not a valid registration number */
+  public V put(String plate, V value) {
+    return put(validCode(plate), value);
+  }
+
+  public V remove(Vehicle vehicle) {
+    return remove(vehicle.plateCode());
+  }
+
+  public V remove(String plate) {
+    int code = PlateCodec.encode(plate);
+    return code == PlateCodec.INVALID ? null : remove(code);
+  }
+
+  /** All entries in plate order. */
+  @Override
+  public Iterator<Entry<V>> iterator() {
+    return new PrefixIterator(root, 0, 0);
+  }
+
+  /**
+   * Entries whose plate starts with {@code prefix}, in plate order. The prefix
+   * is up to six plate characters, upper or lower case, each valid for its
+   * position (letters, then digits, then a digit or letter).
+   *
+   * @throws IllegalArgumentException if no plate can start with {@code prefix}
+   */
+  public Iterable<Entry<V>> withPrefix(String prefix) {
+    Objects.requireNonNull(prefix, "prefix");
+    if (prefix.length() > DEPTH) {
+      throw new IllegalArgumentException("Prefix longer than a plate: " + prefix);
+    }
+    long key = 0;
+    for (int i = 0; i < prefix.length(); i++) {
+      int symbol = symbolAt(prefix.charAt(i), i);
+      if (symbol < 0) {
+        throw new IllegalArgumentException("Invalid plate prefix: " + prefix);
+      }
+      key |= (long) symbol << shift(i);
+    }
+    long prefixKey = key;
+    int length = prefix.length();
+    return () -> new PrefixIterator(root, prefixKey, length);
+  }
+
+  /** Number of plates starting with {@code prefix}. */
+  public int countWithPrefix(String prefix) {
+    int n = 0;
+    for (Entry<V> ignored : withPrefix(prefix)) {
+      n++;
+    }
+    return n;
+  }
+
+  /** Leaves, Node4s, Node16s and Node39s, in that order. */
+  public int[] nodeCounts() {
+    int[] counts = new int[4];
+    if (root != null) {
+      countNodes(root, counts);
+    }
+    return counts;
+  }
+
+  private static void countNodes(Node node, int[] counts) {
+    if (node instanceof Leaf) {
+      counts[0]++;
+      return;
+    }
+    counts[node instanceof Node4 ? 1 : node instanceof Node16 ? 2 : 3]++;
+    Inner inner = (Inner) node;
+    for (int s = inner.next(0); s >= 0; s = inner.next(s + 1)) {
+      countNodes(inner.child(s), counts);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private V get(int code) {
+    Leaf leaf = findLeaf(code);
+    return leaf == null ? null : (V) leaf.value;
+  }
+
+  private Leaf findLeaf(int code) {
+    long key = key(code);
+    Node node = root;
+    // The symbols a compressed path skips are not checked on the way down; the leaf's code settles it
+    while (node instanceof Inner) {
+      Inner inner = (Inner) node;
+      node = inner.child(symbol(key, inner.depth));
+    }
+    return node != null && ((Leaf) node).code == code ? (Leaf) node : null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V put(int code, V value) {
+    long key = key(code);
+    Inner parent = null;
+    int parentSymbol = 0;
+    Node node = root;
+    while (node != null) {
+      long other;
+      if (node instanceof Leaf) {
+        Leaf leaf = (Leaf) node;
+        if (leaf.code == code) {
+          V previous = (V) leaf.value;
+          leaf.value = value;
+          return previous;
+        }
+        other = key(leaf.code);
+      } else {
+        Inner inner = (Inner) node;
+        if (((key ^ inner.prefix) & mask(inner.depth)) == 0) {
+          int symbol = symbol(key, inner.depth);
+          Node child = inner.child(symbol);
+          if (child != null) {
+            parent = inner;
+            parentSymbol = symbol;
+            node = child;
+            continue;
+          }
+          if (inner.isFull()) {
+            Inner bigger = inner.grow();
+            replace(parent, parentSymbol, bigger);
+            inner = bigger;
+          }
+          inner.add(symbol, new Leaf(code, value));
+          size++;
+          return null;
+        }
+        other = inner.prefix;
+      }
+      // The key leaves this node's path: a Node4 where they part holds both
+      int depth = firstDifference(key, other);
+      Node4 split = new Node4(key & mask(depth), depth);
+      split.add(symbol(other, depth), node);
+      split.add(symbol(key, depth), new Leaf(code, value));
+      replace(parent, parentSymbol, split);
+      size++;
+      return null;
+    }
+    root = new Leaf(code, value);
+    size++;
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V remove(int code) {
+    long key = key(code);
+    Inner grandparent = null;
+    int grandparentSymbol = 0;
+    Inner parent = null;
+    int parentSymbol = 0;
+    Node node = root;
+    while (node instanceof Inner) {
+      Inner inner = (Inner) node;
+      int symbol = symbol(key, inner.depth);
+      grandparent = parent;
+      grandparentSymbol = parentSymbol;
+      parent = inner;
+      parentSymbol = symbol;
+      node = inner.child(symbol);
+    }
+    if (node == null || ((Leaf) node).code != code) {
+      return null;
+    }
+    size--;
+    if (parent == null) {
+      root = null;
+    } else {
+      parent.remove(parentSymbol);
+      if (parent.count == 1) {
+        // Children carry their full path, so the only child can take the parent's place
+        replace(grandparent, grandparentSymbol, parent.child(parent.next(0)));
+      } else {
+        Inner smaller = parent.shrink();
+        if (smaller != parent) {
+          replace(grandparent, grandparentSymbol, smaller);
+        }
+      }
+    }
+    return (V) ((Leaf) node).value;
+  }
+
+  private void replace(Inner parent, int symbol, Node node) {
+    if (parent == null) {
+      root = node;
+    } else {
+      parent.set(symbol, node);
+    }
+  }
+
+  /** Depth-first walk over the subtree under a prefix, children in symbol order. */
+  private final class PrefixIterator implements Iterator<Entry<V>> {
+    private final ArrayDeque<Inner> nodes = new ArrayDeque<>();
+    // Next symbol to visit in the node at the same stack position
+    private final ArrayDeque<Integer> positions = new ArrayDeque<>();
+    private Leaf pending;
+
+    PrefixIterator(Node root, long prefix, int length) {
+      Node node = root;
+      // Walk down to the first node whose whole subtree starts with the prefix
+      while (node instanceof Inner && ((Inner) node).depth < length) {
+        Inner inner = (Inner) node;
+        if (((prefix ^ inner.prefix) & mask(inner.depth)) != 0) {
+          return;
+        }
+        node = inner.child(symbol(prefix, inner.depth));
+      }
+      if (node instanceof Leaf) {
+        if (((key(((Leaf) node).code) ^ prefix) & mask(length)) == 0) {
+          pending = (Leaf) node;
+        }
+      } else if (node != null && ((((Inner) node).prefix ^ prefix) & mask(length)) == 0) {
+        nodes.push((Inner) node);
+        positions.push(0);
+        advance();
+      }
+    }
+
+    private void advance() {
+      while (!nodes.isEmpty()) {
+        Inner inner = nodes.peek();
+        int symbol = inner.next(positions.pop());
+        if (symbol < 0) {
+          nodes.pop();
+          continue;
+        }
+        positions.push(symbol + 1);
+        Node child = inner.child(symbol);
+        if (child instanceof Leaf) {
+          pending = (Leaf) child;
+          return;
+        }
+        nodes.push((Inner) child);
+        positions.push(0);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pending != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<V> next() {
+      if (pending == null) {
+        throw new NoSuchElementException();
+      }
+      Leaf leaf = pending;
+      pending = null;
+      advance();
+      return new Entry<>(PlateCodec.decode(leaf.code), (V) leaf.value);
+    }
+  }
+
+  /** The plate's six symbols packed into a long, first symbol highest, so keys compare like plates. */
+  static long key(int code) {
+    int last = code % 36;
+    code /= 36;
+    int digit2 = code % 10;
+    code /= 10;
+    int digit1 = code % 10;
+    code /= 10;
+    long key = (long) last | (long) digit2 << 8 | (long) digit1 << 16;
+    for (int i = 2; i >= 0; i--) {
+      key |= (long) letterSymbol(code % 29) << shift(i);
+      code /= 29;
+    }
+    return key;
+  }
+
+  private static int letterSymbol(int letter) {
+    return letter < 26 ? 10 + letter : EXTRA_LETTER_SYMBOLS[letter - 26];
+  }
+
+  /** Symbol for a plate character at a position, or -1 if the character cannot be there. */
+  private static int symbolAt(char c, int position) {
+    int symbol;
+    if (c >= '0' && c <= '9') {
+      symbol = c - '0';
+    } else if (c >= 'A' && c <= 'Z') {
+      symbol = 10 + c - 'A';
+    } else if (c >= 'a' && c <= 'z') {
+      symbol = 10 + c - 'a';
+    } else if (c == 'Ä' || c == 'ä') {
+      symbol = 36;
+    } else if (c == 'Å' || c == 'å') {
+      symbol = 37;
+    } else if (c == 'Ö' || c == 'ö') {
+      symbol = 38;
+    } else {
+      return -1;
+    }
+    boolean valid = position < 3 ? symbol >= 10 : position < 5 ? symbol < 10 : symbol < 36;
+    return valid ? symbol : -1;
+  }
+
+  private static int validCode(String plate) {
+    int code = PlateCodec.encode(Objects.requireNonNull(plate, "plate"));
+    if (code == PlateCodec.INVALID) {
+      throw new IllegalArgumentException("Invalid registration format: " + plate);
+    }
+    return code;
+  }
+
+  private static int shift(int depth) {
+    return 8 * (DEPTH - 1 - depth);
+  }
+
+  private static int symbol(long key, int depth) {
+    return (int) (key >>> shift(depth)) & 0xFF;
+  }
+
+  /** Bits of the symbols above {@code depth}. */
+  private static long mask(int depth) {
+    return depth == 0 ? 0 : ~((1L << (8 * (DEPTH - depth))) - 1) & KEY_MASK;
+  }
+
+  private static int firstDifference(long a, long b) {
+    return (Long.numberOfLeadingZeros(a ^ b) - (Long.SIZE - 8 * DEPTH)) / 8;
+  }
+}
@@ -0,0 +1,131 @@
+package Radix;
+
+import Binary.BinarySearchTree;
+import Hashing.HashTable;
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+
+import java.util.SplittableRandom;
+
+/**
+ * Hand-run benchmark of {@link AdaptiveRadixTree}. Point lookups of random
+ * present {@link Vehicle} keys are timed against {@link HashTable#get}; prefix
+ * scans (count the plates starting with a prefix) against filtering
+ * {@link BinarySearchTree#inOrder()} of the same plates, which is the only way
+ * to answer them with the existing structures. Plates are inserted in random
+ * order, so the tree stays roughly balanced.
+ *
+ * CLI:
+ * args[0] = plates per structure (default 1000000)
+ * args[1] = point lookups (default 10000000)
+ * args[2] = prefixes to scan, comma separated (default A,AB,ABC,ABC1,ABC12)
+ * args[3] = scans per prefix (default 20)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Radix.AdaptiveRadixTreeBenchmark --args="1000000 10000000 A,AB,ABC,ABC1,ABC12 20"
+ */
+public class AdaptiveRadixTreeBenchmark {
+  private static final long SEED = 42;
+  private static final long STRIDE = 1_000_003;
+
+  public static void main(String[] args) {
+    int entries = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 10_000_000;
+    String[] prefixes = (args.length > 2 ? args[2] : "A,AB,ABC,ABC1,ABC12").split(",");
+    int scans = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+    if (entries < 1 || entries > PlateCodec.PLATE_COUNT) {
+      throw new IllegalArgumentException("Entries must be in [1, " + PlateCodec.PLATE_COUNT + "]");
+    }
+
+    // i -> (offset + i * STRIDE) mod PLATE_COUNT is a permutation (see Hashing.SwissHashTableBenchmark),
+    // so the first entries values of i are distinct plates spread over the whole range
+    SplittableRandom rng = new SplittableRandom(SEED);
+    long offset = rng.nextInt(PlateCodec.PLATE_COUNT);
+    Vehicle[] vehicles = new Vehicle[entries];
+    for (int i = 0; i < entries; i++) {
+      vehicles[i] = Vehicle.ofPlateCode((int) ((offset + i * STRIDE) % PlateCodec.PLATE_COUNT));
+    }
+    for (int i = entries - 1; i > 0; i--) {
+      int j = rng.nextInt(i + 1);
+      Vehicle tmp = vehicles[i];
+      vehicles[i] = vehicles[j];
+      vehicles[j] = tmp;
+    }
+
+    AdaptiveRadixTree<Vehicle> art = new AdaptiveRadixTree<>();
+    HashTable<Vehicle, Vehicle> table = new HashTable<>();
+    BinarySearchTree<String> bst = new BinarySearchTree<>();
+    for (Vehicle v : vehicles) {
+      art.put(v, v);
+      table.put(v, v);
+      bst.add(v.regNumber());
+    }
+    int[] nodes = art.nodeCounts();
+    System.out.println("entries=" + entries + " lookups=" + lookups + " scans=" + scans + " seed=" + SEED);
+    System.out.printf("ART nodes: %d leaves, %d Node4, %d Node16, %d Node39; BST height %d%n",
+        nodes[0], nodes[1], nodes[2], nodes[3], bst.height());
+
+    int[] order = new int[lookups];
+    for (int i = 0; i < lookups; i++) {
+      order[i] = rng.nextInt(entries);
+    }
+    System.out.printf("%-22s %10s%n", "point lookup", "ns/get");
+    for (int round = 0; round < 2; round++) { // the first round is warm-up
+      long t0 = System.nanoTime();
+      long artFound = 0;
+      for (int i : order) {
+        if (art.get(vehicles[i]) != null) {
+          artFound++;
+        }
+      }
+      long t1 = System.nanoTime();
+      long tableFound = 0;
+      for (int i : order) {
+        if (table.get(vehicles[i]) != null) {
+          tableFound++;
+        }
+      }
+      long t2 = System.nanoTime();
+      if (artFound != lookups || tableFound != lookups) {
+        throw new IllegalStateException("Lookups returned wrong results");
+      }
+      if (round == 1) {
+        System.out.printf("%-22s %10.1f%n", "AdaptiveRadixTree", (double) (t1 - t0) / lookups);
+        System.out.printf("%-22s %10.1f%n", "HashTable", (double) (t2 - t1) / lookups);
+      }
+    }
+
+    System.out.printf("%-8s %10s %14s %14s%n", "prefix", "matches", "ART us/scan", "BST us/scan");
+    for (String p : prefixes) {
+      String prefix = p.trim().toUpperCase();
+      art.countWithPrefix(prefix); // warm-up
+      countInOrder(bst, prefix);
+      long t0 = System.nanoTime();
+      int artCount = 0;
+      for (int i = 0; i < scans; i++) {
+        artCount = art.countWithPrefix(prefix);
+      }
+      long t1 = System.nanoTime();
+      int bstCount = 0;
+      for (int i = 0; i < scans; i++) {
+        bstCount = countInOrder(bst, prefix);
+      }
+      long t2 = System.nanoTime();
+      if (artCount != bstCount) {
+        throw new IllegalStateException("Prefix " + prefix + ": ART " + artCount + ", BST " + bstCount);
+      }
+      System.out.printf("%-8s %10d %14.1f %14.1f%n", prefix, artCount,
+          (t1 - t0) / 1e3 / scans, (t2 - t1) / 1e3 / scans);
+    }
+  }
+
+  private static int countInOrder(BinarySearchTree<String> bst, String prefix) {
+    int n = 0;
+    for (String plate : bst.inOrder()) {
+      if (plate.startsWith(prefix)) {
+        n++;
+      }
+    }
+    return n;
+  }
+}
@@ -0,0 +1,370 @@
+package Vehicles;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * Binary file of per-bucket chain lengths, the compact alternative to the
+ * {@code bucket,size} CSV written by {@link ExperimentVehicles}.
+ *
+ * <p>Layout (little endian): a 24 byte header
+ * {@code magic "BKTS", version, encoding, 2 reserved, long bucketCount, long payloadBytes}
+ * followed by the payload in one of three {@link Encoding encodings}. Files
+ * are written through a {@link FileChannel} with a direct buffer and read by
+ * memory-mapping the payload, so a {@link Encoding#RAW RAW} file can be
+ * indexed without decoding it.
+ */
+public final class BucketSizeFile implements AutoCloseable {
+
+  public enum Encoding {
+    /** One little-endian int per bucket; supports random access. */
+    RAW,
+    /** Pairs of unsigned varints (run length, size) for runs of equal sizes. */
+    RLE,
+    /** Zig-zag varint of the difference to the previous bucket's size. */
+    DELTA
+  }
+
+  private static final int MAGIC = 0x5354_4b42; // "BKTS" in little-endian byte order
+  private static final byte VERSION = 1;
+  private static final int HEADER_BYTES = 24;
+  private static final int BUFFER_BYTES = 1 << 16;
+  // Varints are at most 5 bytes; a buffer with this much room takes any record
+  private static final int MAX_RECORD_BYTES = 10;
+  private static final long WINDOW_BYTES = 1L << 30;
+
+  private final FileChannel channel;
+  private final Encoding encoding;
+  private final long bucketCount;
+  private final long payloadBytes;
+  private final MappedByteBuffer[] windows;
+
+  private BucketSizeFile(FileChannel channel, Encoding encoding, long bucketCount, long payloadBytes,
+      MappedByteBuffer[] windows) {
+    this.channel = channel;
+    this.encoding = encoding;
+    this.bucketCount = bucketCount;
+    this.payloadBytes = payloadBytes;
+    this.windows = windows;
+  }
+
+  /** Writes {@code sizes} with whichever encoding gives the smallest file. */
+  public static Encoding write(Path path, int[] sizes) throws IOException {
+    Encoding best = Encoding.RAW;
+    long bestBytes = encodedBytes(sizes, Encoding.RAW);
+    for (Encoding e : new Encoding[] { Encoding.RLE, Encoding.DELTA }) {
+      long bytes = encodedBytes(sizes, e);
+      if (bytes < bestBytes) {
+        best = e;
+        bestBytes = bytes;
+      }
+    }
+    write(path, sizes, best);
+    return best;
+  }
+
+  public static void write(Path path, int[] sizes, Encoding encoding) throws IOException {
+    Objects.requireNonNull(sizes, "sizes");
+    Objects.requireNonNull(encoding, "encoding");
+    for (int size : sizes) {
+      if (size < 0) {
+        throw new IllegalArgumentException("Bucket sizes cannot be negative: " + size);
+      }
+    }
+    try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      buf.position(HEADER_BYTES); // header is written last, once the payload length is known
+      switch (encoding) {
+        case RAW -> {
+          for (int size : sizes) {
+            ensureRoom(ch, buf);
+            buf.putInt(size);
+          }
+        }
+        case RLE -> {
+          int i = 0;
+          while (i < sizes.length) {
+            int run = runLength(sizes, i);
+            ensureRoom(ch, buf);
+            putVarint(buf, run);
+            putVarint(buf, sizes[i]);
+            i += run;
+          }
+        }
+        case DELTA -> {
+          int prev = 0;
+          for (int size : sizes) {
+            ensureRoom(ch, buf);
+            putVarint(buf, zigZag(size - prev));
+            prev = size;
+          }
+        }
+      }
+      drain(ch, buf);
+      long payload = ch.position() - HEADER_BYTES;
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      header.putInt(MAGIC).put(VERSION).put((byte) encoding.ordinal()).putShort((short) 0)
+          .putLong(sizes.length).putLong(payload).flip();
+      long pos = 0;
+      while (header.hasRemaining()) {
+        pos += ch.write(header, pos);
+      }
+    }
+  }
+
+  /** Writes {@code sizes} as {@code bucket,size} lines, the original text format. */
+  public static void writeCsv(Path path, int[] sizes) throws IOException {
+    try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES);
+      buf.put("bucket,size\n".getBytes(StandardCharsets.US_ASCII));
+      byte[] digits = new byte[11];
+      for (int i = 0; i < sizes.length; i++) {
+        if (buf.remaining() < 2 * digits.length + 2) {
+          drain(ch, buf);
+        }
+        putDecimal(buf, i, digits);
+        buf.put((byte) ',');
+        putDecimal(buf, sizes[i], digits);
+        buf.put((byte) '\n');
+      }
+      drain(ch, buf);
+    }
+  }
+
+  /** Memory-maps a file written by {@link #write}. */
+  public static BucketSizeFile open(Path path) throws IOException {
+    FileChannel ch = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (ch.read(header, header.position()) < 0) {
+          throw new IOException("Truncated header in " + path);
+        }
+      }
+      header.flip();
+      if (header.getInt() != MAGIC) {
+        throw new IOException("Not a bucket size file: " + path);
+      }
+      byte version = header.get();
+      if (version != VERSION) {
+        throw new IOException("Unsupported bucket size file version " + version);
+      }
+      int ordinal = header.get();
+      if (ordinal < 0 || ordinal >= Encoding.values().length) {
+        throw new IOException("Unknown encoding " + ordinal);
+      }
+      Encoding encoding = Encoding.values()[ordinal];
+      header.getShort();
+      long buckets = header.getLong();
+      long payload = header.getLong();
+      if (buckets < 0 || payload < 0 || HEADER_BYTES + payload > ch.size()
+          || (encoding == Encoding.RAW && payload != buckets * Integer.BYTES)) {
+        throw new IOException("Corrupt header in " + path);
+      }
+
+      // Windows are a multiple of 4 bytes, so a RAW int never straddles two of them
+      int count = (int) ((payload + WINDOW_BYTES - 1) / WINDOW_BYTES);
+      MappedByteBuffer[] windows = new MappedByteBuffer[count];
+      for (int w = 0; w < count; w++) {
+        long offset = w * WINDOW_BYTES;
+        long length = Math.min(WINDOW_BYTES, payload - offset);
+        windows[w] = ch.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + offset, length);
+        windows[w].order(ByteOrder.LITTLE_ENDIAN);
+      }
+      return new BucketSizeFile(ch, encoding, buckets, payload, windows);
+    } catch (IOException | RuntimeException e) {
+      ch.close();
+      throw e;
+    }
+  }
+
+  public Encoding encoding() {
+    return encoding;
+  }
+
+  public long bucketCount() {
+    return bucketCount;
+  }
+
+  /** Size of the file, header included. */
+  public long fileBytes() {
+    return HEADER_BYTES + payloadBytes;
+  }
+
+  /** Size of one bucket straight from the mapping. Only {@link Encoding#RAW} files support this. */
+  public int sizeAt(long bucket) {
+    if (encoding != Encoding.RAW) {
+      throw new UnsupportedOperationException(encoding + " files must be read sequentially");
+    }
+    Objects.checkIndex(bucket, bucketCount);
+    long offset = bucket * Integer.BYTES;
+    return windows[(int) (offset / WINDOW_BYTES)].getInt((int) (offset % WINDOW_BYTES));
+  }
+
+  /** Decodes every bucket size in order. */
+  public void forEach(IntConsumer action) {
+    Objects.requireNonNull(action, "action");
+    if (encoding == Encoding.RAW) {
+      for (long i = 0; i < bucketCount; i++) {
+        action.accept(sizeAt(i));
+      }
+      return;
+    }
+    Cursor in = new Cursor();
+    long decoded = 0;
+    if (encoding == Encoding.RLE) {
+      while (decoded < bucketCount) {
+        int run = in.varint();
+        int size = in.varint();
+        if (run <= 0 || run > bucketCount - decoded) {
+          throw new IllegalStateException("Corrupt run length " + run);
+        }
+        for (int r = 0; r < run; r++) {
+          action.accept(size);
+        }
+        decoded += run;
+      }
+    } else {
+      int prev = 0;
+      for (; decoded < bucketCount; decoded++) {
+        prev += unZigZag(in.varint());
+        action.accept(prev);
+      }
+    }
+  }
+
+  /** Decodes the whole file into an array, as returned by {@code HashTable.bucketSizes()}. */
+  public int[] toArray() {
+    if (bucketCount > Integer.MAX_VALUE - 8) {
+      throw new IllegalStateException("Too many buckets for an array: " + bucketCount);
+    }
+    int[] sizes = new int[(int) bucketCount];
+    int[] next = { 0 };
+    forEach(size -> sizes[next[0]++] = size);
+    return sizes;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /** Sequential reader over the mapped windows. */
+  private final class Cursor {
+    private int window;
+    private ByteBuffer current = windows.length == 0 ? ByteBuffer.allocate(0) : windows[0].duplicate();
+
+    int varint() {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = nextByte();
+        value |= (b & 0x7f) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+      throw new IllegalStateException("Malformed varint");
+    }
+
+    private byte nextByte() {
+      while (!current.hasRemaining()) {
+        if (++window >= windows.length) {
+          throw new IllegalStateException("Payload ends before the last bucket");
+        }
+        current = windows[window].duplicate();
+      }
+      return current.get();
+    }
+  }
+
+  /** Exact payload size of {@code sizes} under {@code encoding}, without writing anything. */
+  static long encodedBytes(int[] sizes, Encoding encoding) {
+    long bytes = 0;
+    switch (encoding) {
+      case RAW -> bytes = (long) sizes.length * Integer.BYTES;
+      case RLE -> {
+        int i = 0;
+        while (i < sizes.length) {
+          int run = runLength(sizes, i);
+          bytes += varintBytes(run) + varintBytes(sizes[i]);
+          i += run;
+        }
+      }
+      case DELTA -> {
+        int prev = 0;
+        for (int size : sizes) {
+          bytes += varintBytes(zigZag(size - prev));
+          prev = size;
+        }
+      }
+    }
+    return bytes;
+  }
+
+  private static int runLength(int[] sizes, int from) {
+    int i = from + 1;
+    while (i < sizes.length && sizes[i] == sizes[from]) {
+      i++;
+    }
+    return i - from;
+  }
+
+  private static void ensureRoom(FileChannel ch, ByteBuffer buf) throws IOException {
+    if (buf.remaining() < MAX_RECORD_BYTES) {
+      drain(ch, buf);
+    }
+  }
+
+  private static void drain(FileChannel ch, ByteBuffer buf) throws IOException {
+    buf.flip();
+    while (buf.hasRemaining()) {
+      ch.write(buf);
+    }
+    buf.clear();
+  }
+
+  private static void putVarint(ByteBuffer buf, int value) {
+    while ((value & ~0x7f) != 0) {
+      buf.put((byte) ((value & 0x7f) | 0x80));
+      value >>>= 7;
+    }
+    buf.put((byte) value);
+  }
+
+  private static int varintBytes(int value) {
+    int bytes = 1;
+    while ((value & ~0x7f) != 0) {
+      value >>>= 7;
+      bytes++;
+    }
+    return bytes;
+  }
+
+  private static int zigZag(int v) {
+    return (v << 1) ^ (v >> 31);
+  }
+
+  private static int unZigZag(int v) {
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  private static void putDecimal(ByteBuffer buf, int value, byte[] scratch) {
+    int pos = scratch.length;
+    do {
+      scratch[--pos] = (byte) ('0' + value % 10);
+      value /= 10;
+    } while (value != 0);
+    buf.put(scratch, pos, scratch.length - pos);
+  }
+}
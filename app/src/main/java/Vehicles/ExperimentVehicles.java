@@ -1,11 +1,11 @@
 package Vehicles;
 
+import Hashing.ChainStats;
 import Hashing.HashTable;
+import Hashing.PerfectHashIndex;
 import Vehicles.Vehicle;
 
-import java.io.BufferedWriter;
-import java.io.FileWriter;
-import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Random;
 
 /**
@@ -13,7 +13,8 @@ import java.util.Random;
  *
  * CLI:
  * args[0] = total vehicles (default 10000)
- * args[1] = csv-file (valfritt).
+ * args[1] = output file (valfritt). A path ending in .csv gets bucket,size
+ * text, any other path the binary format of {@link BucketSizeFile}.
  *
  * Example:
  * ./gradlew run -PmainClass=Vehicles.ExperimentVehicles --args="20000
@@ -25,10 +26,10 @@ public class ExperimentVehicles {
 
   public static void main(String[] args) throws Exception {
     int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
-    String csv = (args.length > 1 && !args[1].equals("0")) ? args[1] : null;
+    String out = (args.length > 1 && !args[1].equals("0")) ? args[1] : null;
 
-    // Small table to force hash
-    HashTable<Vehicle, Integer> table = new HashTable<>(256, 0.75);
+    // Small table to force hash; HASH_CODE so the buckets reflect Vehicle.hashCode itself
+    HashTable<Vehicle, Integer> table = new HashTable<>(256, 0.75, HashTable.KeyHashing.HASH_CODE);
 
     // Unique reg numbers
     int inserted = 0;
@@ -41,35 +42,34 @@ public class ExperimentVehicles {
       }
     }
 
-    // Statistics
-    int[] buckets = table.bucketSizes();
-    int maxChain = 0;
-    long nonEmpty = 0;
-    long sum = 0;
-    for (int b : buckets) {
-      sum += b;
-      if (b > 0) {
-        nonEmpty++;
-      }
-      if (b > maxChain)
-        maxChain = b;
-    }
-    double avg = sum / (double) buckets.length;
-    double std = stdDev(buckets, avg);
+    // Statistics (kept up to date by the table, no bucket scan)
+    ChainStats stats = table.stats();
+    long capacity = stats.buckets();
+    long nonEmpty = stats.nonEmptyBuckets();
+    int maxChain = stats.maxChain();
+    double avg = stats.mean();
+    double std = stats.stdDev();
 
     System.out.println("=== Assignment 5 – Hash function quality ===");
     System.out.println("Vehicles (unique): " + table.size());
-    System.out.println("Capacity (buckets): " + buckets.length);
+    System.out.println("Capacity (buckets): " + capacity);
     System.out.println("Load factor:        " + table.currentLoadFactor());
     System.out.println("Collisions (put):   " + table.collisions());
-    System.out.println("Non-empty buckets:  " + nonEmpty + " / " + buckets.length);
+    System.out.println("Non-empty buckets:  " + nonEmpty + " / " + capacity);
     System.out.println("Max chain length:   " + maxChain);
     System.out.println("Avg chain length:   " + String.format("%.3f", avg));
     System.out.println("Stddev chain len:   " + String.format("%.3f", std));
+    System.out.println("Chi-squared / df:   " + String.format("%.3f", stats.uniformity()));
 
-    if (csv != null) {
-      writeCsv(csv, buckets);
-      System.out.println("Wrote bucket distribution to: " + csv);
+    if (out != null) {
+      int[] sizes = table.bucketSizes();
+      if (out.endsWith(".csv")) {
+        BucketSizeFile.writeCsv(Path.of(out), sizes);
+        System.out.println("Wrote bucket distribution to: " + out);
+      } else {
+        BucketSizeFile.Encoding encoding = BucketSizeFile.write(Path.of(out), sizes);
+        System.out.println("Wrote bucket distribution to: " + out + " (" + encoding + ")");
+      }
     }
 
     // Sanity check
@@ -77,6 +77,58 @@ public class ExperimentVehicles {
       String p = genABC123();
       System.out.println("Probe get(" + p + "): " + table.get(new Vehicle(p)));
     }
+
+    comparePerfectHash(table);
+  }
+
+  // Same plates in a minimal-perfect-hash index: no chains, a few bits per key
+  private static void comparePerfectHash(HashTable<Vehicle, Integer> table) {
+    Vehicle[] keys = new Vehicle[table.size()];
+    Integer[] values = new Integer[table.size()];
+    int i = 0;
+    for (HashTable.Entry<Vehicle, Integer> e : table) {
+      keys[i] = e.key;
+      values[i] = e.value;
+      i++;
+    }
+
+    long t0 = System.nanoTime();
+    PerfectHashIndex<Vehicle, Integer> index = PerfectHashIndex.build(keys, values, Vehicle::plateCode);
+    long buildNanos = System.nanoTime() - t0;
+
+    // Probe in shuffled order; entry order follows the buckets and would favour the table
+    Random shuffle = new Random(7);
+    for (int j = keys.length - 1; j > 0; j--) {
+      int k = shuffle.nextInt(j + 1);
+      Vehicle tmp = keys[j];
+      keys[j] = keys[k];
+      keys[k] = tmp;
+    }
+
+    // Last of five rounds, the first ones warm up the JIT
+    long sink = 0;
+    long tableNanos = 0;
+    long indexNanos = 0;
+    for (int round = 0; round < 5; round++) {
+      long a = System.nanoTime();
+      for (Vehicle v : keys) {
+        sink += table.get(v);
+      }
+      long b = System.nanoTime();
+      for (Vehicle v : keys) {
+        sink += index.get(v);
+      }
+      long c = System.nanoTime();
+      tableNanos = b - a;
+      indexNanos = c - b;
+    }
+
+    System.out.println("=== Perfect hash index vs chained HashTable ===");
+    System.out.println("Build time (ms):    " + String.format("%.1f", buildNanos / 1e6));
+    System.out.println("MPHF bits per key:  " + String.format("%.2f", index.hashBitsPerKey()));
+    System.out.println("HashTable get (ns): " + String.format("%.1f", tableNanos / (double) keys.length));
+    System.out.println("Index get (ns):     " + String.format("%.1f", indexNanos / (double) keys.length));
+    System.out.println("Checksum:           " + sink);
   }
 
   // Generate Swedish License Plates
@@ -86,7 +138,8 @@ public class ExperimentVehicles {
     char b = LETTERS.charAt(RNG.nextInt(LETTERS.length()));
     char c = LETTERS.charAt(RNG.nextInt(LETTERS.length()));
     int num = RNG.nextInt(1000); // 000..999
-    return "" + a + b + c + String.format("%03d", num);
+    return new String(new char[] { a, b, c,
+        (char) ('0' + num / 100), (char) ('0' + num / 10 % 10), (char) ('0' + num % 10) });
   }
 
   // ABC12A (New format with last letter instead of number)
@@ -98,24 +151,6 @@ public class ExperimentVehicles {
     int e = RNG.nextInt(10);
     char f = RNG.nextBoolean() ? LETTERS.charAt(RNG.nextInt(LETTERS.length()))
         : (char) ('0' + RNG.nextInt(10));
-    return "" + a + b + c + d + e + f;
-  }
-
-  private static double stdDev(int[] arr, double mean) {
-    double ss = 0;
-    for (int x : arr) {
-      double d = x - mean;
-      ss += d * d;
-    }
-    return Math.sqrt(ss / arr.length);
-  }
-
-  private static void writeCsv(String path, int[] buckets) throws IOException {
-    try (BufferedWriter w = new BufferedWriter(new FileWriter(path))) {
-      w.write("bucket,size\n");
-      for (int i = 0; i < buckets.length; i++) {
-        w.write(i + "," + buckets[i] + "\n");
-      }
-    }
+    return new String(new char[] { a, b, c, (char) ('0' + d), (char) ('0' + e), f });
   }
 }
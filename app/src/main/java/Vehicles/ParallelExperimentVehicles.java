@@ -0,0 +1,270 @@
+package Vehicles;
+
+import Hashing.ChainStats;
+import Hashing.HashTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel version of {@link ExperimentVehicles} for very large N.
+ *
+ * The table is split into one {@link HashTable} shard per thread, chosen by
+ * plate code. Work runs in rounds:
+ * 1. every worker draws plate codes from its own {@link SplittableRandom}
+ * (split from the seed in worker order) and sorts them by shard,
+ * 2. every shard inserts its candidates in (worker, position) order,
+ * 3. if the round produced more new plates than still needed, the ones with
+ * the highest (worker, position) are taken out again.
+ * The resulting set of plates, and therefore every statistic, only depends on
+ * the seed and the thread count. Each shard keeps its chain statistics up to
+ * date and they are merged with {@link ChainStats}.
+ *
+ * CLI:
+ * args[0] = total vehicles (default 10000000, at most {@value #PLATE_SPACE})
+ * args[1] = threads (default: available processors)
+ * args[2] = seed (default 42)
+ *
+ * Example:
+ * ./gradlew run -PmainClass=Vehicles.ParallelExperimentVehicles --args="40000000 8 42"
+ */
+public class ParallelExperimentVehicles {
+  private static final int MAX_CHUNK = 1 << 20;
+  /** Distinct plates {@link #nextPlateCode} can draw: prefixes use only A-Z, as in ExperimentVehicles. */
+  static final int PLATE_SPACE = 26 * 26 * 26 * 10 * 10 * 36;
+
+  public static void main(String[] args) throws Exception {
+    int n = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+    long start = System.nanoTime();
+    ParallelExperimentVehicles experiment = new ParallelExperimentVehicles(n, threads, seed);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    ChainStats stats;
+    long collisions;
+    try {
+      experiment.fill(pool);
+      stats = experiment.stats();
+      collisions = experiment.collisions();
+    } finally {
+      pool.shutdown();
+    }
+    long elapsed = System.nanoTime() - start;
+
+    System.out.println("=== Parallel hash function quality (seed " + seed + ", " + threads + " threads) ===");
+    System.out.println("Vehicles (unique): " + stats.entries());
+    System.out.println("Shards:             " + threads);
+    System.out.println("Capacity (buckets): " + stats.buckets());
+    System.out.println("Load factor:        " + stats.entries() / (double) stats.buckets());
+    System.out.println("Collisions (put):   " + collisions);
+    System.out.println("Non-empty buckets:  " + stats.nonEmptyBuckets() + " / " + stats.buckets());
+    System.out.println("Max chain length:   " + stats.maxChain());
+    System.out.println("Avg chain length:   " + String.format("%.3f", stats.mean()));
+    System.out.println("Stddev chain len:   " + String.format("%.3f", stats.stdDev()));
+    System.out.println("Chi-squared / df:   " + String.format("%.3f", stats.uniformity()));
+    System.out.println("Rounds:             " + experiment.rounds);
+    System.out.println("Elapsed (ms):       " + elapsed / 1_000_000);
+  }
+
+  private final int n;
+  private final int threads;
+  private final SplittableRandom[] generators;
+  private final HashTable<Vehicle, Integer>[] shards;
+  private int inserted;
+  private int rounds;
+
+  @SuppressWarnings("unchecked")
+  ParallelExperimentVehicles(int n, int threads, long seed) {
+    if (n <= 0 || threads <= 0) {
+      throw new IllegalArgumentException("Vehicles and threads must be greater than zero");
+    }
+    if (n > PLATE_SPACE) {
+      // fill() would never find n distinct plates
+      throw new IllegalArgumentException("At most " + PLATE_SPACE + " distinct plates can be drawn, was " + n);
+    }
+    this.n = n;
+    this.threads = threads;
+    SplittableRandom root = new SplittableRandom(seed);
+    this.generators = new SplittableRandom[threads];
+    this.shards = (HashTable<Vehicle, Integer>[]) new HashTable[threads];
+    for (int i = 0; i < threads; i++) {
+      generators[i] = root.split();
+      shards[i] = new HashTable<>(256, 0.75, HashTable.KeyHashing.HASH_CODE);
+      // 5% headroom: shard sizes vary a little around n / threads
+      shards[i].ensureCapacity(n / threads + n / threads / 20 + 64);
+    }
+  }
+
+  /** Candidates of one worker for one round, grouped by shard. */
+  private static final class Outbox {
+    final int[] codes;
+    final int[] positions;
+    final int[] shardStart;
+
+    Outbox(int[] codes, int[] positions, int[] shardStart) {
+      this.codes = codes;
+      this.positions = positions;
+      this.shardStart = shardStart;
+    }
+  }
+
+  /** New plates a shard accepted in one round, with their global (worker, position) order. */
+  private static final class Accepted {
+    long[] order = new long[16];
+    int[] codes = new int[16];
+    int count;
+
+    void add(long ord, int code) {
+      if (count == codes.length) {
+        order = Arrays.copyOf(order, count * 2);
+        codes = Arrays.copyOf(codes, count * 2);
+      }
+      order[count] = ord;
+      codes[count] = code;
+      count++;
+    }
+  }
+
+  void fill(ExecutorService pool) throws Exception {
+    while (inserted < n) {
+      rounds++;
+      int need = n - inserted;
+      int chunk = Math.min(MAX_CHUNK, (need + threads - 1) / threads);
+
+      List<Callable<Outbox>> generate = new ArrayList<>();
+      for (int w = 0; w < threads; w++) {
+        SplittableRandom rng = generators[w];
+        generate.add(() -> generate(rng, chunk));
+      }
+      Outbox[] outboxes = new Outbox[threads];
+      List<Future<Outbox>> generated = pool.invokeAll(generate);
+      for (int w = 0; w < threads; w++) {
+        outboxes[w] = generated.get(w).get();
+      }
+
+      List<Callable<Accepted>> insert = new ArrayList<>();
+      for (int s = 0; s < threads; s++) {
+        int shard = s;
+        insert.add(() -> insert(shard, outboxes));
+      }
+      Accepted[] accepted = new Accepted[threads];
+      List<Future<Accepted>> results = pool.invokeAll(insert);
+      long added = 0;
+      for (int s = 0; s < threads; s++) {
+        accepted[s] = results.get(s).get();
+        added += accepted[s].count;
+      }
+
+      if (added > need) {
+        dropLatest(accepted, need);
+        added = need;
+      }
+      inserted += (int) added;
+    }
+  }
+
+  private Outbox generate(SplittableRandom rng, int chunk) {
+    int[] codes = new int[chunk];
+    int[] counts = new int[threads + 1];
+    for (int i = 0; i < chunk; i++) {
+      codes[i] = nextPlateCode(rng);
+      counts[shardOf(codes[i]) + 1]++;
+    }
+    for (int s = 0; s < threads; s++) {
+      counts[s + 1] += counts[s];
+    }
+    int[] shardStart = counts.clone();
+    int[] sorted = new int[chunk];
+    int[] positions = new int[chunk];
+    for (int i = 0; i < chunk; i++) {
+      int slot = counts[shardOf(codes[i])]++;
+      sorted[slot] = codes[i];
+      positions[slot] = i;
+    }
+    return new Outbox(sorted, positions, shardStart);
+  }
+
+  private Accepted insert(int shard, Outbox[] outboxes) {
+    HashTable<Vehicle, Integer> table = shards[shard];
+    Accepted accepted = new Accepted();
+    for (int w = 0; w < outboxes.length; w++) {
+      Outbox box = outboxes[w];
+      for (int i = box.shardStart[shard]; i < box.shardStart[shard + 1]; i++) {
+        if (table.put(Vehicle.ofPlateCode(box.codes[i]), table.size()) == null) {
+          accepted.add(((long) w << 32) | box.positions[i], box.codes[i]);
+        }
+      }
+    }
+    return accepted;
+  }
+
+  /** Keeps the first {@code keep} new plates in (worker, position) order and removes the rest. */
+  private void dropLatest(Accepted[] accepted, int keep) {
+    int total = 0;
+    for (Accepted a : accepted) {
+      total += a.count;
+    }
+    long[] all = new long[total];
+    int k = 0;
+    for (Accepted a : accepted) {
+      System.arraycopy(a.order, 0, all, k, a.count);
+      k += a.count;
+    }
+    Arrays.sort(all);
+    long cutoff = all[keep - 1];
+    for (int s = 0; s < accepted.length; s++) {
+      for (int i = 0; i < accepted[s].count; i++) {
+        if (accepted[s].order[i] > cutoff) {
+          shards[s].remove(Vehicle.ofPlateCode(accepted[s].codes[i]));
+        }
+      }
+    }
+  }
+
+  ChainStats stats() {
+    ChainStats total = new ChainStats();
+    for (HashTable<Vehicle, Integer> shard : shards) {
+      total.merge(shard.stats());
+    }
+    return total;
+  }
+
+  long collisions() {
+    long sum = 0;
+    for (HashTable<Vehicle, Integer> shard : shards) {
+      sum += shard.collisions();
+    }
+    return sum;
+  }
+
+  /** Plate codes are not uniform modulo small numbers (the last character is), so mix first. */
+  private int shardOf(int plateCode) {
+    return (int) (((plateCode * 0x9E3779B97F4A7C15L) >>> 33) % threads);
+  }
+
+  /**
+   * Draws a plate code with the same distribution as ExperimentVehicles:
+   * half ABC123, half ABC12X where X is a letter or a digit with equal odds.
+   */
+  private static int nextPlateCode(SplittableRandom rng) {
+    int prefix = (rng.nextInt(26) * 29 + rng.nextInt(26)) * 29 + rng.nextInt(26);
+    int digits;
+    int last;
+    if (rng.nextBoolean()) {
+      int num = rng.nextInt(1000);
+      digits = num / 10;
+      last = num % 10;
+    } else {
+      digits = rng.nextInt(100);
+      last = rng.nextBoolean() ? 10 + rng.nextInt(26) : rng.nextInt(10);
+    }
+    return (prefix * 100 + digits) * 36 + last;
+  }
+}
@@ -0,0 +1,136 @@
+package Vehicles;
+
+/**
+ * Hand-written validator and compact encoding for registration numbers.
+ *
+ * A plate is three letters (A-Z, Å, Ä, Ö), two digits and a final digit or
+ * letter A-Z, which also covers the older three-digit format. That gives
+ * 29^3 * 10^2 * 36 = 87 800 400 plates, so every plate packs into one
+ * non-negative {@code int} by mixed-radix encoding. Validation works on the
+ * characters in place, without allocating: surrounding whitespace is skipped
+ * and only a-z, å, ä and ö are folded to upper case. For input made of
+ * whitespace and plate characters this agrees with {@code trim().toUpperCase()}
+ * followed by the regex in {@link Vehicle}. Other characters are rejected even
+ * where {@code toUpperCase} would turn them into plate letters ('ß' into "SS",
+ * dotless 'ı' into 'I'), and folding does not depend on the default locale
+ * (a Turkish locale upper-cases 'i' to 'İ').
+ */
+public final class PlateCodec {
+  public static final int PLATE_LENGTH = 6;
+  public static final int PLATE_COUNT = 29 * 29 * 29 * 10 * 10 * 36;
+  public static final int INVALID = -1;
+
+  private static final char[] PREFIX_LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZÅÄÖ".toCharArray();
+  private static final char[] LAST_CHARS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+
+  private PlateCodec() {
+  }
+
+  /**
+   * Returns the plate code of {@code plate}, or {@link #INVALID} if it is not a
+   * valid plate. Lower-case plate letters count as upper case; no other
+   * character is folded.
+   */
+  public static int encode(CharSequence plate) {
+    int start = 0;
+    int end = plate.length();
+    while (start < end && plate.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && plate.charAt(end - 1) <= ' ') {
+      end--;
+    }
+    if (end - start != PLATE_LENGTH) {
+      return INVALID;
+    }
+    int code = 0;
+    for (int i = 0; i < 3; i++) {
+      int letter = prefixLetter(plate.charAt(start + i));
+      if (letter < 0) {
+        return INVALID;
+      }
+      code = code * 29 + letter;
+    }
+    for (int i = 3; i < 5; i++) {
+      int digit = plate.charAt(start + i) - '0';
+      if (digit < 0 || digit > 9) {
+        return INVALID;
+      }
+      code = code * 10 + digit;
+    }
+    int last = lastChar(plate.charAt(start + 5));
+    if (last < 0) {
+      return INVALID;
+    }
+    return code * 36 + last;
+  }
+
+  public static boolean isValid(CharSequence plate) {
+    return encode(plate) != INVALID;
+  }
+
+  /** True if {@code plate} is already exactly six upper-case plate characters. */
+  public static boolean isCanonical(CharSequence plate) {
+    if (plate.length() != PLATE_LENGTH || encode(plate) == INVALID) {
+      return false;
+    }
+    for (int i = 0; i < PLATE_LENGTH; i++) {
+      char c = plate.charAt(i);
+      if ((c >= 'a' && c <= 'z') || c == 'å' || c == 'ä' || c == 'ö') {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the canonical plate for a code produced by {@link #encode}. */
+  public static String decode(int code) {
+    if (code < 0 || code >= PLATE_COUNT) {
+      throw new IllegalArgumentException("Invalid plate code: " + code);
+    }
+    char[] chars = new char[PLATE_LENGTH];
+    chars[5] = LAST_CHARS[code % 36];
+    code /= 36;
+    chars[4] = (char) ('0' + code % 10);
+    code /= 10;
+    chars[3] = (char) ('0' + code % 10);
+    code /= 10;
+    for (int i = 2; i >= 0; i--) {
+      chars[i] = PREFIX_LETTERS[code % 29];
+      code /= 29;
+    }
+    return new String(chars);
+  }
+
+  private static int prefixLetter(char c) {
+    if (c >= 'A' && c <= 'Z') {
+      return c - 'A';
+    }
+    if (c >= 'a' && c <= 'z') {
+      return c - 'a';
+    }
+    switch (c) {
+      case 'Å': case 'å':
+        return 26;
+      case 'Ä': case 'ä':
+        return 27;
+      case 'Ö': case 'ö':
+        return 28;
+      default:
+        return -1;
+    }
+  }
+
+  private static int lastChar(char c) {
+    if (c >= '0' && c <= '9') {
+      return c - '0';
+    }
+    if (c >= 'A' && c <= 'Z') {
+      return 10 + c - 'A';
+    }
+    if (c >= 'a' && c <= 'z') {
+      return 10 + c - 'a';
+    }
+    return -1;
+  }
+}
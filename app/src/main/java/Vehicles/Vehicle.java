@@ -1,15 +1,44 @@
 package Vehicles;
 
+import Hashing.Codec;
+import Hashing.SeededHashable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.regex.Pattern;
 
 /**
  * Provides registration number of Vehicles and hash code method
  */
-public class Vehicle {
+public class Vehicle implements SeededHashable {
   private static final Pattern VALID_PLATE = Pattern.compile("^[A-ZÅÄÖ]{3}[0-9]{2}[A-Z0-9]$|^[A-ZÅÄÖ]{3}[0-9]{3}$");
 
+  /** Plate code, then (if there is one) a marker byte and the UTF-8 meta text. */
+  public static final Codec<Vehicle> CODEC = new Codec<>() {
+    @Override
+    public byte[] encode(Vehicle v) {
+      byte[] meta = v.meta == null ? null : v.meta.getBytes(StandardCharsets.UTF_8);
+      ByteBuffer out = ByteBuffer.allocate(Integer.BYTES + (meta == null ? 0 : 1 + meta.length));
+      out.putInt(v.plateCode);
+      if (meta != null) {
+        out.put((byte) 1).put(meta);
+      }
+      return out.array();
+    }
+
+    @Override
+    public Vehicle decode(byte[] bytes) {
+      int code = ByteBuffer.wrap(bytes).getInt();
+      String meta = bytes.length == Integer.BYTES ? null
+          : new String(bytes, Integer.BYTES + 1, bytes.length - Integer.BYTES - 1, StandardCharsets.UTF_8);
+      return new Vehicle(PlateCodec.decode(code), code, meta);
+    }
+  };
+
   private final String regNumber;
   private final String meta;
+  private final int plateCode;
+  private int hash;
 
   public Vehicle(String regNumber) {
     this(regNumber, null);
@@ -17,19 +46,52 @@ public class Vehicle {
 
   public Vehicle(String regNumber, String meta) {
     if (regNumber == null) throw new NullPointerException("regNumber can not be null");
-    String  norm = regNumber.trim().toUpperCase();
-
-    if (!VALID_PLATE.matcher(norm).matches()) {
-      throw new IllegalArgumentException("Invalid registration format: \" + regNumber");
+    // Same rules as VALID_PLATE on the trimmed, upper-cased input, checked without allocating
+    int code = PlateCodec.encode(regNumber);
+    if (code == PlateCodec.INVALID) {
+      throw new IllegalArgumentException("Invalid registration format: " + regNumber);
     }
-    this.regNumber = norm;
+    this.regNumber = PlateCodec.isCanonical(regNumber) ? regNumber : PlateCodec.decode(code);
+    this.plateCode = code;
     this.meta = meta;
   }
 
+  private Vehicle(String regNumber, int plateCode, String meta) {
+    this.regNumber = regNumber;
+    this.plateCode = plateCode;
+    this.meta = meta;
+  }
+
+  /** Creates the Vehicle for a code from {@link PlateCodec#encode}, skipping validation of the text. */
+  public static Vehicle ofPlateCode(int plateCode) {
+    return new Vehicle(PlateCodec.decode(plateCode), plateCode, null);
+  }
+
+  /** Checks a plate with the same rules as the constructor, without creating a Vehicle. */
+  public static boolean isValidPlate(CharSequence regNumber) {
+    return regNumber != null && PlateCodec.isValid(regNumber);
+  }
+
+  /** Reference check against the regular expression; kept for tests of the hand-written validator. */
+  static boolean matchesPattern(String regNumber) {
+    return VALID_PLATE.matcher(regNumber.trim().toUpperCase()).matches();
+  }
+
   public String regNumber() {
     return regNumber;
   }
 
+  /** The plate packed into an int, see {@link PlateCodec}. */
+  public int plateCode() {
+    return plateCode;
+  }
+
+  /** The plate code identifies the plate exactly, so seeded tables hash it directly. */
+  @Override
+  public long identityBits() {
+    return plateCode;
+  }
+
   public String meta() {
     return meta;
   }
@@ -39,16 +101,20 @@ public class Vehicle {
     if (this == o) return true;
     if (!(o instanceof Vehicle)) return false;
     Vehicle that = (Vehicle) o;
-    return regNumber.equals(that.regNumber);
+    return plateCode == that.plateCode;
   }
 
   @Override
   public int hashCode() {
-    int hash = 17;
-    for (int i = 0; i < regNumber.length(); i++) {
-      hash = 31 * hash + regNumber.charAt(i);
+    int h = hash;
+    if (h == 0) {
+      h = 17;
+      for (int i = 0; i < regNumber.length(); i++) {
+        h = 31 * h + regNumber.charAt(i);
+      }
+      hash = h;
     }
-    return hash;
+    return h;
   }
 
 }
@@ -0,0 +1,215 @@
+package Binary;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import Memory.Footprint;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+class PersistentTreeTest {
+
+  private static List<Integer> toList(Iterable<Integer> it) {
+    List<Integer> out = new ArrayList<>();
+    for (Integer x : it) out.add(x);
+    return out;
+  }
+
+  // AVL bound: height < 1.4405 log2(n + 2)
+  private static void assertBalanced(PersistentTree<Integer> tree) {
+    double bound = 1.4405 * Math.log(tree.size() + 2) / Math.log(2);
+    assertTrue(tree.height() < bound, "height " + tree.height() + " for " + tree.size() + " nodes");
+  }
+
+  @Test
+  void emptyTree_hasSizeZero_andHeightMinusOne() {
+    PersistentTree<Integer> t = PersistentTree.empty();
+    assertEquals(0, t.size());
+    assertEquals(-1, t.height());
+    assertTrue(t.isEmpty());
+    assertFalse(t.iterator().hasNext());
+    assertThrows(IllegalArgumentException.class, () -> t.add(null));
+  }
+
+  @Test
+  void add_returnsNewVersion_andLeavesOldOneUnchanged() {
+    PersistentTree<Integer> v0 = PersistentTree.empty();
+    PersistentTree<Integer> v1 = v0.add(5).add(2).add(8);
+    PersistentTree<Integer> v2 = v1.add(3);
+    PersistentTree<Integer> v3 = v2.remove(5);
+
+    assertEquals(List.of(), toList(v0));
+    assertEquals(List.of(2, 5, 8), toList(v1));
+    assertEquals(List.of(2, 3, 5, 8), toList(v2));
+    assertEquals(List.of(2, 3, 8), toList(v3));
+    assertSame(v2, v2.add(3), "adding a present element returns the same version");
+    assertSame(v3, v3.remove(42), "removing a missing element returns the same version");
+  }
+
+  @Test
+  void matches_treeSet_underRandomUpdates_andStaysBalanced() {
+    Random rng = new Random(11);
+    TreeSet<Integer> expected = new TreeSet<>();
+    PersistentTree<Integer> tree = PersistentTree.empty();
+    for (int i = 0; i < 20_000; i++) {
+      int x = rng.nextInt(5_000);
+      if (rng.nextInt(3) == 0) {
+        expected.remove(x);
+        tree = tree.remove(x);
+      } else {
+        expected.add(x);
+        tree = tree.add(x);
+      }
+    }
+    assertEquals(new ArrayList<>(expected), toList(tree));
+    assertEquals(expected.size(), tree.size());
+    assertEquals(expected.first(), tree.min());
+    assertEquals(expected.last(), tree.max());
+    for (int x = -1; x <= 5_000; x += 7) {
+      assertEquals(expected.contains(x), tree.contains(x));
+    }
+    assertBalanced(tree);
+  }
+
+  @Test
+  void sortedInsertion_staysLogarithmic() {
+    PersistentTree<Integer> tree = PersistentTree.empty();
+    for (int i = 0; i < 100_000; i++) tree = tree.add(i);
+    assertEquals(100_000, tree.size());
+    assertBalanced(tree);
+  }
+
+  @Test
+  void snapshot_iteratesOldVersion_whileWriterContinues() {
+    PersistentTree<Integer> tree = PersistentTree.empty();
+    for (int i = 0; i < 1_000; i++) tree = tree.add(i);
+    PersistentTree<Integer> snapshot = tree;
+
+    Iterator<Integer> it = snapshot.iterator();
+    int seen = 0;
+    while (it.hasNext()) {
+      assertEquals(seen, it.next().intValue());
+      seen++;
+      tree = tree.remove(seen).add(10_000 + seen); // writer keeps publishing versions
+    }
+    assertEquals(1_000, seen);
+    assertEquals(1_000, snapshot.size());
+  }
+
+  @Test
+  void versions_shareAllUnchangedNodes() {
+    PersistentTree<Integer> v1 = PersistentTree.empty();
+    for (int i = 0; i < 10_000; i++) v1 = v1.add(i);
+    PersistentTree<Integer> v2 = v1.add(-1);
+
+    long one = Footprint.of(v1).objectCount();
+    long both = Footprint.of(new Object[] { v1, v2 }).objectCount() - 1; // minus the array
+    // v2 only adds the copied path (plus its tree object)
+    assertTrue(both - one <= v2.height() + 2, "extra objects: " + (both - one));
+  }
+
+  private static PersistentTree<Integer> randomTree(Random rng, int n, int range) {
+    List<Integer> xs = new ArrayList<>();
+    for (int i = 0; i < n; i++) xs.add(rng.nextInt(range));
+    return PersistentTree.copyOf(xs);
+  }
+
+  private static TreeSet<Integer> toSet(PersistentTree<Integer> t) {
+    TreeSet<Integer> set = new TreeSet<>();
+    for (Integer x : t) set.add(x);
+    return set;
+  }
+
+  @Test
+  void split_and_join_roundTrip() {
+    PersistentTree<Integer> t = PersistentTree.empty();
+    for (int i = 0; i < 1_000; i += 2) t = t.add(i);
+
+    PersistentTree.Split<Integer> hit = t.split(500);
+    assertTrue(hit.found());
+    assertEquals(250, hit.less().size());
+    assertEquals(249, hit.greater().size());
+    assertEquals(498, hit.less().max().intValue());
+    assertEquals(502, hit.greater().min().intValue());
+    assertBalanced(hit.less());
+    assertBalanced(hit.greater());
+
+    PersistentTree.Split<Integer> miss = t.split(501);
+    assertFalse(miss.found());
+    assertEquals(toList(t), toList(miss.less().join(miss.greater())));
+    assertEquals(toList(t.remove(500)), toList(hit.less().join(hit.greater())));
+    assertEquals(500, t.size(), "splitting does not change the original");
+
+    assertThrows(IllegalArgumentException.class, () -> hit.greater().join(hit.less()));
+  }
+
+  @Test
+  void join_ofVeryDifferentHeights_staysBalanced() {
+    PersistentTree<Integer> small = PersistentTree.empty();
+    for (int i = 0; i < 3; i++) small = small.add(i);
+    PersistentTree<Integer> big = PersistentTree.empty();
+    for (int i = 100; i < 50_000; i++) big = big.add(i);
+
+    PersistentTree<Integer> joined = small.join(big);
+    assertEquals(3 + 49_900, joined.size());
+    assertBalanced(joined);
+    PersistentTree<Integer> tail = PersistentTree.<Integer>empty().add(60_000).add(60_001);
+    PersistentTree<Integer> joinedRight = big.split(25_000).less().join(tail);
+    assertEquals(24_900 + 2, joinedRight.size());
+    assertBalanced(joinedRight);
+  }
+
+  @Test
+  void setOperations_matchTreeSet() {
+    Random rng = new Random(5);
+    int[][] sizes = { { 0, 10 }, { 10, 0 }, { 1, 1_000 }, { 50, 20_000 }, { 20_000, 50 }, { 30_000, 30_000 } };
+    for (int[] s : sizes) {
+      PersistentTree<Integer> a = randomTree(rng, s[0], 60_000);
+      PersistentTree<Integer> b = randomTree(rng, s[1], 60_000);
+      TreeSet<Integer> union = toSet(a);
+      union.addAll(toSet(b));
+      TreeSet<Integer> inter = toSet(a);
+      inter.retainAll(toSet(b));
+      TreeSet<Integer> diff = toSet(a);
+      diff.removeAll(toSet(b));
+
+      PersistentTree<Integer> u = a.union(b);
+      PersistentTree<Integer> i = a.intersection(b);
+      PersistentTree<Integer> d = a.difference(b);
+      assertEquals(new ArrayList<>(union), toList(u));
+      assertEquals(new ArrayList<>(inter), toList(i));
+      assertEquals(new ArrayList<>(diff), toList(d));
+      assertEquals(union.size(), u.size());
+      assertBalanced(u);
+      assertBalanced(i);
+      assertBalanced(d);
+    }
+  }
+
+  @Test
+  void setOperations_withEmptyOrSelf_shareTheInput() {
+    PersistentTree<Integer> a = randomTree(new Random(3), 100, 1_000);
+    PersistentTree<Integer> empty = PersistentTree.empty();
+    assertSame(a, a.union(empty));
+    assertSame(a, empty.union(a));
+    assertSame(a, a.difference(empty));
+    assertTrue(a.intersection(empty).isEmpty());
+    assertTrue(a.difference(a).isEmpty());
+    assertEquals(toList(a), toList(a.union(a)));
+  }
+
+  @Test
+  void copyOf_buildsBalancedTree_fromBinarySearchTreeOrder() {
+    BinarySearchTree<Integer> bst = new BinarySearchTree<>();
+    Random rng = new Random(9);
+    for (int i = 0; i < 5_000; i++) bst.add(rng.nextInt(10_000));
+    PersistentTree<Integer> t = PersistentTree.copyOf(bst.inOrder());
+    assertEquals(bst.size(), t.size());
+    assertEquals(toList(bst.inOrder()), toList(t));
+    assertBalanced(t);
+  }
+}
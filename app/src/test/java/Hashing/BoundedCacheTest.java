@@ -0,0 +1,74 @@
+package Hashing;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+  @Test
+  void lru_evicts_least_recently_used() {
+    BoundedCache<String, Integer> cache = new BoundedCache<>(2);
+    cache.put("a", 1);
+    cache.put("b", 2);
+    assertEquals(1, cache.get("a")); // b is now least recent
+    cache.put("c", 3);
+
+    assertEquals(2, cache.size());
+    assertNull(cache.get("b"));
+    assertEquals(1, cache.get("a"));
+    assertEquals(3, cache.get("c"));
+    assertEquals(1, cache.evictionCount());
+  }
+
+  @Test
+  void counters_track_hits_and_misses() {
+    BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+    assertNull(cache.get("x"));
+    cache.put("x", 1);
+    assertEquals(1, cache.get("x"));
+    assertEquals(1, cache.put("x", 2));
+    assertEquals(2, cache.get("x"));
+
+    assertEquals(2, cache.hitCount());
+    assertEquals(1, cache.missCount());
+    assertEquals(2.0 / 3, cache.hitRate(), 1e-9);
+    assertEquals(2, cache.remove("x"));
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void tinyLfu_keeps_frequent_entries_during_scan() {
+    BoundedCache<Integer, Integer> lfu = replayHotKeysWithScan(BoundedCache.Admission.TINY_LFU);
+    BoundedCache<Integer, Integer> lru = replayHotKeysWithScan(BoundedCache.Admission.LRU);
+    assertTrue(lfu.hitRate() > 0.2, "TinyLFU hit rate " + lfu.hitRate());
+    assertTrue(lru.hitRate() < 0.01, "LRU hit rate " + lru.hitRate());
+    for (int hot = 0; hot < 50; hot++)
+      assertNotNull(lfu.get(hot));
+  }
+
+  /** 50 hot keys revisited every 200 requests while a scan of cold keys runs through a 100-entry cache. */
+  private static BoundedCache<Integer, Integer> replayHotKeysWithScan(BoundedCache.Admission admission) {
+    BoundedCache<Integer, Integer> cache = new BoundedCache<>(100, admission);
+    for (int i = 0; i < 20_000; i++) {
+      int key = i % 4 == 0 ? (i / 4) % 50 : 1_000 + i;
+      if (cache.get(key) == null)
+        cache.put(key, key);
+    }
+    assertTrue(cache.size() <= 100);
+    return cache;
+  }
+
+  @Test
+  void size_never_exceeds_maximum() {
+    for (BoundedCache.Admission admission : BoundedCache.Admission.values()) {
+      BoundedCache<Integer, Integer> cache = new BoundedCache<>(7, admission);
+      for (int i = 0; i < 1_000; i++) {
+        cache.put(i % 37, i);
+        assertTrue(cache.size() <= 7);
+      }
+      cache.clear();
+      assertEquals(0, cache.size());
+    }
+    assertThrows(IllegalArgumentException.class, () -> new BoundedCache<String, String>(0));
+  }
+}
@@ -0,0 +1,113 @@
+package Hashing;
+
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactStringTableTest {
+
+  @Test
+  void put_get_remove_basic() {
+    CompactStringTable<Integer> table = new CompactStringTable<>();
+    assertNull(table.put("ABC123", 1));
+    assertEquals(1, table.put("ABC123", 2));
+    assertEquals(2, table.get("ABC123"));
+    assertEquals(2, table.get(new StringBuilder("ABC123")));
+    assertTrue(table.containsKey("ABC123"));
+    assertNull(table.get("ABC12"));
+    assertNull(table.get("ABC1234"));
+    assertEquals(1, table.size());
+    assertEquals(2, table.remove("ABC123"));
+    assertNull(table.remove("ABC123"));
+    assertTrue(table.isEmpty());
+    assertEquals(1, table.arena().keys(), "the second put reused the stored key");
+  }
+
+  @Test
+  void vehicle_keys_use_canonical_plate() {
+    CompactStringTable<String> table = new CompactStringTable<>();
+    table.put(new Vehicle(" åäö12a "), "x");
+    assertEquals("x", table.get("ÅÄÖ12A"));
+    assertEquals("x", table.get(new Vehicle("ÅÄÖ12A")));
+    assertTrue(table.containsKey(new Vehicle("åäö12a")));
+    assertEquals(6, table.arena().bytesUsed());
+    Map<String, String> copy = new HashMap<>();
+    table.forEach(copy::put);
+    assertEquals(Map.of("ÅÄÖ12A", "x"), copy);
+  }
+
+  @Test
+  void keys_outside_latin1_are_rejected() {
+    CompactStringTable<Integer> table = new CompactStringTable<>();
+    assertThrows(IllegalArgumentException.class, () -> table.put("Ω", 1));
+    assertTrue(table.isEmpty());
+    assertNull(table.get("Ω"));
+    assertNull(table.put("", 0));
+    assertEquals(0, table.get(""));
+  }
+
+  @Test
+  void matches_hash_map_under_random_updates() {
+    Random rnd = new Random(5);
+    // A small arena chunk forces keys into many chunks
+    CompactStringTable<Integer> table = new CompactStringTable<>(new KeyArena(1 << 16), 0);
+    Map<String, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 200_000; i++) {
+      String key = PlateCodec.decode(rnd.nextInt(50_000));
+      switch (rnd.nextInt(4)) {
+        case 0:
+          assertEquals(expected.remove(key), table.remove(key));
+          break;
+        case 1:
+          assertEquals(expected.get(key), table.get(key));
+          break;
+        default:
+          assertEquals(expected.put(key, i), table.put(key, i));
+      }
+    }
+    assertEquals(expected.size(), table.size());
+    for (Map.Entry<String, Integer> e : expected.entrySet()) {
+      assertEquals(e.getValue(), table.get(e.getKey()));
+    }
+    Map<String, Integer> copy = new HashMap<>();
+    table.forEach(copy::put);
+    assertEquals(expected, copy);
+    assertTrue(table.arena().bytesAllocated() > 1 << 16);
+  }
+
+  @Test
+  void tables_can_share_an_arena() {
+    KeyArena arena = new KeyArena();
+    CompactStringTable<Integer> a = new CompactStringTable<>(arena, 10);
+    CompactStringTable<Integer> b = new CompactStringTable<>(arena, 10);
+    a.put("one", 1);
+    b.put("two", 2);
+    assertEquals(1, a.get("one"));
+    assertNull(a.get("two"));
+    assertEquals(2, b.get("two"));
+    assertEquals(2, arena.keys());
+    assertEquals(6, arena.bytesUsed());
+  }
+
+  @Test
+  void arena_round_trips_keys() {
+    KeyArena arena = new KeyArena(1 << 16);
+    long[] handles = new long[20_000];
+    for (int i = 0; i < handles.length; i++) {
+      handles[i] = arena.add("key-" + i + "-é");
+    }
+    for (int i = 0; i < handles.length; i++) {
+      String key = "key-" + i + "-é";
+      assertEquals(key, arena.toString(handles[i]));
+      assertTrue(arena.matches(handles[i], key));
+      assertFalse(arena.matches(handles[i], key + "x"));
+      assertEquals(KeyArena.hash(key, 7), arena.hash(handles[i], 7));
+      assertEquals(key.length(), KeyArena.length(handles[i]));
+    }
+    assertThrows(IllegalArgumentException.class, () -> new KeyArena(1000));
+  }
+}
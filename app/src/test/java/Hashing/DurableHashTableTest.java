@@ -0,0 +1,284 @@
+package Hashing;
+
+import Vehicles.Vehicle;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableHashTableTest {
+
+  private static Path newDirectory() throws IOException {
+    Path dir = Files.createTempDirectory("durable-table");
+    dir.toFile().deleteOnExit();
+    return dir;
+  }
+
+  private static DurableHashTable<String, Integer> open(Path dir) throws IOException {
+    return DurableHashTable.open(dir, Codec.STRING, Codec.INTEGER);
+  }
+
+  private static void deleteAll(Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      for (Path f : (Iterable<Path>) files::iterator) {
+        Files.delete(f);
+      }
+    }
+    Files.delete(dir);
+  }
+
+  @Test
+  void reopen_replaysPutsAndRemoves() throws IOException {
+    Path dir = newDirectory();
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      for (int i = 0; i < 100; i++) {
+        assertNull(table.put("k" + i, i));
+      }
+      assertEquals(5, table.put("k5", 500));
+      assertEquals(7, table.remove("k7"));
+      assertNull(table.remove("missing")); // not logged
+      assertNull(table.put("nullValue", null));
+      assertEquals(103, table.lastLsn());
+    }
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(103, table.replayedRecords());
+      assertEquals(100, table.size());
+      assertEquals(500, table.get("k5"));
+      assertFalse(table.containsKey("k7"));
+      assertTrue(table.containsKey("nullValue"));
+      assertNull(table.get("nullValue"));
+      assertEquals(99, table.get("k99"));
+    }
+    deleteAll(dir);
+  }
+
+  @Test
+  void unclosedTable_isRecoveredLikeACrash() throws IOException {
+    Path dir = newDirectory();
+    DurableHashTable<String, Integer> crashed =
+        DurableHashTable.open(dir, Codec.STRING, Codec.INTEGER, DurableHashTable.Sync.WRITE, 1 << 20);
+    crashed.put("a", 1);
+    crashed.put("b", 2);
+    // No close: everything a put returned for is already in the file
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(1, table.get("a"));
+      assertEquals(2, table.get("b"));
+    }
+    crashed.close();
+    deleteAll(dir);
+  }
+
+  @Test
+  void checkpoint_emptiesLog_andLsnContinues() throws IOException {
+    Path dir = newDirectory();
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      for (int i = 0; i < 50; i++) {
+        table.put("k" + i, i);
+      }
+      table.checkpoint();
+      assertEquals(0, table.walBytes());
+      table.put("after", 1);
+    }
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(1, table.replayedRecords());
+      assertEquals(51, table.lastLsn());
+      assertEquals(51, table.size());
+      assertEquals(49, table.get("k49"));
+      assertEquals(1, table.get("after"));
+    }
+    deleteAll(dir);
+  }
+
+  @Test
+  void logPastThreshold_triggersCheckpoint() throws IOException {
+    Path dir = newDirectory();
+    try (DurableHashTable<String, Integer> table =
+        DurableHashTable.open(dir, Codec.STRING, Codec.INTEGER, DurableHashTable.Sync.WRITE, 1024)) {
+      for (int i = 0; i < 1000; i++) {
+        table.put("k" + (i % 300), i);
+      }
+      assertTrue(table.checkpoints() > 0);
+      assertTrue(table.walBytes() < 1024 + 64);
+    }
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(300, table.size());
+      assertEquals(999, table.get("k99"));
+      assertEquals(1000, table.lastLsn());
+    }
+    deleteAll(dir);
+  }
+
+  @Test
+  void tornTail_isCutOnReplay() throws IOException {
+    Path dir = newDirectory();
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      table.put("a", 1);
+      table.put("b", 2);
+    }
+    Path wal = dir.resolve(DurableHashTable.WAL_FILE);
+    long intact = Files.size(wal);
+    try (FileChannel ch = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+      ch.truncate(intact - 3); // the last record lost its end
+    }
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(1, table.get("a"));
+      assertFalse(table.containsKey("b"));
+      assertEquals(1, table.lastLsn());
+      table.put("c", 3); // appended right after the intact prefix
+    }
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(2, table.size());
+      assertEquals(3, table.get("c"));
+    }
+    deleteAll(dir);
+  }
+
+  @Test
+  void corruptRecord_stopsReplay() throws IOException {
+    Path dir = newDirectory();
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      table.put("a", 1);
+      table.put("b", 2);
+      table.put("c", 3);
+    }
+    Path wal = dir.resolve(DurableHashTable.WAL_FILE);
+    long recordBytes = Files.size(wal) / 3;
+    try (FileChannel ch = FileChannel.open(wal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer b = ByteBuffer.allocate(1);
+      long pos = recordBytes + recordBytes - 1; // last byte of the second record
+      ch.read(b, pos);
+      b.flip();
+      ch.write(ByteBuffer.wrap(new byte[] {(byte) (b.get() ^ 0xff)}), pos);
+    }
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(1, table.replayedRecords());
+      assertEquals(1, table.size());
+      assertEquals(recordBytes, table.walBytes());
+    }
+    deleteAll(dir);
+  }
+
+  @Test
+  void crashBeforeLogTruncation_skipsRecordsInSnapshot() throws IOException {
+    Path dir = newDirectory();
+    Path wal = dir.resolve(DurableHashTable.WAL_FILE);
+    Path saved = dir.resolve("saved.wal");
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      table.put("a", 1);
+      table.put("a", 2);
+      table.remove("a");
+      Files.copy(wal, saved);
+      table.checkpoint();
+    }
+    // Snapshot renamed but the old log still there, as after a crash between the two steps
+    Files.move(saved, wal, StandardCopyOption.REPLACE_EXISTING);
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(0, table.replayedRecords());
+      assertEquals(3, table.lastLsn());
+      assertFalse(table.containsKey("a"));
+      table.put("b", 1);
+    }
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(1, table.replayedRecords());
+      assertEquals(1, table.get("b"));
+      assertFalse(table.containsKey("a"));
+    }
+    deleteAll(dir);
+  }
+
+  @Test
+  void concurrentWriters_shareGroupCommits() throws Exception {
+    Path dir = newDirectory();
+    int threads = 8;
+    int perThread = 500;
+    try (DurableHashTable<Vehicle, String> table =
+        DurableHashTable.open(dir, Vehicle.CODEC, Codec.STRING, DurableHashTable.Sync.FSYNC, 1 << 20)) {
+      Thread[] workers = new Thread[threads];
+      for (int t = 0; t < threads; t++) {
+        int base = t * perThread;
+        workers[t] = new Thread(() -> {
+          for (int i = base; i < base + perThread; i++) {
+            table.put(Vehicle.ofPlateCode(i), "owner" + i);
+          }
+        });
+        workers[t].start();
+      }
+      for (Thread w : workers) {
+        w.join();
+      }
+      assertEquals(threads * perThread, table.lastLsn());
+      assertTrue(table.flushes() <= table.lastLsn());
+    }
+    try (DurableHashTable<Vehicle, String> table = DurableHashTable.open(dir, Vehicle.CODEC, Codec.STRING)) {
+      assertEquals(threads * perThread, table.size());
+      assertEquals("owner1234", table.get(Vehicle.ofPlateCode(1234)));
+    }
+    deleteAll(dir);
+  }
+
+  @Test
+  void checkpointsDuringWrites_loseNothing() throws Exception {
+    Path dir = newDirectory();
+    int threads = 4;
+    int perThread = 500;
+    try (DurableHashTable<String, Integer> table =
+        DurableHashTable.open(dir, Codec.STRING, Codec.INTEGER, DurableHashTable.Sync.WRITE, 4096)) {
+      Thread[] workers = new Thread[threads];
+      for (int t = 0; t < threads; t++) {
+        int base = t * perThread;
+        workers[t] = new Thread(() -> {
+          for (int i = base; i < base + perThread; i++) {
+            table.put("k" + i, i);
+          }
+        });
+        workers[t].start();
+      }
+      // Snapshots taken while records are still buffered must not drop them
+      while (table.lastLsn() < threads * perThread) {
+        table.checkpoint();
+        assertTrue(table.get("k0") == null || table.get("k0") == 0);
+      }
+      for (Thread w : workers) {
+        w.join();
+      }
+      assertTrue(table.checkpoints() > 1);
+    }
+    try (DurableHashTable<String, Integer> table = open(dir)) {
+      assertEquals(threads * perThread, table.size());
+      assertEquals(threads * perThread, table.lastLsn());
+      for (int i = 0; i < threads * perThread; i++) {
+        assertEquals(i, table.get("k" + i));
+      }
+    }
+    deleteAll(dir);
+  }
+
+  @Test
+  void vehicleCodec_keepsPlateAndMeta() {
+    Vehicle v = new Vehicle("ABC123", "blå");
+    Vehicle copy = Vehicle.CODEC.decode(Vehicle.CODEC.encode(v));
+    assertEquals(v, copy);
+    assertEquals("ABC123", copy.regNumber());
+    assertEquals("blå", copy.meta());
+    assertNull(Vehicle.CODEC.decode(Vehicle.CODEC.encode(new Vehicle("ABC123"))).meta());
+    assertEquals("", Vehicle.CODEC.decode(Vehicle.CODEC.encode(new Vehicle("ABC123", ""))).meta());
+  }
+
+  @Test
+  void closedTable_rejectsWrites() throws IOException {
+    Path dir = newDirectory();
+    DurableHashTable<String, Integer> table = open(dir);
+    table.put("a", 1);
+    table.close();
+    assertThrows(IllegalStateException.class, () -> table.put("b", 2));
+    assertEquals(1, table.get("a"));
+    table.close(); // second close is a no-op
+    deleteAll(dir);
+  }
+}
@@ -0,0 +1,135 @@
+package Hashing;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringHashTableTest {
+
+  private long now = 1_000_000_000L;
+
+  private void advance(long millis) {
+    now += TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+
+  @Test
+  void entries_expire_after_write() {
+    ExpiringHashTable<String, Integer> ht = new ExpiringHashTable<>(100, TimeUnit.MILLISECONDS, false, () -> now);
+    ht.put("a", 1);
+    advance(50);
+    ht.put("b", 2);
+    assertEquals(1, ht.get("a"));
+
+    advance(60); // a is 110 ms old, b is 60 ms old
+    assertNull(ht.get("a"));
+    assertEquals(2, ht.get("b"));
+    assertEquals(1, ht.size());
+
+    advance(50);
+    assertEquals(0, ht.size());
+    assertEquals(2, ht.expirations());
+  }
+
+  @Test
+  void expire_after_access_extends_deadline() {
+    ExpiringHashTable<String, Integer> ht = new ExpiringHashTable<>(100, TimeUnit.MILLISECONDS, true, () -> now);
+    ht.put("a", 1);
+    for (int i = 0; i < 10; i++) {
+      advance(80);
+      assertEquals(1, ht.get("a"));
+    }
+    advance(101);
+    assertFalse(ht.containsKey("a"));
+    assertNull(ht.get("a"));
+  }
+
+  @Test
+  void per_entry_ttl_and_overwrite_reschedule() {
+    ExpiringHashTable<String, Integer> ht = new ExpiringHashTable<>(1, TimeUnit.SECONDS, false, () -> now);
+    ht.put("short", 1, 10, TimeUnit.MILLISECONDS);
+    ht.put("long", 2, 2, TimeUnit.HOURS);
+    ht.put("default", 3);
+
+    advance(20);
+    assertNull(ht.get("short"));
+    assertEquals(3, ht.put("default", 4)); // overwrite restarts the second
+    advance(900);
+    assertEquals(4, ht.get("default"));
+    advance(200);
+    assertNull(ht.get("default"));
+
+    advance(TimeUnit.MINUTES.toMillis(119));
+    assertEquals(2, ht.get("long"));
+    advance(TimeUnit.MINUTES.toMillis(2));
+    assertNull(ht.get("long"));
+    assertEquals(0, ht.size());
+  }
+
+  @Test
+  void wheel_reclaims_many_entries_without_lookups() {
+    ExpiringHashTable<Integer, Integer> ht = new ExpiringHashTable<>(5, TimeUnit.SECONDS, false, () -> now);
+    for (int i = 0; i < 10_000; i++) {
+      ht.put(i, i, 1 + i % 5_000, TimeUnit.MILLISECONDS);
+    }
+    advance(2_500);
+    ht.cleanUp();
+    assertEquals(5_000, ht.size(), 10);
+    advance(2_600);
+    assertEquals(0, ht.size());
+    assertEquals(10_000, ht.expirations());
+
+    assertNull(ht.remove(1));
+    assertThrows(IllegalArgumentException.class, () -> ht.put(1, 1, 0, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void wheel_reclaims_entries_when_clock_crosses_zero() {
+    // System.nanoTime may be negative; the wheel must still move forward across zero
+    now = -TimeUnit.MILLISECONDS.toNanos(50);
+    ExpiringHashTable<Integer, Integer> ht = new ExpiringHashTable<>(100, TimeUnit.MILLISECONDS, false, () -> now);
+    for (int i = 0; i < 1_000; i++) {
+      ht.put(i, i, 1 + i % 100, TimeUnit.MILLISECONDS);
+    }
+    advance(40);
+    ht.cleanUp();
+    assertEquals(600, ht.size(), 20);
+    advance(70); // now is 60 ms past zero
+    ht.cleanUp();
+    assertEquals(0, ht.size());
+    assertEquals(1_000, ht.expirations());
+  }
+
+  @Test
+  void entries_shorter_than_a_wheel_tick_are_reclaimed() {
+    // Wheel ticks are 2^20 ns from the table's creation; every deadline here falls inside the first one
+    ExpiringHashTable<Integer, Integer> ht = new ExpiringHashTable<>(1, TimeUnit.SECONDS, false, () -> now);
+    for (int i = 0; i < 10; i++) {
+      ht.put(i, i, 100 + 50 * i, TimeUnit.MICROSECONDS);
+    }
+    now += TimeUnit.MICROSECONDS.toNanos(500);
+    ht.cleanUp();
+    assertEquals(1, ht.size()); // only the 550 us entry is left
+    assertEquals(9, ht.expirations());
+    assertFalse(ht.containsKey(8));
+    assertEquals(9, ht.get(9));
+
+    now += TimeUnit.MICROSECONDS.toNanos(400);
+    assertEquals(0, ht.size());
+    assertEquals(10, ht.expirations());
+  }
+
+  @Test
+  void clock_jump_spreads_expiry_over_calls() {
+    ExpiringHashTable<Integer, Integer> ht = new ExpiringHashTable<>(1, TimeUnit.SECONDS, false, () -> now);
+    for (int i = 0; i < 1_000; i++) {
+      ht.put(i, i);
+    }
+    advance(TimeUnit.HOURS.toMillis(1));
+    assertNull(ht.get(0), "a due entry is absent before the wheel reclaims it");
+    assertTrue(ht.expirations() <= ExpiringHashTable.EXPIRE_BATCH + 1, "expired " + ht.expirations());
+    assertFalse(ht.containsKey(500));
+    assertTrue(ht.expirations() <= 2 * ExpiringHashTable.EXPIRE_BATCH + 2, "expired " + ht.expirations());
+    assertEquals(0, ht.size());
+    assertEquals(1_000, ht.expirations());
+  }
+}
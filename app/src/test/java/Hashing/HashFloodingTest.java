@@ -0,0 +1,51 @@
+package Hashing;
+
+import Vehicles.Vehicle;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashFloodingTest {
+
+  @Test
+  void adversarial_plates_fill_one_chain_without_seeding() {
+    List<Vehicle> plates = HashFloodingBenchmark.collidingPlates(1_000);
+    assertEquals(1_000, plates.size());
+
+    HashTable<Vehicle, Integer> plain = new HashTable<>(16, 0.75, HashTable.KeyHashing.HASH_CODE);
+    for (Vehicle v : plates)
+      plain.put(v, 1);
+    assertEquals(1_000, plain.stats().maxChain(), "every plate should share one bucket");
+  }
+
+  @Test
+  void seeded_table_keeps_chains_short_for_adversarial_plates() {
+    List<Vehicle> plates = HashFloodingBenchmark.collidingPlates(1_000);
+    HashTable<Vehicle, Integer> seeded = new HashTable<>(16, 0.75);
+    assertEquals(HashTable.KeyHashing.SEEDED, seeded.keyHashing());
+    for (Vehicle v : plates)
+      seeded.put(v, 1);
+
+    assertEquals(1_000, seeded.size());
+    assertTrue(seeded.stats().maxChain() <= 8, "max chain " + seeded.stats().maxChain());
+    assertTrue(seeded.stats().uniformity() < 2.0);
+    for (Vehicle v : plates)
+      assertEquals(1, seeded.get(v));
+  }
+
+  @Test
+  void seeded_string_keys_spread_even_with_equal_hash_codes() {
+    // "Aa" and "BB" have the same String.hashCode, so do all concatenations of them
+    List<String> keys = HashFloodingBenchmark.collidingStrings(10);
+    assertEquals(1, keys.stream().mapToInt(String::hashCode).distinct().count());
+
+    HashTable<String, Integer> seeded = new HashTable<>();
+    HashTable<String, Integer> plain = new HashTable<>(16, 0.75, HashTable.KeyHashing.HASH_CODE);
+    for (String k : keys) {
+      seeded.put(k, 1);
+      plain.put(k, 1);
+    }
+    assertEquals(keys.size(), plain.stats().maxChain());
+    assertTrue(seeded.stats().maxChain() <= 8, "max chain " + seeded.stats().maxChain());
+  }
+}
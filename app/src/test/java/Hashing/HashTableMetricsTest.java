@@ -0,0 +1,80 @@
+package Hashing;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashTableMetricsTest {
+
+  @Test
+  void metrics_are_off_by_default() {
+    HashTable<String, Integer> ht = new HashTable<>();
+    ht.put("a", 1);
+    assertNull(ht.metrics());
+    ht.disableMetrics(); // no-op
+  }
+
+  @Test
+  void counters_track_operations_and_are_exported_over_jmx() throws Exception {
+    HashTable<HashTableTest.BadKey, Integer> ht = new HashTable<>(4, 0.75);
+    HashTableMetrics m = ht.enableMetrics("metrics-test");
+    try {
+      ht.put(new HashTableTest.BadKey(1), 1);
+      ht.put(new HashTableTest.BadKey(2), 2); // same bucket
+      ht.put(new HashTableTest.BadKey(2), 3); // overwrite
+      ht.get(new HashTableTest.BadKey(1));
+      ht.get(new HashTableTest.BadKey(9));
+      ht.containsKey(new HashTableTest.BadKey(2));
+      ht.remove(new HashTableTest.BadKey(1));
+
+      assertEquals(3, m.getPuts());
+      assertEquals(1, m.getCollisions());
+      assertEquals(3, m.getGets());
+      assertEquals(2, m.getHits());
+      assertEquals(1, m.getMisses());
+      assertEquals(1, m.getRemoves());
+
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName("Hashing:type=HashTable,name=\"metrics-test\"");
+      assertEquals(3L, server.getAttribute(name, "Puts"));
+      assertEquals(1, server.getAttribute(name, "Size"));
+      assertThrows(IllegalStateException.class, () -> ht.enableMetrics("again"));
+    } finally {
+      ht.disableMetrics();
+    }
+    assertNull(ht.metrics());
+  }
+
+  @Test
+  void rehash_and_long_probe_events_are_recorded() throws Exception {
+    Path file = Files.createTempFile("hashtable", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(RehashEvent.class);
+      recording.enable(LongProbeEvent.class);
+      recording.start();
+
+      HashTable<HashTableTest.BadKey, Integer> ht = new HashTable<>(4, 0.75);
+      for (int i = 0; i < 2 * HashTable.LONG_PROBE_THRESHOLD; i++)
+        ht.put(new HashTableTest.BadKey(i), i);
+      ht.get(new HashTableTest.BadKey(2 * HashTable.LONG_PROBE_THRESHOLD - 1));
+
+      recording.stop();
+      recording.dump(file);
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("Hashing.Rehash")
+          && e.getInt("newCapacity") > e.getInt("oldCapacity")));
+      assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("Hashing.LongProbe")
+          && e.getBoolean("found")));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
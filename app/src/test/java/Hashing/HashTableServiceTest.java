@@ -0,0 +1,180 @@
+package Hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashTableServiceTest {
+
+  /** Key whose equals can be made to block, to hold a lookup or a write in the table. */
+  private static final class GatedKey {
+    final int id;
+    final CountDownLatch entered;
+    final CountDownLatch release;
+
+    GatedKey(int id) {
+      this(id, null, null);
+    }
+
+    GatedKey(int id, CountDownLatch entered, CountDownLatch release) {
+      this.id = id;
+      this.entered = entered;
+      this.release = release;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (entered != null) {
+        entered.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return o instanceof GatedKey && ((GatedKey) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return id;
+    }
+  }
+
+  @Test
+  void put_get_remove_roundTrip() throws Exception {
+    try (HashTableService<String, Integer> service = new HashTableService<>()) {
+      assertNull(service.put("a", 1));
+      assertEquals(1, service.put("a", 2));
+      assertEquals(2, service.get("a"));
+      assertEquals(1, service.size());
+      assertEquals(2, service.remove("a"));
+      assertNull(service.get("a"));
+      assertNull(service.remove("a"));
+      assertEquals(0, service.size());
+    }
+  }
+
+  @Test
+  void nullKey_isRejected() throws Exception {
+    try (HashTableService<String, Integer> service = new HashTableService<>()) {
+      assertThrows(NullPointerException.class, () -> service.get(null));
+      assertThrows(NullPointerException.class, () -> service.put(null, 1));
+    }
+  }
+
+  @Test
+  void manyVirtualThreads_allWritesApplied() throws Exception {
+    int callers = 10_000;
+    try (HashTableService<Integer, Integer> service = new HashTableService<>()) {
+      try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (int i = 0; i < callers; i++) {
+          int key = i;
+          executor.submit(() -> {
+            service.put(key, key);
+            assertEquals(key, service.get(key)); // a completed write is visible to its caller
+          });
+        }
+      }
+      assertEquals(callers, service.size());
+      assertEquals(callers, service.appliedWrites());
+      for (int i = 0; i < callers; i++) {
+        assertEquals(i, service.get(i));
+      }
+    }
+  }
+
+  @Test
+  void concurrentGetsOfOneKey_areCoalesced() throws Exception {
+    HashTable<GatedKey, String> table = new HashTable<>();
+    table.put(new GatedKey(7), "seven");
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try (HashTableService<GatedKey, String> service = new HashTableService<>(table, 16);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      Future<String> first = executor.submit(() -> service.get(new GatedKey(7, entered, release)));
+      entered.await(); // the first lookup is now inside the table
+
+      int waiters = 100;
+      List<Future<String>> others = new ArrayList<>();
+      for (int i = 0; i < waiters; i++) {
+        others.add(executor.submit(() -> service.get(new GatedKey(7))));
+      }
+      while (service.coalescedGets() < waiters) {
+        Thread.onSpinWait();
+      }
+      release.countDown();
+
+      assertEquals("seven", first.get());
+      for (Future<String> f : others) {
+        assertEquals("seven", f.get());
+      }
+      assertEquals(1, service.lookups());
+      assertEquals(waiters, service.coalescedGets());
+    }
+  }
+
+  @Test
+  void queuedWrites_areAppliedInOneBatch() throws Exception {
+    HashTable<GatedKey, Integer> table = new HashTable<>();
+    table.put(new GatedKey(0), 0);
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    try (HashTableService<GatedKey, Integer> service = new HashTableService<>(table, 256)) {
+      // Holds the writer inside the table until the other writes are queued
+      CompletableFuture<Integer> blocker = service.putAsync(new GatedKey(0, entered, release), -1);
+      entered.await();
+
+      List<CompletableFuture<Integer>> writes = new ArrayList<>();
+      for (int i = 1; i <= 100; i++) {
+        writes.add(service.putAsync(new GatedKey(i), i));
+      }
+      release.countDown();
+
+      assertEquals(0, blocker.get());
+      for (CompletableFuture<Integer> w : writes) {
+        assertNull(w.get());
+      }
+      assertEquals(101, service.appliedWrites());
+      assertEquals(2, service.batches());
+      assertEquals(101, service.size());
+    }
+  }
+
+  @Test
+  void getAfterWrite_neverSeesOlderValue() throws Exception {
+    try (HashTableService<String, Integer> service = new HashTableService<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+      service.put("k", 0);
+      // Readers keep a lookup of "k" in flight while the writer moves the value forward
+      for (int r = 0; r < 1000; r++) {
+        executor.submit(() -> {
+          for (int i = 0; i < 200; i++) {
+            service.get("k");
+          }
+        });
+      }
+      for (int v = 1; v <= 500; v++) {
+        service.put("k", v);
+        assertEquals(v, service.get("k"));
+      }
+    }
+  }
+
+  @Test
+  void close_rejectsLaterWrites_butKeepsEarlierOnes() throws Exception {
+    HashTableService<String, Integer> service = new HashTableService<>();
+    CompletableFuture<Integer> queued = service.putAsync("a", 1);
+    service.close();
+    assertNull(queued.get());
+    assertEquals(1, service.get("a"));
+    assertThrows(IllegalStateException.class, () -> service.put("b", 2));
+    service.close(); // second close is a no-op
+  }
+}
@@ -1,5 +1,10 @@
 package Hashing;
 
+import java.util.HashSet;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -65,6 +70,190 @@ class HashTableTest {
     assertTrue(ht.collisions() >= 2);
   }
 
+  @Test
+  void parallelForEach_visits_every_entry_once() {
+    HashTable<Integer, Integer> ht = new HashTable<>();
+    for (int i = 0; i < 10_000; i++)
+      ht.put(i, i);
+
+    LongAdder sum = new LongAdder();
+    LongAdder count = new LongAdder();
+    ht.parallelForEach(1, (k, v) -> {
+      sum.add(v);
+      count.increment();
+    });
+    assertEquals(10_000, count.sum());
+    assertEquals(10_000L * 9_999 / 2, sum.sum());
+  }
+
+  @Test
+  void reduce_and_search_match_sequential_results() {
+    HashTable<String, Integer> ht = new HashTable<>();
+    for (int i = 0; i < 5_000; i++)
+      ht.put("k" + i, i);
+
+    Integer parallelMax = ht.reduce(1, (k, v) -> v, Math::max);
+    Integer sequentialMax = ht.reduce(Long.MAX_VALUE, (k, v) -> v, Math::max);
+    Integer matches = ht.reduce(1, (k, v) -> k.equals("k7") || k.equals("k8") ? 1 : null, Integer::sum);
+    assertEquals(4_999, parallelMax);
+    assertEquals(4_999, sequentialMax);
+    assertEquals(2, matches);
+    assertEquals("k42", ht.search(1, (k, v) -> v == 42 ? k : null));
+    assertNull(ht.search(1, (k, v) -> v < 0 ? k : null));
+    assertNull(new HashTable<String, Integer>().reduce(1, (k, v) -> v, Integer::sum));
+  }
+
+  @Test
+  void computeIfAbsent_only_computes_missing_keys() {
+    HashTable<String, Integer> ht = new HashTable<>();
+    ht.put("a", 1);
+    assertEquals(1, ht.computeIfAbsent("a", k -> 99));
+    assertEquals(3, ht.computeIfAbsent("abc", String::length));
+    assertEquals(3, ht.get("abc"));
+    assertNull(ht.computeIfAbsent("none", k -> null));
+    assertFalse(ht.containsKey("none"));
+    assertEquals(2, ht.size());
+  }
+
+  @Test
+  void spliterator_splits_cover_all_entries() {
+    HashTable<Integer, Integer> ht = new HashTable<>();
+    for (int i = 0; i < 1_000; i++)
+      ht.put(i, i);
+
+    Spliterator<HashTable.Entry<Integer, Integer>> right = ht.spliterator();
+    Spliterator<HashTable.Entry<Integer, Integer>> left = right.trySplit();
+    assertNotNull(left);
+    Set<Integer> seen = new HashSet<>();
+    left.forEachRemaining(e -> assertTrue(seen.add(e.key)));
+    right.forEachRemaining(e -> assertTrue(seen.add(e.key)));
+    assertEquals(1_000, seen.size());
+
+    long parallelCount = StreamSupport.stream(ht.spliterator(), true).count();
+    assertEquals(1_000, parallelCount);
+  }
+
+  @Test
+  void putAll_and_getAll_match_single_calls() {
+    HashTable<String, Integer> ht = new HashTable<>(4, 0.75);
+    ht.put("k0", -1);
+    String[] keys = new String[1_000];
+    Integer[] values = new Integer[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "k" + (i % 900); // last 100 keys overwrite earlier ones
+      values[i] = i;
+    }
+    ht.putAll(keys, values);
+    assertEquals(900, ht.size());
+    assertEquals(900, ht.get("k0"));
+    assertEquals(899, ht.get("k899"));
+    assertTrue(ht.currentLoadFactor() <= 0.75);
+
+    String[] probes = { "k1", "missing", "k950", "k899" };
+    Integer[] out = { 7, 7, 7, 7 };
+    assertEquals(2, ht.getAll(probes, out));
+    assertArrayEquals(new Integer[] { 901, null, null, 899 }, out);
+  }
+
+  @Test
+  void putAll_rejects_mismatched_or_null_keys() {
+    HashTable<String, Integer> ht = new HashTable<>();
+    assertThrows(IllegalArgumentException.class, () -> ht.putAll(new String[2], new Integer[1]));
+    assertThrows(NullPointerException.class, () -> ht.putAll(new String[] { "a", null }, new Integer[2]));
+    assertEquals(0, ht.size());
+  }
+
+  @Test
+  void ensureCapacity_presizes_without_later_rehash() {
+    HashTable<Integer, Integer> ht = new HashTable<>(16, 0.75);
+    ht.ensureCapacity(20_000);
+    int presized = ht.capacity();
+    assertTrue(presized >= 20_000 / 0.75);
+    for (int i = 0; i < 20_000; i++)
+      ht.put(i, i);
+    assertEquals(presized, ht.capacity());
+    assertThrows(IllegalArgumentException.class, () -> ht.ensureCapacity(-1));
+  }
+
+  @Test
+  void remove_shrinks_and_clear_resets_capacity() {
+    HashTable<Integer, Integer> ht = new HashTable<>(16, 0.75);
+    for (int i = 0; i < 10_000; i++)
+      ht.put(i, i);
+    int grown = ht.capacity();
+    for (int i = 0; i < 9_990; i++)
+      ht.remove(i);
+    assertTrue(ht.capacity() < grown / 100);
+    assertTrue(ht.capacity() >= 16);
+    for (int i = 9_990; i < 10_000; i++)
+      assertEquals(i, ht.get(i));
+
+    for (int i = 0; i < 10_000; i++)
+      ht.put(i, i);
+    ht.clear();
+    assertEquals(16, ht.capacity());
+    assertTrue(ht.isEmpty());
+  }
+
+  @Test
+  void trimToSize_and_disabled_shrink() {
+    HashTable<Integer, Integer> ht = new HashTable<>(1024, 0.75, 0.0);
+    for (int i = 0; i < 3; i++)
+      ht.put(i, i);
+    ht.remove(0);
+    assertEquals(1024, ht.capacity());
+    ht.trimToSize();
+    assertEquals(3, ht.capacity());
+    assertEquals(2, ht.get(2));
+    assertThrows(IllegalArgumentException.class, () -> new HashTable<String, String>(16, 0.75, 0.5));
+  }
+
+  @Test
+  void stats_track_bucket_sizes_through_puts_removes_and_rehash() {
+    HashTable<Integer, Integer> ht = new HashTable<>(8, 0.75);
+    java.util.Random rng = new java.util.Random(3);
+    for (int step = 0; step < 20_000; step++) {
+      int key = rng.nextInt(4_000);
+      if (rng.nextInt(3) == 0)
+        ht.remove(key);
+      else
+        ht.put(key, key);
+      if (step % 997 == 0)
+        assertStatsMatchBuckets(ht);
+    }
+    assertStatsMatchBuckets(ht);
+    ht.trimToSize();
+    assertStatsMatchBuckets(ht);
+    ht.clear();
+    assertStatsMatchBuckets(ht);
+  }
+
+  @Test
+  void stats_chiSquared_flags_clustering() {
+    HashTable<Integer, Integer> good = new HashTable<>();
+    HashTable<BadKey, Integer> bad = new HashTable<>();
+    for (int i = 0; i < 1_000; i++) {
+      good.put(i * 7919, i);
+      bad.put(new BadKey(i), i);
+    }
+    assertTrue(good.stats().uniformity() < 2.0, "uniformity " + good.stats().uniformity());
+    assertTrue(bad.stats().uniformity() > 100.0);
+    assertEquals(1_000, bad.stats().maxChain());
+    assertEquals(1, bad.stats().bucketsWithChainLength(1_000));
+  }
+
+  private static void assertStatsMatchBuckets(HashTable<?, ?> ht) {
+    ChainStats live = ht.stats();
+    ChainStats scanned = ChainStats.of(ht.bucketSizes());
+    assertEquals(scanned.buckets(), live.buckets());
+    assertEquals(scanned.entries(), live.entries());
+    assertEquals(scanned.nonEmptyBuckets(), live.nonEmptyBuckets());
+    assertEquals(scanned.maxChain(), live.maxChain());
+    assertEquals(scanned.variance(), live.variance(), 1e-9);
+    assertEquals(scanned.chiSquared(), live.chiSquared(), 1e-6);
+    assertArrayEquals(scanned.histogram(), live.histogram());
+  }
+
   static final class BadKey {
     final int id;
 
@@ -0,0 +1,260 @@
+package Hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MembershipFilterTest {
+
+  /** Share of keys in [from, to) the filter claims to contain. */
+  private static double falsePositiveRate(MembershipFilter<Integer> filter, int from, int to) {
+    int hits = 0;
+    for (int i = from; i < to; i++) {
+      if (filter.mightContain(i)) {
+        hits++;
+      }
+    }
+    return (double) hits / (to - from);
+  }
+
+  @Test
+  void bloom_has_no_false_negatives_and_meets_rate() {
+    BlockedBloomFilter<Integer> filter = new BlockedBloomFilter<>(20_000, 0.01);
+    for (int i = 0; i < 20_000; i++) {
+      assertTrue(filter.add(i));
+    }
+    for (int i = 0; i < 20_000; i++) {
+      assertTrue(filter.mightContain(i), "false negative for " + i);
+    }
+    double rate = falsePositiveRate(filter, 1_000_000, 1_100_000);
+    assertTrue(rate < 0.02, "false-positive rate " + rate);
+    assertFalse(filter.supportsRemove());
+    assertThrows(UnsupportedOperationException.class, () -> filter.remove(1));
+
+    filter.clear();
+    assertEquals(0.0, falsePositiveRate(filter, 0, 20_000), 0.0);
+  }
+
+  @Test
+  void cuckoo_has_no_false_negatives_and_meets_rate() {
+    CuckooFilter<Integer> filter = new CuckooFilter<>(20_000, 0.01);
+    assertEquals(10, filter.fingerprintBits());
+    for (int i = 0; i < 20_000; i++) {
+      assertTrue(filter.add(i));
+    }
+    assertEquals(20_000, filter.count());
+    for (int i = 0; i < 20_000; i++) {
+      assertTrue(filter.mightContain(i), "false negative for " + i);
+    }
+    double rate = falsePositiveRate(filter, 1_000_000, 1_100_000);
+    assertTrue(rate < 0.02, "false-positive rate " + rate);
+  }
+
+  @Test
+  void cuckoo_remove_forgets_keys() {
+    CuckooFilter<Integer> filter = new CuckooFilter<>(10_000, 0.001);
+    for (int i = 0; i < 10_000; i++) {
+      filter.add(i);
+    }
+    for (int i = 0; i < 10_000; i += 2) {
+      assertTrue(filter.remove(i));
+    }
+    assertEquals(5_000, filter.count());
+    for (int i = 1; i < 10_000; i += 2) {
+      assertTrue(filter.mightContain(i), "false negative for " + i);
+    }
+    double rate = falsePositiveRate(filter, 0, 10_000) - 0.5;
+    assertTrue(rate < 0.01, "removed keys still reported: " + rate);
+  }
+
+  @Test
+  void cuckoo_refuses_keys_when_full() {
+    CuckooFilter<Integer> filter = new CuckooFilter<>(64, 0.01);
+    int added = 0;
+    while (filter.add(added)) {
+      added++;
+      assertTrue(added < 10_000, "filter never filled up");
+    }
+    assertTrue(added >= 64, "only " + added + " keys fit");
+    for (int i = 0; i < added; i++) {
+      assertTrue(filter.mightContain(i), "false negative for " + i);
+    }
+    // Removals make room again
+    for (int i = 0; i < added; i++) {
+      assertTrue(filter.remove(i));
+    }
+    assertEquals(0, filter.count());
+    assertTrue(filter.add(-1));
+  }
+
+  @Test
+  void invalid_arguments_throw() {
+    assertThrows(IllegalArgumentException.class, () -> new BlockedBloomFilter<>(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> new BlockedBloomFilter<>(10, 0));
+    assertThrows(IllegalArgumentException.class, () -> new CuckooFilter<>(10, 1));
+    assertThrows(IllegalArgumentException.class, () -> new CuckooFilter<>(10, 1e-6));
+  }
+
+  @Test
+  void filtered_table_answers_misses_from_filter() {
+    FilteredHashTable<Integer, String> table =
+        new FilteredHashTable<>(new HashTable<>(), CuckooFilter.factory(0.01));
+    for (int i = 0; i < 5_000; i++) {
+      assertNull(table.put(i, "v" + i));
+    }
+    assertEquals(5_000, table.size());
+    assertTrue(table.rebuilds() > 0);
+
+    for (int i = 0; i < 5_000; i++) {
+      assertEquals("v" + i, table.get(i));
+    }
+    assertEquals(0, table.filteredLookups());
+    assertEquals(0, table.falsePositives());
+
+    table.resetStats();
+    for (int i = 100_000; i < 110_000; i++) {
+      assertFalse(table.containsKey(i));
+    }
+    assertEquals(10_000, table.lookups());
+    assertEquals(10_000, table.filteredLookups() + table.falsePositives());
+    assertTrue(table.negativeRate() > 0.97, table.toString());
+    assertTrue(table.falsePositiveRate() < 0.03, table.toString());
+  }
+
+  @Test
+  void filtered_table_forgets_removed_keys() {
+    FilteredHashTable<Integer, String> cuckoo =
+        new FilteredHashTable<>(new HashTable<>(), CuckooFilter.factory(0.001));
+    FilteredHashTable<Integer, String> bloom =
+        new FilteredHashTable<>(new HashTable<>(), BlockedBloomFilter.factory(0.001));
+    for (int i = 0; i < 2_000; i++) {
+      cuckoo.put(i, "v");
+      bloom.put(i, "v");
+    }
+    for (int i = 0; i < 2_000; i++) {
+      assertEquals("v", cuckoo.remove(i));
+      assertEquals("v", bloom.remove(i));
+    }
+    cuckoo.resetStats();
+    bloom.resetStats();
+    for (int i = 0; i < 2_000; i++) {
+      assertNull(cuckoo.get(i));
+      assertNull(bloom.get(i));
+    }
+    // The cuckoo filter dropped each key; the Bloom filter was rebuilt once removals piled up,
+    // so it still holds at most the last MIN_STALE_REMOVALS of them
+    assertTrue(cuckoo.negativeRate() > 0.99, cuckoo.toString());
+    assertTrue(bloom.negativeRate() >= 1 - FilteredHashTable.MIN_STALE_REMOVALS / 2_000.0, bloom.toString());
+  }
+
+  @Test
+  void bloom_front_end_keeps_target_rate_under_removals() {
+    FilteredHashTable<Integer, Integer> table =
+        new FilteredHashTable<>(new HashTable<>(), BlockedBloomFilter.factory(0.01), 0.01);
+    Random rnd = new Random(3);
+    for (int i = 0; i < 5_000; i++) {
+      table.put(rnd.nextInt(10_000), i);
+    }
+    table.resetStats();
+    for (int i = 0; i < 200_000; i++) {
+      int key = rnd.nextInt(10_000);
+      switch (rnd.nextInt(3)) {
+        case 0:
+          table.put(key, i);
+          break;
+        case 1:
+          table.remove(key);
+          break;
+        default:
+          table.get(key);
+      }
+    }
+    assertTrue(table.falsePositiveRate() < 0.02, table.toString());
+  }
+
+  @Test
+  void small_bloom_front_end_is_not_rebuilt_on_every_removal() {
+    FilteredHashTable<Integer, Integer> table =
+        new FilteredHashTable<>(new HashTable<>(), BlockedBloomFilter.factory(0.01));
+    for (int i = 0; i < 50; i++) {
+      table.put(i, i);
+    }
+    int rebuilds = table.rebuilds();
+    // Half of 50 keys is below the floor, so the filter absorbs 64 removals
+    for (int i = 0; i < FilteredHashTable.MIN_STALE_REMOVALS; i++) {
+      table.remove(i % 50);
+      table.put(i % 50, i);
+    }
+    assertEquals(rebuilds, table.rebuilds());
+    table.remove(0);
+    assertEquals(rebuilds + 1, table.rebuilds());
+  }
+
+  @Test
+  void filtered_table_takes_strings_with_equal_hash_codes() {
+    // Concatenations of "Aa" and "BB" all share one String.hashCode, see HashFloodingTest
+    List<String> keys = new ArrayList<>();
+    for (int mask = 0; mask < 1 << 10; mask++) {
+      StringBuilder sb = new StringBuilder();
+      for (int bit = 0; bit < 10; bit++) {
+        sb.append((mask >> bit & 1) == 0 ? "Aa" : "BB");
+      }
+      keys.add(sb.toString());
+    }
+    FilteredHashTable<String, Integer> table =
+        new FilteredHashTable<>(new HashTable<>(), CuckooFilter.factory(0.01));
+    for (int i = 0; i < keys.size(); i++) {
+      assertNull(table.put(keys.get(i), i));
+    }
+    assertEquals(keys.size(), table.size());
+    assertEquals(0, table.fallbacks());
+    assertTrue(table.filter() instanceof CuckooFilter);
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(i, table.get(keys.get(i)));
+    }
+    for (String key : keys) {
+      table.remove(key);
+    }
+    table.resetStats();
+    for (String key : keys) {
+      assertNull(table.get(key));
+    }
+    assertTrue(table.negativeRate() > 0.95, table.toString());
+  }
+
+  /** Key whose hash code is the same for every instance. */
+  private record SameHash(int id) {
+    @Override
+    public int hashCode() {
+      return 7;
+    }
+  }
+
+  @Test
+  void filtered_table_falls_back_to_bloom_when_cuckoo_keeps_refusing() {
+    FilteredHashTable<SameHash, Integer> table =
+        new FilteredHashTable<>(new HashTable<>(), CuckooFilter.factory(0.01));
+    for (int i = 0; i < 100; i++) {
+      assertNull(table.put(new SameHash(i), i));
+    }
+    assertEquals(100, table.size());
+    assertTrue(table.fallbacks() > 0);
+    assertTrue(table.filter() instanceof BlockedBloomFilter, table.toString());
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i, table.get(new SameHash(i)));
+    }
+  }
+
+  @Test
+  void filtered_table_counts_null_values_as_hits() {
+    FilteredHashTable<String, String> table =
+        new FilteredHashTable<>(new HashTable<>(), BlockedBloomFilter.factory(0.01));
+    table.put("a", null);
+    assertNull(table.get("a"));
+    assertTrue(table.containsKey("a"));
+    assertEquals(0, table.falsePositives());
+    assertEquals(0, table.filteredLookups());
+  }
+}
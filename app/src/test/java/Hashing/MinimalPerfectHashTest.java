@@ -0,0 +1,62 @@
+package Hashing;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinimalPerfectHashTest {
+
+  private static long[] distinctKeys(int n, long seed) {
+    SplittableRandom rng = new SplittableRandom(seed);
+    Set<Long> seen = new HashSet<>();
+    long[] keys = new long[n];
+    int i = 0;
+    while (i < n) {
+      long k = rng.nextLong();
+      if (seen.add(k))
+        keys[i++] = k;
+    }
+    return keys;
+  }
+
+  @Test
+  void every_key_gets_a_distinct_slot_in_range() {
+    long[] keys = distinctKeys(100_000, 1);
+    MinimalPerfectHash mphf = MinimalPerfectHash.build(keys);
+    boolean[] used = new boolean[keys.length];
+    for (long k : keys) {
+      int slot = mphf.slot(k);
+      assertTrue(slot >= 0 && slot < keys.length);
+      assertFalse(used[slot], "slot used twice: " + slot);
+      used[slot] = true;
+    }
+    assertTrue(mphf.bitsPerKey() < 5.0, "bits per key " + mphf.bitsPerKey());
+  }
+
+  @Test
+  void empty_and_duplicate_key_sets() {
+    MinimalPerfectHash empty = MinimalPerfectHash.build(new long[0]);
+    assertEquals(0, empty.size());
+    assertEquals(-1, empty.slot(42));
+    assertThrows(IllegalArgumentException.class, () -> MinimalPerfectHash.build(new long[] { 1, 2, 1 }));
+  }
+
+  @Test
+  void index_returns_values_and_rejects_unknown_keys() {
+    String[] keys = new String[5_000];
+    Integer[] values = new Integer[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "key-" + i;
+      values[i] = i;
+    }
+    PerfectHashIndex<String, Integer> index = PerfectHashIndex.build(keys, values, s -> Long.parseLong(s.substring(4)));
+    assertEquals(keys.length, index.size());
+    for (int i = 0; i < keys.length; i++)
+      assertEquals(i, index.get(keys[i]));
+    for (int i = keys.length; i < keys.length + 1_000; i++)
+      assertNull(index.get("key-" + i));
+    assertFalse(index.containsKey("key--1"));
+  }
+}
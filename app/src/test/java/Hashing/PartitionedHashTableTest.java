@@ -0,0 +1,121 @@
+package Hashing;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionedHashTableTest {
+
+  @Test
+  void put_get_remove_roundTrip() throws Exception {
+    try (PartitionedHashTable<String, Integer> table = new PartitionedHashTable<>(4, 16);
+        PartitionedHashTable<String, Integer>.Session session = table.openSession()) {
+      assertNull(session.put("a", 1));
+      assertEquals(1, session.put("a", 2));
+      assertEquals(2, session.get("a"));
+      assertEquals(2, session.remove("a"));
+      assertNull(session.get("a"));
+      assertNull(session.remove("a"));
+    }
+  }
+
+  @Test
+  void shardOf_isStableAndInRange() throws Exception {
+    try (PartitionedHashTable<Integer, Integer> table = new PartitionedHashTable<>(5, 16)) {
+      int[] perShard = new int[5];
+      for (int i = 0; i < 10_000; i++) {
+        int shard = table.shardOf(i);
+        assertTrue(shard >= 0 && shard < 5);
+        assertEquals(shard, table.shardOf(Integer.valueOf(i)));
+        perShard[shard]++;
+      }
+      for (int count : perShard) {
+        assertTrue(count > 1500, "sequential keys should spread over every shard");
+      }
+    }
+  }
+
+  @Test
+  void asyncOpsOfOneSession_applyInIssueOrder() throws Exception {
+    try (PartitionedHashTable<Integer, Integer> table = new PartitionedHashTable<>(3, 8);
+        PartitionedHashTable<Integer, Integer>.Session session = table.openSession()) {
+      // More operations than fit in a queue, so the session also has to wait for space
+      List<CompletableFuture<Integer>> gets = new ArrayList<>();
+      for (int i = 0; i < 1000; i++) {
+        session.putAsync(i % 10, i);
+        gets.add(session.getAsync(i % 10));
+      }
+      for (int i = 0; i < 1000; i++) {
+        assertEquals(i, gets.get(i).get());
+      }
+    }
+  }
+
+  @Test
+  void manyProducers_scanAndReduceMergeAllShards() throws Exception {
+    int producers = 4;
+    int perProducer = 5_000;
+    try (PartitionedHashTable<Integer, Integer> table = new PartitionedHashTable<>(4, 64)) {
+      Thread[] threads = new Thread[producers];
+      for (int p = 0; p < producers; p++) {
+        int base = p * perProducer;
+        threads[p] = new Thread(() -> {
+          try (PartitionedHashTable<Integer, Integer>.Session session = table.openSession()) {
+            List<CompletableFuture<Integer>> pending = new ArrayList<>();
+            for (int i = base; i < base + perProducer; i++) {
+              pending.add(session.putAsync(i, i));
+            }
+            pending.forEach(CompletableFuture::join);
+          }
+        });
+        threads[p].start();
+      }
+      for (Thread t : threads) {
+        t.join();
+      }
+
+      int n = producers * perProducer;
+      assertEquals(n, table.size());
+      try (PartitionedHashTable<Integer, Integer>.Session session = table.openSession()) {
+        List<HashTable.Entry<Integer, Integer>> even = session.scan((k, v) -> k % 2 == 0);
+        assertEquals(n / 2, even.size());
+        Set<Integer> seen = new HashSet<>();
+        for (HashTable.Entry<Integer, Integer> e : even) {
+          assertEquals(e.key, e.value);
+          assertTrue(seen.add(e.key));
+        }
+
+        Long sum = session.reduce((k, v) -> (long) v, Long::sum);
+        assertEquals((long) n * (n - 1) / 2, sum);
+        assertNull(session.reduce((k, v) -> null, (a, b) -> a));
+      }
+    }
+  }
+
+  @Test
+  void failingOperation_failsOnlyItsFuture() throws Exception {
+    try (PartitionedHashTable<String, Integer> table = new PartitionedHashTable<>(2, 16);
+        PartitionedHashTable<String, Integer>.Session session = table.openSession()) {
+      session.put("a", 1);
+      assertThrows(IllegalStateException.class, () -> session.scan((k, v) -> {
+        throw new IllegalStateException("boom");
+      }));
+      assertEquals(1, session.get("a"));
+    }
+  }
+
+  @Test
+  void closedTable_rejectsWork() throws Exception {
+    PartitionedHashTable<String, Integer> table = new PartitionedHashTable<>(2, 16);
+    PartitionedHashTable<String, Integer>.Session session = table.openSession();
+    session.put("a", 1);
+    table.close();
+    assertThrows(IllegalStateException.class, () -> session.put("b", 2));
+    assertThrows(IllegalStateException.class, table::openSession);
+    table.close(); // second close is a no-op
+  }
+}
@@ -0,0 +1,143 @@
+package Hashing;
+
+import Vehicles.Vehicle;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SwissHashTableTest {
+
+  /** Key with a fixed hash code, so every instance probes the same groups. */
+  private static final class Colliding {
+    final int id;
+
+    Colliding(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Colliding && ((Colliding) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+  }
+
+  @Test
+  void put_get_remove_basic() {
+    SwissHashTable<String, Integer> table = new SwissHashTable<>();
+    assertNull(table.put("a", 1));
+    assertEquals(1, table.put("a", 2));
+    assertEquals(2, table.get("a"));
+    assertTrue(table.containsKey("a"));
+    assertNull(table.get("b"));
+    assertEquals(2, table.remove("a"));
+    assertNull(table.remove("a"));
+    assertEquals(0, table.size());
+  }
+
+  @Test
+  void capacity_isPowerOfTwo_andGroupAligned() {
+    assertTrue(SwissHashTable.GROUP == 16 || SwissHashTable.GROUP == 32);
+    assertEquals(32, new SwissHashTable<>(1).capacity());
+    assertEquals(1024, new SwissHashTable<>(1000).capacity());
+    assertEquals(1024, new SwissHashTable<>(1024).capacity());
+  }
+
+  @Test
+  void fillsToSevenEighths_beforeGrowing() {
+    SwissHashTable<Integer, Integer> table = new SwissHashTable<>(1024);
+    int max = SwissHashTable.maxEntries(1024);
+    for (int i = 0; i < max; i++) {
+      table.put(i, i);
+    }
+    assertEquals(1024, table.capacity());
+    assertEquals(0.875, table.loadFactor(), 1e-9);
+    for (int i = 0; i < max; i++) {
+      assertEquals(i, table.get(i));
+    }
+    table.put(max, max);
+    assertEquals(2048, table.capacity());
+    assertEquals(max + 1, table.size());
+  }
+
+  @Test
+  void vehicleKeys_foundByEqualPlate() {
+    SwissHashTable<Vehicle, String> table = new SwissHashTable<>();
+    for (int code = 0; code < 5000; code++) {
+      table.put(Vehicle.ofPlateCode(code), "v" + code);
+    }
+    assertEquals("v1234", table.get(new Vehicle(Vehicle.ofPlateCode(1234).regNumber())));
+    assertNull(table.get(Vehicle.ofPlateCode(5000)));
+  }
+
+  @Test
+  void collidingKeys_spillIntoLaterGroups() {
+    SwissHashTable<Colliding, Integer> table = new SwissHashTable<>(256);
+    int n = 3 * SwissHashTable.GROUP + 5; // same tag and start group for all of them
+    for (int i = 0; i < n; i++) {
+      table.put(new Colliding(i), i);
+    }
+    for (int i = 0; i < n; i++) {
+      assertEquals(i, table.get(new Colliding(i)));
+    }
+    // Removing from the first, full group leaves tombstones so later keys stay reachable
+    for (int i = 0; i < SwissHashTable.GROUP; i++) {
+      assertEquals(i, table.remove(new Colliding(i)));
+    }
+    assertTrue(table.slotCounts()[1] > 0);
+    for (int i = SwissHashTable.GROUP; i < n; i++) {
+      assertEquals(i, table.get(new Colliding(i)));
+    }
+    // Tombstones are reused
+    table.put(new Colliding(-1), -1);
+    assertEquals(-1, table.get(new Colliding(-1)));
+  }
+
+  @Test
+  void churn_rehashesTombstonesAway_withoutGrowing() {
+    SwissHashTable<Integer, Integer> table = new SwissHashTable<>(512);
+    for (int round = 0; round < 200; round++) {
+      for (int i = 0; i < 200; i++) {
+        table.put(round * 1000 + i, i);
+      }
+      for (int i = 0; i < 200; i++) {
+        assertEquals(i, table.remove(round * 1000 + i));
+      }
+    }
+    assertEquals(0, table.size());
+    assertEquals(512, table.capacity());
+    int[] counts = table.slotCounts();
+    assertEquals(0, counts[0]);
+    assertTrue(counts[2] >= 512 / 8, "at least 1/8 of the slots stay empty");
+  }
+
+  @Test
+  void randomOperations_matchHashMap() {
+    Random rng = new Random(7);
+    SwissHashTable<Integer, Integer> table = new SwissHashTable<>();
+    Map<Integer, Integer> reference = new HashMap<>();
+    for (int i = 0; i < 200_000; i++) {
+      int key = rng.nextInt(5000);
+      switch (rng.nextInt(3)) {
+        case 0:
+          assertEquals(reference.put(key, i), table.put(key, i));
+          break;
+        case 1:
+          assertEquals(reference.remove(key), table.remove(key));
+          break;
+        default:
+          assertEquals(reference.get(key), table.get(key));
+      }
+      assertEquals(reference.size(), table.size());
+    }
+    table.clear();
+    assertEquals(0, table.size());
+    assertNull(table.get(1));
+  }
+}
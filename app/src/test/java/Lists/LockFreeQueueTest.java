@@ -0,0 +1,87 @@
+package Lists;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LockFreeQueueTest {
+
+    @Test
+    void newQueue_isEmpty() {
+        LockFreeQueue<Integer> q = new LockFreeQueue<>();
+        assertTrue(q.isEmpty());
+        assertNull(q.poll());
+        assertThrows(IllegalArgumentException.class, () -> q.offer(null));
+    }
+
+    @Test
+    void poll_returnsElementsInFifoOrder() {
+        for (boolean recycle : new boolean[] {true, false}) {
+            LockFreeQueue<Integer> q = new LockFreeQueue<>(recycle);
+            for (int round = 0; round < 100; round++) {
+                for (int i = 0; i < 100; i++) q.offer(i);
+                assertFalse(q.isEmpty());
+                for (int i = 0; i < 100; i++) assertEquals(i, q.poll());
+                assertTrue(q.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void steadyChurn_reusesNodes() {
+        LockFreeQueue<Integer> q = new LockFreeQueue<>();
+        for (int i = 0; i < 100_000; i++) {
+            q.offer(i);
+            assertEquals(i, q.poll());
+        }
+        assertTrue(q.recycledNodes() > 90_000, "recycled " + q.recycledNodes());
+        assertEquals(0, new LockFreeQueue<Integer>(false).recycledNodes());
+    }
+
+    @Test
+    void concurrentProducersAndConsumers_deliverEachElementOnce() throws Exception {
+        int producers = 3, consumers = 3, perProducer = 100_000;
+        LockFreeQueue<Integer> q = new LockFreeQueue<>();
+        AtomicIntegerArray seen = new AtomicIntegerArray(producers * perProducer);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) q.offer(base + i);
+            }));
+        }
+        int perConsumer = producers * perProducer / consumers;
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                // Each producer's elements must come out in the order it offered them
+                int[] last = new int[producers];
+                java.util.Arrays.fill(last, -1);
+                int taken = 0;
+                while (taken < perConsumer) {
+                    Integer v = q.poll();
+                    if (v == null) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    int p = v / perProducer;
+                    assertTrue(v > last[p], "out of order");
+                    last[p] = v;
+                    seen.incrementAndGet(v);
+                    taken++;
+                }
+            }));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+
+        assertTrue(q.isEmpty());
+        for (int i = 0; i < seen.length(); i++) {
+            assertEquals(1, seen.get(i), "element " + i);
+        }
+        assertTrue(q.recycledNodes() > 0);
+    }
+}
@@ -0,0 +1,95 @@
+package Lists;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledLinkedDequeTest {
+
+    private static List<Integer> toList(Deque<Integer> dq) {
+        List<Integer> out = new ArrayList<>();
+        for (int v : dq) out.add(v);
+        return out;
+    }
+
+    @Test
+    void newDeque_isEmpty_andSizeZero() {
+        Deque<Integer> dq = new PooledLinkedDeque<>();
+        assertTrue(dq.isEmpty());
+        assertEquals(0, dq.size());
+        assertThrows(IllegalStateException.class, dq::removeFirst);
+        assertThrows(IllegalStateException.class, dq::removeLast);
+        assertThrows(IllegalArgumentException.class, () -> dq.addLast(null));
+    }
+
+    @Test
+    void behavesLikeLinkedDeque_underRandomOperations() {
+        Random rng = new Random(3);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+        PooledLinkedDeque<Integer> dq = new PooledLinkedDeque<>(4);
+        for (int i = 0; i < 100_000; i++) {
+            switch (rng.nextInt(4)) {
+                case 0 -> { expected.addFirst(i); dq.addFirst(i); }
+                case 1 -> { expected.addLast(i); dq.addLast(i); }
+                case 2 -> { if (!expected.isEmpty()) assertEquals(expected.removeFirst(), dq.removeFirst()); }
+                default -> { if (!expected.isEmpty()) assertEquals(expected.removeLast(), dq.removeLast()); }
+            }
+            assertEquals(expected.size(), dq.size());
+        }
+        assertEquals(new ArrayList<>(expected), toList(dq));
+    }
+
+    @Test
+    void steadyState_reusesNodes_withoutGrowing() {
+        PooledLinkedDeque<Integer> dq = new PooledLinkedDeque<>(64);
+        for (int i = 0; i < 64; i++) dq.addLast(i);
+        for (int i = 64; i < 1_000_000; i++) {
+            dq.removeFirst();
+            dq.addLast(i);
+        }
+        assertEquals(64, dq.capacity());
+        assertEquals(999_936, dq.removeFirst());
+    }
+
+    @Test
+    void compact_keepsOrder_andShrinksPool() {
+        PooledLinkedDeque<Integer> dq = new PooledLinkedDeque<>(8);
+        for (int i = 0; i < 10_000; i++) dq.addLast(i);
+        for (int i = 0; i < 9_990; i++) {
+            if (i % 2 == 0) dq.removeFirst(); else dq.removeLast();
+        }
+        dq.addFirst(-1);
+        dq.compact();
+        assertEquals(11, dq.size());
+        assertEquals(11, dq.capacity());
+        assertEquals(List.of(-1, 4995, 4996, 4997, 4998, 4999, 5000, 5001, 5002, 5003, 5004), toList(dq));
+        dq.addLast(7);
+        assertEquals(7, dq.removeLast());
+        assertEquals(-1, dq.removeFirst());
+
+        dq.clear();
+        dq.compact();
+        assertTrue(dq.isEmpty());
+        assertEquals(8, dq.capacity());
+        dq.addLast(1);
+        assertEquals(List.of(1), toList(dq));
+    }
+
+    @Test
+    void iterator_failsFast_afterModification() {
+        PooledLinkedDeque<Integer> dq = new PooledLinkedDeque<>();
+        dq.addLast(1);
+        dq.addLast(2);
+        Iterator<Integer> it = dq.iterator();
+        assertEquals(1, it.next());
+        dq.removeFirst();
+        assertThrows(ConcurrentModificationException.class, it::next);
+    }
+}
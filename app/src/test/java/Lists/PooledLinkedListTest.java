@@ -0,0 +1,96 @@
+package Lists;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PooledLinkedListTest {
+
+  private static List<Integer> toList(PooledLinkedList<Integer> list) {
+    List<Integer> out = new ArrayList<>();
+    for (Integer x : list) {
+      out.add(x);
+    }
+    return out;
+  }
+
+  @Test
+  void newList_isEmpty_andSizeZero() {
+    PooledLinkedList<Integer> list = new PooledLinkedList<>();
+    assertTrue(list.isEmpty());
+    assertEquals(0, list.size());
+    assertThrows(IllegalStateException.class, list::removeFirst);
+    assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+    assertThrows(NoSuchElementException.class, () -> list.iterator().next());
+  }
+
+  @Test
+  void matchesMyLinkedList_underRandomOperations() {
+    Random rng = new Random(8);
+    MyLinkedList<Integer> expected = new MyLinkedList<>();
+    PooledLinkedList<Integer> list = new PooledLinkedList<>(2);
+    for (int i = 0; i < 20_000; i++) {
+      int op = rng.nextInt(5);
+      if (op == 0) {
+        expected.addFirst(i);
+        list.addFirst(i);
+      } else if (op == 1) {
+        expected.addLast(i);
+        list.addLast(i);
+      } else if (op == 2 && !expected.isEmpty()) {
+        assertEquals(expected.removeFirst(), list.removeFirst());
+      } else if (op == 3 && !expected.isEmpty()) {
+        assertEquals(expected.removeLast(), list.removeLast());
+      } else if (op == 4) {
+        int mod = 1 + rng.nextInt(7);
+        assertEquals(expected.removeFirstMatch(x -> x % mod == 0), list.removeFirstMatch(x -> x % mod == 0));
+      }
+      assertEquals(expected.size(), list.size());
+    }
+    List<Integer> want = new ArrayList<>();
+    for (Integer x : expected) {
+      want.add(x);
+    }
+    assertEquals(want, toList(list));
+    for (int i = 0; i < list.size(); i += 13) {
+      assertEquals(expected.get(i), list.get(i));
+    }
+  }
+
+  @Test
+  void removeFirstMatch_relinksAndRecyclesNode() {
+    PooledLinkedList<String> list = new PooledLinkedList<>(3);
+    list.addLast("a");
+    list.addLast("b");
+    list.addLast("c");
+    assertTrue(list.removeFirstMatch("b"::equals));
+    assertFalse(list.removeFirstMatch("x"::equals));
+    list.addLast("d"); // reuses b's slot
+    assertEquals(3, list.capacity());
+    assertEquals("a", list.get(0));
+    assertEquals("c", list.get(1));
+    assertEquals("d", list.get(2));
+    assertThrows(NullPointerException.class, () -> list.removeFirstMatch(null));
+  }
+
+  @Test
+  void compact_putsNodesInListOrder() {
+    PooledLinkedList<Integer> list = new PooledLinkedList<>();
+    for (int i = 0; i < 1_000; i++) {
+      list.addFirst(i);
+    }
+    for (int i = 0; i < 500; i++) {
+      list.removeLast();
+    }
+    list.compact();
+    assertEquals(500, list.capacity());
+    assertEquals(999, list.get(0));
+    assertEquals(500, list.get(499));
+    list.clear();
+    assertTrue(list.isEmpty());
+    assertTrue(toList(list).isEmpty());
+  }
+}
@@ -0,0 +1,128 @@
+package Memory;
+
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpochReclaimerTest {
+
+  /** Advances the epoch twice and re-enters, which frees what this thread retired before. */
+  private static void passTwoEpochs(EpochReclaimer<?> reclaimer) {
+    for (int i = 0; i < 2; i++) {
+      assertTrue(reclaimer.tryAdvance());
+      reclaimer.enter().close();
+    }
+  }
+
+  @Test
+  void retired_node_is_reused_after_two_epochs() {
+    EpochReclaimer<Object> reclaimer = new EpochReclaimer<>();
+    Object node = new Object();
+    try (EpochReclaimer.Guard<Object> ignored = reclaimer.enter()) {
+      reclaimer.retire(node);
+    }
+    assertNull(reclaimer.reuse());
+    assertTrue(reclaimer.tryAdvance());
+    reclaimer.enter().close();
+    assertNull(reclaimer.reuse(), "one epoch is not enough");
+    assertTrue(reclaimer.tryAdvance());
+    reclaimer.enter().close();
+    assertSame(node, reclaimer.reuse());
+    assertNull(reclaimer.reuse());
+    assertEquals(1, reclaimer.retired());
+    assertEquals(1, reclaimer.reused());
+    assertEquals(2, reclaimer.epoch());
+  }
+
+  @Test
+  void reader_in_critical_section_holds_back_reuse() throws Exception {
+    EpochReclaimer<Object> reclaimer = new EpochReclaimer<>();
+    CountDownLatch inside = new CountDownLatch(1);
+    CountDownLatch leave = new CountDownLatch(1);
+    Thread reader = new Thread(() -> {
+      try (EpochReclaimer.Guard<Object> ignored = reclaimer.enter()) {
+        inside.countDown();
+        leave.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    reader.start();
+    inside.await();
+
+    Object node = new Object();
+    reclaimer.retire(node);
+    // The reader announced the current epoch, so one advance succeeds but not a second
+    assertTrue(reclaimer.tryAdvance());
+    for (int i = 0; i < 100; i++) {
+      assertFalse(reclaimer.tryAdvance());
+      reclaimer.enter().close();
+      assertNull(reclaimer.reuse());
+    }
+
+    leave.countDown();
+    reader.join();
+    assertTrue(reclaimer.tryAdvance());
+    reclaimer.enter().close();
+    assertSame(node, reclaimer.reuse());
+  }
+
+  @Test
+  void guards_nest() {
+    EpochReclaimer<Object> reclaimer = new EpochReclaimer<>();
+    EpochReclaimer.Guard<Object> outer = reclaimer.enter();
+    EpochReclaimer.Guard<Object> inner = reclaimer.enter();
+    assertSame(outer, inner);
+    assertTrue(reclaimer.tryAdvance());
+    inner.close();
+    // Still inside the outer section, at the old epoch
+    assertFalse(reclaimer.tryAdvance());
+    outer.close();
+    assertTrue(reclaimer.tryAdvance());
+    assertThrows(IllegalStateException.class, outer::close);
+  }
+
+  @Test
+  void spare_nodes_move_between_threads() throws Exception {
+    EpochReclaimer<Object> reclaimer = new EpochReclaimer<>();
+    int nodes = 10 * EpochReclaimer.BATCH;
+    Thread retirer = new Thread(() -> {
+      for (int i = 0; i < nodes; i++) {
+        reclaimer.retire(new Object());
+      }
+      passTwoEpochs(reclaimer);
+      // Fill the spare list past its limit so whole batches reach the shared pool
+      for (int i = 0; i < 2 * EpochReclaimer.BATCH; i++) {
+        reclaimer.retire(new Object());
+      }
+      passTwoEpochs(reclaimer);
+    });
+    retirer.start();
+    retirer.join();
+
+    int reused = 0;
+    while (reclaimer.reuse() != null) {
+      reused++;
+    }
+    assertTrue(reused >= nodes, "only " + reused + " nodes reached this thread");
+    assertEquals(reused, reclaimer.reused());
+  }
+
+  @Test
+  void shared_pool_is_bounded() throws Exception {
+    EpochReclaimer<Object> reclaimer = new EpochReclaimer<>(EpochReclaimer.BATCH);
+    Thread retirer = new Thread(() -> {
+      for (int i = 0; i < 20 * EpochReclaimer.BATCH; i++) {
+        reclaimer.retire(new Object());
+      }
+      passTwoEpochs(reclaimer);
+    });
+    retirer.start();
+    retirer.join();
+    int reused = 0;
+    while (reclaimer.reuse() != null) {
+      reused++;
+    }
+    assertEquals(EpochReclaimer.BATCH, reused);
+  }
+}
@@ -0,0 +1,103 @@
+package Memory;
+
+import Binary.BinarySearchTree;
+import Hashing.HashTable;
+import Lists.LinkedDeque;
+import Lists.MyLinkedList;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FootprintTest {
+  private static final int N = 10_000;
+
+  private static final ObjectLayout LAYOUT = ObjectLayout.current();
+
+  // HotSpot defaults on 64-bit with a heap under 32 GB; the budgets below are for this layout
+  private static boolean defaultLayout() {
+    return LAYOUT.compressedOops() && LAYOUT.compressedClassPointers() && LAYOUT.alignment() == 8;
+  }
+
+  @Test
+  void layout_matches_plain_objects() {
+    long object = LAYOUT.shallowSize(Object.class);
+    assertEquals(0, object % LAYOUT.alignment());
+    assertTrue(object >= LAYOUT.objectHeaderSize());
+    assertTrue(LAYOUT.arraySize(long[].class, 10) >= 80);
+    assertEquals(LAYOUT.arraySize(Object[].class, 0), LAYOUT.sizeOf(new Object[0]));
+    if (defaultLayout()) {
+      assertEquals(16, object);
+      assertEquals(4, LAYOUT.referenceSize());
+      assertEquals(16, LAYOUT.arraySize(int[].class, 0));
+      assertEquals(56, LAYOUT.arraySize(int[].class, 10));
+    }
+  }
+
+  @Test
+  void hash_table_breakdown_counts_every_part() throws Exception {
+    HashTable<Integer, String> table = new HashTable<>();
+    for (int i = 0; i < N; i++) {
+      table.put(i, "v" + i);
+    }
+    Footprint f = Footprint.of(table);
+
+    Class<?> entry = HashTable.Entry.class;
+    Class<?> node = Class.forName("Lists.MyLinkedList$Node");
+    assertEquals(N, f.countOf(entry));
+    assertEquals(N, f.countOf(node));
+    assertEquals(table.stats().nonEmptyBuckets(), f.countOf(MyLinkedList.class));
+    assertEquals(1, f.countOf(MyLinkedList[].class));
+    assertEquals(LAYOUT.arraySize(MyLinkedList[].class, table.capacity()), f.bytesOf(MyLinkedList[].class));
+    assertEquals(N * LAYOUT.shallowSize(entry), f.bytesOf(entry));
+    // Keys and values are elements: counted, not sized
+    assertEquals(2 * N, f.elementCount());
+    assertEquals(0, f.countOf(Integer.class));
+    assertEquals(0, f.countOf(String.class));
+
+    long sum = 0;
+    for (Class<?> c : f.classes()) {
+      sum += f.bytesOf(c);
+    }
+    assertEquals(f.totalBytes(), sum);
+  }
+
+  @Test
+  void per_entry_cost_stays_within_budget() throws Exception {
+    LinkedDeque<Integer> deque = new LinkedDeque<>();
+    BinarySearchTree<Integer> tree = new BinarySearchTree<>();
+    HashTable<Integer, Integer> table = new HashTable<>();
+    Random rng = new Random(1);
+    for (int i = 0; i < N; i++) {
+      Integer e = rng.nextInt();
+      deque.addLast(e);
+      tree.add(e);
+      table.put(e, e);
+    }
+    Footprint d = Footprint.of(deque);
+    Footprint t = Footprint.of(tree);
+    Footprint h = Footprint.of(table);
+    assertEquals(N, d.countOf(Class.forName("Lists.LinkedDeque$Node")));
+    assertEquals(tree.size(), t.countOf(Class.forName("Binary.BinarySearchTree$Node")));
+
+    if (defaultLayout()) {
+      // Raise these deliberately when a change is meant to cost memory
+      assertEquals(24, LAYOUT.shallowSize(HashTable.Entry.class));
+      assertEquals(24, LAYOUT.shallowSize(Class.forName("Lists.MyLinkedList$Node")));
+      assertEquals(24, LAYOUT.shallowSize(Class.forName("Lists.LinkedDeque$Node")));
+      assertEquals(24, LAYOUT.shallowSize(Class.forName("Binary.BinarySearchTree$Node")));
+      assertTrue(d.bytesPerEntry(deque.size()) <= 24.1, d.toString());
+      assertTrue(t.bytesPerEntry(tree.size()) <= 24.1, t.toString());
+      assertTrue(h.bytesPerEntry(table.size()) <= 96, h.toString());
+    }
+  }
+
+  @Test
+  void long_chains_do_not_overflow_the_stack() {
+    MyLinkedList<Integer> list = new MyLinkedList<>();
+    for (int i = 0; i < 500_000; i++) {
+      list.addLast(i);
+    }
+    Footprint f = Footprint.of(list);
+    assertEquals(500_001, f.objectCount());
+  }
+}
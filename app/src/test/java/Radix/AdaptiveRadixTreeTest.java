@@ -0,0 +1,141 @@
+package Radix;
+
+import Vehicles.PlateCodec;
+import Vehicles.Vehicle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveRadixTreeTest {
+
+  private static List<String> plates(Iterable<AdaptiveRadixTree.Entry<Integer>> entries) {
+    List<String> out = new ArrayList<>();
+    for (AdaptiveRadixTree.Entry<Integer> e : entries) {
+      out.add(e.plate);
+    }
+    return out;
+  }
+
+  private static SortedMap<String, Integer> startingWith(TreeMap<String, Integer> map, String prefix) {
+    return map.subMap(prefix, prefix + Character.MAX_VALUE);
+  }
+
+  @Test
+  void put_get_remove_basic() {
+    AdaptiveRadixTree<String> tree = new AdaptiveRadixTree<>();
+    assertNull(tree.put("ABC123", "a"));
+    assertEquals("a", tree.put("abc123", "b"));
+    assertEquals("b", tree.get("ABC123"));
+    assertEquals("b", tree.get(new Vehicle(" abc123 ")));
+    assertTrue(tree.containsKey("ABC123"));
+    assertFalse(tree.containsKey("ABC124"));
+    assertNull(tree.get("not a plate"));
+    assertEquals(1, tree.size());
+    assertEquals("b", tree.remove("ABC123"));
+    assertNull(tree.remove("ABC123"));
+    assertTrue(tree.isEmpty());
+  }
+
+  @Test
+  void invalid_plates_and_prefixes_throw() {
+    AdaptiveRadixTree<String> tree = new AdaptiveRadixTree<>();
+    assertThrows(IllegalArgumentException.class, () -> tree.put("AB1234", "x"));
+    assertThrows(IllegalArgumentException.class, () -> tree.withPrefix("A1"));
+    assertThrows(IllegalArgumentException.class, () -> tree.withPrefix("ABC1234"));
+    assertThrows(IllegalArgumentException.class, () -> tree.withPrefix("ABC12Å"));
+  }
+
+  @Test
+  void matches_sorted_map_under_random_updates() {
+    Random rnd = new Random(7);
+    AdaptiveRadixTree<Integer> tree = new AdaptiveRadixTree<>();
+    TreeMap<String, Integer> expected = new TreeMap<>();
+    // A narrow code range gives shared prefixes and every node size
+    for (int i = 0; i < 50_000; i++) {
+      String plate = PlateCodec.decode(rnd.nextInt(200_000));
+      if (rnd.nextInt(4) == 0) {
+        assertEquals(expected.remove(plate), tree.remove(plate));
+      } else {
+        assertEquals(expected.put(plate, i), tree.put(plate, i));
+      }
+    }
+    assertEquals(expected.size(), tree.size());
+    for (Map.Entry<String, Integer> e : expected.entrySet()) {
+      assertEquals(e.getValue(), tree.get(e.getKey()));
+    }
+    assertEquals(new ArrayList<>(expected.keySet()), plates(tree));
+  }
+
+  @Test
+  void prefix_scans_match_sorted_map() {
+    Random rnd = new Random(11);
+    AdaptiveRadixTree<Integer> tree = new AdaptiveRadixTree<>();
+    TreeMap<String, Integer> expected = new TreeMap<>();
+    for (int i = 0; i < 20_000; i++) {
+      String plate = PlateCodec.decode(rnd.nextInt(PlateCodec.PLATE_COUNT));
+      tree.put(plate, i);
+      expected.put(plate, i);
+    }
+    tree.put("ÄÅÖ99Z", -1);
+    expected.put("ÄÅÖ99Z", -1);
+    String[] prefixes = {"", "A", "AB", "ABC", "ÄÅÖ", "ÄÅÖ9", "ÄÅÖ99Z", "ZZZ", "Ö", "KLM0", "QRS12"};
+    for (String prefix : prefixes) {
+      SortedMap<String, Integer> range = startingWith(expected, prefix);
+      assertEquals(new ArrayList<>(range.keySet()), plates(tree.withPrefix(prefix)), prefix);
+      assertEquals(range.size(), tree.countWithPrefix(prefix.toLowerCase()), prefix);
+    }
+    for (AdaptiveRadixTree.Entry<Integer> e : tree.withPrefix("B")) {
+      assertEquals(expected.get(e.plate), e.value);
+    }
+  }
+
+  @Test
+  void nodes_grow_and_shrink_with_fan_out() {
+    AdaptiveRadixTree<Integer> tree = new AdaptiveRadixTree<>();
+    // Last character varies: one inner node with up to 36 children
+    for (int i = 0; i < 4; i++) {
+      tree.put("ABC12" + i, i);
+    }
+    assertArrayEquals(new int[] {4, 1, 0, 0}, tree.nodeCounts());
+    tree.put("ABC124", 4);
+    assertArrayEquals(new int[] {5, 0, 1, 0}, tree.nodeCounts());
+    for (char c = 'A'; c <= 'Z'; c++) {
+      tree.put("ABC12" + c, 0);
+    }
+    assertArrayEquals(new int[] {31, 0, 0, 1}, tree.nodeCounts());
+
+    for (char c = 'A'; c <= 'Z'; c++) {
+      tree.remove("ABC12" + c);
+    }
+    assertArrayEquals(new int[] {5, 0, 1, 0}, tree.nodeCounts());
+    tree.remove("ABC124");
+    tree.remove("ABC123");
+    assertArrayEquals(new int[] {3, 1, 0, 0}, tree.nodeCounts());
+    tree.remove("ABC122");
+    tree.remove("ABC121");
+    // A single key is a leaf at the root
+    assertArrayEquals(new int[] {1, 0, 0, 0}, tree.nodeCounts());
+    assertEquals(List.of("ABC120"), plates(tree));
+  }
+
+  @Test
+  void compressed_paths_split_where_keys_part() {
+    AdaptiveRadixTree<Integer> tree = new AdaptiveRadixTree<>();
+    tree.put("ABC123", 1);
+    tree.put("ABD123", 2);
+    tree.put("ABC124", 3);
+    // Node at depth 2 (C/D), and below C a node at depth 5 (3/4)
+    assertArrayEquals(new int[] {3, 2, 0, 0}, tree.nodeCounts());
+    assertEquals(List.of("ABC123", "ABC124"), plates(tree.withPrefix("ABC1")));
+    assertEquals(List.of("ABD123"), plates(tree.withPrefix("ABD")));
+    assertEquals(List.of(), plates(tree.withPrefix("ABE")));
+    assertEquals(List.of(), plates(tree.withPrefix("ABC2")));
+    assertEquals(List.of(), plates(tree.withPrefix("ABD9")));
+    assertNull(tree.get("ABE123"));
+  }
+}
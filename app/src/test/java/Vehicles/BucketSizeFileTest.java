@@ -0,0 +1,116 @@
+package Vehicles;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketSizeFileTest {
+
+  private static int[] poissonLike(int buckets, long seed) {
+    Random rng = new Random(seed);
+    int[] sizes = new int[buckets];
+    for (int i = 0; i < buckets * 3 / 4; i++) {
+      sizes[rng.nextInt(buckets)]++;
+    }
+    return sizes;
+  }
+
+  private static int[] roundTrip(int[] sizes, BucketSizeFile.Encoding encoding) throws IOException {
+    Path file = Files.createTempFile("buckets", ".bin");
+    try {
+      BucketSizeFile.write(file, sizes, encoding);
+      try (BucketSizeFile in = BucketSizeFile.open(file)) {
+        assertEquals(encoding, in.encoding());
+        assertEquals(sizes.length, in.bucketCount());
+        assertEquals(Files.size(file), in.fileBytes());
+        return in.toArray();
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void every_encoding_round_trips() throws IOException {
+    int[][] inputs = {
+        new int[0],
+        { 0 },
+        { 5, 5, 5, 0, 0, 1 },
+        { 0, 300, 0, Integer.MAX_VALUE, 1, 128 },
+        poissonLike(50_000, 1),
+    };
+    for (BucketSizeFile.Encoding encoding : BucketSizeFile.Encoding.values()) {
+      for (int[] sizes : inputs) {
+        assertArrayEquals(sizes, roundTrip(sizes, encoding), encoding.name());
+      }
+    }
+  }
+
+  @Test
+  void raw_files_support_random_access() throws IOException {
+    int[] sizes = poissonLike(10_000, 2);
+    Path file = Files.createTempFile("buckets", ".bin");
+    try {
+      BucketSizeFile.write(file, sizes, BucketSizeFile.Encoding.RAW);
+      try (BucketSizeFile in = BucketSizeFile.open(file)) {
+        for (int i = sizes.length - 1; i >= 0; i -= 37) {
+          assertEquals(sizes[i], in.sizeAt(i));
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> in.sizeAt(sizes.length));
+      }
+      BucketSizeFile.write(file, sizes, BucketSizeFile.Encoding.DELTA);
+      try (BucketSizeFile in = BucketSizeFile.open(file)) {
+        assertThrows(UnsupportedOperationException.class, () -> in.sizeAt(0));
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void automatic_encoding_picks_the_smallest_file() throws IOException {
+    int[] sparse = new int[100_000];
+    sparse[10] = 3;
+    sparse[99_000] = 1;
+    Path file = Files.createTempFile("buckets", ".bin");
+    try {
+      assertEquals(BucketSizeFile.Encoding.RLE, BucketSizeFile.write(file, sparse));
+      assertTrue(Files.size(file) < 64);
+
+      int[] dense = poissonLike(100_000, 3);
+      assertEquals(BucketSizeFile.Encoding.DELTA, BucketSizeFile.write(file, dense));
+      assertTrue(Files.size(file) < dense.length * 2L);
+      try (BucketSizeFile in = BucketSizeFile.open(file)) {
+        assertArrayEquals(dense, in.toArray());
+      }
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void csv_output_matches_the_original_format() throws IOException {
+    Path file = Files.createTempFile("buckets", ".csv");
+    try {
+      BucketSizeFile.writeCsv(file, new int[] { 0, 12, 3 });
+      assertEquals(List.of("bucket,size", "0,0", "1,12", "2,3"), Files.readAllLines(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  void foreign_files_are_rejected() throws IOException {
+    Path file = Files.createTempFile("buckets", ".bin");
+    try {
+      Files.write(file, "bucket,size\n0,1\n1,0\n".getBytes());
+      assertThrows(IOException.class, () -> BucketSizeFile.open(file));
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package Vehicles;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleTest {
+
+  @Test
+  void valid_plates_are_normalized() {
+    assertEquals("ABC123", new Vehicle("ABC123").regNumber());
+    assertEquals("ABC12D", new Vehicle("  abc12d ").regNumber());
+    assertEquals("ÅÄÖ999", new Vehicle("åäÖ999").regNumber());
+    assertEquals(new Vehicle("abc123"), new Vehicle("ABC123"));
+  }
+
+  @Test
+  void invalid_plates_are_rejected() {
+    String[] invalid = { "", "AB123", "ABCD123", "AB1234", "ABC1A3", "ABC12Å", "A C123", "ABC-12" };
+    for (String plate : invalid) {
+      assertFalse(Vehicle.isValidPlate(plate), plate);
+      assertThrows(IllegalArgumentException.class, () -> new Vehicle(plate));
+    }
+    assertThrows(NullPointerException.class, () -> new Vehicle(null));
+    assertFalse(Vehicle.isValidPlate(null));
+  }
+
+  @Test
+  void validator_folds_only_plate_letters() {
+    // toUpperCase turns these into plate letters, so the regex accepts them
+    for (String plate : new String[] {"ßA123", "ıBC123", "ABı123", "ſBC123"}) {
+      assertTrue(Vehicle.matchesPattern(plate), plate);
+      assertFalse(Vehicle.isValidPlate(plate), plate);
+    }
+    // Folding is independent of the locale; a Turkish one would upper-case 'i' to 'İ'
+    assertEquals(PlateCodec.encode("ABI123"), PlateCodec.encode("abi123"));
+    assertFalse(Vehicle.isValidPlate("ABİ123"));
+  }
+
+  @Test
+  void validator_agrees_with_regex_on_random_input() {
+    String alphabet = "ABCXYZabcxyzÅÄÖåäö0159 -_";
+    Random rng = new Random(7);
+    for (int n = 0; n < 200_000; n++) {
+      int len = 4 + rng.nextInt(5);
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < len; i++) {
+        // Bias towards well-formed plates so both outcomes are exercised
+        boolean letterSlot = sb.length() < 3 || (sb.length() == 5 && rng.nextBoolean());
+        sb.append(rng.nextInt(4) == 0 ? alphabet.charAt(rng.nextInt(alphabet.length()))
+            : letterSlot ? (char) ('A' + rng.nextInt(26)) : (char) ('0' + rng.nextInt(10)));
+      }
+      String plate = sb.toString();
+      assertEquals(Vehicle.matchesPattern(plate), Vehicle.isValidPlate(plate), plate);
+    }
+  }
+
+  @Test
+  void plate_code_round_trips() {
+    String[] plates = { "AAA000", "ÖÖÖ99Z", "ABC123", "XYZ12A", "ÅBÄ459" };
+    for (String plate : plates) {
+      int code = PlateCodec.encode(plate);
+      assertTrue(code >= 0 && code < PlateCodec.PLATE_COUNT, plate);
+      assertEquals(plate, PlateCodec.decode(code));
+      assertEquals(code, new Vehicle(plate).plateCode());
+    }
+    assertEquals(0, PlateCodec.encode("AAA000"));
+    assertEquals(PlateCodec.PLATE_COUNT - 1, PlateCodec.encode("ÖÖÖ99Z"));
+    assertEquals(PlateCodec.INVALID, PlateCodec.encode("ABC12Ö"));
+    assertThrows(IllegalArgumentException.class, () -> PlateCodec.decode(PlateCodec.PLATE_COUNT));
+  }
+
+  @Test
+  void hashCode_is_unchanged_and_cached() {
+    Vehicle v = new Vehicle("abc123");
+    int expected = 17;
+    for (char c : "ABC123".toCharArray())
+      expected = 31 * expected + c;
+    assertEquals(expected, v.hashCode());
+    assertEquals(expected, v.hashCode());
+  }
+}